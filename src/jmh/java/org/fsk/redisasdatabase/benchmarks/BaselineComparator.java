@@ -0,0 +1,45 @@
+package org.fsk.redisasdatabase.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Güncel sonuçları baseline ile karşılaştırır; tolerans dışındaki kötüleşmeleri döner.
+// SampleTime sonuçlarında ortalamanın yanında p99 da ayrıca karşılaştırılır.
+final class BaselineComparator {
+
+    private BaselineComparator() {
+    }
+
+    static List<String> compare(List<BenchmarkScore> current, List<BenchmarkScore> baseline, double tolerance) {
+        Map<String, BenchmarkScore> previous = baseline.stream()
+                .collect(Collectors.toMap(BenchmarkScore::key, Function.identity(), (first, second) -> second));
+        List<String> regressions = new ArrayList<>();
+        for (BenchmarkScore score : current) {
+            BenchmarkScore before = previous.get(score.key());
+            if (before == null || before.score() == 0 || !before.mode().equals(score.mode())) {
+                System.out.printf("%-90s %14.3f %s (baseline yok)%n", score.key(), score.score(), score.unit());
+                continue;
+            }
+            check(score.key(), before.score(), score.score(), score.unit(), score.higherIsBetter(), tolerance,
+                    regressions);
+            if (score.p99() != null && before.p99() != null && before.p99() != 0) {
+                check(score.key() + " p99", before.p99(), score.p99(), score.unit(), false, tolerance, regressions);
+            }
+        }
+        return regressions;
+    }
+
+    private static void check(String key, double before, double current, String unit, boolean higherIsBetter,
+                              double tolerance, List<String> regressions) {
+        double change = (current - before) / before;
+        double worsening = higherIsBetter ? -change : change;
+        String line = String.format("%-90s %14.3f -> %14.3f %s (%+.1f%%)", key, before, current, unit, change * 100);
+        System.out.println(line);
+        if (worsening > tolerance) {
+            regressions.add(line);
+        }
+    }
+}
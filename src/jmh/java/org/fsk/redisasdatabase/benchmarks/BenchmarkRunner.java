@@ -0,0 +1,68 @@
+package org.fsk.redisasdatabase.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Benchmarkları her thread sayısı için çalıştırır, sonuçları JSON'a yazar ve baseline ile karşılaştırır.
+// Sistem özellikleri pom.xml'deki benchmark profilinden gelir.
+public final class BenchmarkRunner {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = System.getProperty("benchmark.include", ".*");
+        Path result = Path.of(System.getProperty("benchmark.result", "target/jmh-result.json"));
+        Path baseline = Path.of(System.getProperty("benchmark.baseline", "benchmarks/baseline.json"));
+        double tolerance = Double.parseDouble(System.getProperty("benchmark.tolerance", "0.10"));
+        boolean updateBaseline = Boolean.parseBoolean(System.getProperty("benchmark.update-baseline", "false"));
+        String redisServer = System.getProperty("benchmark.redis-server", "redis-server");
+
+        List<BenchmarkScore> scores = new ArrayList<>();
+        for (String threads : System.getProperty("benchmark.threads", "1").split(",")) {
+            Options options = new OptionsBuilder()
+                    .include(BenchmarkRunner.class.getPackageName() + ".*(" + include + ").*")
+                    .threads(Integer.parseInt(threads.trim()))
+                    .jvmArgsAppend("-Dbenchmark.redis-server=" + redisServer)
+                    .build();
+            for (RunResult runResult : new Runner(options).run()) {
+                scores.add(BenchmarkScore.of(runResult));
+            }
+        }
+
+        Files.createDirectories(result.toAbsolutePath().getParent());
+        MAPPER.writeValue(result.toFile(), scores);
+        System.out.println("Sonuçlar yazıldı: " + result);
+
+        if (updateBaseline || !Files.exists(baseline)) {
+            Files.createDirectories(baseline.toAbsolutePath().getParent());
+            MAPPER.writeValue(baseline.toFile(), scores);
+            System.out.println("Baseline güncellendi: " + baseline);
+            return;
+        }
+
+        List<BenchmarkScore> previous = MAPPER.readValue(baseline.toFile(), new TypeReference<>() {
+        });
+        List<String> regressions = BaselineComparator.compare(scores, previous, tolerance);
+        if (!regressions.isEmpty()) {
+            System.err.printf("%d benchmark baseline'a göre %%%.0f'den fazla kötüleşti:%n",
+                    regressions.size(), tolerance * 100);
+            regressions.forEach(System.err::println);
+            System.exit(1);
+        }
+    }
+}
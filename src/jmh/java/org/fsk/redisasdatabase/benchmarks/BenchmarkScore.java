@@ -0,0 +1,35 @@
+package org.fsk.redisasdatabase.benchmarks;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.RunResult;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+// Baseline dosyasındaki tek satır; benchmark adı, parametreler ve thread sayısı birlikte anahtardır.
+// p99 sadece örneklenmiş süre (SampleTime) modunda dolar, diğer modlarda null'dır.
+record BenchmarkScore(String benchmark, Map<String, String> params, int threads, String mode,
+                      double score, double error, String unit, Double p99) {
+
+    static BenchmarkScore of(RunResult result) {
+        Map<String, String> params = new TreeMap<>();
+        for (String key : result.getParams().getParamsKeys()) {
+            params.put(key, result.getParams().getParam(key));
+        }
+        Double p99 = result.getParams().getMode() == Mode.SampleTime
+                ? result.getPrimaryResult().getStatistics().getPercentile(99.0)
+                : null;
+        return new BenchmarkScore(result.getParams().getBenchmark(), params, result.getParams().getThreads(),
+                result.getParams().getMode().shortLabel(), result.getPrimaryResult().getScore(),
+                result.getPrimaryResult().getScoreError(), result.getPrimaryResult().getScoreUnit(), p99);
+    }
+
+    String key() {
+        return benchmark + new TreeMap<>(params) + "@" + threads + "t";
+    }
+
+    // Throughput modunda yüksek, süre modlarında düşük skor iyidir
+    boolean higherIsBetter() {
+        return "thrpt".equals(mode);
+    }
+}
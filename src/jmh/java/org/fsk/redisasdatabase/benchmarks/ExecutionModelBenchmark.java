@@ -0,0 +1,82 @@
+package org.fsk.redisasdatabase.benchmarks;
+
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.repositories.CustomerRepository;
+import org.fsk.redisasdatabase.repositories.ProductRepository;
+import org.fsk.redisasdatabase.services.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Eşzamanlı checkout patlaması: Tomcat'in varsayılan 200 platform thread'lik havuzu ile virtual thread modu.
+// Her çağrı aynı anda gelen "concurrency" kadar siparişi işler; skor patlamanın tamamlanma süresidir.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutionModelBenchmark {
+
+    private static final int PLATFORM_POOL_SIZE = 200;
+
+    @Param({"platform", "virtual"})
+    public String executionModel;
+
+    @Param({"200", "2000"})
+    public int concurrency;
+
+    private OrderService orderService;
+    private String customerId;
+    private List<String> productIds;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup(RedisEnvironment environment) {
+        orderService = environment.bean(OrderService.class);
+        Customer customer = environment.bean(CustomerRepository.class).save(Fixtures.customer());
+        customerId = customer.getId();
+        List<Product> catalog = Fixtures.catalog(1_000);
+        environment.bean(ProductRepository.class).saveAll(catalog);
+        productIds = catalog.stream().map(Product::getId).toList();
+        executor = "virtual".equals(executionModel)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_POOL_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int checkoutBurst() throws InterruptedException, ExecutionException {
+        List<Future<?>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(executor.submit(() -> orderService.createOrder(customerId, Fixtures.pick(productIds, 3))));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return futures.size();
+    }
+}
@@ -0,0 +1,56 @@
+package org.fsk.redisasdatabase.benchmarks;
+
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Benchmarklarda kullanılan örnek veri
+final class Fixtures {
+
+    // Ölçüm boyunca stok bitmesin
+    static final int UNLIMITED_STOCK = 1_000_000_000;
+
+    private Fixtures() {
+    }
+
+    static Customer customer() {
+        return new Customer(UUID.randomUUID().toString(), "Benchmark Müşteri", "bench@example.com", "5550000000");
+    }
+
+    static List<Product> catalog(int size) {
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(new Product(UUID.randomUUID().toString(), "Ürün " + i,
+                    BigDecimal.valueOf(100 + i % 900, 2), UNLIMITED_STOCK, null, null, null));
+        }
+        return products;
+    }
+
+    static Order order(int productsPerOrder) {
+        Set<Product> products = new HashSet<>();
+        for (Product product : catalog(productsPerOrder)) {
+            products.add(product);
+        }
+        return new Order(UUID.randomUUID().toString(), LocalDateTime.now(), new BigDecimal("149.90"),
+                customer(), products);
+    }
+
+    // Katalogdan tekrarsız rastgele ürün ID'leri
+    static Set<String> pick(List<String> ids, int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Set<String> picked = new HashSet<>(count * 2);
+        while (picked.size() < count) {
+            picked.add(ids.get(random.nextInt(ids.size())));
+        }
+        return picked;
+    }
+}
@@ -0,0 +1,76 @@
+package org.fsk.redisasdatabase.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.fsk.redisasdatabase.configurations.RedisTopology;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.journal.FsyncPolicy;
+import org.fsk.redisasdatabase.journal.Journal;
+import org.fsk.redisasdatabase.journal.JournalOperation;
+import org.fsk.redisasdatabase.journal.JournalSequence;
+import org.fsk.redisasdatabase.mappers.EntityHashMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Journal group commit verimi. ALWAYS politikasında her çağıran fsync'i bekler; thread sayısı arttıkça
+// aynı fsync'e düşen kayıt sayısı (journal.batch.size) ve toplam verim artmalıdır.
+// Thread sayısı -Dbenchmark.threads ile verilir, ör. -Dbenchmark.include=Journal -Dbenchmark.threads=1,4,16
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalBenchmark {
+
+    @Param({"NEVER", "INTERVAL", "ALWAYS"})
+    public FsyncPolicy fsync;
+
+    private Path directory;
+    private Journal journal;
+    private String orderId;
+    private Map<String, String> orderHash;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        // Redis sırası alınmaz (sayaç kapalı), sadece dosyaya yazım ölçülür
+        journal = new Journal(new SimpleMeterRegistry(), new JournalSequence(null, false, RedisTopology.STANDALONE),
+                true, directory, DataSize.ofMegabytes(64), fsync, Duration.ofMillis(100), Duration.ofSeconds(5),
+                1024, 65536);
+        journal.open();
+        Order order = Fixtures.order(5);
+        orderId = order.getId();
+        orderHash = new EntityHashMapper().toHash(order);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void appendOrder() {
+        journal.append(JournalOperation.ORDER_CREATED, orderId, orderHash);
+    }
+}
@@ -0,0 +1,113 @@
+package org.fsk.redisasdatabase.benchmarks;
+
+import org.fsk.redisasdatabase.RedisAsDatabaseApplication;
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.logging.DebugSamplingFilter;
+import org.fsk.redisasdatabase.repositories.CustomerRepository;
+import org.fsk.redisasdatabase.repositories.ProductRepository;
+import org.fsk.redisasdatabase.services.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Checkout gecikmesinin log I/O'ya bağımlılığı: senkron appender'lar (sync-logging profili) ile async kuyruk,
+// DEBUG izleri her istekte ya da örneklenerek. Uygulama seviyesi DEBUG, loglar geçici dizindeki dosyalara yazılır
+// (console kapalı). Skor örneklenmiş süredir, BenchmarkScore p99'u da kaydeder.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+
+    @Param({"sync", "async"})
+    public String appenders;
+
+    @Param({"1.0", "0.01"})
+    public double debugSampleRate;
+
+    private RedisServerProcess server;
+    private ConfigurableApplicationContext context;
+    private Path logDirectory;
+    private OrderService orderService;
+    private String customerId;
+    private List<String> productIds;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        server = RedisServerProcess.start(System.getProperty("benchmark.redis-server", "redis-server"));
+        logDirectory = Files.createTempDirectory("logging-benchmark");
+        List<String> args = new ArrayList<>(List.of("--spring.data.redis.port=" + server.port(),
+                "--spring.main.banner-mode=off",
+                "--app.product-cache.enabled=false",
+                "--app.logging.path=" + logDirectory,
+                "--app.logging.console-level=OFF",
+                "--logging.level.org.fsk.redisasdatabase=DEBUG"));
+        if ("sync".equals(appenders)) {
+            args.add("--spring.profiles.active=sync-logging");
+        }
+        context = new SpringApplicationBuilder(RedisAsDatabaseApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(new String[0]));
+
+        orderService = context.getBean(OrderService.class);
+        Customer customer = context.getBean(CustomerRepository.class).save(Fixtures.customer());
+        customerId = customer.getId();
+        List<Product> catalog = Fixtures.catalog(1_000);
+        context.getBean(ProductRepository.class).saveAll(catalog);
+        productIds = catalog.stream().map(Product::getId).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (context != null) {
+            context.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+        try (Stream<Path> files = Files.walk(logDirectory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // HTTP filtresinin yaptığı gibi her çağrı bir istek bağlamında, örnekleme kararıyla çalışır
+    @Benchmark
+    public Order createOrder() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        DebugSamplingFilter.beginRequest(Long.toHexString(random.nextLong()), random.nextDouble() < debugSampleRate);
+        try {
+            return orderService.createOrder(customerId, Fixtures.pick(productIds, 3));
+        } finally {
+            DebugSamplingFilter.endRequest();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.fsk.redisasdatabase.benchmarks;
+
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.mappers.EntityHashMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.convert.MappingRedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Entity -> hash dönüşümü: EntityHashMapper ile repository'nin kullandığı MappingRedisConverter karşılaştırması
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"1", "5", "20"})
+    public int productsPerOrder;
+
+    private final EntityHashMapper mapper = new EntityHashMapper();
+    private MappingRedisConverter converter;
+    private Order order;
+    private Map<String, String> hash;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        converter = new MappingRedisConverter(new RedisMappingContext(), null, null);
+        converter.afterPropertiesSet();
+        order = Fixtures.order(productsPerOrder);
+        hash = mapper.toHash(order);
+    }
+
+    @Benchmark
+    public Map<String, String> objectToHash() {
+        return mapper.toHash(order);
+    }
+
+    @Benchmark
+    public Order hashToObject() {
+        return mapper.fromHash(hash, Order.class);
+    }
+
+    @Benchmark
+    public RedisData converterWrite() {
+        RedisData data = new RedisData();
+        converter.write(order, data);
+        return data;
+    }
+}
@@ -0,0 +1,58 @@
+package org.fsk.redisasdatabase.benchmarks;
+
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.repositories.CustomerRepository;
+import org.fsk.redisasdatabase.repositories.ProductRepository;
+import org.fsk.redisasdatabase.services.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Sipariş oluşturma yolu: checkout script'i, stok düşümü ve indeks güncellemeleri
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderBenchmark {
+
+    @Param({"1", "5", "20"})
+    public int productsPerOrder;
+
+    @Param({"100", "10000"})
+    public int catalogSize;
+
+    private OrderService orderService;
+    private String customerId;
+    private List<String> productIds;
+
+    @Setup(Level.Trial)
+    public void setup(RedisEnvironment environment) {
+        orderService = environment.bean(OrderService.class);
+        Customer customer = environment.bean(CustomerRepository.class).save(Fixtures.customer());
+        customerId = customer.getId();
+        List<Product> catalog = Fixtures.catalog(catalogSize);
+        environment.bean(ProductRepository.class).saveAll(catalog);
+        productIds = catalog.stream().map(Product::getId).toList();
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        return orderService.createOrder(customerId, Fixtures.pick(productIds, productsPerOrder));
+    }
+}
@@ -0,0 +1,48 @@
+package org.fsk.redisasdatabase.benchmarks;
+
+import org.fsk.redisasdatabase.RedisAsDatabaseApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Redis'e giden benchmarkların ortak durumu: her fork kendi redis-server'ını ve uygulama context'ini açar.
+// HTTP katmanı ve near-cache kapalıdır, ölçülen şey servis/repository veri yoludur.
+@State(Scope.Benchmark)
+public class RedisEnvironment {
+
+    private RedisServerProcess server;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        server = RedisServerProcess.start(System.getProperty("benchmark.redis-server", "redis-server"));
+        context = new SpringApplicationBuilder(RedisAsDatabaseApplication.class)
+                .web(WebApplicationType.NONE)
+                // application.yml'i ezmesi için komut satırı argümanı olarak verilir
+                .run("--spring.data.redis.port=" + server.port(),
+                        "--spring.main.banner-mode=off",
+                        "--app.product-cache.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.fsk.redisasdatabase=WARN",
+                        "--logging.level.org.springframework=WARN");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
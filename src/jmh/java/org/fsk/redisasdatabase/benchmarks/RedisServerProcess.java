@@ -0,0 +1,103 @@
+package org.fsk.redisasdatabase.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Benchmark için boş bir portta kalıcılığı kapalı, geçici bir redis-server başlatır
+final class RedisServerProcess implements AutoCloseable {
+
+    private static final long STARTUP_TIMEOUT_MS = 10_000;
+
+    private final Process process;
+    private final int port;
+
+    private RedisServerProcess(Process process, int port) {
+        this.process = process;
+        this.port = port;
+    }
+
+    static RedisServerProcess start(String executable) {
+        int port = freePort();
+        try {
+            Process process = new ProcessBuilder(List.of(executable, "--port", String.valueOf(port),
+                    "--save", "", "--appendonly", "no"))
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            RedisServerProcess server = new RedisServerProcess(process, port);
+            server.awaitReady();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException("redis-server başlatılamadı (" + executable
+                    + "), -Dbenchmark.redis-server ile yolunu verin", e);
+        }
+    }
+
+    int port() {
+        return port;
+    }
+
+    private void awaitReady() {
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("redis-server açılışta kapandı, çıkış kodu: " + process.exitValue());
+            }
+            if (ping()) {
+                return;
+            }
+            sleep();
+        }
+        close();
+        throw new IllegalStateException("redis-server " + port + " portunda hazır olmadı");
+    }
+
+    private boolean ping() {
+        try (Socket socket = new Socket("localhost", port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write("PING\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            byte[] reply = in.readNBytes(5);
+            return "+PONG".equals(new String(reply, StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("redis-server beklenirken kesildi", e);
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new IllegalStateException("Boş port bulunamadı", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        process.destroy();
+        try {
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        }
+    }
+}
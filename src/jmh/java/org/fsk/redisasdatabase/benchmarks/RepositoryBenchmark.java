@@ -0,0 +1,64 @@
+package org.fsk.redisasdatabase.benchmarks;
+
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.repositories.ProductRepository;
+import org.fsk.redisasdatabase.services.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Repository okumaları; findAll'un SSCAN tabanlı akışla karşılaştırması için streamProducts da ölçülür
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    @Param({"100", "1000"})
+    public int catalogSize;
+
+    private ProductRepository productRepository;
+    private ProductService productService;
+    private List<String> productIds;
+
+    @Setup(Level.Trial)
+    public void setup(RedisEnvironment environment) {
+        productRepository = environment.bean(ProductRepository.class);
+        productService = environment.bean(ProductService.class);
+        List<Product> catalog = Fixtures.catalog(catalogSize);
+        productRepository.saveAll(catalog);
+        productIds = catalog.stream().map(Product::getId).toList();
+    }
+
+    @Benchmark
+    public Optional<Product> findById() {
+        return productRepository.findById(productIds.get(ThreadLocalRandom.current().nextInt(productIds.size())));
+    }
+
+    @Benchmark
+    public void findAll(Blackhole blackhole) {
+        productRepository.findAll().forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void streamAll(Blackhole blackhole) {
+        productService.streamProducts(blackhole::consume);
+    }
+}
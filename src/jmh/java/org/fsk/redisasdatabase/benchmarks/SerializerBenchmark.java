@@ -0,0 +1,65 @@
+package org.fsk.redisasdatabase.benchmarks;
+
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.serializers.CompactRedisSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+// RedisTemplate değer serileştirmesi: compact format ile eski JDK formatı
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+
+    @Param({"1", "5", "20"})
+    public int productsPerOrder;
+
+    private final CompactRedisSerializer compact = new CompactRedisSerializer();
+    private final JdkSerializationRedisSerializer jdk = new JdkSerializationRedisSerializer();
+    private Order order;
+    private byte[] compactBytes;
+    private byte[] jdkBytes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        order = Fixtures.order(productsPerOrder);
+        compactBytes = compact.serialize(order);
+        jdkBytes = jdk.serialize(order);
+    }
+
+    @Benchmark
+    public byte[] compactEncode() {
+        return compact.serialize(order);
+    }
+
+    @Benchmark
+    public Object compactDecode() {
+        return compact.deserialize(compactBytes);
+    }
+
+    @Benchmark
+    public byte[] jdkEncode() {
+        return jdk.serialize(order);
+    }
+
+    @Benchmark
+    public Object jdkDecode() {
+        return jdk.deserialize(jdkBytes);
+    }
+}
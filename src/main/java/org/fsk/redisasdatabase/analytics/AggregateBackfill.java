@@ -0,0 +1,332 @@
+package org.fsk.redisasdatabase.analytics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.archive.OrderArchive;
+import org.fsk.redisasdatabase.configurations.RedisTopology;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.dtos.AggregateBackfillReport;
+import org.fsk.redisasdatabase.indexes.OrderIndexes;
+import org.fsk.redisasdatabase.repositories.EntityScanner;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Satış özetlerini order:* hash'lerinden yeniden hesaplar (özellikten önceki siparişler ya da bozulmuş sayaçlar).
+// Bir kesim zamanı yazılır; o andan sonra checkout kesimden sonra tarihli siparişleri ayrıca agg:backfill:*
+// sayaçlarına da yazar. settle kadar beklenip (tarihi kesimden önce olup henüz yazılmamış siparişler için)
+// sipariş ID'leri alınır, ForkJoinPool'da ikiye bölünerek batch-size'lık parçalara ayrılır; her parça hash'leri
+// tek pipeline ile okuyup kesimden önceki siparişlerin toplamını çıkarır, toplamlar birleştirilir. Sonuç
+// replace-aggregates.lua ile kesimden sonraki sayaçlar eklenerek tek adımda yazılır, yani hesaplama sırasında
+// gelen siparişler kaybolmaz. Tekil alıcılar parçalar içinde doğrudan PFADD edilir (idempotent).
+// Arşivdeki siparişler de blok blok toplanır; Redis ile arşiv arasında taşıma hesaplama bitene kadar bekler.
+// Cluster'da anahtarlar farklı slot'larda olduğundan kesim kullanılamaz; tüm siparişler toplanıp sayaçlar
+// doğrudan yazılır, hesaplama sırasında gelen siparişler sayılmamış olabilir.
+@Component
+@Slf4j
+public class AggregateBackfill {
+
+    // Kesim, anahtar yazıldıktan sonraya düşecek kadar ileride seçilir: kesimden sonra tarihlenen her sipariş
+    // anahtarı görür, öncekiler hesaplamaya girer
+    private static final Duration BEGIN_MARGIN = Duration.ofSeconds(1);
+
+    private static final RedisScript<Long> BEGIN =
+            RedisScript.of(new ClassPathResource("scripts/begin-backfill.lua"), Long.class);
+
+    private static final RedisScript<Long> REPLACE =
+            RedisScript.of(new ClassPathResource("scripts/replace-aggregates.lua"), Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EntityScanner entityScanner;
+    private final OrderArchive orderArchive;
+    private final MeterRegistry meterRegistry;
+    private final boolean clustered;
+    private final int parallelism;
+    private final int batchSize;
+    private final Duration settle;
+    private final Duration timeout;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public AggregateBackfill(StringRedisTemplate stringRedisTemplate, EntityScanner entityScanner,
+                             OrderArchive orderArchive, MeterRegistry meterRegistry,
+                             @Value("${app.redis.topology:standalone}") RedisTopology topology,
+                             @Value("${app.analytics.backfill.parallelism:4}") int parallelism,
+                             @Value("${app.analytics.backfill.batch-size:500}") int batchSize,
+                             @Value("${app.analytics.backfill.settle:5s}") Duration settle,
+                             @Value("${app.analytics.backfill.timeout:30m}") Duration timeout) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.entityScanner = entityScanner;
+        this.orderArchive = orderArchive;
+        this.meterRegistry = meterRegistry;
+        this.clustered = topology == RedisTopology.CLUSTER;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        this.settle = settle;
+        this.timeout = timeout;
+    }
+
+    public AggregateBackfillReport backfill() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Satış özetleri zaten yeniden hesaplanıyor");
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long started = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long cutoff = clustered ? Long.MAX_VALUE : System.currentTimeMillis() + BEGIN_MARGIN.toMillis();
+            if (!clustered) {
+                begin(cutoff);
+            }
+            Totals totals;
+            try {
+                if (!clustered) {
+                    Thread.sleep(cutoff + settle.toMillis() - System.currentTimeMillis());
+                }
+                totals = orderArchive.withoutMoves(() -> collect(pool, cutoff));
+                if (clustered) {
+                    write(totals);
+                } else if (!replace(cutoff, totals)) {
+                    throw new IllegalStateException("Hesaplama " + timeout + " içinde bitmedi, özetler yazılmadı");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abort(cutoff);
+                throw new IllegalStateException("Satış özetlerinin hesaplanması kesildi");
+            } catch (RuntimeException e) {
+                abort(cutoff);
+                throw e;
+            }
+
+            AggregateBackfillReport report = new AggregateBackfillReport(totals.scanned,
+                    clustered ? null : Instant.ofEpochMilli(cutoff), totals.orders, totals.days.size(),
+                    totals.products.size(), !clustered,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            log.info("Satış özetleri yeniden hesaplandı: {}", report);
+            return report;
+        } finally {
+            pool.shutdown();
+            sample.stop(meterRegistry.timer("analytics.backfill"));
+            running.set(false);
+        }
+    }
+
+    // Kesim anahtarı yokken checkout ayrı sayaçlara yazmaz; yarım kalmış önceki hesaplamadan kalanlar silinir
+    private void begin(long cutoff) {
+        List<String> keys = new ArrayList<>();
+        keys.add(RedisKeys.BACKFILL_CUTOFF);
+        keys.add(RedisKeys.BACKFILL_PRODUCTS_SOLD);
+        keys.addAll(scanKeys(RedisKeys.BACKFILL_SALES));
+        Long started = stringRedisTemplate.execute(BEGIN, keys, String.valueOf(cutoff),
+                String.valueOf(timeout.toMillis()));
+        if (started == null || started != 1) {
+            throw new IllegalStateException("Satış özetleri başka bir örnekte yeniden hesaplanıyor");
+        }
+        if (System.currentTimeMillis() >= cutoff) {
+            abort(cutoff);
+            throw new IllegalStateException("Kesim anahtarı kesim zamanından önce yazılamadı, tekrar deneyin");
+        }
+    }
+
+    private void abort(long cutoff) {
+        if (clustered) {
+            return;
+        }
+        try {
+            if (String.valueOf(cutoff).equals(stringRedisTemplate.opsForValue().get(RedisKeys.BACKFILL_CUTOFF))) {
+                stringRedisTemplate.delete(RedisKeys.BACKFILL_CUTOFF);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Kesim anahtarı silinemedi, süresi dolunca kalkacak: {}", e.getMessage());
+        }
+    }
+
+    private Totals collect(ForkJoinPool pool, long cutoff) {
+        List<String> ids = orderIds();
+        Totals totals = pool.invoke(new Aggregate(ids, cutoff));
+        totals.scanned = ids.size();
+        if (!orderArchive.isEmpty()) {
+            // Journal replay'i arşivdeki bir siparişi Redis'e geri yazmış olabilir; o sipariş bir kez sayılır
+            Set<String> hot = new HashSet<>(ids);
+            orderArchive.forEachBatch(batch -> {
+                List<Order> archived = batch.stream().filter(order -> !hot.contains(order.getId())).toList();
+                totals.scanned += archived.size();
+                totals.merge(aggregate(archived, cutoff));
+            });
+        }
+        return totals;
+    }
+
+    private List<String> orderIds() {
+        List<String> ids = new ArrayList<>();
+        try (Cursor<String> members = stringRedisTemplate.opsForSet()
+                .scan(RedisKeys.ORDER, ScanOptions.scanOptions().count(batchSize).build())) {
+            members.forEachRemaining(ids::add);
+        }
+        // SSCAN aynı üyeyi birden fazla verebilir
+        return ids.stream().distinct().toList();
+    }
+
+    private List<String> scanKeys(String prefix) {
+        List<String> keys = new ArrayList<>();
+        try (Cursor<String> cursor = stringRedisTemplate.scan(ScanOptions.scanOptions()
+                .match(prefix + ":*").count(batchSize).build())) {
+            cursor.forEachRemaining(keys::add);
+        }
+        return keys;
+    }
+
+    private boolean replace(long cutoff, Totals totals) {
+        // Siparişi kalmamış günler ve sadece kesimden sonra sipariş alan günler de yazılır
+        Map<LocalDate, Day> days = new TreeMap<>(totals.days);
+        for (String prefix : List.of(RedisKeys.SALES, RedisKeys.BACKFILL_SALES)) {
+            scanKeys(prefix).forEach(key -> days.computeIfAbsent(
+                    LocalDate.parse(key.substring(key.lastIndexOf(':') + 1)), day -> new Day()));
+        }
+        List<String> keys = new ArrayList<>(3 + days.size() * 2);
+        keys.add(RedisKeys.BACKFILL_CUTOFF);
+        keys.add(RedisKeys.PRODUCTS_SOLD);
+        keys.add(RedisKeys.BACKFILL_PRODUCTS_SOLD);
+        List<String> args = new ArrayList<>(2 + totals.products.size() * 2 + days.size() * 3);
+        args.add(String.valueOf(cutoff));
+        args.add(String.valueOf(totals.products.size()));
+        totals.products.forEach((productId, units) -> {
+            args.add(productId);
+            args.add(String.valueOf(units));
+        });
+        days.forEach((day, sales) -> {
+            keys.add(RedisKeys.salesByDay(day));
+            keys.add(RedisKeys.backfillSalesByDay(day));
+            args.add(String.valueOf(sales.revenue));
+            args.add(String.valueOf(sales.orders));
+            args.add(String.valueOf(sales.units));
+        });
+        Long written = stringRedisTemplate.execute(REPLACE, keys, args.toArray());
+        return written != null && written == 1;
+    }
+
+    private void write(Totals totals) {
+        stringRedisTemplate.delete(RedisKeys.PRODUCTS_SOLD);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            totals.products.forEach((productId, units) -> connection.zSetCommands()
+                    .zAdd(bytes(RedisKeys.PRODUCTS_SOLD), units, bytes(productId)));
+            totals.days.forEach((day, sales) -> connection.hashCommands().hMSet(bytes(RedisKeys.salesByDay(day)),
+                    Map.of(bytes("revenue"), bytes(String.valueOf(sales.revenue)),
+                            bytes("orders"), bytes(String.valueOf(sales.orders)),
+                            bytes("units"), bytes(String.valueOf(sales.units)))));
+            return null;
+        });
+    }
+
+    // Bir parçanın kesimden önceki siparişlerini toplar, tekil alıcıları yazar
+    private Totals aggregate(List<Order> candidates, long cutoff) {
+        Totals totals = new Totals();
+        List<Order> orders = new ArrayList<>(candidates.size());
+        for (Order order : candidates) {
+            if (order.getOrderDate() != null && order.getTotalAmount() != null
+                    && OrderIndexes.dateScore(order.getOrderDate()) < cutoff) {
+                orders.add(order);
+            }
+        }
+        for (Order order : orders) {
+            Day day = totals.days.computeIfAbsent(order.getOrderDate().toLocalDate(), key -> new Day());
+            int units = order.getProducts() == null ? 0 : order.getProducts().size();
+            day.revenue += SalesAggregates.scaled(order.getTotalAmount());
+            day.orders++;
+            day.units += units;
+            totals.orders++;
+            if (units > 0) {
+                order.getProducts().forEach(product -> totals.products.merge(product.getId(), 1L, Long::sum));
+            }
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Order order : orders) {
+                if (order.getCustomer() != null) {
+                    byte[] customer = bytes(order.getCustomer().getId());
+                    connection.hyperLogLogCommands()
+                            .pfAdd(bytes(RedisKeys.buyersByDay(order.getOrderDate().toLocalDate())), customer);
+                    connection.hyperLogLogCommands().pfAdd(bytes(RedisKeys.BUYERS), customer);
+                }
+            }
+            return null;
+        });
+        return totals;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private final class Aggregate extends RecursiveTask<Totals> {
+
+        private final List<String> ids;
+        private final long cutoff;
+
+        private Aggregate(List<String> ids, long cutoff) {
+            this.ids = ids;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (ids.size() <= batchSize) {
+                return aggregate(entityScanner.read(RedisKeys.ORDER, Order.class, ids), cutoff);
+            }
+            int middle = ids.size() / 2;
+            Aggregate left = new Aggregate(ids.subList(0, middle), cutoff);
+            left.fork();
+            Totals right = new Aggregate(ids.subList(middle, ids.size()), cutoff).compute();
+            return right.merge(left.join());
+        }
+    }
+
+    private static final class Totals {
+        final Map<LocalDate, Day> days = new TreeMap<>();
+        final Map<String, Long> products = new HashMap<>();
+        long orders;
+        // Sadece en üstteki toplamda tutulur, birleştirilmez
+        long scanned;
+
+        Totals merge(Totals other) {
+            other.days.forEach((date, day) -> days.merge(date, day, Day::add));
+            other.products.forEach((productId, units) -> products.merge(productId, units, Long::sum));
+            orders += other.orders;
+            return this;
+        }
+    }
+
+    private static final class Day {
+        long revenue;
+        long orders;
+        long units;
+
+        Day add(Day other) {
+            revenue += other.revenue;
+            orders += other.orders;
+            units += other.units;
+            return this;
+        }
+    }
+}
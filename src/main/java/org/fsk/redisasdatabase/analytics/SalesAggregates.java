@@ -0,0 +1,177 @@
+package org.fsk.redisasdatabase.analytics;
+
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.dtos.DailySales;
+import org.fsk.redisasdatabase.dtos.ProductSales;
+import org.fsk.redisasdatabase.dtos.SalesSummary;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Satış özetleri: günlük ciro/sipariş/adet (agg:sales:<gün>), ürün başına satılan adet (agg:products:sold),
+// günlük ve tüm zamanların tekil alıcıları (HyperLogLog). Checkout scripti siparişle aynı adımda artırır;
+// okumalar sipariş sayısından bağımsızdır (gün başına bir HMGET + PFCOUNT, tek pipeline).
+// Ciro ölçekli tam sayı tutulur (REVENUE_SCALE basamak); HINCRBY ile kayıpsız toplanır.
+@Component
+public class SalesAggregates {
+
+    // Fiyatlardaki kuruş altı basamaklar (ör. 7.125) kaybolmasın diye 4; değişirse mevcut sayaçlar geçersiz olur
+    public static final int REVENUE_SCALE = 4;
+
+    private static final String[] SALES_FIELDS = {"revenue", "orders", "units"};
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final boolean enabled;
+    private final int maxDays;
+
+    public SalesAggregates(StringRedisTemplate stringRedisTemplate,
+                           @Value("${app.analytics.enabled:true}") boolean enabled,
+                           @Value("${app.analytics.max-days:366}") int maxDays) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.enabled = enabled;
+        this.maxDays = maxDays;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Checkout scriptinin global anahtarlarının son yedisi (cluster'da script'e verilmez);
+    // gün, siparişin (zaman dilimsiz) tarihidir
+    public List<String> keys(Order order) {
+        LocalDate day = order.getOrderDate().toLocalDate();
+        return List.of(RedisKeys.salesByDay(day), RedisKeys.PRODUCTS_SOLD, RedisKeys.buyersByDay(day),
+                RedisKeys.BUYERS, RedisKeys.BACKFILL_CUTOFF, RedisKeys.backfillSalesByDay(day),
+                RedisKeys.BACKFILL_PRODUCTS_SOLD);
+    }
+
+    // Script'e verilen ölçek argümanı: boş ise özetler güncellenmez
+    public String revenueScaleArg() {
+        return enabled ? String.valueOf(REVENUE_SCALE) : "";
+    }
+
+    public static long scaled(BigDecimal amount) {
+        return amount.setScale(REVENUE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal revenue(long scaled) {
+        return BigDecimal.valueOf(scaled, REVENUE_SCALE);
+    }
+
+    // Script dışından (cluster'daki checkout saga'sı) yazım; sipariş ile atomik değildir
+    public void record(Order order, BigDecimal totalAmount) {
+        if (!enabled) {
+            return;
+        }
+        LocalDate day = order.getOrderDate().toLocalDate();
+        byte[] sales = bytes(RedisKeys.salesByDay(day));
+        byte[] customer = bytes(order.getCustomer().getId());
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.hashCommands().hIncrBy(sales, bytes("revenue"), scaled(totalAmount));
+            connection.hashCommands().hIncrBy(sales, bytes("orders"), 1);
+            connection.hashCommands().hIncrBy(sales, bytes("units"), order.getProducts().size());
+            for (Product product : order.getProducts()) {
+                connection.zSetCommands().zIncrBy(bytes(RedisKeys.PRODUCTS_SOLD), 1, bytes(product.getId()));
+            }
+            connection.hyperLogLogCommands().pfAdd(bytes(RedisKeys.buyersByDay(day)), customer);
+            connection.hyperLogLogCommands().pfAdd(bytes(RedisKeys.BUYERS), customer);
+            return null;
+        });
+    }
+
+    public List<DailySales> daily(LocalDate from, LocalDate to) {
+        List<LocalDate> days = days(from, to);
+        List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (LocalDate day : days) {
+                connection.hashCommands().hMGet(bytes(RedisKeys.salesByDay(day)), bytes(SALES_FIELDS[0]),
+                        bytes(SALES_FIELDS[1]), bytes(SALES_FIELDS[2]));
+                connection.hyperLogLogCommands().pfCount(bytes(RedisKeys.buyersByDay(day)));
+            }
+            return null;
+        });
+        List<DailySales> sales = new ArrayList<>(days.size());
+        for (int i = 0; i < days.size(); i++) {
+            List<?> values = (List<?>) replies.get(i * 2);
+            sales.add(new DailySales(days.get(i), revenue(number(values.get(0))), number(values.get(1)),
+                    number(values.get(2)), (Long) replies.get(i * 2 + 1)));
+        }
+        return sales;
+    }
+
+    public SalesSummary summary(LocalDate from, LocalDate to) {
+        List<DailySales> daily = daily(from, to);
+        long revenue = 0;
+        long orders = 0;
+        long units = 0;
+        for (DailySales day : daily) {
+            revenue += scaled(day.revenue());
+            orders += day.orders();
+            units += day.units();
+        }
+        // Günlük HLL'ler aynı hash tag'i taşır, cluster'da da tek PFCOUNT ile birleştirilir
+        String[] buyerKeys = daily.stream().map(day -> RedisKeys.buyersByDay(day.date())).toArray(String[]::new);
+        Long buyers = stringRedisTemplate.opsForHyperLogLog().size(buyerKeys);
+        return new SalesSummary(from, to, revenue(revenue), orders, units, buyers == null ? 0 : buyers);
+    }
+
+    public long uniqueBuyers() {
+        Long buyers = stringRedisTemplate.opsForHyperLogLog().size(RedisKeys.BUYERS);
+        return buyers == null ? 0 : buyers;
+    }
+
+    public ProductSales productSales(String productId) {
+        Double units = stringRedisTemplate.opsForZSet().score(RedisKeys.PRODUCTS_SOLD, productId);
+        return new ProductSales(productId, units == null ? 0 : units.longValue());
+    }
+
+    public List<ProductSales> topProducts(int limit) {
+        if (limit <= 0 || limit > 1000) {
+            throw new IllegalArgumentException("limit 1 ile 1000 arasında olmalı");
+        }
+        Set<ZSetOperations.TypedTuple<String>> top =
+                stringRedisTemplate.opsForZSet().reverseRangeWithScores(RedisKeys.PRODUCTS_SOLD, 0, limit - 1);
+        if (top == null) {
+            return List.of();
+        }
+        return top.stream()
+                .map(tuple -> new ProductSales(tuple.getValue(),
+                        tuple.getScore() == null ? 0 : tuple.getScore().longValue()))
+                .toList();
+    }
+
+    private List<LocalDate> days(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Başlangıç tarihi bitiş tarihinden sonra olamaz");
+        }
+        long count = ChronoUnit.DAYS.between(from, to) + 1;
+        if (count > maxDays) {
+            throw new IllegalArgumentException("En fazla " + maxDays + " günlük aralık sorgulanabilir");
+        }
+        List<LocalDate> days = new ArrayList<>((int) count);
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            days.add(day);
+        }
+        return days;
+    }
+
+    private static long number(Object value) {
+        return value == null ? 0 : Long.parseLong(value.toString());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,32 @@
+package org.fsk.redisasdatabase.archive;
+
+import org.fsk.redisasdatabase.serializers.CompactInput;
+import org.fsk.redisasdatabase.serializers.CompactOutput;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Arşivlenmiş sipariş: Redis'teki hash'in aynısı ve index'teki tarih skoru (epoch ms)
+record ArchiveRecord(String id, long date, Map<String, String> fields) {
+
+    void encode(CompactOutput output) {
+        output.writeString(id);
+        output.writeVarLong(date);
+        output.writeVarInt(fields.size());
+        fields.forEach((field, value) -> {
+            output.writeString(field);
+            output.writeString(value);
+        });
+    }
+
+    static ArchiveRecord decode(CompactInput input) {
+        String id = input.readString();
+        long date = input.readVarLong();
+        int count = input.readVarInt();
+        Map<String, String> fields = new LinkedHashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            fields.put(input.readString(), input.readString());
+        }
+        return new ArchiveRecord(id, date, fields);
+    }
+}
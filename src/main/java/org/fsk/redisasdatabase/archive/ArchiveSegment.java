@@ -0,0 +1,315 @@
+package org.fsk.redisasdatabase.archive;
+
+import org.fsk.redisasdatabase.serializers.CompactInput;
+import org.fsk.redisasdatabase.serializers.CompactOutput;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Tek bir arşiv dosyası (archive-<sıra no>.seg). Bir kez yazılır, sonra sadece memory-mapped okunur.
+// Düzen: [blok]...[index][trailer]. Kayıtlar ID'ye göre sıralanıp block-size'lık bloklara bölünür, her blok
+// ayrı sıkıştırılır (Deflater). Index blok başına ilk ID'yi, ofset/uzunluk/CRC32C'yi ve bloktaki en eski ve en
+// yeni sipariş tarihini tutar: ID araması ikili arama ile tek blok açar, tarih aralığı dışındaki bloklar hiç
+// açılmaz. Trailer: [index ofseti long][index uzunluğu int][index crc32c int][MAGIC int].
+// Dosya geçici adla yazılıp fsync'ten sonra yeniden adlandırılır; yarım yazılmış segment okunmaz.
+final class ArchiveSegment implements Closeable {
+
+    static final int TRAILER_SIZE = 20;
+    private static final int MAGIC = 0x4F415243;
+    private static final String PREFIX = "archive-";
+    private static final String SUFFIX = ".seg";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path path;
+    private final long sequence;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final String[] firstIds;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final int[] rawLengths;
+    private final int[] checksums;
+    private final long[] minDates;
+    private final long[] maxDates;
+    private final long records;
+    private final long minDate;
+    private final long maxDate;
+
+    private ArchiveSegment(Path path, FileChannel channel, MappedByteBuffer buffer, CompactInput index, int blocks,
+                           long records) {
+        this.path = path;
+        this.sequence = sequence(path);
+        this.channel = channel;
+        this.buffer = buffer;
+        this.records = records;
+        this.firstIds = new String[blocks];
+        this.offsets = new int[blocks];
+        this.lengths = new int[blocks];
+        this.rawLengths = new int[blocks];
+        this.checksums = new int[blocks];
+        this.minDates = new long[blocks];
+        this.maxDates = new long[blocks];
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < blocks; i++) {
+            firstIds[i] = index.readString();
+            offsets[i] = index.readVarInt();
+            lengths[i] = index.readVarInt();
+            rawLengths[i] = index.readVarInt();
+            checksums[i] = index.readSignedVarInt();
+            minDates[i] = index.readVarLong();
+            maxDates[i] = minDates[i] + index.readVarLong();
+            min = Math.min(min, minDates[i]);
+            max = Math.max(max, maxDates[i]);
+        }
+        this.minDate = min;
+        this.maxDate = max;
+    }
+
+    static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    static boolean isTemporary(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX + TEMP_SUFFIX);
+    }
+
+    static long sequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    static ArchiveSegment write(Path directory, long sequence, List<ArchiveRecord> records, int blockSize,
+                                int compressionLevel) throws IOException {
+        List<ArchiveRecord> sorted = new ArrayList<>(records);
+        sorted.sort(Comparator.comparing(ArchiveRecord::id));
+        Path path = directory.resolve(String.format("%s%020d%s", PREFIX, sequence, SUFFIX));
+        Path temporary = path.resolveSibling(path.getFileName() + TEMP_SUFFIX);
+        int blocks = (sorted.size() + blockSize - 1) / blockSize;
+        CompactOutput index = new CompactOutput(16 + blocks * 64);
+        index.writeVarInt(blocks);
+        index.writeVarLong(sorted.size());
+        CRC32C crc = new CRC32C();
+        Deflater deflater = new Deflater(compressionLevel);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE)) {
+            long position = 0;
+            for (int from = 0; from < sorted.size(); from += blockSize) {
+                List<ArchiveRecord> block = sorted.subList(from, Math.min(from + blockSize, sorted.size()));
+                CompactOutput raw = new CompactOutput(block.size() * 256);
+                raw.writeVarInt(block.size());
+                long min = Long.MAX_VALUE;
+                long max = Long.MIN_VALUE;
+                for (ArchiveRecord record : block) {
+                    record.encode(raw);
+                    min = Math.min(min, record.date());
+                    max = Math.max(max, record.date());
+                }
+                byte[] rawBytes = raw.toByteArray();
+                byte[] compressed = compress(deflater, rawBytes);
+                crc.reset();
+                crc.update(compressed);
+                index.writeString(block.get(0).id());
+                index.writeVarInt(Math.toIntExact(position));
+                index.writeVarInt(compressed.length);
+                index.writeVarInt(rawBytes.length);
+                index.writeSignedVarInt((int) crc.getValue());
+                index.writeVarLong(min);
+                index.writeVarLong(max - min);
+                writeFully(channel, ByteBuffer.wrap(compressed));
+                position += compressed.length;
+            }
+            byte[] indexBytes = index.toByteArray();
+            crc.reset();
+            crc.update(indexBytes);
+            writeFully(channel, ByteBuffer.wrap(indexBytes));
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE)
+                    .putLong(position)
+                    .putInt(indexBytes.length)
+                    .putInt((int) crc.getValue())
+                    .putInt(MAGIC)
+                    .flip();
+            writeFully(channel, trailer);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        } finally {
+            deflater.end();
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+        return open(path);
+    }
+
+    static ArchiveSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < TRAILER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Geçersiz arşiv segmenti boyutu: " + size + " byte");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int trailer = (int) size - TRAILER_SIZE;
+            if (buffer.getInt(trailer + 16) != MAGIC) {
+                throw new IOException("Arşiv segmenti trailer'ı bulunamadı");
+            }
+            long indexOffset = buffer.getLong(trailer);
+            int indexLength = buffer.getInt(trailer + 8);
+            if (indexOffset < 0 || indexLength < 0 || indexOffset + indexLength != trailer) {
+                throw new IOException("Arşiv segmenti index'i geçersiz");
+            }
+            byte[] indexBytes = new byte[indexLength];
+            buffer.get((int) indexOffset, indexBytes);
+            CRC32C crc = new CRC32C();
+            crc.update(indexBytes);
+            if ((int) crc.getValue() != buffer.getInt(trailer + 12)) {
+                throw new IOException("Arşiv segmenti index'i bozuk");
+            }
+            CompactInput index = new CompactInput(indexBytes, 0);
+            int blocks = index.readVarInt();
+            long records = index.readVarLong();
+            return new ArchiveSegment(path, channel, buffer, index, blocks, records);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    long records() {
+        return records;
+    }
+
+    long sizeBytes() {
+        return buffer.capacity();
+    }
+
+    int blocks() {
+        return firstIds.length;
+    }
+
+    // [from, to] aralığıyla kesişiyor mu (epoch ms, uçlar dahil)
+    boolean overlaps(long from, long to) {
+        return firstIds.length > 0 && maxDate >= from && minDate <= to;
+    }
+
+    ArchiveRecord find(String id) {
+        // İlk ID'si aranan ID'den büyük olmayan son blok
+        int block = Arrays.binarySearch(firstIds, id);
+        if (block < 0) {
+            block = -block - 2;
+        }
+        if (block < 0) {
+            return null;
+        }
+        for (ArchiveRecord record : block(block)) {
+            int compared = record.id().compareTo(id);
+            if (compared == 0) {
+                return record;
+            }
+            if (compared > 0) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    // Tarihi [from, to] aralığında olan kayıtlar; aralıkla kesişmeyen bloklar açılmaz
+    void scan(long from, long to, Consumer<ArchiveRecord> consumer) {
+        for (int i = 0; i < firstIds.length; i++) {
+            if (maxDates[i] < from || minDates[i] > to) {
+                continue;
+            }
+            for (ArchiveRecord record : block(i)) {
+                if (record.date() >= from && record.date() <= to) {
+                    consumer.accept(record);
+                }
+            }
+        }
+    }
+
+    List<ArchiveRecord> block(int block) {
+        ByteBuffer compressed = buffer.slice(offsets[block], lengths[block]);
+        CRC32C crc = new CRC32C();
+        crc.update(compressed.duplicate());
+        if ((int) crc.getValue() != checksums[block]) {
+            throw new IllegalStateException("Arşiv bloğu bozuk: " + path + ", blok " + block);
+        }
+        byte[] raw = new byte[rawLengths[block]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, raw.length - length);
+                if (inflated == 0 && inflater.needsInput()) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != raw.length) {
+                throw new IllegalStateException("Arşiv bloğu eksik: " + path + ", blok " + block);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Arşiv bloğu açılamadı: " + path + ", blok " + block, e);
+        } finally {
+            inflater.end();
+        }
+        CompactInput input = new CompactInput(raw, 0);
+        int count = input.readVarInt();
+        List<ArchiveRecord> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(ArchiveRecord.decode(input));
+        }
+        return records;
+    }
+
+    private static byte[] compress(Deflater deflater, byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream output = new ByteArrayOutputStream(raw.length / 2 + 64);
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            output.write(chunk, 0, deflater.deflate(chunk));
+        }
+        return output.toByteArray();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,332 @@
+package org.fsk.redisasdatabase.archive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.dtos.CursorPage;
+import org.fsk.redisasdatabase.mappers.EntityHashMapper;
+import org.fsk.redisasdatabase.repositories.EntityScanner;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Soğuk siparişlerin yerel arşivi: OrderArchiver'ın yazdığı, sadece eklenen segment dosyaları (ArchiveSegment).
+// Okuma yolları önce Redis'e bakar, orada olmayan siparişler buradan okunur; arşivdeki sipariş hash'i Redis'teki
+// ile aynıdır, referanslar yine Redis'ten çözülür. Segmentler açılışta map edilir, yeni segment listeye eklenir.
+// Arşiv yereldir: birden fazla uygulama örneğinde dizin paylaşılmalı ya da arşivleme tek örnekte çalışmalıdır.
+@Component
+@Slf4j
+public class OrderArchive {
+
+    private static final String CURSOR_PREFIX = "archive:";
+
+    private final EntityScanner entityScanner;
+    private final EntityHashMapper entityHashMapper;
+    private final boolean enabled;
+    private final Path directory;
+    private final int blockSize;
+    private final int compressionLevel;
+    private final Counter hits;
+    private final Counter misses;
+    // Taşıma yazma kilidi, iki katmanı birlikte tarayanlar okuma kilidi alır; tarama bir siparişi ya Redis'te
+    // ya arşivde görür, ikisinde birden değil
+    private final ReentrantReadWriteLock moves = new ReentrantReadWriteLock();
+
+    // Eskiden yeniye; sadece taşıma kilidi altında değiştirilir, okuyucular anlık kopyayı kullanır
+    private volatile List<ArchiveSegment> segments = List.of();
+
+    public OrderArchive(EntityScanner entityScanner, EntityHashMapper entityHashMapper, MeterRegistry meterRegistry,
+                        @Value("${app.archive.enabled:false}") boolean enabled,
+                        @Value("${app.archive.directory:./data/archive}") Path directory,
+                        @Value("${app.archive.block-size:128}") int blockSize,
+                        @Value("${app.archive.compression-level:6}") int compressionLevel) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("app.archive.block-size en az 1 olmalı");
+        }
+        this.entityScanner = entityScanner;
+        this.entityHashMapper = entityHashMapper;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.blockSize = blockSize;
+        this.compressionLevel = compressionLevel;
+        this.hits = meterRegistry.counter("archive.reads", "result", "hit");
+        this.misses = meterRegistry.counter("archive.reads", "result", "miss");
+        Gauge.builder("archive.segments", this, archive -> archive.segments.size()).register(meterRegistry);
+        Gauge.builder("archive.orders", this, OrderArchive::getOrderCount).register(meterRegistry);
+        Gauge.builder("archive.bytes", this, OrderArchive::getSizeBytes).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        List<ArchiveSegment> opened = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().toList()) {
+                if (ArchiveSegment.isTemporary(file)) {
+                    // Yeniden adlandırılmadan kalmış segment: siparişleri Redis'ten silinmemişti
+                    Files.delete(file);
+                } else if (ArchiveSegment.isSegment(file)) {
+                    opened.add(ArchiveSegment.open(file));
+                }
+            }
+        }
+        segments = List.copyOf(opened);
+        log.info("Sipariş arşivi açıldı. Dizin: {}, Segment: {}, Sipariş: {}", directory, segments.size(),
+                getOrderCount());
+    }
+
+    @PreDestroy
+    public void close() {
+        for (ArchiveSegment segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                log.warn("Arşiv segmenti kapatılamadı: {}", segment.path());
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    public List<Path> segments() {
+        return segments.stream().map(ArchiveSegment::path).toList();
+    }
+
+    public long getOrderCount() {
+        return segments.stream().mapToLong(ArchiveSegment::records).sum();
+    }
+
+    public long getSizeBytes() {
+        return segments.stream().mapToLong(ArchiveSegment::sizeBytes).sum();
+    }
+
+    // Sipariş hash'leri tek pipeline ile Redis'ten, bulunamayanlar arşivden; sıra korunur, hiçbirinde olmayanlar
+    // atlanır
+    public List<Order> read(List<String> ids) {
+        List<Order> orders = entityScanner.read(RedisKeys.ORDER, Order.class, ids);
+        if (orders.size() == ids.size() || segments.isEmpty()) {
+            return orders;
+        }
+        Map<String, Order> hot = new HashMap<>(orders.size() * 2);
+        orders.forEach(order -> hot.put(order.getId(), order));
+        List<Order> merged = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Order order = hot.get(id);
+            if (order == null) {
+                order = find(id);
+            }
+            if (order != null) {
+                merged.add(order);
+            }
+        }
+        return merged;
+    }
+
+    // find gibi, ama sipariş çözülmez ve okuma metriklerine sayılmaz (journal replay'in varlık kontrolü)
+    public boolean contains(String id) {
+        for (ArchiveSegment segment : segments) {
+            if (segment.find(id) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // En yeni segmentten geriye doğru; her segmentte en fazla bir blok açılır
+    public Order find(String id) {
+        List<ArchiveSegment> snapshot = segments;
+        for (int i = snapshot.size() - 1; i >= 0; i--) {
+            ArchiveRecord record = snapshot.get(i).find(id);
+            if (record != null) {
+                hits.increment();
+                return toOrder(record);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public boolean overlaps(long from, long to) {
+        for (ArchiveSegment segment : segments) {
+            if (segment.overlaps(from, to)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Tarihi [from, to] aralığında (epoch ms) ve filtreye uyan siparişlerden sıralamaya göre ilk limit tanesi.
+    // Sadece aralıkla kesişen bloklar açılır, bellekte en fazla limit sipariş tutulur.
+    public List<Order> query(long from, long to, Predicate<Order> filter, Comparator<Order> comparator, int limit) {
+        // Kuyruğun başında o ana kadarki en kötü sipariş durur, daha iyisi gelince çıkarılır
+        PriorityQueue<Order> best = new PriorityQueue<>(Math.min(limit, 1024) + 1, comparator.reversed());
+        for (ArchiveSegment segment : segments) {
+            if (!segment.overlaps(from, to)) {
+                continue;
+            }
+            segment.scan(from, to, record -> {
+                Order order = toOrder(record);
+                if (order != null && filter.test(order)) {
+                    best.add(order);
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            });
+        }
+        List<Order> orders = new ArrayList<>(best);
+        orders.sort(comparator);
+        return orders;
+    }
+
+    // Her blok bir batch olarak verilir
+    public void forEachBatch(Consumer<List<Order>> consumer) {
+        for (ArchiveSegment segment : segments) {
+            for (int block = 0; block < segment.blocks(); block++) {
+                consumer.accept(toOrders(segment.block(block)));
+            }
+        }
+    }
+
+    // Arşiv cursor'ı archive:<segment sıra no>:<blok>; segmentler sadece eklendiği için cursor kaymaz.
+    // Sayfa blok sınırında biter, boyut SSCAN'deki COUNT gibi yaklaşıktır.
+    public static boolean isCursor(String cursor) {
+        return cursor != null && cursor.startsWith(CURSOR_PREFIX);
+    }
+
+    public String firstCursor() {
+        List<ArchiveSegment> snapshot = segments;
+        return snapshot.isEmpty() ? null : cursor(snapshot.get(0).sequence(), 0);
+    }
+
+    public CursorPage<Order> page(String cursor, int size) {
+        long sequence;
+        int block;
+        try {
+            String[] parts = cursor.substring(CURSOR_PREFIX.length()).split(":");
+            sequence = Long.parseLong(parts[0]);
+            block = Integer.parseInt(parts[1]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Geçersiz cursor: " + cursor);
+        }
+        List<ArchiveSegment> snapshot = segments;
+        List<Order> items = new ArrayList<>(size);
+        for (ArchiveSegment segment : snapshot) {
+            if (segment.sequence() < sequence) {
+                continue;
+            }
+            int first = segment.sequence() == sequence ? block : 0;
+            for (int i = first; i < segment.blocks(); i++) {
+                if (items.size() >= size) {
+                    return new CursorPage<>(items, cursor(segment.sequence(), i));
+                }
+                items.addAll(toOrders(segment.block(i)));
+            }
+        }
+        return new CursorPage<>(items, null);
+    }
+
+    // İki katmanı birlikte tarayan okuyucular (tüm siparişler, yeniden hesaplamalar) taşıma olmadan çalışır
+    public <T> T withoutMoves(Supplier<T> action) {
+        moves.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            moves.readLock().unlock();
+        }
+    }
+
+    // Son segmentteki ID'ler: taşıma segment yazıldıktan sonra yarıda kaldıysa siparişler hala Redis'tedir,
+    // arşivleyici bunları tekrar yazmadan sadece Redis'ten siler
+    Set<String> lastSegmentIds() {
+        List<ArchiveSegment> snapshot = segments;
+        if (snapshot.isEmpty()) {
+            return Set.of();
+        }
+        ArchiveSegment last = snapshot.get(snapshot.size() - 1);
+        Set<String> ids = new HashSet<>();
+        for (int block = 0; block < last.blocks(); block++) {
+            last.block(block).forEach(record -> ids.add(record.id()));
+        }
+        return ids;
+    }
+
+    // Kayıtlar yeni bir segmente yazılıp fsync edilir, ardından (aynı kilit altında) Redis'ten silinir.
+    // Silme başarısız olursa siparişler iki katmanda da kalır, bir sonraki çalıştırma silmeyi tamamlar.
+    // Yazılan byte sayısını döner.
+    long move(List<ArchiveRecord> records, Runnable removeFromRedis) {
+        moves.writeLock().lock();
+        try {
+            long written = 0;
+            if (!records.isEmpty()) {
+                List<ArchiveSegment> snapshot = segments;
+                long sequence = snapshot.isEmpty() ? 1 : snapshot.get(snapshot.size() - 1).sequence() + 1;
+                ArchiveSegment segment = ArchiveSegment.write(directory, sequence, records, blockSize,
+                        compressionLevel);
+                List<ArchiveSegment> updated = new ArrayList<>(snapshot);
+                updated.add(segment);
+                segments = Collections.unmodifiableList(updated);
+                written = segment.sizeBytes();
+                log.info("Arşiv segmenti yazıldı: {}, Sipariş: {}, Boyut: {} byte", segment.path(), records.size(),
+                        written);
+            }
+            removeFromRedis.run();
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Arşiv segmenti yazılamadı", e);
+        } finally {
+            moves.writeLock().unlock();
+        }
+    }
+
+    private List<Order> toOrders(List<ArchiveRecord> records) {
+        List<Order> orders = new ArrayList<>(records.size());
+        for (ArchiveRecord record : records) {
+            Order order = toOrder(record);
+            if (order != null) {
+                orders.add(order);
+            }
+        }
+        return orders;
+    }
+
+    private Order toOrder(ArchiveRecord record) {
+        return entityHashMapper.fromHash(record.fields(), Order.class);
+    }
+
+    private static String cursor(long sequence, int block) {
+        return CURSOR_PREFIX + sequence + ":" + block;
+    }
+}
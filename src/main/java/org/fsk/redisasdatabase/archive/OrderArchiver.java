@@ -0,0 +1,207 @@
+package org.fsk.redisasdatabase.archive;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.dtos.ArchiveReport;
+import org.fsk.redisasdatabase.mappers.EntityHashMapper;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// max-age'den eski siparişleri Redis'ten arşive taşır; interval'da bir arka planda ya da istekle çalışır.
+// Adaylar tarih index'inden en eskiden başlanarak segment-orders'lık parçalar halinde alınır, hash'ler tek
+// pipeline ile okunup bir segmente yazılır (fsync). Ancak ondan sonra sipariş hash'i UNLINK edilir, sipariş
+// index'lerden ve repository set'inden çıkarılır; Redis'te sadece sıcak pencere kalır. Siparişler
+// değişmediği için taşıma sırasında checkout'lar beklemez.
+// Müşterinin sipariş geçmişi listesi (sadece ID) kırpılmaz: cursor'ı listedeki mutlak pozisyondur, arşivlenen
+// siparişler ID ile arşivden okunur.
+@Component
+@Slf4j
+public class OrderArchiver {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final OrderArchive orderArchive;
+    private final EntityHashMapper entityHashMapper;
+    private final MeterRegistry meterRegistry;
+    private final Duration maxAge;
+    private final Duration interval;
+    private final int segmentOrders;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+
+    public OrderArchiver(StringRedisTemplate stringRedisTemplate, OrderArchive orderArchive,
+                         EntityHashMapper entityHashMapper, MeterRegistry meterRegistry,
+                         @Value("${app.archive.max-age:90d}") Duration maxAge,
+                         @Value("${app.archive.interval:1h}") Duration interval,
+                         @Value("${app.archive.segment-orders:10000}") int segmentOrders) {
+        if (segmentOrders < 1) {
+            throw new IllegalArgumentException("app.archive.segment-orders en az 1 olmalı");
+        }
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.orderArchive = orderArchive;
+        this.entityHashMapper = entityHashMapper;
+        this.meterRegistry = meterRegistry;
+        this.maxAge = maxAge;
+        this.interval = interval;
+        this.segmentOrders = segmentOrders;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!orderArchive.isEnabled() || interval.isZero()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::archiveScheduled, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        log.info("Sipariş arşivleyici başlatıldı. Yaş sınırı: {}, Aralık: {}", maxAge, interval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public ArchiveReport archive() {
+        if (!orderArchive.isEnabled()) {
+            throw new IllegalStateException("Sipariş arşivi kapalı (app.archive.enabled)");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Arşivleme zaten çalışıyor");
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long started = System.nanoTime();
+        try {
+            long cutoff = System.currentTimeMillis() - maxAge.toMillis();
+            Set<String> written = orderArchive.lastSegmentIds();
+            long scanned = 0;
+            long archived = 0;
+            long skipped = 0;
+            long bytes = 0;
+            int segments = 0;
+            while (true) {
+                Set<ZSetOperations.TypedTuple<String>> candidates = stringRedisTemplate.opsForZSet()
+                        .rangeByScoreWithScores(RedisKeys.ORDERS_BY_DATE, Double.NEGATIVE_INFINITY, cutoff - 1,
+                                0, segmentOrders);
+                if (candidates == null || candidates.isEmpty()) {
+                    break;
+                }
+                Batch batch = collect(new ArrayList<>(candidates), written);
+                long segmentBytes = orderArchive.move(batch.records(), () -> remove(batch.removals()));
+                scanned += candidates.size();
+                archived += batch.records().size();
+                skipped += batch.skipped();
+                bytes += segmentBytes;
+                segments += batch.records().isEmpty() ? 0 : 1;
+                if (candidates.size() < segmentOrders) {
+                    break;
+                }
+            }
+            meterRegistry.counter("archive.moved", "result", "archived").increment(archived);
+            meterRegistry.counter("archive.moved", "result", "skipped").increment(skipped);
+
+            ArchiveReport report = new ArchiveReport(Instant.ofEpochMilli(cutoff), scanned, archived, skipped,
+                    segments, bytes, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            log.info("Sipariş arşivleme tamamlandı: {}", report);
+            return report;
+        } finally {
+            sample.stop(meterRegistry.timer("archive.run"));
+            running.set(false);
+        }
+    }
+
+    private void archiveScheduled() {
+        try {
+            archive();
+        } catch (IllegalStateException e) {
+            log.info("Zamanlanmış arşivleme atlandı: {}", e.getMessage());
+        } catch (Exception e) {
+            log.warn("Zamanlanmış arşivleme başarısız, sonraki turda tekrar denenecek: {}", e.getMessage());
+        }
+    }
+
+    // Hash'i olmayan index girdileri arşive yazılmaz ama index'ten yine çıkarılır
+    @SuppressWarnings("unchecked")
+    private Batch collect(List<ZSetOperations.TypedTuple<String>> candidates, Set<String> written) {
+        List<Object> hashes = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            candidates.forEach(candidate -> connection.hashCommands()
+                    .hGetAll(bytes(RedisKeys.order(candidate.getValue()))));
+            return null;
+        });
+        List<ArchiveRecord> records = new ArrayList<>(candidates.size());
+        List<Removal> removals = new ArrayList<>(candidates.size());
+        long skipped = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            String id = candidates.get(i).getValue();
+            Map<String, String> hash = (Map<String, String>) hashes.get(i);
+            Order order = entityHashMapper.fromHash(hash, Order.class);
+            if (order == null) {
+                removals.add(new Removal(id, null));
+                continue;
+            }
+            removals.add(new Removal(id, order.getCustomer() == null ? null : order.getCustomer().getId()));
+            if (written.contains(id)) {
+                skipped++;
+            } else {
+                // Tarih index'teki skordur, arşivdeki aralık sorguları index ile aynı sınırları kullanır
+                records.add(new ArchiveRecord(id, candidates.get(i).getScore().longValue(), hash));
+            }
+        }
+        return new Batch(records, removals, skipped);
+    }
+
+    private void remove(List<Removal> removals) {
+        byte[] byDate = bytes(RedisKeys.ORDERS_BY_DATE);
+        byte[] byAmount = bytes(RedisKeys.ORDERS_BY_AMOUNT);
+        byte[] orders = bytes(RedisKeys.ORDER);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Removal removal : removals) {
+                byte[] id = bytes(removal.orderId());
+                connection.zSetCommands().zRem(byDate, id);
+                connection.zSetCommands().zRem(byAmount, id);
+                if (removal.customerId() != null) {
+                    connection.zSetCommands().zRem(bytes(RedisKeys.customerOrdersByDate(removal.customerId())), id);
+                }
+                connection.setCommands().sRem(orders, id);
+                connection.keyCommands().unlink(bytes(RedisKeys.order(removal.orderId())));
+            }
+            return null;
+        });
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record Removal(String orderId, String customerId) {
+    }
+
+    private record Batch(List<ArchiveRecord> records, List<Removal> removals, long skipped) {
+    }
+}
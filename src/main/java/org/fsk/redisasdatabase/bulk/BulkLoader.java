@@ -0,0 +1,292 @@
+package org.fsk.redisasdatabase.bulk;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.dtos.BulkLoadReport;
+import org.fsk.redisasdatabase.journal.Journal;
+import org.fsk.redisasdatabase.journal.JournalOperation;
+import org.fsk.redisasdatabase.journal.JournalSequence;
+import org.fsk.redisasdatabase.mappers.EntityHashMapper;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.repositories.StockShardReader;
+import org.fsk.redisasdatabase.scripts.StockScripts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// CSV ya da JSON dizisinden müşteri/ürün toplu yükleme. Kayıtlar akış halinde okunur ve batch-size'lık
+// gruplar tek pipeline ile yazılır (HSET + keyspace index set'ine tek SADD). Hash formatı repository ile
+// aynıdır. Aynı anda tek yükleme çalışır; ilerleme progress() ile okunabilir.
+@Component
+@Slf4j
+public class BulkLoader {
+
+    public enum Format {CSV, JSON}
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EntityHashMapper entityHashMapper;
+    private final ObjectMapper objectMapper;
+    private final StockScripts stockScripts;
+    private final Journal journal;
+    private final JournalSequence journalSequence;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final long progressEvery;
+    private final AtomicReference<Progress> current = new AtomicReference<>();
+    private volatile BulkLoadReport last;
+
+    public BulkLoader(StringRedisTemplate stringRedisTemplate, EntityHashMapper entityHashMapper,
+                      ObjectMapper objectMapper, StockScripts stockScripts, Journal journal,
+                      JournalSequence journalSequence, MeterRegistry meterRegistry,
+                      @Value("${app.bulk.batch-size:5000}") int batchSize,
+                      @Value("${app.bulk.progress-every:100000}") long progressEvery) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.entityHashMapper = entityHashMapper;
+        this.objectMapper = objectMapper;
+        this.stockScripts = stockScripts;
+        this.journal = journal;
+        this.journalSequence = journalSequence;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.progressEvery = progressEvery;
+    }
+
+    public BulkLoadReport loadProducts(InputStream input, Format format) throws IOException {
+        return load(RedisKeys.PRODUCT, Product.class, JournalOperation.PRODUCT_SAVED, input, format);
+    }
+
+    public BulkLoadReport loadCustomers(InputStream input, Format format) throws IOException {
+        return load(RedisKeys.CUSTOMER, Customer.class, JournalOperation.CUSTOMER_SAVED, input, format);
+    }
+
+    // Çalışan yükleme varsa onun anlık durumu, yoksa son yüklemenin sonucu
+    public BulkLoadReport progress() {
+        Progress progress = current.get();
+        return progress != null ? progress.report(BulkLoadReport.Status.RUNNING) : last;
+    }
+
+    private <T> BulkLoadReport load(String keyspace, Class<T> type, JournalOperation operation, InputStream input,
+                                    Format format) throws IOException {
+        Progress progress = new Progress(keyspace);
+        if (!current.compareAndSet(null, progress)) {
+            throw new IllegalStateException("Başka bir toplu yükleme çalışıyor");
+        }
+        log.info("Toplu yükleme başladı. Entity: {}, Format: {}", keyspace, format);
+        try {
+            Batch<T> batch = new Batch<>(keyspace, operation, batchSize);
+            if (format == Format.CSV) {
+                readCsv(input, type, batch, progress);
+            } else {
+                readJson(input, type, batch, progress);
+            }
+            flush(batch, progress);
+            return finish(progress, BulkLoadReport.Status.COMPLETED);
+        } catch (IOException | RuntimeException e) {
+            progress.error(e.getMessage());
+            finish(progress, BulkLoadReport.Status.FAILED);
+            throw e;
+        } finally {
+            current.set(null);
+        }
+    }
+
+    private <T> void readCsv(InputStream input, Class<T> type, Batch<T> batch, Progress progress) throws IOException {
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8),
+                64 * 1024));
+        Map<String, String> row;
+        while ((row = reader.next()) != null) {
+            progress.read++;
+            T entity;
+            try {
+                entity = entityHashMapper.fromHash(row, type);
+            } catch (RuntimeException e) {
+                progress.failed("Satır " + reader.line() + ": " + e.getMessage());
+                continue;
+            }
+            add(batch, entity, progress);
+        }
+    }
+
+    // JSON dizisi eleman eleman okunur, doküman belleğe alınmaz. Bozuk JSON yüklemeyi durdurur.
+    private <T> void readJson(InputStream input, Class<T> type, Batch<T> batch, Progress progress)
+            throws IOException {
+        try (MappingIterator<T> iterator = objectMapper.readerFor(type).readValues(input)) {
+            while (iterator.hasNextValue()) {
+                T entity = iterator.nextValue();
+                progress.read++;
+                add(batch, entity, progress);
+            }
+        } catch (com.fasterxml.jackson.core.JacksonException e) {
+            throw new IllegalArgumentException("Geçersiz JSON (kayıt " + (progress.read + 1) + "): "
+                    + e.getOriginalMessage(), e);
+        }
+    }
+
+    private <T> void add(Batch<T> batch, T entity, Progress progress) {
+        if (entity == null) {
+            progress.failed("Kayıt " + progress.read + ": boş kayıt");
+            return;
+        }
+        batch.add(entity);
+        if (batch.size() >= batchSize) {
+            flush(batch, progress);
+        }
+    }
+
+    private <T> void flush(Batch<T> batch, Progress progress) {
+        if (batch.size() == 0) {
+            return;
+        }
+        List<Map<String, String>> hashes = batch.hashes();
+        byte[] indexKey = bytes(batch.keyspace);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            byte[][] ids = new byte[hashes.size()][];
+            for (int i = 0; i < hashes.size(); i++) {
+                Map<String, String> hash = hashes.get(i);
+                byte[] key = bytes(batch.keys.get(i));
+                // Var olan ID'ler için eski alanlar kalmasın (repository save ile aynı davranış)
+                if (batch.replaces.get(i)) {
+                    connection.keyCommands().del(key);
+                }
+                Map<byte[], byte[]> fields = new HashMap<>(hash.size() * 2);
+                hash.forEach((field, value) -> fields.put(bytes(field), bytes(value)));
+                connection.hashCommands().hMSet(key, fields);
+                ids[i] = bytes(batch.ids.get(i));
+            }
+            connection.setCommands().sAdd(indexKey, ids);
+            return null;
+        });
+        if (journal.isEnabled()) {
+            // Batch'in journal sıraları tek INCRBY ile ayrılır
+            long last = journalSequence.increment(hashes.size());
+            for (int i = 0; i < hashes.size(); i++) {
+                long sequence = last == 0 ? 0 : last - hashes.size() + 1 + i;
+                journal.append(batch.operation, batch.ids.get(i), hashes.get(i), sequence);
+            }
+        }
+        // Shard'lı stok sayaçları script ile oluşturulur (ProductService.saveProduct ile aynı)
+        batch.shards.forEach((id, shards) -> journal.append(JournalOperation.STOCK_RESHARDED, id,
+                Map.of("stockShards", String.valueOf(shards)), stockScripts.reshard(id, shards).sequence()));
+        progress.written += hashes.size();
+        meterRegistry.counter("bulk.load.records", "entity", batch.keyspace).increment(hashes.size());
+        if (progress.written / progressEvery != (progress.written - hashes.size()) / progressEvery) {
+            log.info("Toplu yükleme ilerlemesi: {}", progress.report(BulkLoadReport.Status.RUNNING));
+        }
+        batch.clear();
+    }
+
+    private BulkLoadReport finish(Progress progress, BulkLoadReport.Status status) {
+        BulkLoadReport report = progress.report(status);
+        last = report;
+        meterRegistry.timer("bulk.load", "entity", progress.entity, "status", status.name())
+                .record(System.nanoTime() - progress.started, TimeUnit.NANOSECONDS);
+        log.info("Toplu yükleme bitti: {}", report);
+        return report;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private final class Batch<T> {
+        private final String keyspace;
+        private final JournalOperation operation;
+        private final List<T> entities;
+        private final List<String> ids;
+        private final List<String> keys;
+        private final List<Boolean> replaces;
+        private final Map<String, Integer> shards = new HashMap<>();
+
+        private Batch(String keyspace, JournalOperation operation, int capacity) {
+            this.keyspace = keyspace;
+            this.operation = operation;
+            this.entities = new ArrayList<>(capacity);
+            this.ids = new ArrayList<>(capacity);
+            this.keys = new ArrayList<>(capacity);
+            this.replaces = new ArrayList<>(capacity);
+        }
+
+        // ID verilmemişse üretilir; shard'lı ürünlerde shard sayısı hash'e değil script'e gider
+        private void add(T entity) {
+            String id = entityHashMapper.idOf(entity);
+            replaces.add(id != null);
+            if (id == null) {
+                id = UUID.randomUUID().toString();
+                entityHashMapper.assignId(entity, id);
+            }
+            if (entity instanceof Product product && StockShardReader.isSharded(product)) {
+                shards.put(id, product.getStockShards());
+                product.setStockShards(null);
+            }
+            entities.add(entity);
+            ids.add(id);
+            keys.add(keyspace + ":" + id);
+        }
+
+        private List<Map<String, String>> hashes() {
+            List<Map<String, String>> hashes = new ArrayList<>(entities.size());
+            entities.forEach(entity -> hashes.add(entityHashMapper.toHash(entity)));
+            return hashes;
+        }
+
+        private int size() {
+            return entities.size();
+        }
+
+        private void clear() {
+            entities.clear();
+            ids.clear();
+            keys.clear();
+            replaces.clear();
+            shards.clear();
+        }
+    }
+
+    private static final class Progress {
+        private final String entity;
+        private final long started = System.nanoTime();
+        private volatile long read;
+        private volatile long written;
+        private volatile long failed;
+        private volatile String error;
+
+        private Progress(String entity) {
+            this.entity = entity;
+        }
+
+        private void failed(String message) {
+            failed++;
+            if (error == null) {
+                error = message;
+            }
+        }
+
+        private void error(String message) {
+            error = message;
+        }
+
+        private BulkLoadReport report(BulkLoadReport.Status status) {
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            return new BulkLoadReport(entity, status, read, written, failed, error, elapsedMs,
+                    elapsedMs == 0 ? written : written * 1000 / elapsedMs);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.fsk.redisasdatabase.bulk;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// RFC 4180 CSV okuyucu: ilk satır başlıktır, başlıklar entity alan adlarıdır (ör. name,price,stock).
+// Tırnaklı alanlarda virgül, satır sonu ve "" kaçışı desteklenir. Boş alanlar satır map'ine konmaz.
+final class CsvReader {
+
+    private final Reader reader;
+    private final List<String> header;
+    private long line;
+    private int next = -2;
+
+    CsvReader(Reader reader) throws IOException {
+        this.reader = reader;
+        List<String> fields = readFields();
+        if (fields == null || fields.isEmpty()) {
+            throw new IllegalArgumentException("CSV başlık satırı bulunamadı");
+        }
+        this.header = fields.stream().map(String::trim).toList();
+    }
+
+    long line() {
+        return line;
+    }
+
+    // Dosya bittiyse null döner
+    Map<String, String> next() throws IOException {
+        List<String> fields;
+        do {
+            fields = readFields();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isEmpty());
+        if (fields.size() > header.size()) {
+            throw new IllegalArgumentException("Satır " + line + ": başlıktan fazla alan var");
+        }
+        Map<String, String> row = new HashMap<>(header.size() * 2);
+        for (int i = 0; i < fields.size(); i++) {
+            if (!fields.get(i).isEmpty()) {
+                row.put(header.get(i), fields.get(i));
+            }
+        }
+        return row;
+    }
+
+    private List<String> readFields() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        line++;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Satır " + line + ": kapanmamış tırnak");
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private int read() throws IOException {
+        if (next != -2) {
+            int c = next;
+            next = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private int peek() throws IOException {
+        if (next == -2) {
+            next = reader.read();
+        }
+        return next;
+    }
+}
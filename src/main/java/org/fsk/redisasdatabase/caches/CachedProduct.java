@@ -0,0 +1,23 @@
+package org.fsk.redisasdatabase.caches;
+
+import org.fsk.redisasdatabase.domains.Product;
+
+import java.math.BigDecimal;
+
+// Near-cache girdisi: nesne grafiği yerine sabit alanlar tutulur. Ürünün sipariş referansları hiçbir yazımda
+// doldurulmadığından cache'e alınmaz.
+record CachedProduct(String id, String name, BigDecimal price, int stock, Integer stockShards, Long version) {
+
+    private static final int NO_STOCK = Integer.MIN_VALUE;
+
+    static CachedProduct of(Product product) {
+        return new CachedProduct(product.getId(), product.getName(), product.getPrice(),
+                product.getStock() == null ? NO_STOCK : product.getStock(), product.getStockShards(),
+                product.getVersion());
+    }
+
+    // Her okumada yeni nesne döner, çağıranlar cache'teki değeri değiştiremez
+    Product toProduct() {
+        return new Product(id, name, price, stock == NO_STOCK ? null : stock, stockShards, null, version);
+    }
+}
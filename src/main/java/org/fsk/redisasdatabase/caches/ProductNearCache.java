@@ -0,0 +1,245 @@
+package org.fsk.redisasdatabase.caches;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.StringCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.configurations.RedisTopology;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Ürün okumaları için uygulama içi cache (Caffeine, W-TinyLFU).
+// Tutarlılık Redis client-side caching ile sağlanır: ayrı bir RESP3 bağlantısında
+// CLIENT TRACKING BCAST PREFIX product: açılır ve gelen invalidate mesajları girdiyi siler.
+// Tracking aktif değilken (bağlantı kopuk ya da kurulamadı) cache atlanır, okumalar doğrudan Redis'e gider.
+// Sadece STANDALONE topolojide çalışır: replica'dan okunan değer invalidate mesajından sonra gelip eski hali
+// cache'e koyabilir, cluster'da ise her master'a ayrı tracking bağlantısı gerekir.
+// Invalidate anahtar düzeyindedir: shard'sız üründe her checkout product:<id> hash'indeki stock ve version'ı
+// artırdığından girdi tüm node'larda silinir, satılan ürün cache'ten yararlanamaz. Sık satılan ürünler shard'lanmalı;
+// shard sayaçları product: öneki dışında olduğundan checkout girdiyi silmez (stok her okumada sayaçlardan gelir).
+// Stok kirası da hash'e sadece blok kiralanırken yazar. Ölçüm: cache.gets (hit/miss) ve invalidations metrikleri.
+@Component
+@Slf4j
+public class ProductNearCache {
+
+    private static final String PREFIX = RedisKeys.PRODUCT + ":";
+    private static final int MAX_PENDING_WRITES = 10_000;
+
+    private final LettuceConnectionFactory connectionFactory;
+    private final boolean enabled;
+    private final Cache<String, CachedProduct> cache;
+    private final Map<String, Long> pendingWrites = new ConcurrentHashMap<>();
+    private final Counter invalidations;
+    private final Timer invalidationLag;
+    private final ScheduledExecutorService reconnectExecutor;
+
+    private volatile boolean coherent;
+    private RedisClient trackingClient;
+    private StatefulRedisConnection<String, String> trackingConnection;
+
+    public ProductNearCache(LettuceConnectionFactory connectionFactory, MeterRegistry meterRegistry,
+                            @Value("${app.product-cache.enabled:true}") boolean enabled,
+                            @Value("${app.product-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${app.product-cache.expire-after-write:10m}") Duration expireAfterWrite,
+                            @Value("${app.redis.topology:standalone}") RedisTopology topology) {
+        this.connectionFactory = connectionFactory;
+        this.enabled = enabled && topology == RedisTopology.STANDALONE;
+        if (enabled && !this.enabled) {
+            log.info("Ürün cache'i {} topolojide devre dışı", topology);
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.invalidations = meterRegistry.counter("product.near-cache.invalidations");
+        this.invalidationLag = Timer.builder("product.near-cache.invalidation.lag")
+                .description("Yerel yazma ile invalidate mesajının gelişi arasındaki süre")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.reconnectExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-near-cache-tracking");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "product.near-cache");
+        Gauge.builder("product.near-cache.hit.ratio", cache, c -> c.stats().hitRate()).register(meterRegistry);
+        Gauge.builder("product.near-cache.coherent", this, c -> c.coherent ? 1 : 0).register(meterRegistry);
+    }
+
+    // Açılış ısınmasından önce çalışır, böylece ısınma tracking bağlantısını bekleyip cache'i doldurabilir
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void start() {
+        if (enabled) {
+            reconnectExecutor.execute(this::connect);
+        }
+    }
+
+    // Loader cache'in compute kilidi içinde çalışır; bu sırada gelen invalidate, yükleme bitince girdiyi siler
+    public Product get(String id, Supplier<Product> loader) {
+        if (!coherent) {
+            return loader.get();
+        }
+        CachedProduct cached = cache.get(id, key -> {
+            Product product = loader.get();
+            return product == null ? null : CachedProduct.of(product);
+        });
+        return cached == null ? null : cached.toProduct();
+    }
+
+    // Yerel yazmalarda çağrılır: okuma-yazma tutarlılığı için girdiyi hemen siler ve gecikme ölçümünü başlatır
+    public void invalidate(String id) {
+        cache.invalidate(id);
+        if (coherent) {
+            if (pendingWrites.size() >= MAX_PENDING_WRITES) {
+                pendingWrites.clear();
+            }
+            pendingWrites.put(PREFIX + id, System.nanoTime());
+        }
+    }
+
+    // Isınma: verilen ürünleri cache'e koyar. Tracking aktif değilse hiçbir şey yapmaz, dönen değer eklenen sayıdır.
+    public int preload(Collection<Product> products) {
+        if (!coherent) {
+            return 0;
+        }
+        products.forEach(product -> cache.put(product.getId(), CachedProduct.of(product)));
+        return products.size();
+    }
+
+    // Tracking bağlantısı açılışta arka planda kurulur; ısınma öncesinde beklemek için
+    public boolean awaitCoherent(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (enabled && !coherent && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        return coherent;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        pendingWrites.clear();
+    }
+
+    public boolean isCoherent() {
+        return coherent;
+    }
+
+    private void connect() {
+        try {
+            RedisURI uri = RedisURI.builder()
+                    .withHost(connectionFactory.getHostName())
+                    .withPort(connectionFactory.getPort())
+                    .withDatabase(connectionFactory.getDatabase())
+                    .build();
+            trackingClient = RedisClient.create(uri);
+            trackingClient.addListener(new RedisConnectionStateListener() {
+                // Lettuce 6 yeniden bağlanmada bu imzayı çağırır; tek parametreli eski hali deprecated
+                @Override
+                public void onRedisConnected(RedisChannelHandler<?, ?> connection, SocketAddress socketAddress) {
+                    // Yeniden bağlanınca tracking durumu sunucuda kaybolur, yeniden aç
+                    if (trackingConnection != null) {
+                        reconnectExecutor.execute(ProductNearCache.this::enableTracking);
+                    }
+                }
+
+                @Override
+                public void onRedisDisconnected(RedisChannelHandler<?, ?> connection) {
+                    coherent = false;
+                    invalidateAll();
+                }
+            });
+            trackingConnection = trackingClient.connect();
+            trackingConnection.addListener(this::onPushMessage);
+            enableTracking();
+        } catch (Exception e) {
+            log.warn("Ürün cache'i için tracking bağlantısı kurulamadı, 30 sn sonra tekrar denenecek: {}",
+                    e.getMessage());
+            close();
+            reconnectExecutor.schedule(this::connect, 30, TimeUnit.SECONDS);
+        }
+    }
+
+    private void enableTracking() {
+        try {
+            trackingConnection.sync().clientTracking(TrackingArgs.Builder.enabled().bcast().prefixes(PREFIX));
+            invalidateAll();
+            coherent = true;
+            log.info("Ürün cache'i için Redis client tracking aktif");
+        } catch (Exception e) {
+            log.warn("Client tracking açılamadı, ürün cache'i devre dışı: {}", e.getMessage());
+        }
+    }
+
+    private void onPushMessage(PushMessage message) {
+        if (!"invalidate".equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        Object keys = content.size() > 1 ? content.get(1) : null;
+        if (keys == null) {
+            // FLUSHALL/FLUSHDB: tüm anahtarlar geçersiz
+            invalidateAll();
+            return;
+        }
+        for (Object key : (List<?>) keys) {
+            String redisKey = (String) key;
+            cache.invalidate(redisKey.substring(PREFIX.length()));
+            invalidations.increment();
+            Long writtenAt = pendingWrites.remove(redisKey);
+            if (writtenAt != null) {
+                invalidationLag.record(System.nanoTime() - writtenAt, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reconnectExecutor.shutdownNow();
+        close();
+    }
+
+    private void close() {
+        coherent = false;
+        if (trackingConnection != null) {
+            trackingConnection.close();
+            trackingConnection = null;
+        }
+        if (trackingClient != null) {
+            trackingClient.shutdown(Duration.ZERO, Duration.ofSeconds(2));
+            trackingClient = null;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.fsk.redisasdatabase.concurrency;
+
+import lombok.Getter;
+
+// Koşullu güncellemede hash sürümü beklenenden farklı çıktı; hiçbir şey yazılmadı.
+// IllegalStateException olduğu için controller'larda 409 olarak döner.
+@Getter
+public class OptimisticLockException extends IllegalStateException {
+
+    private final String entity;
+    private final String id;
+    private final long expectedVersion;
+    private final long currentVersion;
+
+    public OptimisticLockException(String entity, String id, long expectedVersion, long currentVersion) {
+        super("Eşzamanlı güncelleme çakışması. " + entity + ": " + id + ", Beklenen sürüm: " + expectedVersion
+                + ", Mevcut sürüm: " + currentVersion);
+        this.entity = entity;
+        this.id = id;
+        this.expectedVersion = expectedVersion;
+        this.currentVersion = currentVersion;
+    }
+}
@@ -0,0 +1,100 @@
+package org.fsk.redisasdatabase.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// İyimser eşzamanlılık için tekrar politikası. Deneme oku-hesapla-koşullu yaz adımlarının tamamıdır ve
+// çakışmada OptimisticLockException fırlatır; deneme baştan (yeni okuma ile) tekrarlanır.
+// Bekleme üstel artar ve "full jitter" uygulanır: [0, min(maxBackoff, initialBackoff * 2^n)] aralığında
+// rastgele, böylece aynı anda çakışan yazıcılar aynı anda tekrar denemez.
+// Metrikler entity bazında: optimistic.conflicts, optimistic.retries, optimistic.retries.exhausted
+@Component
+@Slf4j
+public class OptimisticRetry {
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public OptimisticRetry(MeterRegistry meterRegistry,
+                           @Value("${app.concurrency.retry.max-attempts:8}") int maxAttempts,
+                           @Value("${app.concurrency.retry.initial-backoff:2ms}") Duration initialBackoff,
+                           @Value("${app.concurrency.retry.max-backoff:100ms}") Duration maxBackoff) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("app.concurrency.retry.max-attempts en az 1 olmalı");
+        }
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    // Çakışmada politika kadar tekrar dener, hepsi çakışırsa son OptimisticLockException fırlatılır
+    public <T> T execute(String entity, Supplier<T> attempt) {
+        return run(entity, maxAttempts, attempt);
+    }
+
+    // Tek deneme: sürümü istemcinin verdiği koşullu güncellemelerde tekrar anlamsızdır, sadece sayılır
+    public <T> T once(String entity, Supplier<T> attempt) {
+        return run(entity, 1, attempt);
+    }
+
+    private <T> T run(String entity, int attempts, Supplier<T> attempt) {
+        Meters counters = meters.computeIfAbsent(entity, this::register);
+        for (int i = 1; ; i++) {
+            try {
+                return attempt.get();
+            } catch (OptimisticLockException e) {
+                counters.conflicts.increment();
+                if (i >= attempts) {
+                    if (attempts > 1) {
+                        counters.exhausted.increment();
+                        log.warn("{} denemenin hepsi çakıştı. {}", attempts, e.getMessage());
+                    }
+                    throw e;
+                }
+                counters.retries.increment();
+                backoff(i);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 30));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tekrar beklemesi kesildi", e);
+        }
+    }
+
+    private Meters register(String entity) {
+        return new Meters(
+                Counter.builder("optimistic.conflicts").tag("entity", entity)
+                        .description("Sürüm uyuşmazlığı nedeniyle yazılmayan koşullu güncellemeler")
+                        .register(meterRegistry),
+                Counter.builder("optimistic.retries").tag("entity", entity).register(meterRegistry),
+                Counter.builder("optimistic.retries.exhausted").tag("entity", entity)
+                        .description("Tüm denemeleri çakışan işlemler")
+                        .register(meterRegistry));
+    }
+
+    private record Meters(Counter conflicts, Counter retries, Counter exhausted) {
+    }
+}
@@ -0,0 +1,130 @@
+package org.fsk.redisasdatabase.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Aynı anahtar için eşzamanlı okumaları birleştirir: ilk gelen (lider) Redis'e gider, o sürerken gelenler
+// liderin sonucunu (ya da hatasını) bekler. Sonuç saklanmaz; çağrı bitince anahtar tablodan çıkar, bu yüzden
+// okunan veri en fazla okumayla eşzamanlı bir yazım kadar eskidir. Yerel yazımlar forget() ile anahtarı
+// bırakır, yazımdan sonra başlayan okuma yazımdan önce başlamış bir çağrıya katılmaz.
+// Tablo max-in-flight ile sınırlıdır; doluysa çağrı birleştirilmeden doğrudan çalışır.
+// Paylaşılan sonuç aynı nesnedir, çağıranlar değiştirmemelidir.
+// Metrikler entity bazında: singleflight.calls{result=leader|coalesced|bypassed}, singleflight.coalescing.ratio
+@Component
+public class SingleFlight {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int maxInFlight;
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public SingleFlight(MeterRegistry meterRegistry,
+                        @Value("${app.single-flight.enabled:true}") boolean enabled,
+                        @Value("${app.single-flight.max-in-flight:10000}") int maxInFlight) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxInFlight = maxInFlight;
+        Gauge.builder("singleflight.in-flight", size, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String entity, String key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Meters counters = meters.computeIfAbsent(entity, this::register);
+        String flightKey = entity + ":" + key;
+        CompletableFuture<Object> existing = inFlight.get(flightKey);
+        if (existing == null) {
+            if (size.incrementAndGet() > maxInFlight) {
+                size.decrementAndGet();
+                counters.bypassed.increment();
+                return loader.get();
+            }
+            CompletableFuture<Object> call = new CompletableFuture<>();
+            existing = inFlight.putIfAbsent(flightKey, call);
+            if (existing == null) {
+                counters.leader.increment();
+                return (T) lead(flightKey, call, loader);
+            }
+            size.decrementAndGet();
+        }
+        counters.coalesced.increment();
+        try {
+            return (T) existing.join();
+        } catch (CompletionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    // Yerel yazımdan sonra çağrılır: devam eden okuma yazımı görmemiş olabilir, yeni gelenler ona katılmaz
+    public void forget(String entity, String key) {
+        if (inFlight.remove(entity + ":" + key) != null) {
+            size.decrementAndGet();
+        }
+    }
+
+    private Object lead(String flightKey, CompletableFuture<Object> call, Supplier<?> loader) {
+        try {
+            Object result = loader.get();
+            release(flightKey, call);
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            release(flightKey, call);
+            call.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Sonuç bildirilmeden önce tablodan çıkarılır; bekleyenler uyandıktan sonra gelen çağrılar yeni okuma yapar
+    private void release(String flightKey, CompletableFuture<Object> call) {
+        if (inFlight.remove(flightKey, call)) {
+            size.decrementAndGet();
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    private Meters register(String entity) {
+        Counter leader = Counter.builder("singleflight.calls").tag("entity", entity).tag("result", "leader")
+                .description("Redis'e giden çağrılar").register(meterRegistry);
+        Counter coalesced = Counter.builder("singleflight.calls").tag("entity", entity).tag("result", "coalesced")
+                .description("Devam eden bir çağrının sonucunu paylaşan çağrılar")
+                .register(meterRegistry);
+        Counter bypassed = Counter.builder("singleflight.calls").tag("entity", entity).tag("result", "bypassed")
+                .description("Tablo dolu olduğu için birleştirilmeden çalışan çağrılar")
+                .register(meterRegistry);
+        Gauge.builder("singleflight.coalescing.ratio", () -> {
+                    double total = leader.count() + coalesced.count() + bypassed.count();
+                    return total == 0 ? 0 : coalesced.count() / total;
+                })
+                .tag("entity", entity)
+                .description("Birleştirilen çağrıların tüm çağrılara oranı")
+                .register(meterRegistry);
+        return new Meters(leader, coalesced, bypassed);
+    }
+
+    private record Meters(Counter leader, Counter coalesced, Counter bypassed) {
+    }
+}
@@ -1,49 +1,166 @@
 package org.fsk.redisasdatabase.configurations;
 
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.fsk.redisasdatabase.metrics.RedisCommandMetrics;
+import org.fsk.redisasdatabase.metrics.RedisPoolMetrics;
+import org.fsk.redisasdatabase.serializers.CompactRedisSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.repository.configuration.EnableRedisRepositories;
-import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.List;
 
 
 @Configuration
 @EnableRedisRepositories
 public class RedisConfigurations {
 
+    // Transaction dışı komutlar tek bir paylaşılan (multiplexed) bağlantıdan gider; MULTI/WATCH gibi
+    // bağlantıya özel oturumlar havuzdan ayrı bağlantı alır. Virtual thread modunda binlerce istek
+    // aynı paylaşılan bağlantıyı kullanır, havuz sadece transaction'lar için boyutlandırılır.
+    // Topoloji app.redis.topology ile seçilir; REPLICA ve CLUSTER'da okumalar read-from'a göre dağıtılır,
+    // script'ler ve yazmalar her zaman master'a gider.
+    // Komut metrikleri client'a CommandListener olarak bağlanır, client oluşturulduğu anda devrededir.
     @Bean
-    public LettuceConnectionFactory redisConnectionFactory() {
+    public LettuceConnectionFactory redisConnectionFactory(
+            RedisProperties redisProperties,
+            RedisCommandMetrics commandMetrics,
+            @Value("${app.redis.topology:standalone}") RedisTopology topology,
+            @Value("${app.redis.replicas:}") List<String> replicas,
+            @Value("${app.redis.read-from:REPLICA_PREFERRED}") String readFrom) {
 
+        LettucePoolingClientConfiguration.LettucePoolingClientConfigurationBuilder clientConfiguration =
+                LettucePoolingClientConfiguration
+                        .builder()
+                        .poolConfig(poolConfig(redisProperties.getLettuce().getPool()))
+                        .commandTimeout(Duration.ofSeconds(2))
+                        .shutdownTimeout(Duration.ZERO);
+
+        LettuceConnectionFactory connectionFactory = switch (topology) {
+            case STANDALONE -> instrumented(standalone(redisProperties), clientConfiguration.build(), commandMetrics);
+            case REPLICA -> {
+                if (replicas.isEmpty()) {
+                    throw new IllegalStateException("REPLICA topolojisi için app.redis.replicas boş olamaz");
+                }
+                RedisStaticMasterReplicaConfiguration configuration = new RedisStaticMasterReplicaConfiguration(
+                        redisProperties.getHost(), redisProperties.getPort());
+                configuration.setDatabase(redisProperties.getDatabase());
+                // host:port listesi
+                replicas.forEach(replica -> {
+                    int separator = replica.lastIndexOf(':');
+                    configuration.addNode(replica.substring(0, separator).trim(),
+                            Integer.parseInt(replica.substring(separator + 1).trim()));
+                });
+                yield instrumented(configuration, clientConfiguration.readFrom(readFrom(readFrom)).build(),
+                        commandMetrics);
+            }
+            case CLUSTER -> {
+                RedisProperties.Cluster cluster = redisProperties.getCluster();
+                if (cluster == null || cluster.getNodes() == null || cluster.getNodes().isEmpty()) {
+                    throw new IllegalStateException(
+                            "CLUSTER topolojisi için spring.data.redis.cluster.nodes boş olamaz");
+                }
+                RedisClusterConfiguration configuration = new RedisClusterConfiguration(cluster.getNodes());
+                if (cluster.getMaxRedirects() != null) {
+                    configuration.setMaxRedirects(cluster.getMaxRedirects());
+                }
+                // Failover ve resharding'de MOVED/ASK ile topoloji yenilenir
+                ClusterClientOptions clientOptions = ClusterClientOptions.builder()
+                        .topologyRefreshOptions(ClusterTopologyRefreshOptions.builder()
+                                .enableAllAdaptiveRefreshTriggers()
+                                .build())
+                        .build();
+                yield instrumented(configuration, clientConfiguration
+                        .clientOptions(clientOptions)
+                        .readFrom(readFrom(readFrom))
+                        .build(), commandMetrics);
+            }
+        };
+        connectionFactory.setShareNativeConnection(true);
+        return connectionFactory;
+    }
+
+    private static LettuceConnectionFactory instrumented(RedisConfiguration configuration,
+                                                         LettuceClientConfiguration clientConfiguration,
+                                                         RedisCommandMetrics commandMetrics) {
+        return new LettuceConnectionFactory(configuration, clientConfiguration) {
+            @Override
+            protected AbstractRedisClient createClient() {
+                AbstractRedisClient client = super.createClient();
+                if (commandMetrics.isEnabled()) {
+                    client.addListener(commandMetrics);
+                }
+                return client;
+            }
+        };
+    }
+
+    // REPLICA_PREFERRED gibi yazımları da kabul eder (Lettuce replicaPreferred bekler, büyük/küçük harf duyarsız)
+    private static ReadFrom readFrom(String value) {
+        return ReadFrom.valueOf(value.replace("_", ""));
+    }
+
+    private static RedisStandaloneConfiguration standalone(RedisProperties redisProperties) {
         RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration();
-        configuration.setHostName("localhost");
-        configuration.setPort(6379);
+        configuration.setHostName(redisProperties.getHost());
+        configuration.setPort(redisProperties.getPort());
+        configuration.setDatabase(redisProperties.getDatabase());
+        return configuration;
+    }
 
-        LettuceClientConfiguration clientConfiguration = LettuceClientConfiguration
-                .builder()
-                .commandTimeout(Duration.ofSeconds(2))
-                .shutdownTimeout(Duration.ZERO)
-                .build();
+    private GenericObjectPoolConfig<StatefulConnection<?, ?>> poolConfig(RedisProperties.Pool pool) {
+        GenericObjectPoolConfig<StatefulConnection<?, ?>> config = new GenericObjectPoolConfig<>();
+        config.setMaxTotal(pool.getMaxActive());
+        config.setMaxIdle(pool.getMaxIdle());
+        config.setMinIdle(pool.getMinIdle());
+        // Havuz metrikleri JMX üzerinden bu isimle okunur
+        config.setJmxNamePrefix(RedisPoolMetrics.JMX_NAME_PREFIX);
+        // Havuz tükenince sonsuza kadar beklemek yerine hata ver (thread'ler birikmesin)
+        if (pool.getMaxWait() != null) {
+            config.setMaxWait(pool.getMaxWait());
+        }
+        if (pool.getTimeBetweenEvictionRuns() != null) {
+            config.setTimeBetweenEvictionRuns(pool.getTimeBetweenEvictionRuns());
+        }
+        return config;
+    }
 
-        return new LettuceConnectionFactory(configuration, clientConfiguration);
+    @Bean
+    public CompactRedisSerializer compactRedisSerializer() {
+        return new CompactRedisSerializer();
     }
 
+    // Sadece değer (String/Object) okuyan yazan kod için; entity hash'leri repository'ler ile yazılır, bu
+    // template'in serializer'ından geçmez
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory,
+                                                       CompactRedisSerializer compactRedisSerializer) {
 
         RedisTemplate<String, Object> template = new RedisTemplate<>();
 
         template.setConnectionFactory(redisConnectionFactory);
         template.setHashKeySerializer(new StringRedisSerializer());
-        template.setHashValueSerializer(new JdkSerializationRedisSerializer());
+        template.setHashValueSerializer(compactRedisSerializer);
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new JdkSerializationRedisSerializer());
+        template.setValueSerializer(compactRedisSerializer);
         template.setEnableTransactionSupport(true);
         template.afterPropertiesSet();
 
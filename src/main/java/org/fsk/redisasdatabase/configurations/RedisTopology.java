@@ -0,0 +1,11 @@
+package org.fsk.redisasdatabase.configurations;
+
+// app.redis.topology: Redis'e nasıl bağlanılacağı
+public enum RedisTopology {
+    // Tek sunucu (spring.data.redis.host/port)
+    STANDALONE,
+    // Sabit master + replica'lar (app.redis.replicas); okumalar app.redis.read-from'a göre replica'lara gider
+    REPLICA,
+    // Redis Cluster (spring.data.redis.cluster.nodes); yazma kapasitesi shard sayısıyla artar
+    CLUSTER
+}
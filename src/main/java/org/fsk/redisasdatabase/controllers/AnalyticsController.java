@@ -0,0 +1,93 @@
+package org.fsk.redisasdatabase.controllers;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.analytics.AggregateBackfill;
+import org.fsk.redisasdatabase.analytics.SalesAggregates;
+import org.fsk.redisasdatabase.dtos.AggregateBackfillReport;
+import org.fsk.redisasdatabase.dtos.DailySales;
+import org.fsk.redisasdatabase.dtos.ProductSales;
+import org.fsk.redisasdatabase.dtos.SalesSummary;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Satış özetleri checkout sırasında güncellenir; buradaki sorgular siparişleri okumaz.
+// Tarih verilmezse son 7 gün (bugün dahil) döner.
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsController {
+
+    private final SalesAggregates salesAggregates;
+    private final AggregateBackfill aggregateBackfill;
+
+    @GetMapping("/sales/daily")
+    public ResponseEntity<List<DailySales>> getDailySales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to == null ? LocalDate.now() : to;
+        return query(() -> salesAggregates.daily(from == null ? end.minusDays(6) : from, end));
+    }
+
+    @GetMapping("/sales/summary")
+    public ResponseEntity<SalesSummary> getSalesSummary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to == null ? LocalDate.now() : to;
+        return query(() -> salesAggregates.summary(from == null ? end.minusDays(6) : from, end));
+    }
+
+    @GetMapping("/buyers")
+    public ResponseEntity<Long> getUniqueBuyers() {
+        return query(salesAggregates::uniqueBuyers);
+    }
+
+    @GetMapping("/products/{id}")
+    public ResponseEntity<ProductSales> getProductSales(@PathVariable String id) {
+        return query(() -> salesAggregates.productSales(id));
+    }
+
+    @GetMapping("/products/top")
+    public ResponseEntity<List<ProductSales>> getTopProducts(@RequestParam(defaultValue = "10") int limit) {
+        return query(() -> salesAggregates.topProducts(limit));
+    }
+
+    // Özetleri mevcut siparişlerden yeniden hesaplar (özellik açılmadan önceki siparişler için)
+    @PostMapping("/backfill")
+    public ResponseEntity<AggregateBackfillReport> backfill() {
+        log.debug("Satış özetleri yeniden hesaplama isteği alındı");
+        try {
+            return ResponseEntity.ok(aggregateBackfill.backfill());
+        } catch (IllegalStateException e) {
+            log.warn("Satış özetleri yeniden hesaplanamadı: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("Satış özetleri yeniden hesaplanırken hata: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    private <T> ResponseEntity<T> query(Supplier<T> query) {
+        try {
+            return ResponseEntity.ok(query.get());
+        } catch (IllegalArgumentException e) {
+            log.warn("Geçersiz analiz sorgusu: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Analiz sorgusu çalıştırılırken hata: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.fsk.redisasdatabase.controllers;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.archive.OrderArchive;
+import org.fsk.redisasdatabase.archive.OrderArchiver;
+import org.fsk.redisasdatabase.dtos.ArchiveReport;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/archive")
+@RequiredArgsConstructor
+@Slf4j
+public class ArchiveController {
+
+    private final OrderArchive orderArchive;
+    private final OrderArchiver orderArchiver;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        try {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("enabled", orderArchive.isEnabled());
+            status.put("orders", orderArchive.getOrderCount());
+            status.put("bytes", orderArchive.getSizeBytes());
+            status.put("segments", orderArchive.segments().stream().map(Path::toString).toList());
+            return ResponseEntity.ok(status);
+        } catch (Exception e) {
+            log.error("Arşiv durumu okunamadı: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Yaş sınırını geçmiş siparişleri zamanlanmış çalıştırmayı beklemeden arşive taşır
+    @PostMapping("/run")
+    public ResponseEntity<ArchiveReport> archive() {
+        log.debug("Arşivleme isteği alındı");
+        try {
+            return ResponseEntity.ok(orderArchiver.archive());
+        } catch (IllegalStateException e) {
+            log.warn("Arşivleme başlatılamadı: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("Arşivleme sırasında hata: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
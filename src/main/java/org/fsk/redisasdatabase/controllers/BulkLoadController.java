@@ -0,0 +1,65 @@
+package org.fsk.redisasdatabase.controllers;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.bulk.BulkLoader;
+import org.fsk.redisasdatabase.dtos.BulkLoadReport;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// Toplu yükleme. Gövde text/csv (başlık satırı alan adları) ya da application/json (nesne dizisi) olabilir:
+// curl -X POST -H 'Content-Type: text/csv' --data-binary @products.csv localhost:8081/api/bulk/products
+@RestController
+@RequestMapping("/api/bulk")
+@RequiredArgsConstructor
+@Slf4j
+public class BulkLoadController {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private final BulkLoader bulkLoader;
+
+    @PostMapping(value = "/products", consumes = {TEXT_CSV, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<BulkLoadReport> loadProducts(HttpServletRequest request) {
+        log.debug("Ürün toplu yükleme isteği alındı. Content-Type: {}", request.getContentType());
+        return load(request, true);
+    }
+
+    @PostMapping(value = "/customers", consumes = {TEXT_CSV, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<BulkLoadReport> loadCustomers(HttpServletRequest request) {
+        log.debug("Müşteri toplu yükleme isteği alındı. Content-Type: {}", request.getContentType());
+        return load(request, false);
+    }
+
+    @GetMapping("/progress")
+    public ResponseEntity<BulkLoadReport> getProgress() {
+        BulkLoadReport report = bulkLoader.progress();
+        return report == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(report);
+    }
+
+    private ResponseEntity<BulkLoadReport> load(HttpServletRequest request, boolean products) {
+        BulkLoader.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.APPLICATION_JSON) ? BulkLoader.Format.JSON : BulkLoader.Format.CSV;
+        try {
+            BulkLoadReport report = products
+                    ? bulkLoader.loadProducts(request.getInputStream(), format)
+                    : bulkLoader.loadCustomers(request.getInputStream(), format);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            log.warn("Geçersiz toplu yükleme verisi: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(bulkLoader.progress());
+        } catch (IllegalStateException e) {
+            log.warn("Toplu yükleme başlatılamadı: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("Toplu yükleme sırasında hata: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(bulkLoader.progress());
+        }
+    }
+}
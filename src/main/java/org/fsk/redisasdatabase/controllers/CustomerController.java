@@ -1,10 +1,14 @@
 package org.fsk.redisasdatabase.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.dtos.CursorPage;
 import org.fsk.redisasdatabase.services.CustomerService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,6 +22,7 @@ import java.util.List;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<Customer> createCustomer(@RequestBody Customer customer) {
@@ -59,6 +64,46 @@ public class CustomerController {
         }
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<Customer>> getCustomersPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        log.debug("Müşteriler sayfa isteği alındı. Cursor: {}, Boyut: {}", cursor, size);
+        try {
+            return ResponseEntity.ok(customerService.getCustomersPage(cursor, size));
+        } catch (Exception e) {
+            log.error("Müşteriler sayfası getirilirken hata: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/{id}/orders")
+    public ResponseEntity<CursorPage<Order>> getCustomerOrders(
+            @PathVariable String id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "true") boolean newestFirst) {
+        log.debug("Müşteri sipariş geçmişi isteği alındı. ID: {}, Cursor: {}, Boyut: {}", id, cursor, size);
+        try {
+            return ResponseEntity.ok(customerService.getCustomerOrders(id, cursor, size, newestFirst));
+        } catch (IllegalArgumentException e) {
+            log.warn("Geçersiz sipariş geçmişi isteği: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            log.warn("Müşteri bulunamadı. ID: {}", id);
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Müşteri sipariş geçmişi getirilirken hata: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamCustomers() {
+        log.debug("Müşteriler stream isteği alındı");
+        return JsonArrayStream.of(objectMapper, customerService::streamCustomers);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCustomer(@PathVariable String id) {
         log.debug("Müşteri silme isteği alındı. ID: {}", id);
@@ -0,0 +1,41 @@
+package org.fsk.redisasdatabase.controllers;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.dtos.EventStreamStats;
+import org.fsk.redisasdatabase.events.EventConsumers;
+import org.fsk.redisasdatabase.events.EventStreams;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+@Slf4j
+public class EventController {
+
+    private static final Set<String> STREAMS = Set.of(EventStreams.ORDER, EventStreams.STOCK);
+
+    private final EventConsumers eventConsumers;
+
+    // Bölüm uzunlukları ve consumer group durumları (bekleyen olay sayısı, son teslim edilen ID)
+    @GetMapping("/{stream}")
+    public ResponseEntity<List<EventStreamStats>> getStats(@PathVariable String stream) {
+        if (!STREAMS.contains(stream)) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(eventConsumers.stats(stream));
+        } catch (Exception e) {
+            log.error("Olay stream durumu okunamadı. Stream: {}, Hata: {}", stream, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.fsk.redisasdatabase.controllers;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.dtos.ReplayReport;
+import org.fsk.redisasdatabase.journal.Journal;
+import org.fsk.redisasdatabase.journal.JournalReplayer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/journal")
+@RequiredArgsConstructor
+@Slf4j
+public class JournalController {
+
+    private final Journal journal;
+    private final JournalReplayer journalReplayer;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        try {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("enabled", journal.isEnabled());
+            status.put("fsync", journal.getFsyncPolicy());
+            status.put("lastSequence", journal.getLastSequence());
+            status.put("segments", journal.segments().stream().map(Path::toString).toList());
+            return ResponseEntity.ok(status);
+        } catch (Exception e) {
+            log.error("Journal durumu okunamadı: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Journal'daki kayıtları fromSequence'ten itibaren Redis'e yeniden uygular
+    @PostMapping("/replay")
+    public ResponseEntity<ReplayReport> replay(@RequestParam(defaultValue = "1") long fromSequence) {
+        log.debug("Journal replay isteği alındı. Başlangıç sıra no: {}", fromSequence);
+        try {
+            return ResponseEntity.ok(journalReplayer.replay(fromSequence));
+        } catch (IllegalStateException e) {
+            log.warn("Journal replay başlatılamadı: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("Journal replay sırasında hata: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
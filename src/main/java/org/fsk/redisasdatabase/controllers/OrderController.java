@@ -1,15 +1,26 @@
 package org.fsk.redisasdatabase.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.dtos.CursorPage;
+import org.fsk.redisasdatabase.dtos.BatchOrderResult;
+import org.fsk.redisasdatabase.dtos.IndexReport;
+import org.fsk.redisasdatabase.dtos.OrderRequest;
+import org.fsk.redisasdatabase.repositories.FetchPlan;
 import org.fsk.redisasdatabase.services.OrderService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -18,6 +29,7 @@ import java.util.Set;
 public class OrderController {
 
     private final OrderService orderService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<Order> createOrder(
@@ -38,12 +50,28 @@ public class OrderController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchOrderResult>> createOrders(@RequestBody List<OrderRequest> requests) {
+        log.debug("Toplu sipariş oluşturma isteği alındı. Sipariş sayısı: {}", requests.size());
+        try {
+            List<BatchOrderResult> results = orderService.createOrders(requests);
+            return ResponseEntity.ok(results);
+        } catch (Exception e) {
+            log.error("Toplu sipariş oluşturulurken hata: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Order> getOrderById(@PathVariable String id) {
-        log.debug("Sipariş getirme isteği alındı. ID: {}", id);
+    public ResponseEntity<Order> getOrderById(@PathVariable String id,
+                                              @RequestParam(required = false) Set<String> fetch) {
+        log.debug("Sipariş getirme isteği alındı. ID: {}, Fetch: {}", id, fetch);
         try {
-            Order order = orderService.getOrderById(id);
+            Order order = orderService.getOrderById(id, FetchPlan.of(fetch));
             return ResponseEntity.ok(order);
+        } catch (IllegalArgumentException e) {
+            log.warn("Geçersiz fetch planı: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             log.warn("Sipariş bulunamadı. ID: {}", id);
             return ResponseEntity.notFound().build();
@@ -54,14 +82,104 @@ public class OrderController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        log.debug("Tüm siparişleri getirme isteği alındı");
+    public ResponseEntity<List<Order>> getAllOrders(@RequestParam(required = false) Set<String> fetch) {
+        log.debug("Tüm siparişleri getirme isteği alındı. Fetch: {}", fetch);
         try {
-            List<Order> orders = orderService.getAllOrders();
+            List<Order> orders = orderService.getAllOrders(FetchPlan.of(fetch));
             return ResponseEntity.ok(orders);
+        } catch (IllegalArgumentException e) {
+            log.warn("Geçersiz fetch planı: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Siparişler getirilirken hata: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<Order>> getOrdersPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        log.debug("Siparişler sayfa isteği alındı. Cursor: {}, Boyut: {}", cursor, size);
+        try {
+            return ResponseEntity.ok(orderService.getOrdersPage(cursor, size));
+        } catch (IllegalArgumentException e) {
+            log.warn("Geçersiz sayfa isteği: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Siparişler sayfası getirilirken hata: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/search/by-date")
+    public ResponseEntity<List<Order>> getOrdersByDate(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "true") boolean newestFirst,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "50") int limit) {
+        return search(() -> orderService.getOrdersByDate(from, to, newestFirst, offset, limit));
+    }
+
+    @GetMapping("/search/by-amount")
+    public ResponseEntity<List<Order>> getOrdersByAmount(
+            @RequestParam(required = false) BigDecimal min,
+            @RequestParam(required = false) BigDecimal max,
+            @RequestParam(defaultValue = "true") boolean highestFirst,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "50") int limit) {
+        return search(() -> orderService.getOrdersByAmount(min, max, highestFirst, offset, limit));
+    }
+
+    @GetMapping("/search/by-customer/{customerId}")
+    public ResponseEntity<List<Order>> getCustomerOrders(
+            @PathVariable String customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "true") boolean newestFirst,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "50") int limit) {
+        return search(() -> orderService.getCustomerOrders(customerId, from, to, newestFirst, offset, limit));
+    }
+
+    @GetMapping("/indexes/verify")
+    public ResponseEntity<IndexReport> verifyIndexes() {
+        return indexMaintenance(orderService::verifyIndexes);
+    }
+
+    @PostMapping("/indexes/rebuild")
+    public ResponseEntity<IndexReport> rebuildIndexes() {
+        return indexMaintenance(orderService::rebuildIndexes);
+    }
+
+    private ResponseEntity<List<Order>> search(Supplier<List<Order>> query) {
+        try {
+            return ResponseEntity.ok(query.get());
+        } catch (IllegalArgumentException e) {
+            log.warn("Geçersiz sipariş sorgusu: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Sipariş sorgusu çalıştırılırken hata: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    private ResponseEntity<IndexReport> indexMaintenance(Supplier<IndexReport> job) {
+        try {
+            return ResponseEntity.ok(job.get());
+        } catch (IllegalStateException e) {
+            log.warn("Index bakımı başlatılamadı: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("Index bakımı sırasında hata: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamOrders() {
+        log.debug("Siparişler stream isteği alındı");
+        return JsonArrayStream.of(objectMapper, orderService::streamOrders);
+    }
 }
@@ -1,83 +1,54 @@
 package org.fsk.redisasdatabase.controllers;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.List;
 
-import io.micrometer.core.instrument.Timer;
-import org.fsk.redisasdatabase.services.OrderService;
+import org.fsk.redisasdatabase.dtos.LoadTestRequest;
+import org.fsk.redisasdatabase.dtos.LoadTestResult;
+import org.fsk.redisasdatabase.loadgen.LoadGenerator;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import io.micrometer.core.instrument.MeterRegistry;
-
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+// Yük testi koşuları. Sonuçlar JSON olarak döner, ölçümler ayrıca /actuator/prometheus altında
+// loadgen.latency / loadgen.service-time olarak yayınlanır.
 @RestController
 @RequestMapping("/api/performance")
 @RequiredArgsConstructor
 @Slf4j
 public class PerformanceTestController {
 
-    private final OrderService orderService;
-    private final MeterRegistry meterRegistry;
+    private final LoadGenerator loadGenerator;
+
+    @PostMapping("/load-tests")
+    public ResponseEntity<LoadTestResult> startLoadTest(@RequestBody(required = false) LoadTestRequest request) {
+        log.debug("Yük testi isteği alındı: {}", request);
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(loadGenerator.start(request));
+        } catch (IllegalArgumentException e) {
+            log.warn("Geçersiz yük testi isteği: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.warn("Yük testi başlatılamadı: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping("/load-tests/{runId}")
+    public ResponseEntity<LoadTestResult> getLoadTest(@PathVariable String runId) {
+        LoadTestResult result = loadGenerator.result(runId);
+        return result == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(result);
+    }
 
-    @PostMapping("/test")
-    public ResponseEntity<Map<String, Object>> runPerformanceTest(
-            @RequestParam(defaultValue = "1000") int requestCount,
-            @RequestParam(defaultValue = "10") int concurrentUsers) {
-        
-        Timer timer = meterRegistry.timer("performance.test");
-        
-        return timer.record(() -> {
-            ExecutorService executor = Executors.newFixedThreadPool(concurrentUsers);
-            CountDownLatch latch = new CountDownLatch(requestCount);
-            AtomicInteger successCount = new AtomicInteger(0);
-            AtomicInteger errorCount = new AtomicInteger(0);
-            
-            long startTime = System.currentTimeMillis();
-            
-            for (int i = 0; i < requestCount; i++) {
-                executor.submit(() -> {
-                    try {
-                        orderService.demonstrateTransactionIssues();
-                        successCount.incrementAndGet();
-                        meterRegistry.counter("performance.test.success").increment();
-                    } catch (Exception e) {
-                        errorCount.incrementAndGet();
-                        meterRegistry.counter("performance.test.error").increment();
-                    } finally {
-                        latch.countDown();
-                    }
-                });
-            }
-            
-            try {
-                latch.await();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-            
-            long endTime = System.currentTimeMillis();
-            long duration = endTime - startTime;
-            
-            executor.shutdown();
-            
-            Map<String, Object> result = new HashMap<>();
-            result.put("totalRequests", requestCount);
-            result.put("successCount", successCount.get());
-            result.put("errorCount", errorCount.get());
-            result.put("durationMs", duration);
-            result.put("requestsPerSecond", (double) requestCount / (duration / 1000.0));
-            
-            return ResponseEntity.ok(result);
-        });
+    @GetMapping("/load-tests")
+    public ResponseEntity<List<LoadTestResult>> getLoadTests() {
+        return ResponseEntity.ok(loadGenerator.results());
     }
 }
@@ -1,12 +1,15 @@
 package org.fsk.redisasdatabase.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.dtos.CursorPage;
 import org.fsk.redisasdatabase.services.ProductService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -17,6 +20,7 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<Product> createProduct(@RequestBody Product product) {
@@ -58,14 +62,41 @@ public class ProductController {
         }
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<Product>> getProductsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        log.debug("Ürünler sayfa isteği alındı. Cursor: {}, Boyut: {}", cursor, size);
+        try {
+            return ResponseEntity.ok(productService.getProductsPage(cursor, size));
+        } catch (Exception e) {
+            log.error("Ürünler sayfası getirilirken hata: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamProducts() {
+        log.debug("Ürünler stream isteği alındı");
+        return JsonArrayStream.of(objectMapper, productService::streamProducts);
+    }
+
     @PatchMapping("/{id}/stock")
     public ResponseEntity<Product> updateStock(
             @PathVariable String id,
-            @RequestParam Integer newStock) {
-        log.debug("Ürün stok güncelleme isteği alındı. ID: {}, Yeni Stok: {}", id, newStock);
+            @RequestParam Integer newStock,
+            @RequestParam(required = false) Long expectedVersion) {
+        log.debug("Ürün stok güncelleme isteği alındı. ID: {}, Yeni Stok: {}, Beklenen Sürüm: {}",
+                id, newStock, expectedVersion);
         try {
-            Product updatedProduct = productService.updateStock(id, newStock);
+            Product updatedProduct = productService.updateStock(id, newStock, expectedVersion);
             return ResponseEntity.ok(updatedProduct);
+        } catch (IllegalArgumentException e) {
+            log.warn("Geçersiz stok: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.warn("Ürün stoğu güncellenemedi: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             log.warn("Ürün bulunamadı. ID: {}", id);
             return ResponseEntity.notFound().build();
@@ -74,4 +105,43 @@ public class ProductController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    // Göreli stok değişimi (ör. iade için +1); eşzamanlı ayarlamalar çakışmada tekrar denenir, kaybolmaz
+    @PostMapping("/{id}/stock/adjust")
+    public ResponseEntity<Product> adjustStock(
+            @PathVariable String id,
+            @RequestParam int delta) {
+        log.debug("Ürün stok ayarlama isteği alındı. ID: {}, Değişim: {}", id, delta);
+        try {
+            return ResponseEntity.ok(productService.adjustStock(id, delta));
+        } catch (IllegalArgumentException e) {
+            log.warn("Stok ayarlanamadı: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.warn("Stok ayarlama tekrarları tükendi: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            log.warn("Ürün bulunamadı. ID: {}", id);
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Ürün stoku ayarlanırken hata: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PutMapping("/{id}/stock-shards")
+    public ResponseEntity<Product> shardStock(
+            @PathVariable String id,
+            @RequestParam int shards) {
+        log.debug("Ürün stok shard isteği alındı. ID: {}, Shard: {}", id, shards);
+        try {
+            return ResponseEntity.ok(productService.shardStock(id, shards));
+        } catch (IllegalArgumentException e) {
+            log.warn("Geçersiz shard sayısı: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            log.warn("Ürün bulunamadı. ID: {}", id);
+            return ResponseEntity.notFound().build();
+        }
+    }
 }
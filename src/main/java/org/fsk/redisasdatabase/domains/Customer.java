@@ -1,10 +1,8 @@
 package org.fsk.redisasdatabase.domains;
 
 import java.io.Serializable;
-import java.util.Set;
 
 import org.springframework.data.annotation.Id;
-import org.springframework.data.annotation.Reference;
 import org.springframework.data.redis.core.RedisHash;
 
 import lombok.*;
@@ -22,7 +20,6 @@ public class Customer implements Serializable {
     private String name;
     private String email;
     private String phone;
-    @Reference
-    private Set<Order> orders;
+    // Sipariş geçmişi hash'te tutulmaz, {customer:<id>}:order-log listesinden sayfa sayfa okunur
 
 }
@@ -23,7 +23,11 @@ public class Product implements Serializable {
     private String name;
     private BigDecimal price;
     private Integer stock;
+    // 0'dan büyükse stok product hash'inde değil, bu kadar ayrı sayaçta (stock:{product:<id>}:<i>) tutulur
+    private Integer stockShards;
     @Reference
     private Set<Order> orders;
+    // İyimser eşzamanlılık için hash sürümü: stok yazan her script (checkout dahil) 1 artırır
+    private Long version;
 
 }
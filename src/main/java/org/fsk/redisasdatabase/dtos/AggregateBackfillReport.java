@@ -0,0 +1,15 @@
+package org.fsk.redisasdatabase.dtos;
+
+import java.time.Instant;
+
+// Satış özetlerinin siparişlerden yeniden hesaplanması sonucu. aggregatedOrders kesimden önceki siparişlerdir,
+// sonrakiler checkout tarafından sayılıp eklenmiştir. guarded=false ise (cluster) kesim kullanılmamıştır,
+// hesaplama sırasında gelen siparişler özetlerde eksik olabilir.
+public record AggregateBackfillReport(long scannedOrders,
+                                      Instant cutoff,
+                                      long aggregatedOrders,
+                                      int days,
+                                      int products,
+                                      boolean guarded,
+                                      long durationMs) {
+}
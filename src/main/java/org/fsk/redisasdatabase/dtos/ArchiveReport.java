@@ -0,0 +1,14 @@
+package org.fsk.redisasdatabase.dtos;
+
+import java.time.Instant;
+
+// Arşivleme çalıştırmasının sonucu. cutoff'tan eski siparişler taşınır; skipped: önceki yarım kalmış
+// çalıştırmada arşive yazılmış, bu çalıştırmada sadece Redis'ten silinen siparişler.
+public record ArchiveReport(Instant cutoff,
+                            long scanned,
+                            long archived,
+                            long skipped,
+                            int segments,
+                            long bytes,
+                            long durationMs) {
+}
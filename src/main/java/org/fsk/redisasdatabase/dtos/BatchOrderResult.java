@@ -0,0 +1,15 @@
+package org.fsk.redisasdatabase.dtos;
+
+import java.math.BigDecimal;
+
+// Toplu sipariş isteğindeki her siparişin sonucu (index, istek listesindeki sırasıdır)
+public record BatchOrderResult(int index, String orderId, boolean success, BigDecimal totalAmount, String error) {
+
+    public static BatchOrderResult success(int index, String orderId, BigDecimal totalAmount) {
+        return new BatchOrderResult(index, orderId, true, totalAmount, null);
+    }
+
+    public static BatchOrderResult failure(int index, String error) {
+        return new BatchOrderResult(index, null, false, null, error);
+    }
+}
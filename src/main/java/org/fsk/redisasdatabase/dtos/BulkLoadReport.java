@@ -0,0 +1,14 @@
+package org.fsk.redisasdatabase.dtos;
+
+// Toplu yükleme ilerlemesi/sonucu. failed: okunamayan ya da dönüştürülemeyen satırlar, ilk hata error alanında.
+public record BulkLoadReport(String entity,
+                             Status status,
+                             long read,
+                             long written,
+                             long failed,
+                             String error,
+                             long durationMs,
+                             long recordsPerSecond) {
+
+    public enum Status {RUNNING, COMPLETED, FAILED}
+}
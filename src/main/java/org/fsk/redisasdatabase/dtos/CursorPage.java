@@ -0,0 +1,7 @@
+package org.fsk.redisasdatabase.dtos;
+
+import java.util.List;
+
+// nextCursor null ise son sayfadır
+public record CursorPage<T>(List<T> items, String nextCursor) {
+}
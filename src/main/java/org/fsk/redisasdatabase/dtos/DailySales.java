@@ -0,0 +1,8 @@
+package org.fsk.redisasdatabase.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Bir günün satış özeti; uniqueBuyers HyperLogLog tahminidir (~%0.81 standart hata)
+public record DailySales(LocalDate date, BigDecimal revenue, long orders, long units, long uniqueBuyers) {
+}
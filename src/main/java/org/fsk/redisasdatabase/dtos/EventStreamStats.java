@@ -0,0 +1,10 @@
+package org.fsk.redisasdatabase.dtos;
+
+import java.util.List;
+
+// Olay stream'inin bir bölümü: uzunluk (XLEN) ve consumer group'lar (pending onaylanmamış olay sayısıdır)
+public record EventStreamStats(String key, long length, List<Group> groups) {
+
+    public record Group(String name, long consumers, long pending, String lastDeliveredId) {
+    }
+}
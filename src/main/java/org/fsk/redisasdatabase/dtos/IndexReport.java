@@ -0,0 +1,11 @@
+package org.fsk.redisasdatabase.dtos;
+
+// Index doğrulama/yeniden oluşturma sonucu. repaired=false ise sadece sayım yapılmıştır.
+public record IndexReport(String operation,
+                          long scannedOrders,
+                          long missing,
+                          long mismatched,
+                          long orphaned,
+                          boolean repaired,
+                          long durationMs) {
+}
@@ -0,0 +1,58 @@
+package org.fsk.redisasdatabase.dtos;
+
+import org.fsk.redisasdatabase.loadgen.LoadOperation;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Yük testi profili. ratePerSecond sabit geliş hızıdır (open-loop); mix işlemlerin ağırlıklarıdır.
+// Boş bırakılan alanlar varsayılanlarla doldurulur.
+public record LoadTestRequest(Integer ratePerSecond,
+                              Integer durationSeconds,
+                              Integer warmupSeconds,
+                              Map<LoadOperation, Integer> mix,
+                              Integer catalogSize,
+                              Integer customerCount,
+                              Integer productsPerOrder,
+                              Integer pageSize,
+                              Integer maxInFlight) {
+
+    public LoadTestRequest withDefaults() {
+        Map<LoadOperation, Integer> operations = mix == null || mix.isEmpty() ? defaultMix() : new EnumMap<>(mix);
+        LoadTestRequest request = new LoadTestRequest(
+                ratePerSecond == null ? 500 : ratePerSecond,
+                durationSeconds == null ? 30 : durationSeconds,
+                warmupSeconds == null ? 5 : warmupSeconds,
+                operations,
+                catalogSize == null ? 1_000 : catalogSize,
+                customerCount == null ? 100 : customerCount,
+                productsPerOrder == null ? 3 : productsPerOrder,
+                pageSize == null ? 50 : pageSize,
+                maxInFlight == null ? 10_000 : maxInFlight);
+        request.validate();
+        return request;
+    }
+
+    private void validate() {
+        if (ratePerSecond <= 0 || durationSeconds <= 0 || warmupSeconds < 0 || catalogSize <= 0
+                || customerCount <= 0 || productsPerOrder <= 0 || pageSize <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("Yük testi parametreleri pozitif olmalı");
+        }
+        if (productsPerOrder > catalogSize) {
+            throw new IllegalArgumentException("Sipariş başına ürün sayısı katalog boyutunu geçemez");
+        }
+        if (mix.values().stream().anyMatch(weight -> weight == null || weight < 0)
+                || mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("İşlem ağırlıkları negatif olamaz ve toplamı sıfırdan büyük olmalı");
+        }
+    }
+
+    private static Map<LoadOperation, Integer> defaultMix() {
+        Map<LoadOperation, Integer> mix = new EnumMap<>(LoadOperation.class);
+        mix.put(LoadOperation.READ_PRODUCT, 60);
+        mix.put(LoadOperation.CREATE_ORDER, 25);
+        mix.put(LoadOperation.UPDATE_STOCK, 10);
+        mix.put(LoadOperation.LIST_PRODUCTS, 5);
+        return mix;
+    }
+}
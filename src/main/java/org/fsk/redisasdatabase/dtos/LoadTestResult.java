@@ -0,0 +1,32 @@
+package org.fsk.redisasdatabase.dtos;
+
+import java.time.Instant;
+import java.util.List;
+
+// Yük testi durumu ve sonucu. Gecikmeler planlanan başlangıç zamanından ölçülür (coordinated omission yok);
+// serviceTime işlemin fiilen çalıştığı süredir.
+public record LoadTestResult(String runId,
+                             Status status,
+                             LoadTestRequest request,
+                             Instant startedAt,
+                             Long durationMs,
+                             Long scheduled,
+                             Double achievedRatePerSecond,
+                             List<OperationStats> operations,
+                             String error) {
+
+    public enum Status {SEEDING, RUNNING, COMPLETED, FAILED}
+
+    public record OperationStats(String operation,
+                                 long count,
+                                 long errors,
+                                 long dropped,
+                                 double throughputPerSecond,
+                                 Percentiles latency,
+                                 Percentiles serviceTime) {
+    }
+
+    public record Percentiles(double meanMs, double p50Ms, double p90Ms, double p99Ms, double p999Ms,
+                              double maxMs) {
+    }
+}
@@ -0,0 +1,6 @@
+package org.fsk.redisasdatabase.dtos;
+
+import java.util.Set;
+
+public record OrderRequest(String customerId, Set<String> productIds) {
+}
@@ -0,0 +1,4 @@
+package org.fsk.redisasdatabase.dtos;
+
+public record ProductSales(String productId, long units) {
+}
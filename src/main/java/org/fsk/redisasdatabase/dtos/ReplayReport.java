@@ -0,0 +1,11 @@
+package org.fsk.redisasdatabase.dtos;
+
+// Journal replay sonucu. skipped: Redis'te zaten olan siparişler; failed: uygulanamayan kayıtlar (loglanır).
+public record ReplayReport(long fromSequence,
+                           long lastSequence,
+                           long read,
+                           long applied,
+                           long skipped,
+                           long failed,
+                           long durationMs) {
+}
@@ -0,0 +1,9 @@
+package org.fsk.redisasdatabase.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// [from, to] gün aralığının toplamı; uniqueBuyers günlük HLL'lerin birleşimidir (aralıkta tekrar eden alıcı bir kez)
+public record SalesSummary(LocalDate from, LocalDate to, BigDecimal revenue, long orders, long units,
+                           long uniqueBuyers) {
+}
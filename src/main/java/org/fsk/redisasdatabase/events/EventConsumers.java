@@ -0,0 +1,302 @@
+package org.fsk.redisasdatabase.events;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.dtos.EventStreamStats;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// EventHandler bean'lerini çalıştırır: her handler ve stream bölümü için bir thread, consumer group ile
+// XREADGROUP COUNT batch-size okur, partiyi handler'a verir, başarılıysa XACK eder.
+// Okuma BLOCK kullanmaz: bloklayan okuma havuzdan ayrı bağlantı tutacağından, bölüm boşsa poll-interval
+// kadar beklenir; dolu bölümde partiler arası bekleme yoktur.
+// Reclaim adımı (reclaim-interval'da bir, aynı thread'de) reclaim-min-idle'dan uzun süredir onaylanmamış
+// olayları (hata veren partiler, çöken örneklerin aldıkları) XCLAIM ile alıp tekrar işler; max-deliveries'e
+// ulaşan olay events:<stream>:dead'e taşınıp onaylanır. Metrikler: events.consumed{stream,group,result}.
+@Slf4j
+@Component
+public class EventConsumers {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EventStreams eventStreams;
+    private final List<EventHandler> handlers;
+    private final MeterRegistry meterRegistry;
+    private final String consumerName;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration reclaimInterval;
+    private final Duration reclaimMinIdle;
+    private final int maxDeliveries;
+    private final ReadOffset startOffset;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public EventConsumers(StringRedisTemplate stringRedisTemplate, EventStreams eventStreams,
+                          ObjectProvider<EventHandler> handlers, MeterRegistry meterRegistry,
+                          @Value("${app.events.consumer.name:}") String consumerName,
+                          @Value("${app.events.consumer.batch-size:100}") int batchSize,
+                          @Value("${app.events.consumer.poll-interval:100ms}") Duration pollInterval,
+                          @Value("${app.events.consumer.reclaim-interval:30s}") Duration reclaimInterval,
+                          @Value("${app.events.consumer.reclaim-min-idle:60s}") Duration reclaimMinIdle,
+                          @Value("${app.events.consumer.max-deliveries:5}") int maxDeliveries,
+                          @Value("${app.events.consumer.start-from:earliest}") String startFrom) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.eventStreams = eventStreams;
+        this.handlers = handlers.orderedStream().toList();
+        this.meterRegistry = meterRegistry;
+        // Örnek başına tekil olmalı; verilmezse pid@host
+        this.consumerName = consumerName.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : consumerName;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.reclaimInterval = reclaimInterval;
+        this.reclaimMinIdle = reclaimMinIdle;
+        this.maxDeliveries = maxDeliveries;
+        // Yeni grup stream'de kalan (MAXLEN ile sınırlı) geçmişi de işler ya da sadece yeni olayları alır
+        this.startOffset = "latest".equalsIgnoreCase(startFrom) ? ReadOffset.latest() : ReadOffset.from("0-0");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!eventStreams.isEnabled() || handlers.isEmpty()) {
+            return;
+        }
+        running = true;
+        for (EventHandler handler : handlers) {
+            for (String key : eventStreams.streamKeys(handler.stream())) {
+                createGroup(key, handler.group());
+                workers.add(Thread.ofPlatform()
+                        .name("events-" + handler.group() + "-" + key)
+                        .daemon()
+                        .start(() -> consume(handler, key)));
+            }
+        }
+        log.info("Olay tüketicileri başlatıldı. Handler sayısı: {}, Thread sayısı: {}, Consumer: {}",
+                handlers.size(), workers.size(), consumerName);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join(Math.max(1000, pollInterval.toMillis() * 2));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Bölüm başına uzunluk ve grup durumları
+    public List<EventStreamStats> stats(String stream) {
+        StreamOperations<String, Object, Object> operations = stringRedisTemplate.opsForStream();
+        List<EventStreamStats> stats = new ArrayList<>();
+        for (String key : eventStreams.streamKeys(stream)) {
+            List<EventStreamStats.Group> groups = new ArrayList<>();
+            if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(key))) {
+                stats.add(new EventStreamStats(key, 0, groups));
+                continue;
+            }
+            for (StreamInfo.XInfoGroup group : operations.groups(key)) {
+                groups.add(new EventStreamStats.Group(group.groupName(), group.consumerCount(),
+                        group.pendingCount(), group.lastDeliveredId()));
+            }
+            Long size = operations.size(key);
+            stats.add(new EventStreamStats(key, size == null ? 0 : size, groups));
+        }
+        return stats;
+    }
+
+    private void consume(EventHandler handler, String key) {
+        Consumer consumer = Consumer.from(handler.group(), consumerName);
+        StreamReadOptions options = StreamReadOptions.empty().count(batchSize);
+        // read(...) generic varargs alır; tek elemanlı dizi burada bir kez oluşturulur
+        StreamOffset<String>[] offsets = offsets(StreamOffset.create(key, ReadOffset.lastConsumed()));
+        // İlk turda önceki örneklerden kalan bekleyen olaylara bakılır
+        long nextReclaim = System.nanoTime();
+        while (running) {
+            try {
+                if (System.nanoTime() - nextReclaim >= 0) {
+                    reclaim(handler, key, consumer);
+                    nextReclaim = System.nanoTime() + reclaimInterval.toNanos();
+                }
+                List<MapRecord<String, Object, Object>> records =
+                        stringRedisTemplate.opsForStream().read(consumer, options, offsets);
+                if (records == null || records.isEmpty()) {
+                    Thread.sleep(pollInterval.toMillis());
+                    continue;
+                }
+                process(handler, key, records);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Olay okunamadı, tekrar denenecek. Grup: {}, Stream: {}, Hata: {}",
+                        handler.group(), key, e.getMessage());
+                if (String.valueOf(e.getMessage()).contains("NOGROUP")) {
+                    createGroup(key, handler.group());
+                }
+                try {
+                    Thread.sleep(pollInterval.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void process(EventHandler handler, String key, List<MapRecord<String, Object, Object>> records) {
+        List<StreamEvent> events = new ArrayList<>(records.size());
+        RecordId[] ids = new RecordId[records.size()];
+        for (int i = 0; i < records.size(); i++) {
+            MapRecord<String, Object, Object> record = records.get(i);
+            events.add(new StreamEvent(key, record.getId().getValue(), fields(record)));
+            ids[i] = record.getId();
+        }
+        try {
+            handler.handle(events);
+        } catch (RuntimeException e) {
+            count(handler, "failed", events.size());
+            log.warn("Olay partisi işlenemedi, reclaim ile tekrar denenecek. Grup: {}, Stream: {}, Olay sayısı: {}, "
+                    + "Hata: {}", handler.group(), key, events.size(), e.getMessage());
+            return;
+        }
+        stringRedisTemplate.opsForStream().acknowledge(key, handler.group(), ids);
+        count(handler, "acked", events.size());
+    }
+
+    // Bekleyenler batch-size'lık sayfalarla, son ID'den sonrası (hariç) okunarak gezilir; başta yeni teslim
+    // edilmiş olaylar olsa da arkalarındaki süresi geçmiş olaylar aynı turda alınır
+    private void reclaim(EventHandler handler, String key, Consumer consumer) {
+        Range<String> range = Range.unbounded();
+        while (running) {
+            PendingMessages page = stringRedisTemplate.opsForStream().pending(key, handler.group(), range, batchSize);
+            if (page.isEmpty()) {
+                return;
+            }
+            reclaim(handler, key, consumer, page);
+            if (page.size() < batchSize) {
+                return;
+            }
+            String last = page.get(page.size() - 1).getIdAsString();
+            range = Range.of(Range.Bound.exclusive(last), Range.Bound.unbounded());
+        }
+    }
+
+    private void reclaim(EventHandler handler, String key, Consumer consumer, PendingMessages page) {
+        StreamOperations<String, Object, Object> operations = stringRedisTemplate.opsForStream();
+        List<RecordId> claimable = new ArrayList<>();
+        for (PendingMessage message : page) {
+            if (message.getElapsedTimeSinceLastDelivery().compareTo(reclaimMinIdle) < 0) {
+                continue;
+            }
+            if (message.getTotalDeliveryCount() >= maxDeliveries) {
+                deadLetter(handler, key, message.getId());
+            } else {
+                claimable.add(message.getId());
+            }
+        }
+        if (claimable.isEmpty()) {
+            return;
+        }
+        List<MapRecord<String, Object, Object>> records = operations.claim(key, handler.group(),
+                consumer.getName(), reclaimMinIdle, claimable.toArray(new RecordId[0]));
+        // MAXLEN ile kırpılmış olaylar XCLAIM'de dönmez; işlenemeyecekleri için onaylanıp bekleyenlerden çıkarılır
+        Set<RecordId> trimmed = new HashSet<>(claimable);
+        records.forEach(record -> trimmed.remove(record.getId()));
+        if (!trimmed.isEmpty()) {
+            operations.acknowledge(key, handler.group(), trimmed.toArray(new RecordId[0]));
+            count(handler, "trimmed", trimmed.size());
+        }
+        if (!records.isEmpty()) {
+            count(handler, "reclaimed", records.size());
+            process(handler, key, records);
+        }
+    }
+
+    private void deadLetter(EventHandler handler, String key, RecordId id) {
+        StreamOperations<String, Object, Object> operations = stringRedisTemplate.opsForStream();
+        List<MapRecord<String, Object, Object>> records = operations.range(key, Range.closed(id.getValue(),
+                id.getValue()));
+        if (!records.isEmpty()) {
+            Map<String, String> fields = fields(records.get(0));
+            fields.put("sourceStream", key);
+            fields.put("sourceId", id.getValue());
+            fields.put("group", handler.group());
+            operations.add(RedisKeys.deadLetterStream(handler.stream()), fields);
+        }
+        operations.acknowledge(key, handler.group(), id);
+        count(handler, "dead-lettered", 1);
+        log.error("Olay {} denemede işlenemedi, dead-letter stream'e taşındı. Grup: {}, Stream: {}, ID: {}",
+                maxDeliveries, handler.group(), key, id.getValue());
+    }
+
+    private void createGroup(String key, String group) {
+        try {
+            stringRedisTemplate.opsForStream().createGroup(key, startOffset, group);
+        } catch (RuntimeException e) {
+            if (!isBusyGroup(e)) {
+                throw e;
+            }
+        }
+    }
+
+    // Grup zaten varsa Redis BUSYGROUP döner
+    private static boolean isBusyGroup(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (String.valueOf(cause.getMessage()).contains("BUSYGROUP")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Generic dizi, ham StreamOffset dizisi yerine tipli varargs ile oluşturulur (List.of gibi). Dizi sadece
+    // read(...)'e verilir ve içine StreamOffset<String> dışında bir şey konmaz, bu yüzden yığın kirlenmesi olmaz.
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    private static StreamOffset<String>[] offsets(StreamOffset<String>... offsets) {
+        return offsets;
+    }
+
+    private static Map<String, String> fields(MapRecord<String, Object, Object> record) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        record.getValue().forEach((field, value) -> fields.put(String.valueOf(field), String.valueOf(value)));
+        return fields;
+    }
+
+    private void count(EventHandler handler, String result, int amount) {
+        meterRegistry.counter("events.consumed", "stream", handler.stream(), "group", handler.group(),
+                "result", result).increment(amount);
+    }
+}
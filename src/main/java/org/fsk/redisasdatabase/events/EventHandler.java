@@ -0,0 +1,18 @@
+package org.fsk.redisasdatabase.events;
+
+import java.util.List;
+
+// Olay alıcısı. Bean olarak tanımlanan her handler kendi consumer group'u ile stream'in tüm bölümlerini okur;
+// her bölüm ayrı thread'de, bölüm içinde sırayla işlenir.
+// Teslimat en az bir kezdir: handle hata fırlatırsa partinin hiçbiri onaylanmaz, olaylar bekleyen (pending)
+// listede kalır ve reclaim adımında tekrar verilir. Handler'lar idempotent olmalıdır.
+public interface EventHandler {
+
+    // EventStreams.ORDER veya EventStreams.STOCK
+    String stream();
+
+    // Consumer group adı; aynı grubu kullanan uygulama örnekleri olayları paylaşır
+    String group();
+
+    void handle(List<StreamEvent> events);
+}
@@ -0,0 +1,92 @@
+package org.fsk.redisasdatabase.events;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Durum değişikliği olayları: order.created (checkout) ve stock.updated (stok yazımı).
+// Olaylar durumu değiştiren script'in içinde XADD ile yazılır, yani yazım ile olay aynı atomik adımdır;
+// cluster'daki checkout saga'sı olayı commit'ten sonra ayrıca ekler.
+// Her stream "partitions" bölüme ayrılır (events:<stream>:<p>); bölüm sırası korunacak anahtardan seçilir
+// (siparişlerde müşteri, stokta ürün). MAXLEN ~ ile yaklaşık kırpılır, 0 ise kırpılmaz.
+@Component
+public class EventStreams {
+
+    public static final String ORDER = "order";
+    public static final String STOCK = "stock";
+    public static final String ORDER_CREATED = "order.created";
+    public static final String STOCK_UPDATED = "stock.updated";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int partitions;
+    private final long maxLength;
+
+    public EventStreams(StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry,
+                        @Value("${app.events.enabled:true}") boolean enabled,
+                        @Value("${app.events.partitions:4}") int partitions,
+                        @Value("${app.events.max-length:100000}") long maxLength) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("app.events.partitions en az 1 olmalı");
+        }
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.partitions = partitions;
+        this.maxLength = maxLength;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public String streamKey(String stream, String partitionKey) {
+        return RedisKeys.eventStream(stream, Math.floorMod(partitionKey.hashCode(), partitions));
+    }
+
+    public List<String> streamKeys(String stream) {
+        List<String> keys = new ArrayList<>(partitions);
+        for (int partition = 0; partition < partitions; partition++) {
+            keys.add(RedisKeys.eventStream(stream, partition));
+        }
+        return keys;
+    }
+
+    // Script'lere verilen kırpma argümanı: boş ise olay yazılmaz, 0 ise kırpılmaz
+    public String maxLengthArg() {
+        return enabled ? String.valueOf(maxLength) : "";
+    }
+
+    public void published(String stream) {
+        if (enabled) {
+            meterRegistry.counter("events.published", "stream", stream).increment();
+        }
+    }
+
+    // Script dışından (saga) yazım; durum değişikliği ile atomik değildir
+    public void publish(String stream, String partitionKey, Map<String, String> fields) {
+        if (!enabled) {
+            return;
+        }
+        String key = streamKey(stream, partitionKey);
+        MapRecord<String, String, String> record = StreamRecords.newRecord().in(key).ofMap(fields);
+        stringRedisTemplate.opsForStream().add(record);
+        if (maxLength > 0) {
+            stringRedisTemplate.opsForStream().trim(key, maxLength, true);
+        }
+        published(stream);
+    }
+}
@@ -0,0 +1,15 @@
+package org.fsk.redisasdatabase.events;
+
+import java.util.Map;
+
+// Stream'den okunan tek olay; id Redis stream ID'sidir (<ms>-<seq>), bölüm içinde artan sıradadır
+public record StreamEvent(String streamKey, String id, Map<String, String> fields) {
+
+    public String type() {
+        return fields.get("type");
+    }
+
+    public String get(String field) {
+        return fields.get(field);
+    }
+}
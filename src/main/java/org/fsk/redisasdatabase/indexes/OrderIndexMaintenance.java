@@ -0,0 +1,202 @@
+package org.fsk.redisasdatabase.indexes;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.dtos.IndexReport;
+import org.fsk.redisasdatabase.repositories.EntityScanner;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Sipariş indexlerini siparişlerle karşılaştırır; rebuild modunda eksik/yanlış girdileri yazar, sahipsiz
+// girdileri siler. Yerinde onarır (geçici anahtar + RENAME yok), bu sırada gelen checkout'lar kaybolmaz:
+// sipariş ve index girdileri aynı script'te yazıldığı için tarama ikisini de ya görür ya hiç görmez.
+@Component
+@Slf4j
+public class OrderIndexMaintenance {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EntityScanner entityScanner;
+    private final MeterRegistry meterRegistry;
+    private final boolean rebuildOnStartup;
+    private final int batchSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public OrderIndexMaintenance(StringRedisTemplate stringRedisTemplate, EntityScanner entityScanner,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.orders.indexes.rebuild-on-startup:false}") boolean rebuildOnStartup,
+                                 @Value("${app.orders.indexes.batch-size:500}") int batchSize) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.entityScanner = entityScanner;
+        this.meterRegistry = meterRegistry;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            Thread.ofVirtual().name("order-index-rebuild").start(() -> {
+                try {
+                    rebuild();
+                } catch (Exception e) {
+                    log.warn("Açılışta sipariş indexleri yeniden oluşturulamadı: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    public IndexReport verify() {
+        return run("verify", false);
+    }
+
+    public IndexReport rebuild() {
+        return run("rebuild", true);
+    }
+
+    private IndexReport run(String operation, boolean repair) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Index bakımı zaten çalışıyor");
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long started = System.nanoTime();
+        try {
+            Counts counts = new Counts();
+            entityScanner.forEachBatch(RedisKeys.ORDER, Order.class, batchSize,
+                    batch -> checkEntries(batch, repair, counts));
+            removeOrphans(RedisKeys.ORDERS_BY_DATE, repair, counts);
+            removeOrphans(RedisKeys.ORDERS_BY_AMOUNT, repair, counts);
+            try (Cursor<String> keys = stringRedisTemplate.scan(ScanOptions.scanOptions()
+                    .match(RedisKeys.customerOrdersByDate("*")).count(batchSize).build())) {
+                keys.forEachRemaining(key -> removeOrphans(key, repair, counts));
+            }
+
+            IndexReport report = new IndexReport(operation, counts.scanned, counts.missing, counts.mismatched,
+                    counts.orphaned, repair, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            if (repair) {
+                meterRegistry.counter("orders.index.repairs", "kind", "missing").increment(counts.missing);
+                meterRegistry.counter("orders.index.repairs", "kind", "mismatched").increment(counts.mismatched);
+                meterRegistry.counter("orders.index.repairs", "kind", "orphaned").increment(counts.orphaned);
+            }
+            log.info("Sipariş index bakımı tamamlandı: {}", report);
+            return report;
+        } finally {
+            sample.stop(meterRegistry.timer("orders.index.job", "operation", operation));
+            running.set(false);
+        }
+    }
+
+    // Her sipariş için üç index girdisinin skorları tek pipeline ile okunur
+    private void checkEntries(List<Order> orders, boolean repair, Counts counts) {
+        List<Entry> expected = new ArrayList<>(orders.size() * 3);
+        for (Order order : orders) {
+            counts.scanned++;
+            if (order.getOrderDate() != null) {
+                double dateScore = OrderIndexes.dateScore(order.getOrderDate());
+                expected.add(new Entry(RedisKeys.ORDERS_BY_DATE, order.getId(), dateScore));
+                if (order.getCustomer() != null) {
+                    expected.add(new Entry(RedisKeys.customerOrdersByDate(order.getCustomer().getId()),
+                            order.getId(), dateScore));
+                }
+            }
+            if (order.getTotalAmount() != null) {
+                expected.add(new Entry(RedisKeys.ORDERS_BY_AMOUNT, order.getId(),
+                        order.getTotalAmount().doubleValue()));
+            }
+        }
+        List<Object> scores = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            expected.forEach(entry -> connection.zSetCommands().zScore(bytes(entry.key()), bytes(entry.orderId())));
+            return null;
+        });
+        List<Entry> fixes = new ArrayList<>();
+        for (int i = 0; i < expected.size(); i++) {
+            Entry entry = expected.get(i);
+            Double actual = (Double) scores.get(i);
+            if (actual == null) {
+                counts.missing++;
+                fixes.add(entry);
+            } else if (actual != entry.score()) {
+                counts.mismatched++;
+                fixes.add(entry);
+            }
+        }
+        if (repair && !fixes.isEmpty()) {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                fixes.forEach(entry -> connection.zSetCommands()
+                        .zAdd(bytes(entry.key()), entry.score(), bytes(entry.orderId())));
+                return null;
+            });
+        }
+    }
+
+    // Index'te olup siparişi silinmiş girdiler
+    private void removeOrphans(String key, boolean repair, Counts counts) {
+        try (Cursor<ZSetOperations.TypedTuple<String>> members = stringRedisTemplate.opsForZSet()
+                .scan(key, ScanOptions.scanOptions().count(batchSize).build())) {
+            List<String> batch = new ArrayList<>(batchSize);
+            while (members.hasNext()) {
+                batch.add(members.next().getValue());
+                if (batch.size() == batchSize) {
+                    removeOrphans(key, batch, repair, counts);
+                    batch.clear();
+                }
+            }
+            removeOrphans(key, batch, repair, counts);
+        }
+    }
+
+    private void removeOrphans(String key, List<String> orderIds, boolean repair, Counts counts) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        List<Object> exists = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            orderIds.forEach(id -> connection.keyCommands().exists(bytes(RedisKeys.order(id))));
+            return null;
+        });
+        List<String> orphans = new ArrayList<>();
+        for (int i = 0; i < orderIds.size(); i++) {
+            if (!Boolean.TRUE.equals(exists.get(i))) {
+                orphans.add(orderIds.get(i));
+            }
+        }
+        counts.orphaned += orphans.size();
+        if (repair && !orphans.isEmpty()) {
+            stringRedisTemplate.execute((RedisCallback<Long>) connection -> remove(connection, key, orphans));
+        }
+    }
+
+    private static Long remove(RedisConnection connection, String key, List<String> members) {
+        return connection.zSetCommands().zRem(bytes(key), members.stream().map(OrderIndexMaintenance::bytes)
+                .toArray(byte[][]::new));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record Entry(String key, String orderId, double score) {
+    }
+
+    private static final class Counts {
+        long scanned;
+        long missing;
+        long mismatched;
+        long orphaned;
+    }
+}
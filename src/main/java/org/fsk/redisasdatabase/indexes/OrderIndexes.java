@@ -0,0 +1,117 @@
+package org.fsk.redisasdatabase.indexes;
+
+import lombok.RequiredArgsConstructor;
+import org.fsk.redisasdatabase.archive.OrderArchive;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+// Sipariş ikincil indexleri üzerinde aralık sorguları. Indexler checkout scripti içinde sipariş ile
+// aynı anda yazılır; sorgu sadece eşleşen ID'leri okur, siparişler tek pipeline ile yüklenir.
+// Arşivlenen siparişler index'lerden çıkarılır; aralık arşivle kesişiyorsa iki kaynağın ilk offset + limit
+// siparişi aynı sıralamayla birleştirilir.
+@Component
+@RequiredArgsConstructor
+public class OrderIndexes {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final OrderArchive orderArchive;
+
+    private static final Comparator<Order> BY_DATE =
+            Comparator.comparingLong((Order order) -> dateScore(order.getOrderDate())).thenComparing(Order::getId);
+    // Index skoru gibi double karşılaştırılır; eşit skorlar ZRANGE'deki gibi ID'ye göre sıralanır
+    private static final Comparator<Order> BY_AMOUNT =
+            Comparator.comparingDouble((Order order) -> order.getTotalAmount().doubleValue())
+                    .thenComparing(Order::getId);
+
+    // Order.orderDate zaman dilimsiz saklandığı için skor sistem saat dilimiyle hesaplanır
+    public static long dateScore(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public List<Order> findByDate(LocalDateTime from, LocalDateTime to, boolean newestFirst, int offset, int limit) {
+        return query(RedisKeys.ORDERS_BY_DATE, lower(from), upper(to), newestFirst, offset, limit,
+                new Archived(from(from), to(to), order -> true, BY_DATE));
+    }
+
+    // Tutar skoru double'dır; aralık sınırları kuruş hassasiyetinde karşılaştırılır
+    // Arşivde tutar index'i yoktur; arşivle birleştirme tüm segmentleri tarar
+    public List<Order> findByAmount(BigDecimal min, BigDecimal max, boolean highestFirst, int offset, int limit) {
+        double lower = min == null ? Double.NEGATIVE_INFINITY : min.doubleValue();
+        double upper = max == null ? Double.POSITIVE_INFINITY : max.doubleValue();
+        return query(RedisKeys.ORDERS_BY_AMOUNT, lower, upper, highestFirst, offset, limit,
+                new Archived(Long.MIN_VALUE, Long.MAX_VALUE, order -> order.getTotalAmount() != null
+                        && order.getTotalAmount().doubleValue() >= lower
+                        && order.getTotalAmount().doubleValue() <= upper, BY_AMOUNT));
+    }
+
+    public List<Order> findByCustomer(String customerId, LocalDateTime from, LocalDateTime to, boolean newestFirst,
+                                      int offset, int limit) {
+        return query(RedisKeys.customerOrdersByDate(customerId), lower(from), upper(to), newestFirst, offset,
+                limit, new Archived(from(from), to(to), order -> order.getCustomer() != null
+                        && customerId.equals(order.getCustomer().getId()), BY_DATE));
+    }
+
+    public long countByDate(LocalDateTime from, LocalDateTime to) {
+        Long count = stringRedisTemplate.opsForZSet().count(RedisKeys.ORDERS_BY_DATE, lower(from), upper(to));
+        return count == null ? 0 : count;
+    }
+
+    private List<Order> query(String key, double min, double max, boolean reverse, int offset, int limit,
+                              Archived archived) {
+        if (offset < 0 || limit <= 0) {
+            throw new IllegalArgumentException("offset negatif olamaz, limit pozitif olmalı");
+        }
+        if (!orderArchive.overlaps(archived.from(), archived.to())) {
+            return orderArchive.read(range(key, min, max, reverse, offset, limit));
+        }
+        // Önce Redis, sonra arşiv: arada taşınan sipariş ikisinden birinde mutlaka görülür, ikisinde görülürse
+        // bir kez alınır
+        int count = Math.addExact(offset, limit);
+        Comparator<Order> comparator = reverse ? archived.comparator().reversed() : archived.comparator();
+        Map<String, Order> merged = new LinkedHashMap<>();
+        orderArchive.read(range(key, min, max, reverse, 0, count)).forEach(order -> merged.put(order.getId(), order));
+        orderArchive.query(archived.from(), archived.to(), archived.filter(), comparator, count)
+                .forEach(order -> merged.putIfAbsent(order.getId(), order));
+        return merged.values().stream().sorted(comparator).skip(offset).limit(limit).toList();
+    }
+
+    private List<String> range(String key, double min, double max, boolean reverse, int offset, int limit) {
+        Set<String> ids = reverse
+                ? stringRedisTemplate.opsForZSet().reverseRangeByScore(key, min, max, offset, limit)
+                : stringRedisTemplate.opsForZSet().rangeByScore(key, min, max, offset, limit);
+        return ids == null ? List.of() : new ArrayList<>(ids);
+    }
+
+    private static double lower(LocalDateTime from) {
+        return from == null ? Double.NEGATIVE_INFINITY : dateScore(from);
+    }
+
+    private static double upper(LocalDateTime to) {
+        return to == null ? Double.POSITIVE_INFINITY : dateScore(to);
+    }
+
+    private static long from(LocalDateTime from) {
+        return from == null ? Long.MIN_VALUE : dateScore(from);
+    }
+
+    private static long to(LocalDateTime to) {
+        return to == null ? Long.MAX_VALUE : dateScore(to);
+    }
+
+    // Sorgunun arşivdeki karşılığı: tarih aralığı (epoch ms), index'in kapsadığı filtre ve index sırası
+    private record Archived(long from, long to, Predicate<Order> filter, Comparator<Order> comparator) {
+    }
+}
@@ -0,0 +1,10 @@
+package org.fsk.redisasdatabase.journal;
+
+// ALWAYS: her grup yazımından sonra fsync, çağıran diske inene kadar bekler.
+// INTERVAL: en fazla fsync-interval aralıkla fsync, çağıran beklemez.
+// NEVER: diske yazma işletim sistemine bırakılır (sadece segment kapanırken fsync).
+public enum FsyncPolicy {
+    ALWAYS,
+    INTERVAL,
+    NEVER
+}
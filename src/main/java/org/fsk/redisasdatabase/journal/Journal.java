@@ -0,0 +1,275 @@
+package org.fsk.redisasdatabase.journal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Write-behind journal: Redis'e yazılmış değişikliklerin son hali yerel, segment'lere bölünmüş,
+// memory-mapped bir dosyaya eklenir. Çağıranlar içeriği kuyruğa bırakır; tek yazıcı thread kuyruktaki
+// kayıtları gruplar halinde yazar ve fsync politikasına göre tek fsync ile diske indirir (group commit).
+// Kapalıyken append hiçbir şey yapmaz. Her kayıt yazımın Redis'teki sırasını (JournalSequence) taşır; replay
+// Redis'in zaten içerdiği kayıtları bununla atlar.
+@Component
+@Slf4j
+public class Journal {
+
+    private final JournalSequence journalSequence;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final Duration commitTimeout;
+    private final int maxBatch;
+    private final BlockingQueue<Pending> queue;
+    private final Timer appendLatency;
+    private final Timer fsyncLatency;
+    private final DistributionSummary batchSize;
+    private final Counter entries;
+    private final Counter failures;
+
+    private JournalSegment segment;
+    private long nextSequence = 1;
+    private volatile long lastSequence;
+    private volatile boolean running;
+    private Thread writer;
+
+    public Journal(MeterRegistry meterRegistry, JournalSequence journalSequence,
+                   @Value("${app.journal.enabled:false}") boolean enabled,
+                   @Value("${app.journal.directory:./data/journal}") Path directory,
+                   @Value("${app.journal.segment-size:64MB}") DataSize segmentSize,
+                   @Value("${app.journal.fsync:interval}") FsyncPolicy fsyncPolicy,
+                   @Value("${app.journal.fsync-interval:100ms}") Duration fsyncInterval,
+                   @Value("${app.journal.commit-timeout:2s}") Duration commitTimeout,
+                   @Value("${app.journal.max-batch:1024}") int maxBatch,
+                   @Value("${app.journal.queue-capacity:65536}") int queueCapacity) {
+        this.journalSequence = journalSequence;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+        this.commitTimeout = commitTimeout;
+        this.maxBatch = maxBatch;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.appendLatency = Timer.builder("journal.append")
+                .description("Çağıranın journal için beklediği süre (ALWAYS politikasında fsync dahil)")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.fsyncLatency = Timer.builder("journal.fsync")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("journal.batch.size")
+                .description("Tek yazımda (ve fsync'te) gruplanan kayıt sayısı")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.entries = meterRegistry.counter("journal.entries");
+        this.failures = meterRegistry.counter("journal.failures");
+        Gauge.builder("journal.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        List<Path> segments = segments();
+        if (segments.isEmpty()) {
+            segment = JournalSegment.create(directory, nextSequence, segmentSize);
+        } else {
+            segment = JournalSegment.open(segments.get(segments.size() - 1), true);
+            nextSequence = segment.lastSequence() + 1;
+        }
+        lastSequence = nextSequence - 1;
+        running = true;
+        writer = new Thread(this::run, "journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Journal açıldı. Dizin: {}, Fsync: {}, Sonraki sıra no: {}", directory, fsyncPolicy, nextSequence);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    // Değişiklik script dışında yazıldıysa; Redis sırası yazımdan sonra ayrıca alınır
+    public void append(JournalOperation operation, String id, Map<String, String> fields) {
+        append(operation, id, fields, 0);
+    }
+
+    // Değişiklik Redis'e yazıldıktan sonra çağrılır; sequence yazım scriptinin döndürdüğü Redis sırasıdır (0 ise
+    // burada alınır). Journal hatası isteği başarısız yapmaz (Redis'teki değişiklik geri alınamaz), hata loglanır
+    // ve journal.failures artar.
+    public void append(JournalOperation operation, String id, Map<String, String> fields, long sequence) {
+        if (!running) {
+            return;
+        }
+        long started = System.nanoTime();
+        long redisSequence = sequence > 0 ? sequence : journalSequence.increment(1);
+        CompletableFuture<Void> committed = fsyncPolicy == FsyncPolicy.ALWAYS ? new CompletableFuture<>() : null;
+        try {
+            // Kuyruk doluysa yazıcı yetişene kadar bekler (geri basınç)
+            queue.put(new Pending(JournalEntry.encode(System.currentTimeMillis(), operation, id, fields, redisSequence),
+                    committed));
+            if (committed != null) {
+                committed.get(commitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.increment();
+        } catch (Exception e) {
+            failures.increment();
+            log.error("Journal kaydı diske yazılamadı. İşlem: {}, ID: {}, Hata: {}", operation, id, e.getMessage());
+        } finally {
+            appendLatency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // fromSequence ve sonrasındaki kayıtları sırayla verir
+    public void read(long fromSequence, Consumer<JournalEntry> consumer) throws IOException {
+        List<Path> segments = segments();
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && JournalSegment.firstSequence(segments.get(i + 1)) <= fromSequence) {
+                continue;
+            }
+            try (JournalSegment reader = JournalSegment.open(segments.get(i), false)) {
+                reader.scan((sequence, payload) -> {
+                    if (sequence >= fromSequence) {
+                        consumer.accept(JournalEntry.decode(sequence, payload));
+                    }
+                });
+            }
+        }
+    }
+
+    public List<Path> segments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalSegment::isSegment).sorted().toList();
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        long pollNanos = fsyncPolicy == FsyncPolicy.INTERVAL ? fsyncIntervalNanos : TimeUnit.MILLISECONDS.toNanos(100);
+        long lastForce = System.nanoTime();
+        boolean dirty = false;
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(pollNanos, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatch - 1);
+                    write(batch);
+                    dirty = true;
+                }
+                long now = System.nanoTime();
+                if (dirty && (fsyncPolicy == FsyncPolicy.ALWAYS
+                        || fsyncPolicy == FsyncPolicy.INTERVAL && now - lastForce >= fsyncIntervalNanos)) {
+                    fsyncLatency.record(() -> segment.force());
+                    lastForce = now;
+                    dirty = false;
+                }
+                complete(batch, null);
+            } catch (InterruptedException e) {
+                // Kapanışta kuyrukta kalanlar döngünün sonraki turlarında yazılır
+                running = false;
+            } catch (Exception e) {
+                failures.increment();
+                log.error("Journal yazıcısı hata aldı: {}", e.getMessage(), e);
+                complete(batch, e);
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(List<Pending> batch) throws IOException {
+        for (Pending pending : batch) {
+            if (!segment.append(nextSequence, pending.payload())) {
+                roll();
+                if (!segment.append(nextSequence, pending.payload())) {
+                    throw new IllegalStateException("Journal kaydı segment boyutundan büyük: "
+                            + pending.payload().length + " byte");
+                }
+            }
+            lastSequence = nextSequence++;
+        }
+        entries.increment(batch.size());
+        batchSize.record(batch.size());
+    }
+
+    // Dolu segment diske indirilip kapatılır, yeni segment sonraki sıra numarasıyla adlandırılır
+    private void roll() throws IOException {
+        segment.force();
+        segment.close();
+        segment = JournalSegment.create(directory, nextSequence, segmentSize);
+        log.info("Yeni journal segmenti açıldı: {}", segment.path());
+    }
+
+    private static void complete(List<Pending> batch, Exception error) {
+        for (Pending pending : batch) {
+            if (pending.committed() != null) {
+                if (error == null) {
+                    pending.committed().complete(null);
+                } else {
+                    pending.committed().completeExceptionally(error);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+            segment.force();
+            segment.close();
+            log.info("Journal kapatıldı. Son sıra no: {}", lastSequence);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Pending(byte[] payload, CompletableFuture<Void> committed) {
+    }
+}
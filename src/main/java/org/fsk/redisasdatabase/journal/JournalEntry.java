@@ -0,0 +1,51 @@
+package org.fsk.redisasdatabase.journal;
+
+import org.fsk.redisasdatabase.serializers.CompactInput;
+import org.fsk.redisasdatabase.serializers.CompactOutput;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Değişikliğin son hali: entity hash'i ya da yazılan alanlar. Sıra numarası dosyaya yazılırken verilir.
+// redisSequence yazımın Redis'te aldığı sıradır (JournalSequence); 0 ise bilinmiyor (eski kayıt).
+public record JournalEntry(long sequence, long timestamp, JournalOperation operation, String id,
+                           Map<String, String> fields, long redisSequence) {
+
+    // İşlem kodunun yüksek biti: kayıt Redis sırasını taşır. Biti olmayan eski kayıtlar okunmaya devam eder.
+    private static final int REDIS_SEQUENCE = 0x80;
+
+    // İçerik çağıranın thread'inde hazırlanır, yazıcı thread sadece kopyalar
+    static byte[] encode(long timestamp, JournalOperation operation, String id, Map<String, String> fields,
+                         long redisSequence) {
+        CompactOutput output = new CompactOutput(64 + fields.size() * 32);
+        output.writeVarLong(timestamp);
+        if (redisSequence > 0) {
+            output.writeByte(operation.code() | REDIS_SEQUENCE);
+            output.writeVarLong(redisSequence);
+        } else {
+            output.writeByte(operation.code());
+        }
+        output.writeString(id);
+        output.writeVarInt(fields.size());
+        fields.forEach((field, value) -> {
+            output.writeString(field);
+            output.writeString(value);
+        });
+        return output.toByteArray();
+    }
+
+    static JournalEntry decode(long sequence, byte[] payload) {
+        CompactInput input = new CompactInput(payload, 0);
+        long timestamp = input.readVarLong();
+        int code = input.readByte();
+        JournalOperation operation = JournalOperation.of(code & ~REDIS_SEQUENCE);
+        long redisSequence = (code & REDIS_SEQUENCE) != 0 ? input.readVarLong() : 0;
+        String id = input.readString();
+        int count = input.readVarInt();
+        Map<String, String> fields = new LinkedHashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            fields.put(input.readString(), input.readString());
+        }
+        return new JournalEntry(sequence, timestamp, operation, id, fields, redisSequence);
+    }
+}
@@ -0,0 +1,31 @@
+package org.fsk.redisasdatabase.journal;
+
+// Journal'a yazılan değişiklik tipleri. Kod dosyada saklanır, sıralama değiştirilmemeli.
+public enum JournalOperation {
+
+    ORDER_CREATED(1),
+    STOCK_UPDATED(2),
+    STOCK_RESHARDED(3),
+    PRODUCT_SAVED(4),
+    CUSTOMER_SAVED(5),
+    CUSTOMER_DELETED(6);
+
+    private final int code;
+
+    JournalOperation(int code) {
+        this.code = code;
+    }
+
+    int code() {
+        return code;
+    }
+
+    static JournalOperation of(int code) {
+        for (JournalOperation operation : values()) {
+            if (operation.code == code) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Bilinmeyen journal işlemi: " + code);
+    }
+}
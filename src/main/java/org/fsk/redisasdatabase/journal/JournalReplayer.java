@@ -0,0 +1,206 @@
+package org.fsk.redisasdatabase.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.archive.OrderArchive;
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.dtos.ReplayReport;
+import org.fsk.redisasdatabase.mappers.EntityHashMapper;
+import org.fsk.redisasdatabase.repositories.CustomerOrderLog;
+import org.fsk.redisasdatabase.repositories.CustomerRepository;
+import org.fsk.redisasdatabase.repositories.ProductRepository;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.scripts.CheckoutScript;
+import org.fsk.redisasdatabase.scripts.StockScripts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Journal'daki değişiklikleri sırayla Redis'e yeniden uygular: boş bir Redis'e 1'den ya da geri yüklenen bir
+// RDB'ye. Redis'in içerdiği son yazımın sırasına (JournalSequence) kadar olan kayıtlar atlanır; snapshot'tan
+// önceki mutlak stok değerleri tekrar yazılıp sonraki checkout düşümlerini geri almaz. Kalan kayıtlar Redis'e
+// yazıldıkları sırayla uygulanır: eşzamanlı yazımların kayıtları journal'a farklı sırayla girebildiği için
+// kayıtlar küçük bir pencerede Redis sırasına dizilir. Uygulanan kaydın sırası sayaca yazılır (standalone'da
+// yazım scriptinin içinde), yarıda kalan replay kaldığı yerden devam eder.
+// Yazımlar servisleri değil repository ve scriptleri kullanır, böylece replay yeniden journal'a yazılmaz.
+// Entity kayıtları ve stok değerleri son halleriyle yazılır; siparişler Redis'te ya da arşivde (OrderArchive)
+// varsa atlanır, yoksa checkout scripti ile indexleri ve stok düşümüyle oluşturulur. Arşive taşınan sipariş
+// Redis'ten silindiği için sadece Redis'e bakmak siparişi stok düşümü ve satış özetleriyle ikinci kez yazardı.
+@Component
+@Slf4j
+public class JournalReplayer {
+
+    private static final String TOTAL_AMOUNT = "totalAmount";
+    // Redis sırası journal sırasından en fazla eşzamanlı yazım sayısı kadar sapar; pencere bunun çok üstündedir
+    private static final int REORDER_WINDOW = 4096;
+
+    private final Journal journal;
+    private final JournalSequence journalSequence;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EntityHashMapper entityHashMapper;
+    private final CustomerRepository customerRepository;
+    private final ProductRepository productRepository;
+    private final CustomerOrderLog customerOrderLog;
+    private final CheckoutScript checkoutScript;
+    private final StockScripts stockScripts;
+    private final OrderArchive orderArchive;
+    private final boolean replayOnStartup;
+    private final long replayFrom;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public JournalReplayer(Journal journal, JournalSequence journalSequence, StringRedisTemplate stringRedisTemplate,
+                           EntityHashMapper entityHashMapper, CustomerRepository customerRepository,
+                           ProductRepository productRepository, CustomerOrderLog customerOrderLog,
+                           CheckoutScript checkoutScript, StockScripts stockScripts, OrderArchive orderArchive,
+                           @Value("${app.journal.replay-on-startup:false}") boolean replayOnStartup,
+                           @Value("${app.journal.replay-from:1}") long replayFrom) {
+        this.journal = journal;
+        this.journalSequence = journalSequence;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.entityHashMapper = entityHashMapper;
+        this.customerRepository = customerRepository;
+        this.productRepository = productRepository;
+        this.customerOrderLog = customerOrderLog;
+        this.checkoutScript = checkoutScript;
+        this.stockScripts = stockScripts;
+        this.orderArchive = orderArchive;
+        this.replayOnStartup = replayOnStartup;
+        this.replayFrom = replayFrom;
+    }
+
+    // Açılışta istekler gelmeden önce tamamlansın diye senkron çalışır
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayOnStartup() {
+        if (replayOnStartup) {
+            try {
+                replay(replayFrom);
+            } catch (Exception e) {
+                log.error("Açılışta journal replay başarısız: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    public ReplayReport replay(long fromSequence) throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Journal replay zaten çalışıyor");
+        }
+        long started = System.nanoTime();
+        try {
+            Counts counts = new Counts();
+            long contained = journalSequence.current();
+            PriorityQueue<JournalEntry> window =
+                    new PriorityQueue<>(Comparator.comparingLong(JournalEntry::redisSequence));
+            journal.read(fromSequence, entry -> {
+                counts.read++;
+                counts.lastSequence = entry.sequence();
+                if (entry.redisSequence() == 0) {
+                    // Redis sırası olmayan kayıt (eski format ya da sayaç alınamadı): öncekiler uygulandıktan
+                    // sonra her zaman uygulanır
+                    drain(window, 0, counts);
+                    applyCounted(entry, counts);
+                } else if (entry.redisSequence() <= contained) {
+                    counts.skipped++;
+                } else {
+                    window.add(entry);
+                    drain(window, REORDER_WINDOW, counts);
+                }
+            });
+            drain(window, 0, counts);
+            if (contained > 0) {
+                log.info("Redis journal sırası {}'e kadar olan yazımları içeriyordu, bu kayıtlar atlandı",
+                        contained);
+            }
+            ReplayReport report = new ReplayReport(fromSequence, counts.lastSequence, counts.read, counts.applied,
+                    counts.skipped, counts.failed, (System.nanoTime() - started) / 1_000_000);
+            log.info("Journal replay tamamlandı: {}", report);
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void drain(PriorityQueue<JournalEntry> window, int keep, Counts counts) {
+        while (window.size() > keep) {
+            applyCounted(window.poll(), counts);
+        }
+    }
+
+    private void applyCounted(JournalEntry entry, Counts counts) {
+        try {
+            if (apply(entry)) {
+                counts.applied++;
+            } else {
+                counts.skipped++;
+            }
+        } catch (RuntimeException e) {
+            counts.failed++;
+            log.warn("Journal kaydı uygulanamadı. Sıra no: {}, İşlem: {}, ID: {}, Hata: {}",
+                    entry.sequence(), entry.operation(), entry.id(), e.getMessage());
+        }
+    }
+
+    // Stok ve sipariş scriptleri sayacı standalone'da yazımla birlikte ilerletir; diğer kayıtlarda (ve
+    // atlanan siparişte) sayaç uygulamadan sonra ilerletilir, arada kesilirse kayıt bir kez daha uygulanır
+    private boolean apply(JournalEntry entry) {
+        boolean applied = write(entry);
+        boolean inScript = switch (entry.operation()) {
+            case STOCK_UPDATED, STOCK_RESHARDED, ORDER_CREATED -> applied && journalSequence.isInScripts();
+            default -> false;
+        };
+        if (!inScript) {
+            journalSequence.advance(entry.redisSequence());
+        }
+        return applied;
+    }
+
+    private boolean write(JournalEntry entry) {
+        long sequence = entry.redisSequence();
+        switch (entry.operation()) {
+            case CUSTOMER_SAVED -> customerRepository.save(entityHashMapper.fromHash(entry.fields(), Customer.class));
+            case CUSTOMER_DELETED -> {
+                customerRepository.deleteById(entry.id());
+                customerOrderLog.delete(entry.id());
+            }
+            case PRODUCT_SAVED -> productRepository.save(entityHashMapper.fromHash(entry.fields(), Product.class));
+            case STOCK_UPDATED ->
+                    stockScripts.setStock(entry.id(), Integer.parseInt(entry.fields().get("stock")), sequence);
+            case STOCK_RESHARDED ->
+                    stockScripts.reshard(entry.id(), Integer.parseInt(entry.fields().get("stockShards")), sequence);
+            case ORDER_CREATED -> {
+                if (orderExists(entry.id())) {
+                    return false;
+                }
+                // Toplam tutarı script yeniden hesaplar
+                Map<String, String> orderHash = new LinkedHashMap<>(entry.fields());
+                orderHash.remove(TOTAL_AMOUNT);
+                checkoutScript.execute(entityHashMapper.fromHash(orderHash, Order.class), orderHash, sequence);
+            }
+        }
+        return true;
+    }
+
+    // Taşıma sırasında sipariş önce arşive yazılır, sonra Redis'ten silinir; taşıma kilidi altında iki katmana
+    // bakan kontrol siparişi en az birinde görür
+    private boolean orderExists(String id) {
+        return orderArchive.withoutMoves(() -> Boolean.TRUE.equals(stringRedisTemplate.hasKey(RedisKeys.order(id)))
+                || orderArchive.contains(id));
+    }
+
+    private static final class Counts {
+        long read;
+        long applied;
+        long skipped;
+        long failed;
+        long lastSequence;
+    }
+}
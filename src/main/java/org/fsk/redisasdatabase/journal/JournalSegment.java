@@ -0,0 +1,169 @@
+package org.fsk.redisasdatabase.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+
+// Önceden boyutlandırılmış, memory-mapped tek bir journal dosyası (journal-<ilk sıra no>.log).
+// Kayıt düzeni: [uzunluk int][crc32c int][sıra no long][içerik]. Uzunluk en son yazılır; 0 ise dosyanın
+// yazılmış kısmı orada biter. CRC sıra no ve içeriği kapsar, yarım kalmış kayıtlar okunurken atlanır.
+@Slf4j
+final class JournalSegment implements Closeable {
+
+    static final int HEADER_SIZE = 16;
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path path;
+    private final long firstSequence;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final CRC32C crc = new CRC32C();
+    private long lastSequence;
+    private int forcedPosition;
+
+    private JournalSegment(Path path, long firstSequence, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.firstSequence = firstSequence;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.lastSequence = firstSequence - 1;
+    }
+
+    static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    static long firstSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    static JournalSegment create(Path directory, long firstSequence, int size) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        return new JournalSegment(path, firstSequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    // Mevcut dosyayı açar ve yazma pozisyonunu son geçerli kaydın sonuna getirir.
+    // Yazılabilir açılışta bozuk kuyruk sıfırlanır, böylece üzerine yazılan kayıtlar eski artıklarla karışmaz.
+    static JournalSegment open(Path path, boolean writable) throws IOException {
+        FileChannel channel = writable
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ);
+        MappedByteBuffer buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                0, channel.size());
+        JournalSegment segment = new JournalSegment(path, firstSequence(path), channel, buffer);
+        boolean clean = segment.scan(null);
+        if (!clean && writable) {
+            log.warn("Journal segmentinde yarım kayıt bulundu, {}. byte'tan sonrası sıfırlanıyor: {}",
+                    buffer.position(), path);
+            segment.truncateTail();
+        }
+        return segment;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long firstSequence() {
+        return firstSequence;
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    boolean isEmpty() {
+        return lastSequence < firstSequence;
+    }
+
+    // Yer yoksa false döner, çağıran yeni segment açar
+    boolean append(long sequence, byte[] payload) {
+        int position = buffer.position();
+        if (position + HEADER_SIZE + payload.length > buffer.capacity()) {
+            return false;
+        }
+        buffer.putLong(position + 8, sequence);
+        buffer.put(position + HEADER_SIZE, payload);
+        crc.reset();
+        crc.update(buffer.slice(position + 8, 8 + payload.length));
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.putInt(position, payload.length);
+        buffer.position(position + HEADER_SIZE + payload.length);
+        lastSequence = sequence;
+        return true;
+    }
+
+    // Sadece son fsync'ten sonra yazılan aralık diske indirilir
+    void force() {
+        int position = buffer.position();
+        if (position > forcedPosition) {
+            buffer.force(forcedPosition, position - forcedPosition);
+            forcedPosition = position;
+        }
+    }
+
+    // Geçerli kayıtları sırayla verir; ilk bozuk ya da yazılmamış kayıtta durur.
+    // Bozuk kayıt yüzünden durduysa false döner.
+    boolean scan(BiConsumer<Long, byte[]> consumer) {
+        int position = 0;
+        long expected = firstSequence;
+        boolean clean = true;
+        while (position + HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || position + HEADER_SIZE + length > buffer.capacity()) {
+                clean = false;
+                break;
+            }
+            long sequence = buffer.getLong(position + 8);
+            crc.reset();
+            crc.update(buffer.slice(position + 8, 8 + length));
+            if (sequence != expected || (int) crc.getValue() != buffer.getInt(position + 4)) {
+                clean = false;
+                break;
+            }
+            if (consumer != null) {
+                byte[] payload = new byte[length];
+                buffer.get(position + HEADER_SIZE, payload);
+                consumer.accept(sequence, payload);
+            }
+            position += HEADER_SIZE + length;
+            expected++;
+        }
+        buffer.position(position);
+        forcedPosition = position;
+        lastSequence = expected - 1;
+        return clean;
+    }
+
+    private void truncateTail() {
+        ByteBuffer zeros = ByteBuffer.allocate(64 * 1024);
+        int position = buffer.position();
+        while (position < buffer.capacity()) {
+            int length = Math.min(zeros.capacity(), buffer.capacity() - position);
+            buffer.put(position, zeros, 0, length);
+            position += length;
+        }
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,86 @@
+package org.fsk.redisasdatabase.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.configurations.RedisTopology;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Redis'e uygulanmış journal'lı yazımların sırası (journal:sequence sayacı); her journal kaydı yazımının aldığı
+// değeri taşır. Standalone'da sayaç yazımı yapan scriptin içinde artırılır (set-stock, reshard-stock, checkout):
+// sayacı M olan bir Redis snapshot'ı (RDB) sırası M'ye kadar olan bu yazımların hepsini içerir, sonrakilerin
+// hiçbirini içermez. Replay sadece M'den büyük kayıtları uygular ve sayacı kaydın uygulandığı scriptte ilerletir;
+// yarıda kalan replay kaldığı yerden devam eder.
+// Script dışındaki yazımlarda (repository kayıtları, toplu yükleme) ve cluster'da (sayaç ayrı slot'ta) sayaç
+// yazımdan hemen sonra ayrıca artırılır: snapshot yazımı içerip sayacı içermeyebilir, kayıt replay'de bir kez daha
+// uygulanır. Bu kayıtlar entity'nin son halini yazdığı için tekrar uygulanmaları sonucu değiştirmez.
+@Component
+@Slf4j
+public class JournalSequence {
+
+    private static final RedisScript<Long> ADVANCE =
+            RedisScript.of(new ClassPathResource("scripts/advance-journal-sequence.lua"), Long.class);
+
+    // Script argümanı: sayaç artırılır, dönen değer yazımın sırasıdır
+    private static final String NEXT = "next";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final boolean enabled;
+    private final boolean inScripts;
+
+    public JournalSequence(StringRedisTemplate stringRedisTemplate,
+                           @Value("${app.journal.enabled:false}") boolean enabled,
+                           @Value("${app.redis.topology:standalone}") RedisTopology topology) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.enabled = enabled;
+        this.inScripts = enabled && topology != RedisTopology.CLUSTER;
+    }
+
+    // Sayaç yazım scriptinde tutuluyorsa true; replay bu durumda sayacı ayrıca ilerletmez
+    public boolean isInScripts() {
+        return inScripts;
+    }
+
+    // Yeni yazım için script argümanı. Boş değilse script journal:sequence anahtarını da alır.
+    public String next() {
+        return inScripts ? NEXT : "";
+    }
+
+    // Replay'de uygulanan kaydın sırası için script argümanı; script sayacı bu değere ilerletir
+    public String replay(long sequence) {
+        return inScripts && sequence > 0 ? String.valueOf(sequence) : "";
+    }
+
+    // count kadar sıra ayırır, dönen değer sonuncusudur. Journal kapalıysa ya da sayaç artırılamadıysa 0
+    // (kayıt sırasız yazılır, replay'de her zaman uygulanır).
+    public long increment(int count) {
+        if (!enabled) {
+            return 0;
+        }
+        try {
+            Long sequence = stringRedisTemplate.opsForValue().increment(RedisKeys.JOURNAL_SEQUENCE, count);
+            return sequence == null ? 0 : sequence;
+        } catch (RuntimeException e) {
+            log.warn("Journal sırası artırılamadı, kayıt sırasız yazılacak: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    // Redis'in içerdiği son yazımın sırası; sayaç yoksa (boş Redis) 0
+    public long current() {
+        String value = stringRedisTemplate.opsForValue().get(RedisKeys.JOURNAL_SEQUENCE);
+        return value == null ? 0 : Long.parseLong(value);
+    }
+
+    public void advance(long sequence) {
+        if (sequence > 0) {
+            stringRedisTemplate.execute(ADVANCE, List.of(RedisKeys.JOURNAL_SEQUENCE),
+                    String.valueOf(sequence));
+        }
+    }
+}
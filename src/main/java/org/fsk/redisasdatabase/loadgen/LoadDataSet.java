@@ -0,0 +1,58 @@
+package org.fsk.redisasdatabase.loadgen;
+
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.repositories.CustomerRepository;
+import org.fsk.redisasdatabase.repositories.ProductRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Koşu başında yazılan test verisi. Stoklar, koşu boyunca tükenmeyecek kadar yüksek tutulur.
+record LoadDataSet(List<String> customerIds, List<String> productIds) {
+
+    static final int MIN_STOCK = 100_000_000;
+
+    static LoadDataSet seed(CustomerRepository customerRepository, ProductRepository productRepository,
+                            int customerCount, int catalogSize) {
+        List<Customer> customers = new ArrayList<>(customerCount);
+        for (int i = 0; i < customerCount; i++) {
+            customers.add(new Customer(UUID.randomUUID().toString(), "Yük Testi Müşteri " + i,
+                    "load" + i + "@example.com", null));
+        }
+        List<Product> products = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            products.add(new Product(UUID.randomUUID().toString(), "Yük Testi Ürün " + i,
+                    BigDecimal.valueOf(100 + i % 9_900, 2), stock(), null, null, null));
+        }
+        customerRepository.saveAll(customers);
+        productRepository.saveAll(products);
+        return new LoadDataSet(customers.stream().map(Customer::getId).toList(),
+                products.stream().map(Product::getId).toList());
+    }
+
+    static int stock() {
+        return MIN_STOCK + ThreadLocalRandom.current().nextInt(MIN_STOCK);
+    }
+
+    String customerId() {
+        return customerIds.get(ThreadLocalRandom.current().nextInt(customerIds.size()));
+    }
+
+    String productId() {
+        return productIds.get(ThreadLocalRandom.current().nextInt(productIds.size()));
+    }
+
+    Set<String> productIds(int count) {
+        Set<String> picked = new HashSet<>(count * 2);
+        while (picked.size() < count) {
+            picked.add(productId());
+        }
+        return picked;
+    }
+}
@@ -0,0 +1,232 @@
+package org.fsk.redisasdatabase.loadgen;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.dtos.LoadTestRequest;
+import org.fsk.redisasdatabase.dtos.LoadTestResult;
+import org.fsk.redisasdatabase.repositories.CustomerRepository;
+import org.fsk.redisasdatabase.repositories.ProductRepository;
+import org.fsk.redisasdatabase.services.OrderService;
+import org.fsk.redisasdatabase.services.ProductService;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-loop yük üretici: istekler sabit aralıklarla planlanır ve sistemin yanıt hızından bağımsız gönderilir.
+// Her istek bir virtual thread'de çalışır; gecikme planlanan başlangıçtan ölçüldüğü için
+// sistem yavaşladığında biriken bekleme de sonuca yansır.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LoadGenerator {
+
+    private static final int MAX_KEPT_RESULTS = 20;
+    private static final long SPIN_THRESHOLD_NANOS = 50_000;
+
+    private final OrderService orderService;
+    private final ProductService productService;
+    private final CustomerRepository customerRepository;
+    private final ProductRepository productRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Map<String, LoadTestResult> results = new LinkedHashMap<>();
+
+    // Aynı anda tek koşu çalışır; koşu arka planda başlar, sonucu runId ile sorgulanır
+    public LoadTestResult start(LoadTestRequest request) {
+        LoadTestRequest profile = request == null ? new LoadTestRequest(null, null, null, null, null, null, null, null,
+                null).withDefaults() : request.withDefaults();
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Çalışan bir yük testi var");
+        }
+        String runId = UUID.randomUUID().toString();
+        LoadTestResult seeding = new LoadTestResult(runId, LoadTestResult.Status.SEEDING, profile, Instant.now(),
+                null, null, null, null, null);
+        store(seeding);
+        Thread.ofPlatform().name("loadgen-" + runId).daemon().start(() -> {
+            try {
+                store(run(runId, profile));
+            } catch (Exception e) {
+                log.error("Yük testi başarısız. Run: {}, Hata: {}", runId, e.getMessage());
+                store(new LoadTestResult(runId, LoadTestResult.Status.FAILED, profile, seeding.startedAt(),
+                        null, null, null, null, e.getMessage()));
+            } finally {
+                running.set(false);
+            }
+        });
+        return seeding;
+    }
+
+    public LoadTestResult result(String runId) {
+        synchronized (results) {
+            return results.get(runId);
+        }
+    }
+
+    public List<LoadTestResult> results() {
+        synchronized (results) {
+            return new ArrayList<>(results.values());
+        }
+    }
+
+    private LoadTestResult run(String runId, LoadTestRequest profile) {
+        log.info("Yük testi verisi hazırlanıyor. Run: {}, Ürün: {}, Müşteri: {}", runId, profile.catalogSize(),
+                profile.customerCount());
+        LoadDataSet data = LoadDataSet.seed(customerRepository, productRepository, profile.customerCount(),
+                profile.catalogSize());
+
+        Map<LoadOperation, OperationRecorder> recorders = new EnumMap<>(LoadOperation.class);
+        for (LoadOperation operation : profile.mix().keySet()) {
+            recorders.put(operation, new OperationRecorder(operation, meterRegistry));
+        }
+        OperationPicker picker = new OperationPicker(profile.mix());
+        AtomicInteger inFlight = new AtomicInteger();
+
+        Instant startedAt = Instant.now();
+        store(new LoadTestResult(runId, LoadTestResult.Status.RUNNING, profile, startedAt, null, null, null, null,
+                null));
+        log.info("Yük testi başladı. Run: {}, Hız: {}/sn, Süre: {} sn (+{} sn ısınma)", runId,
+                profile.ratePerSecond(), profile.durationSeconds(), profile.warmupSeconds());
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(profile.warmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(profile.durationSeconds());
+        long scheduled = 0;
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long intendedStart = start + i * 1_000_000_000L / profile.ratePerSecond();
+                if (intendedStart >= end) {
+                    break;
+                }
+                waitUntil(intendedStart);
+                boolean measured = intendedStart >= measureFrom;
+                LoadOperation operation = picker.next();
+                OperationRecorder recorder = recorders.get(operation);
+                if (measured) {
+                    scheduled++;
+                }
+                if (inFlight.incrementAndGet() > profile.maxInFlight()) {
+                    inFlight.decrementAndGet();
+                    if (measured) {
+                        recorder.dropped();
+                    }
+                    continue;
+                }
+                workers.execute(() -> {
+                    try {
+                        execute(operation, data, profile, intendedStart, measured ? recorder : null);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+        }
+        double seconds = profile.durationSeconds();
+        List<LoadTestResult.OperationStats> operations = new ArrayList<>();
+        long completed = 0;
+        for (OperationRecorder recorder : recorders.values()) {
+            LoadTestResult.OperationStats stats = recorder.stats(seconds);
+            completed += stats.count();
+            operations.add(stats);
+        }
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - measureFrom);
+        log.info("Yük testi tamamlandı. Run: {}, Planlanan: {}, Tamamlanan: {}", runId, scheduled, completed);
+        return new LoadTestResult(runId, LoadTestResult.Status.COMPLETED, profile, startedAt, durationMs, scheduled,
+                completed / seconds, operations, null);
+    }
+
+    private void execute(LoadOperation operation, LoadDataSet data, LoadTestRequest profile, long intendedStart,
+                         OperationRecorder recorder) {
+        long begin = System.nanoTime();
+        try {
+            switch (operation) {
+                case CREATE_ORDER -> orderService.createOrder(data.customerId(),
+                        data.productIds(profile.productsPerOrder()));
+                case READ_PRODUCT -> productService.getProductById(data.productId());
+                case UPDATE_STOCK -> productService.updateStock(data.productId(), LoadDataSet.stock());
+                case LIST_PRODUCTS -> productService.getProductsPage(null, profile.pageSize());
+            }
+            long finished = System.nanoTime();
+            if (recorder != null) {
+                recorder.success(finished - intendedStart, finished - begin);
+            }
+        } catch (Exception e) {
+            log.debug("Yük testi işlemi başarısız. İşlem: {}, Hata: {}", operation, e.getMessage());
+            if (recorder != null) {
+                recorder.error();
+            }
+        }
+    }
+
+    // Uzun beklemeler park ile, son kısım spin ile yapılır (park çözünürlüğü yüksek hızlarda yetersiz kalır)
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private void store(LoadTestResult result) {
+        synchronized (results) {
+            results.put(result.runId(), result);
+            if (results.size() > MAX_KEPT_RESULTS) {
+                results.remove(results.keySet().iterator().next());
+            }
+        }
+    }
+
+    // Ağırlıklara göre işlem seçimi (kümülatif dizi üzerinde ikili arama)
+    private static final class OperationPicker {
+
+        private final LoadOperation[] operations;
+        private final int[] cumulative;
+
+        OperationPicker(Map<LoadOperation, Integer> mix) {
+            List<LoadOperation> selected = new ArrayList<>();
+            List<Integer> sums = new ArrayList<>();
+            int total = 0;
+            for (Map.Entry<LoadOperation, Integer> entry : mix.entrySet()) {
+                if (entry.getValue() > 0) {
+                    total += entry.getValue();
+                    selected.add(entry.getKey());
+                    sums.add(total);
+                }
+            }
+            this.operations = selected.toArray(LoadOperation[]::new);
+            this.cumulative = sums.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        LoadOperation next() {
+            int value = ThreadLocalRandom.current().nextInt(cumulative[cumulative.length - 1]);
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cumulative[middle] > value) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return operations[low];
+        }
+    }
+}
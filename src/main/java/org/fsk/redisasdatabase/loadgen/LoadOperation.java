@@ -0,0 +1,9 @@
+package org.fsk.redisasdatabase.loadgen;
+
+// Yük testinde karıştırılabilen işlemler
+public enum LoadOperation {
+    CREATE_ORDER,
+    READ_PRODUCT,
+    UPDATE_STOCK,
+    LIST_PRODUCTS
+}
@@ -0,0 +1,87 @@
+package org.fsk.redisasdatabase.loadgen;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.fsk.redisasdatabase.dtos.LoadTestResult;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Tek bir işlem tipinin ölçümleri: koşu sonucu için HdrHistogram (mikrosaniye),
+// Prometheus için Micrometer timer'ları (yüzdelikler ve histogram bucket'ları)
+final class OperationRecorder {
+
+    private static final double MICROS_PER_MS = 1_000.0;
+
+    private final LoadOperation operation;
+    private final Recorder latency = new Recorder(3);
+    private final Recorder serviceTime = new Recorder(3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Timer latencyTimer;
+    private final Timer serviceTimer;
+    private final Counter errorCounter;
+    private final Counter droppedCounter;
+
+    OperationRecorder(LoadOperation operation, MeterRegistry meterRegistry) {
+        this.operation = operation;
+        String tag = operation.name().toLowerCase();
+        this.latencyTimer = Timer.builder("loadgen.latency")
+                .description("Planlanan başlangıçtan tamamlanmaya kadar geçen süre")
+                .tag("operation", tag)
+                .publishPercentiles(0.5, 0.9, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.serviceTimer = Timer.builder("loadgen.service-time")
+                .description("İşlemin fiilen çalıştığı süre")
+                .tag("operation", tag)
+                .publishPercentiles(0.5, 0.9, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.errorCounter = meterRegistry.counter("loadgen.errors", "operation", tag);
+        this.droppedCounter = meterRegistry.counter("loadgen.dropped", "operation", tag);
+    }
+
+    void success(long latencyNanos, long serviceNanos) {
+        latency.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        serviceTime.recordValue(TimeUnit.NANOSECONDS.toMicros(serviceNanos));
+        latencyTimer.record(latencyNanos, TimeUnit.NANOSECONDS);
+        serviceTimer.record(serviceNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void error() {
+        errors.increment();
+        errorCounter.increment();
+    }
+
+    // maxInFlight aşıldığında istek gönderilmez; open-loop'ta bu da bir başarısızlıktır
+    void dropped() {
+        dropped.increment();
+        droppedCounter.increment();
+    }
+
+    LoadTestResult.OperationStats stats(double durationSeconds) {
+        Histogram latencyHistogram = latency.getIntervalHistogram();
+        Histogram serviceHistogram = serviceTime.getIntervalHistogram();
+        long count = latencyHistogram.getTotalCount();
+        return new LoadTestResult.OperationStats(operation.name(), count, errors.sum(), dropped.sum(),
+                durationSeconds > 0 ? count / durationSeconds : 0, percentiles(latencyHistogram),
+                percentiles(serviceHistogram));
+    }
+
+    private static LoadTestResult.Percentiles percentiles(Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return new LoadTestResult.Percentiles(0, 0, 0, 0, 0, 0);
+        }
+        return new LoadTestResult.Percentiles(
+                histogram.getMean() / MICROS_PER_MS,
+                histogram.getValueAtPercentile(50) / MICROS_PER_MS,
+                histogram.getValueAtPercentile(90) / MICROS_PER_MS,
+                histogram.getValueAtPercentile(99) / MICROS_PER_MS,
+                histogram.getValueAtPercentile(99.9) / MICROS_PER_MS,
+                histogram.getMaxValue() / MICROS_PER_MS);
+    }
+}
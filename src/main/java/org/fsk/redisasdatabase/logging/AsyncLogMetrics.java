@@ -0,0 +1,56 @@
+package org.fsk.redisasdatabase.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.AsyncAppenderBase;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Async appender kuyruklarının doluluğu: logging.async.queue.size ve logging.async.queue.remaining{appender}.
+// Kalan kapasite discarding-threshold altına indiyse INFO ve altı atılıyor, sıfırsa never-block'ta her şey atılıyor.
+@Slf4j
+@Component
+public class AsyncLogMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public AsyncLogMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Spring Boot logback konfigürasyonunu açılışta yeniden yükler; appender'lar hazır olduktan sonra bağlanır
+    @EventListener(ApplicationReadyEvent.class)
+    public void register() {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        Map<String, AsyncAppenderBase<ILoggingEvent>> appenders = new LinkedHashMap<>();
+        for (ch.qos.logback.classic.Logger logger : context.getLoggerList()) {
+            Iterator<Appender<ILoggingEvent>> iterator = logger.iteratorForAppenders();
+            while (iterator.hasNext()) {
+                if (iterator.next() instanceof AsyncAppenderBase<ILoggingEvent> async) {
+                    appenders.putIfAbsent(async.getName(), async);
+                }
+            }
+        }
+        appenders.forEach((name, appender) -> {
+            Gauge.builder("logging.async.queue.size", appender, AsyncAppenderBase::getNumberOfElementsInQueue)
+                    .tag("appender", name)
+                    .register(meterRegistry);
+            Gauge.builder("logging.async.queue.remaining", appender, AsyncAppenderBase::getRemainingCapacity)
+                    .tag("appender", name)
+                    .register(meterRegistry);
+        });
+        log.debug("Async log appender metrikleri kaydedildi: {}", appenders.keySet());
+    }
+}
@@ -0,0 +1,39 @@
+package org.fsk.redisasdatabase.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+// DEBUG/TRACE izlerini istek bazında örnekler: istek bağlamı varsa (MDC'de requestId) ve istek örneklenmemişse
+// olay daha oluşturulmadan elenir; parametreler formatlanmaz, kuyruğa hiçbir şey girmez.
+// INFO ve üstü ile istek dışındaki thread'ler (açılış, arka plan işleri) etkilenmez, seviye ayarı geçerlidir.
+// Örnekleme kararı RequestLoggingFilter'da verilir; benchmark gibi HTTP dışı çağıranlar beginRequest kullanır.
+public class DebugSamplingFilter extends TurboFilter {
+
+    public static final String REQUEST_ID = "requestId";
+    public static final String DEBUG_SAMPLED = "debugSampled";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+                              Throwable t) {
+        if (level == null || level.levelInt > Level.DEBUG_INT || MDC.get(REQUEST_ID) == null) {
+            return FilterReply.NEUTRAL;
+        }
+        return MDC.get(DEBUG_SAMPLED) != null ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public static void beginRequest(String requestId, boolean debugSampled) {
+        MDC.put(REQUEST_ID, requestId);
+        if (debugSampled) {
+            MDC.put(DEBUG_SAMPLED, "true");
+        }
+    }
+
+    public static void endRequest() {
+        MDC.remove(REQUEST_ID);
+        MDC.remove(DEBUG_SAMPLED);
+    }
+}
@@ -0,0 +1,54 @@
+package org.fsk.redisasdatabase.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Her isteğe requestId verir (gelen X-Request-Id korunur) ve DEBUG izlerinin bu istekte yazılıp yazılmayacağına
+// debug-sample-rate ile bir kez karar verir. X-Debug-Trace: true başlığı örneklemeyi zorlar; başlık sadece
+// debug-trace-header açıkken dikkate alınır, aksi halde herhangi bir istemci her isteğinde DEBUG izlerini açıp
+// log hacmini ve kuyruk baskısını artırabilirdi.
+// Karar MDC ile taşınır, async appender'lar MDC'yi olayla birlikte kopyalar.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    public static final String DEBUG_TRACE_HEADER = "X-Debug-Trace";
+
+    private final double debugSampleRate;
+    private final boolean debugTraceHeader;
+
+    public RequestLoggingFilter(@Value("${app.logging.debug-sample-rate:0.01}") double debugSampleRate,
+                                @Value("${app.logging.debug-trace-header:false}") boolean debugTraceHeader) {
+        this.debugSampleRate = debugSampleRate;
+        this.debugTraceHeader = debugTraceHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId == null || requestId.isBlank()) {
+            requestId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        }
+        boolean sampled = (debugTraceHeader && Boolean.parseBoolean(request.getHeader(DEBUG_TRACE_HEADER)))
+                || (debugSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < debugSampleRate);
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+        DebugSamplingFilter.beginRequest(requestId, sampled);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            DebugSamplingFilter.endRequest();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.fsk.redisasdatabase.mappers;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Entity <-> Redis hash dönüşümü. Üretilen hash, Spring Data Redis repository'lerinin yazdığı formatla aynıdır:
+// basit alanlar metin, @Reference alanlar "keyspace:id", referans koleksiyonları "alan.[i]" = "keyspace:id".
+// Okurken referanslar sadece ID'si dolu nesneler olarak döner.
+@Component
+public class EntityHashMapper {
+
+    public static final String TYPE_HINT = "_class";
+
+    private final ClassValue<HashPlan> plans = new ClassValue<>() {
+        @Override
+        protected HashPlan computeValue(Class<?> type) {
+            return HashPlan.build(type);
+        }
+    };
+
+    // Planları önceden oluştur (ilk isteğin maliyetini açılışa taşır)
+    public void prepare(Class<?>... types) {
+        for (Class<?> type : types) {
+            plans.get(type);
+        }
+    }
+
+    public String keyOf(Object entity) {
+        return plans.get(entity.getClass()).key(entity);
+    }
+
+    public String idOf(Object entity) {
+        Object id = plans.get(entity.getClass()).id().getter().apply(entity);
+        return id == null ? null : id.toString();
+    }
+
+    public void assignId(Object entity, String id) {
+        HashPlan.Property property = plans.get(entity.getClass()).id();
+        property.setter().accept(entity, property.converter().read(id));
+    }
+
+    // Referans olmayan alanların adları (HMGET ile sadece bu alanları okumak için)
+    public List<String> simpleFields(Class<?> type) {
+        return plans.get(type).properties().stream()
+                .filter(property -> property.kind() == HashPlan.Kind.SIMPLE)
+                .map(HashPlan.Property::name)
+                .toList();
+    }
+
+    public Map<String, String> toHash(Object entity) {
+        HashPlan plan = plans.get(entity.getClass());
+        Map<String, String> hash = new LinkedHashMap<>(plan.properties().size() * 2);
+        hash.put(TYPE_HINT, plan.type().getName());
+        for (HashPlan.Property property : plan.properties()) {
+            Object value = property.getter().apply(entity);
+            if (value == null) {
+                continue;
+            }
+            switch (property.kind()) {
+                case SIMPLE -> hash.put(property.name(), property.converter().write(value));
+                case REFERENCE -> {
+                    String key = plans.get(property.targetType()).key(value);
+                    if (key != null) {
+                        hash.put(property.name(), key);
+                    }
+                }
+                case REFERENCE_COLLECTION -> {
+                    HashPlan target = plans.get(property.targetType());
+                    int index = 0;
+                    for (Object element : (Collection<?>) value) {
+                        String key = target.key(element);
+                        if (key != null) {
+                            hash.put(property.name() + ".[" + index++ + "]", key);
+                        }
+                    }
+                }
+            }
+        }
+        return hash;
+    }
+
+    public <T> T fromHash(Map<String, String> hash, Class<T> type) {
+        if (hash == null || hash.isEmpty()) {
+            return null;
+        }
+        HashPlan plan = plans.get(type);
+        Object entity = plan.newInstance();
+        for (HashPlan.Property property : plan.properties()) {
+            String value = hash.get(property.name());
+            if (value == null) {
+                continue;
+            }
+            switch (property.kind()) {
+                case SIMPLE -> property.setter().accept(entity, property.converter().read(value));
+                case REFERENCE -> property.setter().accept(entity, stub(property.targetType(), value));
+                case REFERENCE_COLLECTION -> {
+                }
+            }
+        }
+        if (!plan.referenceCollections().isEmpty()) {
+            readReferenceCollections(hash, plan, entity);
+        }
+        return type.cast(entity);
+    }
+
+    private void readReferenceCollections(Map<String, String> hash, HashPlan plan, Object entity) {
+        Map<String, Set<Object>> references = new HashMap<>();
+        for (String name : plan.referenceCollections().keySet()) {
+            references.put(name, new HashSet<>());
+        }
+        for (Map.Entry<String, String> field : hash.entrySet()) {
+            int bracket = field.getKey().indexOf(".[");
+            HashPlan.Property property = bracket < 0
+                    ? null : plan.referenceCollections().get(field.getKey().substring(0, bracket));
+            if (property != null) {
+                references.get(property.name()).add(stub(property.targetType(), field.getValue()));
+            }
+        }
+        references.forEach((name, stubs) -> plan.referenceCollections().get(name).setter().accept(entity, stubs));
+    }
+
+    // "keyspace:id" anahtarından sadece ID'si dolu bir referans nesnesi üretir
+    private Object stub(Class<?> type, String key) {
+        HashPlan plan = plans.get(type);
+        Object stub = plan.newInstance();
+        String id = key.startsWith(plan.keyspace() + ":") ? key.substring(plan.keyspace().length() + 1) : key;
+        plan.id().setter().accept(stub, plan.id().converter().read(id));
+        return stub;
+    }
+}
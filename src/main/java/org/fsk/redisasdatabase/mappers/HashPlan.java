@@ -0,0 +1,131 @@
+package org.fsk.redisasdatabase.mappers;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Reference;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.redis.core.RedisHash;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Bir entity sınıfı için bir kez oluşturulan erişim planı
+final class HashPlan {
+
+    enum Kind {SIMPLE, REFERENCE, REFERENCE_COLLECTION}
+
+    record Property(String name, Kind kind, Function<Object, Object> getter, BiConsumer<Object, Object> setter,
+                    ValueConverter converter, Class<?> targetType) {
+    }
+
+    private final Class<?> type;
+    private final String keyspace;
+    private final Supplier<Object> factory;
+    private final Property id;
+    private final List<Property> properties;
+    private final Map<String, Property> referenceCollections;
+
+    private HashPlan(Class<?> type, String keyspace, Supplier<Object> factory, Property id,
+                     List<Property> properties) {
+        this.type = type;
+        this.keyspace = keyspace;
+        this.factory = factory;
+        this.id = id;
+        this.properties = properties;
+        this.referenceCollections = properties.stream()
+                .filter(property -> property.kind() == Kind.REFERENCE_COLLECTION)
+                .collect(Collectors.toUnmodifiableMap(Property::name, property -> property));
+    }
+
+    static HashPlan build(Class<?> type) {
+        RedisHash redisHash = type.getAnnotation(RedisHash.class);
+        String keyspace = redisHash != null && StringUtils.hasText(redisHash.value())
+                ? redisHash.value() : type.getName();
+
+        Property id = null;
+        List<Property> properties = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())
+                    || field.isAnnotationPresent(Transient.class)) {
+                continue;
+            }
+            Method getter = findAccessor(type, field, field.getType() == boolean.class ? "is" : "get");
+            Method setter = findAccessor(type, field, "set", field.getType());
+            if (getter == null || setter == null) {
+                continue;
+            }
+            Property property = property(type, field, getter, setter);
+            if (field.isAnnotationPresent(Id.class)) {
+                id = property;
+            }
+            properties.add(property);
+        }
+        if (id == null) {
+            throw new IllegalStateException("@Id alanı bulunamadı: " + type.getName());
+        }
+        return new HashPlan(type, keyspace, Accessors.constructor(type), id, List.copyOf(properties));
+    }
+
+    private static Property property(Class<?> type, Field field, Method getter, Method setter) {
+        Function<Object, Object> get = Accessors.getter(type, getter);
+        BiConsumer<Object, Object> set = Accessors.setter(type, setter);
+        if (field.isAnnotationPresent(Reference.class)) {
+            if (Collection.class.isAssignableFrom(field.getType())) {
+                Class<?> elementType = ResolvableType.forField(field).asCollection().resolveGeneric(0);
+                return new Property(field.getName(), Kind.REFERENCE_COLLECTION, get, set, null, elementType);
+            }
+            return new Property(field.getName(), Kind.REFERENCE, get, set, null, field.getType());
+        }
+        ValueConverter converter = ValueConverter.forType(field.getType());
+        if (converter == null) {
+            throw new IllegalStateException("Desteklenmeyen alan tipi: " + type.getName() + "." + field.getName());
+        }
+        return new Property(field.getName(), Kind.SIMPLE, get, set, converter, field.getType());
+    }
+
+    private static Method findAccessor(Class<?> type, Field field, String prefix, Class<?>... parameterTypes) {
+        String name = prefix + StringUtils.capitalize(field.getName());
+        Method method = ReflectionUtils.findMethod(type, name, parameterTypes);
+        return method != null && Modifier.isPublic(method.getModifiers()) ? method : null;
+    }
+
+    Class<?> type() {
+        return type;
+    }
+
+    String keyspace() {
+        return keyspace;
+    }
+
+    Property id() {
+        return id;
+    }
+
+    List<Property> properties() {
+        return properties;
+    }
+
+    Map<String, Property> referenceCollections() {
+        return referenceCollections;
+    }
+
+    Object newInstance() {
+        return factory.get();
+    }
+
+    String key(Object entity) {
+        Object entityId = id.getter().apply(entity);
+        return entityId == null ? null : keyspace + ":" + entityId;
+    }
+}
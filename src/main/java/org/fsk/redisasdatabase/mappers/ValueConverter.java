@@ -0,0 +1,46 @@
+package org.fsk.redisasdatabase.mappers;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.Function;
+
+// Basit tiplerin Spring Data Redis hash formatındaki metin karşılıkları
+record ValueConverter(Function<Object, String> writer, Function<String, Object> reader) {
+
+    private static final Map<Class<?>, ValueConverter> CONVERTERS = Map.ofEntries(
+            Map.entry(String.class, new ValueConverter(Object::toString, value -> value)),
+            Map.entry(Integer.class, new ValueConverter(Object::toString, Integer::valueOf)),
+            Map.entry(int.class, new ValueConverter(Object::toString, Integer::valueOf)),
+            Map.entry(Long.class, new ValueConverter(Object::toString, Long::valueOf)),
+            Map.entry(long.class, new ValueConverter(Object::toString, Long::valueOf)),
+            Map.entry(Double.class, new ValueConverter(Object::toString, Double::valueOf)),
+            Map.entry(double.class, new ValueConverter(Object::toString, Double::valueOf)),
+            Map.entry(Boolean.class, new ValueConverter(Object::toString, Boolean::valueOf)),
+            Map.entry(boolean.class, new ValueConverter(Object::toString, Boolean::valueOf)),
+            Map.entry(BigDecimal.class, new ValueConverter(Object::toString, BigDecimal::new)),
+            Map.entry(BigInteger.class, new ValueConverter(Object::toString, BigInteger::new)),
+            Map.entry(LocalDateTime.class, new ValueConverter(Object::toString, LocalDateTime::parse)),
+            Map.entry(LocalDate.class, new ValueConverter(Object::toString, LocalDate::parse)),
+            Map.entry(Instant.class, new ValueConverter(Object::toString, Instant::parse)));
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static ValueConverter forType(Class<?> type) {
+        if (type.isEnum()) {
+            return new ValueConverter(value -> ((Enum<?>) value).name(),
+                    value -> Enum.valueOf((Class<? extends Enum>) type, value));
+        }
+        return CONVERTERS.get(type);
+    }
+
+    String write(Object value) {
+        return writer.apply(value);
+    }
+
+    Object read(String value) {
+        return reader.apply(value);
+    }
+}
@@ -0,0 +1,269 @@
+package org.fsk.redisasdatabase.metrics;
+
+import io.lettuce.core.event.command.CommandFailedEvent;
+import io.lettuce.core.event.command.CommandListener;
+import io.lettuce.core.event.command.CommandStartedEvent;
+import io.lettuce.core.event.command.CommandSucceededEvent;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandArgsAccessor;
+import io.lettuce.core.protocol.RedisCommand;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Lettuce client'ına bağlanan komut dinleyicisi; RedisTemplate, repository'ler, script'ler ve reactive API
+// aynı client'tan geçtiği için hepsini kapsar.
+// redis.command.latency{command,prefix}: komut ve anahtar öneki bazında gecikme (SLO bucket'lı)
+// redis.command.errors{command,prefix}: hata/iptal ile biten komutlar
+// redis.payload.bytes{direction=write|read,prefix}: istek ve yanıt boyutları, payload-sample-rate oranında ölçülür
+//   Entity hash'lerinin değerleri düz metindir, compact serializer'dan geçmez; boyut kablodaki haliyle ölçülür.
+// redis.operation.commands{operation}: operation() içinde çağıran thread'in gönderdiği komut sayısı
+// Önek anahtardaki ID segmentleri atılarak çıkarılır (stock:{product:<id>}:3 -> stock:product);
+// farklı önek sayısı max-prefixes ile sınırlıdır, fazlası "other" etiketine düşer.
+@Component
+public class RedisCommandMetrics implements CommandListener {
+
+    private static final String START = "metrics.start";
+    private static final String PREFIX = "metrics.prefix";
+    private static final String NO_KEY = "none";
+    private static final String OTHER = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final double payloadSampleRate;
+    private final int maxPrefixes;
+    private final Duration[] latencySlos;
+    private final Map<String, Map<String, Timer>> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> errors = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> payloads = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> operations = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> prefixes = new ConcurrentHashMap<>();
+    private final ThreadLocal<OperationScope> currentOperation = new ThreadLocal<>();
+
+    public RedisCommandMetrics(MeterRegistry meterRegistry,
+                               @Value("${app.instrumentation.redis.enabled:true}") boolean enabled,
+                               @Value("${app.instrumentation.redis.payload-sample-rate:0.1}")
+                               double payloadSampleRate,
+                               @Value("${app.instrumentation.redis.max-prefixes:64}") int maxPrefixes,
+                               @Value("${app.instrumentation.redis.latency-slos:250us,1ms,5ms,25ms,100ms}")
+                               List<Duration> latencySlos) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.payloadSampleRate = payloadSampleRate;
+        this.maxPrefixes = maxPrefixes;
+        this.latencySlos = latencySlos.toArray(new Duration[0]);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // İş operasyonu başına komut sayısı. İç içe çağrılarda en dıştaki operasyon sayar; komutlar başka
+    // thread'den gönderiliyorsa (reactive zincirler) sayılmaz.
+    public <T> T operation(String name, Supplier<T> body) {
+        if (!enabled || currentOperation.get() != null) {
+            return body.get();
+        }
+        OperationScope scope = new OperationScope();
+        currentOperation.set(scope);
+        try {
+            return body.get();
+        } finally {
+            currentOperation.remove();
+            operations.computeIfAbsent(name, operation -> DistributionSummary.builder("redis.operation.commands")
+                            .tag("operation", operation)
+                            .serviceLevelObjectives(1, 2, 4, 8, 16, 32, 64)
+                            .register(meterRegistry))
+                    .record(scope.commands);
+        }
+    }
+
+    // Çağıran thread'de, komut yazılmadan önce çalışır
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        OperationScope scope = currentOperation.get();
+        if (scope != null) {
+            scope.commands++;
+        }
+        RedisCommand<Object, Object, Object> command = event.getCommand();
+        String prefix = prefixOf(command.getArgs());
+        event.getContext().put(PREFIX, prefix);
+        event.getContext().put(START, System.nanoTime());
+        if (sampled() && command.getArgs() != null) {
+            // Kullanılan codec'ler (ByteArrayCodec, reactive ByteBufferCodec) argümanı tüketmeden kodlar,
+            // aynı argümanları ikinci kez kodlamak güvenli
+            ByteBuf buffer = Unpooled.buffer(256);
+            try {
+                command.getArgs().encode(buffer);
+                payload("write", prefix).record(buffer.readableBytes());
+            } finally {
+                buffer.release();
+            }
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        if (!enabled) {
+            return;
+        }
+        String prefix = (String) event.getContext().getOrDefault(PREFIX, NO_KEY);
+        timer(event.getCommand().getType().name(), prefix).record(event.getDuration(TimeUnit.NANOSECONDS),
+                TimeUnit.NANOSECONDS);
+        if (sampled() && event.getCommand().getOutput() != null) {
+            long size = sizeOf(event.getCommand().getOutput().get());
+            if (size > 0) {
+                payload("read", prefix).record(size);
+            }
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        String command = event.getCommand().getType().name();
+        String prefix = (String) event.getContext().getOrDefault(PREFIX, NO_KEY);
+        Object start = event.getContext().get(START);
+        if (start instanceof Long startNanos) {
+            timer(command, prefix).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+        errors.computeIfAbsent(command + "|" + prefix, ignored -> Counter.builder("redis.command.errors")
+                        .tag("command", command)
+                        .tag("prefix", prefix)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private Timer timer(String command, String prefix) {
+        return timers.computeIfAbsent(command, ignored -> new ConcurrentHashMap<>())
+                .computeIfAbsent(prefix, ignored -> Timer.builder("redis.command.latency")
+                        .tag("command", command)
+                        .tag("prefix", prefix)
+                        .serviceLevelObjectives(latencySlos)
+                        .register(meterRegistry));
+    }
+
+    private DistributionSummary payload(String direction, String prefix) {
+        return payloads.computeIfAbsent(direction + "|" + prefix, ignored -> DistributionSummary
+                .builder("redis.payload.bytes")
+                .baseUnit("bytes")
+                .tag("direction", direction)
+                .tag("prefix", prefix)
+                .serviceLevelObjectives(64, 256, 1024, 4096, 16384, 65536)
+                .register(meterRegistry));
+    }
+
+    private boolean sampled() {
+        return payloadSampleRate >= 1.0
+                || (payloadSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < payloadSampleRate);
+    }
+
+    private String prefixOf(CommandArgs<Object, Object> args) {
+        ByteBuffer key = args == null ? null : CommandArgsAccessor.encodeFirstKey(args);
+        if (key == null) {
+            return NO_KEY;
+        }
+        String prefix = normalize(StandardCharsets.UTF_8.decode(key).toString());
+        if (prefixes.containsKey(prefix)) {
+            return prefix;
+        }
+        if (prefixes.size() >= maxPrefixes) {
+            return OTHER;
+        }
+        prefixes.put(prefix, Boolean.TRUE);
+        return prefix;
+    }
+
+    // Segmentlerden hash tag parantezlerini ve ID'leri atar: {customer:<id>}:order-log -> customer:order-log
+    static String normalize(String key) {
+        StringBuilder prefix = new StringBuilder();
+        int start = 0;
+        for (int i = 0; i <= key.length(); i++) {
+            if (i < key.length() && key.charAt(i) != ':') {
+                continue;
+            }
+            String segment = strip(key.substring(start, i));
+            if (!segment.isEmpty() && !isId(segment)) {
+                if (!prefix.isEmpty()) {
+                    prefix.append(':');
+                }
+                prefix.append(segment);
+            }
+            start = i + 1;
+        }
+        return prefix.isEmpty() ? NO_KEY : prefix.toString();
+    }
+
+    private static String strip(String segment) {
+        int from = segment.startsWith("{") ? 1 : 0;
+        int to = segment.endsWith("}") ? segment.length() - 1 : segment.length();
+        return from >= to ? "" : segment.substring(from, to);
+    }
+
+    // UUID'ler, sayılar ve rakam içeren uzun token'lar ID sayılır
+    private static boolean isId(String segment) {
+        boolean digit = false;
+        boolean allDigits = true;
+        for (int i = 0; i < segment.length(); i++) {
+            if (Character.isDigit(segment.charAt(i))) {
+                digit = true;
+            } else {
+                allDigits = false;
+            }
+        }
+        return allDigits || (digit && segment.length() >= 8);
+    }
+
+    // Yanıtın ham boyutu; sayı ve durum yanıtları 0 sayılır
+    private static long sizeOf(Object value) {
+        if (value instanceof byte[] bytes) {
+            return bytes.length;
+        }
+        if (value instanceof ByteBuffer buffer) {
+            return buffer.remaining();
+        }
+        if (value instanceof Collection<?> collection) {
+            long size = 0;
+            for (Object element : collection) {
+                size += sizeOf(element);
+            }
+            return size;
+        }
+        if (value instanceof Map<?, ?> map) {
+            long size = 0;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += sizeOf(entry.getKey()) + sizeOf(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof io.lettuce.core.Value<?> lettuceValue && lettuceValue.hasValue()) {
+            return sizeOf(lettuceValue.getValue());
+        }
+        return 0;
+    }
+
+    private static final class OperationScope {
+        private int commands;
+    }
+}
@@ -0,0 +1,65 @@
+package org.fsk.redisasdatabase.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+
+// Lettuce bağlantı havuzu (commons-pool2) Spring Data içinde gizli tutuluyor; havuz kendini JMX'e
+// "org.apache.commons.pool2:type=GenericObjectPool,name=<JMX_NAME_PREFIX>N" olarak kaydeder.
+// Gauge'lar her okumada (Prometheus scrape) eşleşen havuzların değerlerini toplar, istek yolunda maliyeti yoktur.
+// Havuzlar ilk bağlantı isteğinde oluşur; o zamana kadar değerler 0'dır.
+@Slf4j
+@Component
+public class RedisPoolMetrics {
+
+    public static final String JMX_NAME_PREFIX = "redis-pool";
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    private final ObjectName pools;
+
+    public RedisPoolMetrics(MeterRegistry meterRegistry) throws MalformedObjectNameException {
+        this.pools = new ObjectName("org.apache.commons.pool2:type=GenericObjectPool,name=" + JMX_NAME_PREFIX + "*");
+        gauge(meterRegistry, "redis.pool.connections", "NumActive", "state", "active");
+        gauge(meterRegistry, "redis.pool.connections", "NumIdle", "state", "idle");
+        gauge(meterRegistry, "redis.pool.waiters", "NumWaiters", null, null);
+        gauge(meterRegistry, "redis.pool.max", "MaxTotal", null, null);
+        gauge(meterRegistry, "redis.pool.borrow.wait.max.ms", "MaxBorrowWaitTimeMillis", null, null);
+        FunctionCounter.builder("redis.pool.connections.opened", this, metrics -> metrics.sum("CreatedCount"))
+                .register(meterRegistry);
+        FunctionCounter.builder("redis.pool.connections.closed", this, metrics -> metrics.sum("DestroyedCount"))
+                .register(meterRegistry);
+    }
+
+    private void gauge(MeterRegistry meterRegistry, String name, String attribute, String tagKey, String tagValue) {
+        Gauge.Builder<RedisPoolMetrics> builder = Gauge.builder(name, this, metrics -> metrics.sum(attribute));
+        if (tagKey != null) {
+            builder.tag(tagKey, tagValue);
+        }
+        builder.register(meterRegistry);
+    }
+
+    private double sum(String attribute) {
+        Set<ObjectName> names = mBeanServer.queryNames(pools, null);
+        double total = 0;
+        for (ObjectName name : names) {
+            try {
+                Object value = mBeanServer.getAttribute(name, attribute);
+                if (value instanceof Number number) {
+                    total += number.doubleValue();
+                }
+            } catch (Exception e) {
+                // Havuz kapanırken MBean kaydı silinmiş olabilir
+                log.debug("Havuz metriği okunamadı: {} {}", name, attribute);
+            }
+        }
+        return total;
+    }
+}
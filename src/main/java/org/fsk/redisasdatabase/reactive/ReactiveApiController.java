@@ -0,0 +1,86 @@
+package org.fsk.redisasdatabase.reactive;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+// Reaktif API. Spring MVC Mono/Flux dönüşlerini async request olarak işler: Tomcat thread'i Redis cevabını
+// beklemez, iş Lettuce event loop'unda tamamlanır. Listeler NDJSON olarak akar ve istemci
+// okudukça yeni eleman istenir.
+@RestController
+@RequestMapping("/api/reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveApiController {
+
+    private final ReactiveOrderService reactiveOrderService;
+    private final ReactiveProductService reactiveProductService;
+    private final ReactiveCustomerService reactiveCustomerService;
+
+    @PostMapping("/orders")
+    public Mono<ResponseEntity<Order>> createOrder(
+            @RequestParam String customerId,
+            @RequestParam Set<String> productIds) {
+        log.debug("Reaktif sipariş oluşturma isteği alındı. Müşteri ID: {}, Ürün IDs: {}",
+                customerId, productIds);
+        return reactiveOrderService.createOrder(customerId, productIds)
+                .map(ResponseEntity::ok)
+                .onErrorResume(RuntimeException.class, e -> {
+                    log.warn("Sipariş oluşturulamadı: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.badRequest().build());
+                });
+    }
+
+    @GetMapping("/orders/{id}")
+    public Mono<ResponseEntity<Order>> getOrderById(@PathVariable String id) {
+        return notFoundOnError(reactiveOrderService.getOrderById(id), "Sipariş", id);
+    }
+
+    @GetMapping(value = "/orders", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Order> getAllOrders() {
+        return reactiveOrderService.getAllOrders();
+    }
+
+    @GetMapping("/products/{id}")
+    public Mono<ResponseEntity<Product>> getProductById(@PathVariable String id) {
+        return notFoundOnError(reactiveProductService.getProductById(id), "Ürün", id);
+    }
+
+    @GetMapping(value = "/products", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Product> getAllProducts() {
+        return reactiveProductService.getAllProducts();
+    }
+
+    @GetMapping("/customers/{id}")
+    public Mono<ResponseEntity<Customer>> getCustomerById(@PathVariable String id) {
+        return notFoundOnError(reactiveCustomerService.getCustomerById(id), "Müşteri", id);
+    }
+
+    @GetMapping(value = "/customers", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Customer> getAllCustomers() {
+        return reactiveCustomerService.getAllCustomers();
+    }
+
+    private <T> Mono<ResponseEntity<T>> notFoundOnError(Mono<T> result, String entity, String id) {
+        return result.map(ResponseEntity::ok)
+                .onErrorResume(RuntimeException.class, e -> {
+                    log.warn("{} bulunamadı. ID: {}", entity, id);
+                    return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+                });
+    }
+}
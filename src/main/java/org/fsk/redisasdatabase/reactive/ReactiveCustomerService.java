@@ -0,0 +1,28 @@
+package org.fsk.redisasdatabase.reactive;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveCustomerService {
+
+    private final ReactiveEntityReader reactiveEntityReader;
+
+    public Mono<Customer> getCustomerById(String id) {
+        log.debug("Müşteri reaktif olarak getiriliyor. ID: {}", id);
+        return reactiveEntityReader.findById(RedisKeys.CUSTOMER, id, Customer.class)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Müşteri bulunamadı")));
+    }
+
+    public Flux<Customer> getAllCustomers() {
+        log.debug("Tüm müşteriler reaktif olarak getiriliyor");
+        return reactiveEntityReader.findAll(RedisKeys.CUSTOMER, Customer.class);
+    }
+}
@@ -0,0 +1,43 @@
+package org.fsk.redisasdatabase.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.fsk.redisasdatabase.mappers.EntityHashMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Repository hash'lerini bloklamadan okur. Listeleme index set'i üzerinde SSCAN ile ilerler;
+// bir sonraki cursor sayfası ancak tüketici yeni eleman istediğinde çekilir (backpressure).
+@Component
+@RequiredArgsConstructor
+public class ReactiveEntityReader {
+
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final EntityHashMapper entityHashMapper;
+
+    @Value("${app.reactive.scan-batch-size:500}")
+    private int scanBatchSize;
+
+    // Aynı anda bekleyen HGETALL sayısı; hepsi aynı multiplexed bağlantıdan gider
+    @Value("${app.reactive.read-concurrency:64}")
+    private int readConcurrency;
+
+    public <T> Mono<T> findById(String keyspace, String id, Class<T> type) {
+        return reactiveStringRedisTemplate.<String, String>opsForHash()
+                .entries(keyspace + ":" + id)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .flatMap(hash -> Mono.justOrEmpty(entityHashMapper.fromHash(hash, type)));
+    }
+
+    // Sıra index set'inin SSCAN sırasıdır; okumalar eşzamanlı yapılsa da sonuç bu sırada döner
+    public <T> Flux<T> findAll(String keyspace, Class<T> type) {
+        return reactiveStringRedisTemplate.opsForSet()
+                .scan(keyspace, ScanOptions.scanOptions().count(scanBatchSize).build())
+                .flatMapSequential(id -> findById(keyspace, id, type), readConcurrency);
+    }
+}
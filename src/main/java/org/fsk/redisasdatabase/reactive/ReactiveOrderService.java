@@ -0,0 +1,121 @@
+package org.fsk.redisasdatabase.reactive;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.mappers.EntityHashMapper;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.repositories.StockShardLayout;
+import org.fsk.redisasdatabase.scripts.CheckoutScript;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveOrderService {
+
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final ReactiveEntityReader reactiveEntityReader;
+    private final ReactiveProductService reactiveProductService;
+    private final CheckoutScript checkoutScript;
+    private final EntityHashMapper entityHashMapper;
+
+    // Checkout scripti ve ürün detaylarının okunması aynı anda başlar; hiçbir thread cevap beklerken bloklanmaz.
+    // Stok ve tutar script'ten gelir, ürün okumaları sadece yanıttaki isim/fiyat bilgisi içindir.
+    public Mono<Order> createOrder(String customerId, Set<String> productIds) {
+        log.debug("Reaktif sipariş oluşturma işlemi başlatıldı. Müşteri ID: {}, Ürün IDs: {}",
+                customerId, productIds);
+        Order order = newOrder(customerId, productIds);
+
+        Mono<Order> checkout = checkout(order, 1);
+
+        Mono<Set<Product>> products = Flux.fromIterable(productIds)
+                .flatMap(productId -> reactiveProductService.getProductById(productId)
+                        .onErrorResume(e -> Mono.empty()))
+                // Okuma script'le yarıştığı için stok değeri düşüm öncesi ya da sonrası olabilir, yanıta konmaz
+                .doOnNext(product -> product.setStock(null))
+                .collect(HashSet::new, Set::add);
+
+        return Mono.zip(checkout, products)
+                .map(tuple -> {
+                    Order created = tuple.getT1();
+                    if (tuple.getT2().size() == productIds.size()) {
+                        created.setProducts(tuple.getT2());
+                    }
+                    log.info("Sipariş başarıyla oluşturuldu. ID: {}", created.getId());
+                    return created;
+                })
+                .doOnError(e -> log.error("Sipariş oluşturulurken hata: {}", e.getMessage()));
+    }
+
+    // Kiradan ayırma kilitsizdir, event loop'u bloklamaz. Ürünün shard sayısı değiştiyse yeni düzenle tekrar denenir.
+    // Cluster'da global index, özet ve olay yazımları script'ten sonra ayrıca (bloklayarak) yapıldığından checkout
+    // bloklayan yola, boundedElastic scheduler'a devredilir.
+    private Mono<Order> checkout(Order order, int attempt) {
+        if (checkoutScript.isClustered()) {
+            return Mono.fromCallable(() -> {
+                order.setTotalAmount(checkoutScript.execute(order, entityHashMapper.toHash(order)).totalAmount());
+                return order;
+            }).subscribeOn(Schedulers.boundedElastic());
+        }
+        return Mono.defer(() -> {
+            String leased = checkoutScript.leaseStock(order);
+            // Reaktif siparişler journal'a yazılmaz, journal sayacına dokunulmaz
+            CheckoutScript.Invocation invocation =
+                    checkoutScript.invocation(order, entityHashMapper.toHash(order), leased, "");
+            return reactiveStringRedisTemplate
+                    .execute(checkoutScript.getScript(), invocation.keys(), Arrays.asList(invocation.args()))
+                    .next()
+                    .flatMap(result -> {
+                        if (attempt < StockShardLayout.MAX_ATTEMPTS
+                                && checkoutScript.layoutChanged(result, order, leased)) {
+                            return checkout(order, attempt + 1);
+                        }
+                        order.setTotalAmount(checkoutScript.parseResult(result, order, leased).totalAmount());
+                        return Mono.just(order);
+                    });
+        });
+    }
+
+    public Mono<Order> getOrderById(String id) {
+        log.debug("Sipariş reaktif olarak getiriliyor. ID: {}", id);
+        return reactiveEntityReader.findById(RedisKeys.ORDER, id, Order.class)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Sipariş bulunamadı")));
+    }
+
+    public Flux<Order> getAllOrders() {
+        log.debug("Tüm siparişler reaktif olarak getiriliyor");
+        return reactiveEntityReader.findAll(RedisKeys.ORDER, Order.class);
+    }
+
+    // Müşteri ve ürünler sadece ID'leri ile referans verilir
+    private Order newOrder(String customerId, Set<String> productIds) {
+        Customer customer = new Customer();
+        customer.setId(customerId);
+
+        Set<Product> products = new HashSet<>();
+        for (String productId : productIds) {
+            Product product = new Product();
+            product.setId(productId);
+            products.add(product);
+        }
+
+        Order order = new Order();
+        order.setId(RedisKeys.newOrderId(customerId));
+        order.setOrderDate(LocalDateTime.now());
+        order.setCustomer(customer);
+        order.setProducts(products);
+        return order;
+    }
+}
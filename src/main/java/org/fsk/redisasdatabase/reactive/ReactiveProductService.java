@@ -0,0 +1,69 @@
+package org.fsk.redisasdatabase.reactive;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.repositories.StockShardReader;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveProductService {
+
+    private final ReactiveEntityReader reactiveEntityReader;
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final StockShardReader stockShardReader;
+
+    public Mono<Product> getProductById(String id) {
+        log.debug("Ürün reaktif olarak getiriliyor. ID: {}", id);
+        return reactiveEntityReader.findById(RedisKeys.PRODUCT, id, Product.class)
+                .flatMap(this::withStock)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Ürün bulunamadı")));
+    }
+
+    public Flux<Product> getAllProducts() {
+        log.debug("Tüm ürünler reaktif olarak getiriliyor");
+        return reactiveEntityReader.findAll(RedisKeys.PRODUCT, Product.class)
+                .concatMap(this::withStock);
+    }
+
+    // StockShardReader'ın reaktif karşılığı: shard'lı ürünlerde stok sayaçlardan okunur, kiralama açıksa
+    // node'lara kiralanmış birimler eklenir
+    private Mono<Product> withStock(Product product) {
+        Mono<Product> stored = StockShardReader.isSharded(product) ? withShardedStock(product) : Mono.just(product);
+        if (!stockShardReader.readsLeases()) {
+            return stored;
+        }
+        return stored.flatMap(read -> reactiveStringRedisTemplate.opsForHash()
+                .values(RedisKeys.stockLeases(read.getId()))
+                .collectList()
+                .map(leases -> {
+                    long units = StockShardReader.leasedUnits(leases);
+                    if (units > 0) {
+                        read.setStock(Math.toIntExact((read.getStock() == null ? 0 : read.getStock()) + units));
+                    }
+                    return read;
+                }));
+    }
+
+    private Mono<Product> withShardedStock(Product product) {
+        List<String> keys = new ArrayList<>(product.getStockShards());
+        for (int i = 0; i < product.getStockShards(); i++) {
+            keys.add(RedisKeys.stockShard(product.getId(), i));
+        }
+        return reactiveStringRedisTemplate.opsForValue().multiGet(keys)
+                .map(values -> {
+                    product.setStock(values.stream().filter(value -> value != null)
+                            .mapToInt(Integer::parseInt).sum());
+                    return product;
+                });
+    }
+}
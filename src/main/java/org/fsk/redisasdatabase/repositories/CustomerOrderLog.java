@@ -0,0 +1,90 @@
+package org.fsk.redisasdatabase.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.fsk.redisasdatabase.archive.OrderArchive;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.dtos.CursorPage;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Müşterinin sipariş geçmişi ({customer:<id>}:order-log). Checkout scripti listeye sadece RPUSH yapar,
+// okuma tarafı LRANGE ile sayfa sayfa ilerler ve sadece o sayfanın siparişlerini yükler.
+// Cursor listedeki mutlak pozisyondur; liste sadece sondan büyüdüğü için yeni siparişler gelse de kaymaz.
+@Component
+@RequiredArgsConstructor
+public class CustomerOrderLog {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> PAGE =
+            RedisScript.of(new ClassPathResource("scripts/order-log-page.lua"), List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final OrderArchive orderArchive;
+
+    public CursorPage<Order> page(String customerId, String cursor, int size, boolean newestFirst) {
+        Long position = cursor == null || cursor.isBlank() ? null : parseCursor(cursor);
+        Snapshot snapshot = read(customerId, position, size, newestFirst);
+        if (!snapshot.customerExists() && snapshot.length() == 0) {
+            throw new RuntimeException("Müşteri bulunamadı");
+        }
+        List<String> ids = new ArrayList<>(snapshot.ids());
+        String nextCursor;
+        if (newestFirst) {
+            Collections.reverse(ids);
+            long first = snapshot.last() - ids.size() + 1;
+            nextCursor = ids.isEmpty() || first <= 0 ? null : String.valueOf(first - 1);
+        } else {
+            long next = position == null ? ids.size() : position + ids.size();
+            nextCursor = next < snapshot.length() ? String.valueOf(next) : null;
+        }
+        // Arşivlenmiş siparişlerin ID'leri de listede kalır, arşivden okunur; hiçbir yerde olmayanlar atlanır
+        return new CursorPage<>(orderArchive.read(ids), nextCursor);
+    }
+
+    public void delete(String customerId) {
+        stringRedisTemplate.unlink(RedisKeys.customerOrderLog(customerId));
+    }
+
+    // Uzunluk ve aralık tek script içinde okunur, böylece cursor hesabı eşzamanlı eklemelerden etkilenmez
+    private Snapshot read(String customerId, Long position, int size, boolean newestFirst) {
+        long start;
+        long end;
+        if (newestFirst) {
+            end = position == null ? -1 : position;
+            start = position == null ? -size : Math.max(0, end - size + 1);
+        } else {
+            start = position == null ? 0 : position;
+            end = start + size - 1;
+        }
+        List<?> replies = stringRedisTemplate.execute(PAGE,
+                List.of(RedisKeys.customer(customerId), RedisKeys.customerOrderLog(customerId)),
+                String.valueOf(start), String.valueOf(end));
+        long length = (Long) replies.get(1);
+        @SuppressWarnings("unchecked")
+        List<String> ids = (List<String>) replies.get(2);
+        long last = position == null ? length - 1 : Math.min(position, length - 1);
+        return new Snapshot(Long.valueOf(1).equals(replies.get(0)), length, last, ids);
+    }
+
+    private static long parseCursor(String cursor) {
+        try {
+            long position = Long.parseLong(cursor);
+            if (position >= 0) {
+                return position;
+            }
+        } catch (NumberFormatException ignored) {
+            // aşağıda geçersiz cursor olarak raporlanır
+        }
+        throw new IllegalArgumentException("Geçersiz cursor: " + cursor);
+    }
+
+    // last: newestFirst okumada sayfanın en yeni elemanının mutlak pozisyonu
+    private record Snapshot(boolean customerExists, long length, long last, List<String> ids) {
+    }
+}
@@ -0,0 +1,103 @@
+package org.fsk.redisasdatabase.repositories;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ValueScanCursor;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import lombok.RequiredArgsConstructor;
+import org.fsk.redisasdatabase.dtos.CursorPage;
+import org.fsk.redisasdatabase.mappers.EntityHashMapper;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Repository index set'i (ör. "order") üzerinde SSCAN ile gezinir, hash'leri pipeline ile toplu okur.
+// findAll()'dan farklı olarak tüm sonuç belleğe alınmaz ve referanslar çözülmez (sadece ID).
+@Component
+@RequiredArgsConstructor
+public class EntityScanner {
+
+    public static final String START = "0";
+
+    private static final Duration SCAN_TIMEOUT = Duration.ofSeconds(2);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EntityHashMapper entityHashMapper;
+
+    public <T> CursorPage<T> page(String keyspace, Class<T> type, String cursor, int size) {
+        ScanResult scan = scan(keyspace, cursor == null ? START : cursor, size);
+        List<T> items = read(keyspace, type, scan.ids());
+        return new CursorPage<>(items, START.equals(scan.cursor()) ? null : scan.cursor());
+    }
+
+    public <T> void forEach(String keyspace, Class<T> type, int batchSize, Consumer<T> consumer) {
+        forEachBatch(keyspace, type, batchSize, batch -> batch.forEach(consumer));
+    }
+
+    // Her SSCAN sayfası okunan haliyle bir liste olarak verilir (toplu işlemler pipeline kurabilsin diye)
+    public <T> void forEachBatch(String keyspace, Class<T> type, int batchSize, Consumer<List<T>> consumer) {
+        String cursor = START;
+        do {
+            ScanResult scan = scan(keyspace, cursor, batchSize);
+            List<T> batch = read(keyspace, type, scan.ids());
+            if (!batch.isEmpty()) {
+                consumer.accept(batch);
+            }
+            cursor = scan.cursor();
+        } while (!START.equals(cursor));
+    }
+
+    private ScanResult scan(String keyspace, String cursor, int count) {
+        // Spring'in sScan'i her zaman 0'dan başladığı için devam cursor'ı Lettuce üzerinden verilir
+        return stringRedisTemplate.execute((RedisCallback<ScanResult>) connection -> {
+            @SuppressWarnings("unchecked")
+            RedisClusterAsyncCommands<byte[], byte[]> commands =
+                    (RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+            ValueScanCursor<byte[]> reply = LettuceFutures.awaitOrCancel(
+                    commands.sscan(bytes(keyspace), ScanCursor.of(cursor), ScanArgs.Builder.limit(count)),
+                    SCAN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            List<String> ids = new ArrayList<>(reply.getValues().size());
+            for (byte[] member : reply.getValues()) {
+                ids.add(new String(member, StandardCharsets.UTF_8));
+            }
+            return new ScanResult(reply.getCursor(), ids);
+        });
+    }
+
+    // Verilen ID'lerin hash'lerini tek pipeline ile okur; sıra korunur, bulunamayanlar atlanır
+    @SuppressWarnings("unchecked")
+    public <T> List<T> read(String keyspace, Class<T> type, List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Object> hashes = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            ids.forEach(id -> connection.hashCommands().hGetAll(bytes(keyspace + ":" + id)));
+            return null;
+        });
+        List<T> items = new ArrayList<>(ids.size());
+        for (Object hash : hashes) {
+            // ID'nin alınması ile okuma arasında silinmiş kayıtlar atlanır
+            T item = entityHashMapper.fromHash((Map<String, String>) hash, type);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record ScanResult(String cursor, List<String> ids) {
+    }
+}
@@ -0,0 +1,30 @@
+package org.fsk.redisasdatabase.repositories;
+
+import java.util.Collection;
+import java.util.Set;
+
+// Okumada hangi referansların yükleneceği. Planda olmayan referanslar sadece ID'si dolu nesneler olarak döner.
+public record FetchPlan(Set<String> references) {
+
+    public static final FetchPlan NONE = new FetchPlan(Set.of());
+
+    public FetchPlan {
+        references = Set.copyOf(references);
+    }
+
+    public static FetchPlan of(String... references) {
+        return new FetchPlan(Set.of(references));
+    }
+
+    public static FetchPlan of(Collection<String> references) {
+        return references == null || references.isEmpty() ? NONE : new FetchPlan(Set.copyOf(references));
+    }
+
+    public boolean includes(String reference) {
+        return references.contains(reference);
+    }
+
+    public boolean isEmpty() {
+        return references.isEmpty();
+    }
+}
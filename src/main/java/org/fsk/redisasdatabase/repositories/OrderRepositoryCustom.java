@@ -0,0 +1,21 @@
+package org.fsk.redisasdatabase.repositories;
+
+import org.fsk.redisasdatabase.domains.Order;
+
+import java.util.List;
+import java.util.Optional;
+
+// Referansları FetchPlan'e göre yükleyen okuma metotları. CrudRepository'nin findById/findAll metotları
+// referansları tek tek ve iç içe çözdüğü için sipariş okumalarında bunlar kullanılır.
+public interface OrderRepositoryCustom {
+
+    String CUSTOMER = "customer";
+    String PRODUCTS = "products";
+
+    Optional<Order> findById(String id, FetchPlan fetchPlan);
+
+    List<Order> findAllById(List<String> ids, FetchPlan fetchPlan);
+
+    // Zaten okunmuş siparişlerin referanslarını plana göre doldurur
+    void resolve(List<Order> orders, FetchPlan fetchPlan);
+}
@@ -0,0 +1,137 @@
+package org.fsk.redisasdatabase.repositories;
+
+import org.fsk.redisasdatabase.archive.OrderArchive;
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.mappers.EntityHashMapper;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Sipariş okuması en fazla üç round trip'tir: sipariş hash'leri, plandaki tüm referanslar için tek bir
+// HMGET pipeline'ı ve shard'lı ürün varsa stok sayaçları. Referanslar sadece basit alanlarıyla okunur,
+// ürünün siparişleri gibi referans koleksiyonları yüklenmez. Redis'te olmayan siparişler arşivden okunur.
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    private static final Set<String> REFERENCES = Set.of(CUSTOMER, PRODUCTS);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EntityHashMapper entityHashMapper;
+    private final OrderArchive orderArchive;
+    private final StockShardReader stockShardReader;
+    private final List<String> customerFields;
+    private final List<String> productFields;
+
+    public OrderRepositoryCustomImpl(StringRedisTemplate stringRedisTemplate, EntityHashMapper entityHashMapper,
+                                     OrderArchive orderArchive, StockShardReader stockShardReader) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.entityHashMapper = entityHashMapper;
+        this.orderArchive = orderArchive;
+        this.stockShardReader = stockShardReader;
+        this.customerFields = entityHashMapper.simpleFields(Customer.class);
+        this.productFields = entityHashMapper.simpleFields(Product.class);
+    }
+
+    @Override
+    public Optional<Order> findById(String id, FetchPlan fetchPlan) {
+        List<Order> orders = findAllById(List.of(id), fetchPlan);
+        return orders.isEmpty() ? Optional.empty() : Optional.of(orders.get(0));
+    }
+
+    @Override
+    public List<Order> findAllById(List<String> ids, FetchPlan fetchPlan) {
+        validate(fetchPlan);
+        List<Order> orders = orderArchive.read(ids);
+        resolve(orders, fetchPlan);
+        return orders;
+    }
+
+    @Override
+    public void resolve(List<Order> orders, FetchPlan fetchPlan) {
+        validate(fetchPlan);
+        Set<String> customerIds = new LinkedHashSet<>();
+        Set<String> productIds = new LinkedHashSet<>();
+        for (Order order : orders) {
+            if (fetchPlan.includes(CUSTOMER) && order.getCustomer() != null) {
+                customerIds.add(order.getCustomer().getId());
+            }
+            if (fetchPlan.includes(PRODUCTS) && order.getProducts() != null) {
+                order.getProducts().forEach(product -> productIds.add(product.getId()));
+            }
+        }
+        if (customerIds.isEmpty() && productIds.isEmpty()) {
+            return;
+        }
+
+        List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            byte[][] customerFieldBytes = bytes(customerFields);
+            byte[][] productFieldBytes = bytes(productFields);
+            customerIds.forEach(id -> connection.hashCommands()
+                    .hMGet(RedisKeys.customer(id).getBytes(StandardCharsets.UTF_8), customerFieldBytes));
+            productIds.forEach(id -> connection.hashCommands()
+                    .hMGet(RedisKeys.product(id).getBytes(StandardCharsets.UTF_8), productFieldBytes));
+            return null;
+        });
+        Map<String, Customer> customers = map(customerIds, replies, 0, customerFields, Customer.class);
+        Map<String, Product> products = map(productIds, replies, customerIds.size(), productFields, Product.class);
+        stockShardReader.aggregate(products.values());
+
+        // Bulunamayan referanslar ID'si dolu haliyle kalır
+        for (Order order : orders) {
+            if (!customerIds.isEmpty() && order.getCustomer() != null) {
+                order.setCustomer(customers.getOrDefault(order.getCustomer().getId(), order.getCustomer()));
+            }
+            if (!productIds.isEmpty() && order.getProducts() != null) {
+                Set<Product> resolved = new HashSet<>();
+                order.getProducts().forEach(product -> resolved.add(products.getOrDefault(product.getId(), product)));
+                order.setProducts(resolved);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Map<String, T> map(Set<String> ids, List<Object> replies, int offset, List<String> fields,
+                                   Class<T> type) {
+        Map<String, T> entities = new HashMap<>(ids.size() * 2);
+        int i = offset;
+        for (String id : ids) {
+            List<String> values = (List<String>) replies.get(i++);
+            Map<String, String> hash = new HashMap<>(fields.size() * 2);
+            for (int f = 0; f < fields.size(); f++) {
+                if (values.get(f) != null) {
+                    hash.put(fields.get(f), values.get(f));
+                }
+            }
+            T entity = entityHashMapper.fromHash(hash, type);
+            if (entity != null) {
+                entities.put(id, entity);
+            }
+        }
+        return entities;
+    }
+
+    private static void validate(FetchPlan fetchPlan) {
+        for (String reference : fetchPlan.references()) {
+            if (!REFERENCES.contains(reference)) {
+                throw new IllegalArgumentException("Bilinmeyen referans: " + reference);
+            }
+        }
+    }
+
+    private static byte[][] bytes(List<String> fields) {
+        byte[][] bytes = new byte[fields.size()][];
+        for (int i = 0; i < fields.size(); i++) {
+            bytes[i] = fields.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+}
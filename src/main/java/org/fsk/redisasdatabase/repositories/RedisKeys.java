@@ -0,0 +1,109 @@
+package org.fsk.redisasdatabase.repositories;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Spring Data Redis repository'lerinin kullandığı anahtar formatı: <keyspace>:<id>
+// Bir entity'ye ait yardımcı anahtarlar sahibinin anahtarını hash tag olarak taşır ({customer:<id>} gibi);
+// cluster'da aynı slot'a düşerler, böylece entity başına çok anahtarlı script ve MULTI'ler çalışmaya devam eder.
+public final class RedisKeys {
+
+    public static final String CUSTOMER = "customer";
+    public static final String ORDER = "order";
+    public static final String PRODUCT = "product";
+    public static final String STOCK = "stock";
+    public static final String INDEX = "idx";
+    public static final String EVENTS = "events";
+    public static final String AGGREGATES = "agg";
+    public static final String JOURNAL = "journal";
+
+    // Sipariş ikincil indexleri (sorted set, üye: sipariş ID)
+    public static final String ORDERS_BY_DATE = INDEX + ":" + ORDER + ":date";
+    public static final String ORDERS_BY_AMOUNT = INDEX + ":" + ORDER + ":amount";
+
+    // Günlük satış özetlerinin öneki
+    public static final String SALES = AGGREGATES + ":sales";
+    // Ürün başına satılan adet (sorted set, üye: ürün ID)
+    public static final String PRODUCTS_SOLD = AGGREGATES + ":products:sold";
+    // Tüm zamanların tekil alıcıları (HyperLogLog); günlük HLL'ler ile aynı slot'ta, PFCOUNT birleşimi için
+    public static final String BUYERS = AGGREGATES + ":{buyers}:all";
+
+    // Özetler yeniden hesaplanırken (AggregateBackfill) kesim zamanı ve kesimden sonraki siparişlerin ayrı sayaçları
+    public static final String BACKFILL = AGGREGATES + ":backfill";
+    public static final String BACKFILL_CUTOFF = BACKFILL + ":cutoff";
+    public static final String BACKFILL_SALES = BACKFILL + ":sales";
+    public static final String BACKFILL_PRODUCTS_SOLD = BACKFILL + ":products:sold";
+
+    // Redis'e uygulanmış son journal'lı yazımın sırası (JournalSequence)
+    public static final String JOURNAL_SEQUENCE = JOURNAL + ":sequence";
+
+    private RedisKeys() {
+    }
+
+    public static String customer(String id) {
+        return CUSTOMER + ":" + id;
+    }
+
+    // Müşterinin sipariş geçmişi: sadece sona eklenen liste (RPUSH), sipariş ID'leri oluşturulma sırasıyla
+    public static String customerOrderLog(String customerId) {
+        return tag(customer(customerId)) + ":order-log";
+    }
+
+    // Müşterinin siparişleri, skor sipariş tarihi (epoch ms)
+    public static String customerOrdersByDate(String customerId) {
+        return INDEX + ":" + tag(customer(customerId)) + ":orders";
+    }
+
+    public static String order(String id) {
+        return ORDER + ":" + id;
+    }
+
+    // Yeni sipariş ID'si müşterinin hash tag'ini taşır ({customer:<id>}:<uuid>); order:<id> anahtarı cluster'da
+    // müşteri ve müşterinin sipariş anahtarları ile aynı slot'a düşer
+    public static String newOrderId(String customerId) {
+        return tag(customer(customerId)) + ":" + UUID.randomUUID();
+    }
+
+    public static String product(String id) {
+        return PRODUCT + ":" + id;
+    }
+
+    // Shard'lı stok sayacı. product: önekinin dışında tutulur ki her stok düşümü ürün cache'ini geçersiz kılmasın.
+    public static String stockShard(String productId, int index) {
+        return STOCK + ":" + tag(product(productId)) + ":" + index;
+    }
+
+    // Ürünün node'lara verdiği stok kiraları (hash, alan: node ID, değer: <kalan>:<bitişMs>)
+    public static String stockLeases(String productId) {
+        return STOCK + ":" + tag(product(productId)) + ":leases";
+    }
+
+    // Olay akışı bölümü (stream), ör. events:order:3. Bölüm, sıralamanın korunacağı anahtarın hash'inden seçilir.
+    public static String eventStream(String stream, int partition) {
+        return EVENTS + ":" + stream + ":" + partition;
+    }
+
+    // İşlenemeyen (max-deliveries'i aşan) olayların taşındığı stream
+    public static String deadLetterStream(String stream) {
+        return EVENTS + ":" + stream + ":dead";
+    }
+
+    // Günlük satış özeti (hash: revenue ölçekli tam sayı, orders, units), ör. agg:sales:2024-05-01
+    public static String salesByDay(LocalDate day) {
+        return SALES + ":" + day;
+    }
+
+    public static String backfillSalesByDay(LocalDate day) {
+        return BACKFILL_SALES + ":" + day;
+    }
+
+    // Günün tekil alıcıları (HyperLogLog)
+    public static String buyersByDay(LocalDate day) {
+        return AGGREGATES + ":{buyers}:" + day;
+    }
+
+    // Cluster'da sadece süslü parantez içindeki kısım slot'u belirler
+    public static String tag(String key) {
+        return "{" + key + "}";
+    }
+}
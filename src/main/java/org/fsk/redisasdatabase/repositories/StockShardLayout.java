@@ -0,0 +1,76 @@
+package org.fsk.redisasdatabase.repositories;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Ürün başına bilinen stok shard sayısı. Stok scriptleri shard sayaçlarını KEYS'te alır (Redis script içinde
+// türetilen anahtara erişimi yasaklar; cluster yönlendirmesi ve ACL kontrolleri KEYS'e bakar). Java tarafı
+// sayıyı bilmeden anahtarları üretemediği için burada tutulur: bilinmeyen ürün shard'sız varsayılır. Script
+// hash'teki stockShards ile verilen anahtar sayısını karşılaştırır, farklıysa SHARDS_CHANGED ve gerçek sayıyı
+// döner; sayı öğrenilip çağrı tekrarlanır. Shard sayısı nadiren değiştiği için tekrar nadirdir.
+@Component
+public class StockShardLayout {
+
+    public static final String SHARDS_CHANGED = "SHARDS_CHANGED";
+    public static final int MAX_ATTEMPTS = 3;
+
+    // Sadece shard'lı ürünler tutulur
+    private final Map<String, Integer> shards = new ConcurrentHashMap<>();
+
+    public int shards(String productId) {
+        return shards.getOrDefault(productId, 0);
+    }
+
+    public List<String> keys(String productId) {
+        int count = shards(productId);
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            keys.add(RedisKeys.stockShard(productId, i));
+        }
+        return keys;
+    }
+
+    public void update(String productId, Integer count) {
+        if (count == null || count <= 0) {
+            shards.remove(productId);
+        } else {
+            shards.put(productId, count);
+        }
+    }
+
+    // result: {'ERR', 'SHARDS_CHANGED', product:<id>, gerçekSayı}
+    public boolean changed(List<?> result) {
+        return result != null && result.size() > 3 && SHARDS_CHANGED.equals(result.get(1));
+    }
+
+    // Düzen değiştiyse öğrenir ve true döner
+    public boolean learn(List<?> result) {
+        if (!changed(result)) {
+            return false;
+        }
+        String key = (String) result.get(2);
+        update(key.substring(key.indexOf(':') + 1), Integer.parseInt(String.valueOf(result.get(3))));
+        return true;
+    }
+
+    // call, bilinen shard anahtarlarıyla script'i çalıştırır
+    public List<?> withShards(String productId, Function<List<String>, List<?>> call) {
+        return retry(() -> call.apply(keys(productId)));
+    }
+
+    // call her denemede anahtarları yeniden üretir; değişen ürün sonuçtan öğrenilir. Denemeler tükenirse son
+    // sonuç döner.
+    public List<?> retry(Supplier<List<?>> call) {
+        List<?> result = call.get();
+        for (int attempt = 1; attempt < MAX_ATTEMPTS && learn(result); attempt++) {
+            result = call.get();
+        }
+        return result;
+    }
+}
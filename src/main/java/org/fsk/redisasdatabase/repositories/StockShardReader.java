@@ -0,0 +1,120 @@
+package org.fsk.redisasdatabase.repositories;
+
+import org.fsk.redisasdatabase.domains.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Ürün hash'inin dışında tutulan stoku okur. Ürünün stoku: Redis'teki birimler (hash'teki stock alanı ya da
+// shard'lı üründe shard sayaçlarının toplamı) artı node'lara kiralanmış, henüz satılmamış birimler (StockLeases).
+// Okumalar, stok ayarlaması ve toplu siparişin stok ön kontrolü aynı kuralı kullanır. Kiralanan birimler kira
+// kayıtlarında node'ların son bildirdiği kalandır; kiradan yapılan satışlar okumalara bir sonraki yenilemede
+// (en fazla renew-interval) yansır. Süresi dolmuş kiranın kalanı bir sonraki kiralamada stoka geri eklendiği için
+// toplama dahildir; iptal edilen kira kaydı silindiğinden dahil değildir.
+@Component
+public class StockShardReader {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final StockShardLayout layout;
+    private final boolean leasesEnabled;
+
+    public StockShardReader(StringRedisTemplate stringRedisTemplate, StockShardLayout layout,
+                            @Value("${app.stock.lease.enabled:false}") boolean leasesEnabled) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.layout = layout;
+        this.leasesEnabled = leasesEnabled;
+    }
+
+    public static boolean isSharded(Product product) {
+        return product.getStockShards() != null && product.getStockShards() > 0;
+    }
+
+    // Kira kayıtlarının değerleri (<kalan>:<bitişMs>) içindeki kalanların toplamı
+    public static long leasedUnits(Collection<?> leases) {
+        long total = 0;
+        for (Object lease : leases) {
+            String value = String.valueOf(lease);
+            int separator = value.indexOf(':');
+            total += Long.parseLong(separator < 0 ? value : value.substring(0, separator));
+        }
+        return total;
+    }
+
+    // Kiralanan birimler okunacaksa true; kapalıyken ürün okumaları kira kayıtlarına gitmez
+    public boolean readsLeases() {
+        return leasesEnabled;
+    }
+
+    // Ürünlerin stoku kiralanan birimler dahil yazılır
+    public void aggregate(Collection<Product> products) {
+        read(products, leasesEnabled);
+    }
+
+    // Sadece Redis'teki birimler; kiralanan birimlerden ayrı koşullu yazım yapan stok ayarlaması için
+    public void aggregateStored(Collection<Product> products) {
+        read(products, false);
+    }
+
+    // Node'lara kiralanmış birimler; kiralama kapalıysa 0
+    public long leased(String productId) {
+        if (!leasesEnabled) {
+            return 0;
+        }
+        return leasedUnits(stringRedisTemplate.opsForHash().values(RedisKeys.stockLeases(productId)));
+    }
+
+    // Shard'lı ürün yoksa ve kiralar okunmuyorsa Redis'e gidilmez; aksi halde hepsi tek pipeline'da okunur
+    // (shard'lar MGET, kiralar HVALS). Okunan shard sayıları stok scriptlerinin anahtar düzenine
+    // (StockShardLayout) de işlenir.
+    private void read(Collection<Product> products, boolean withLeases) {
+        products.forEach(product -> layout.update(product.getId(), product.getStockShards()));
+        List<Product> sharded = products.stream().filter(StockShardReader::isSharded).toList();
+        List<Product> leased = withLeases ? List.copyOf(products) : List.of();
+        if (sharded.isEmpty() && leased.isEmpty()) {
+            return;
+        }
+        List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Product product : sharded) {
+                connection.stringCommands().mGet(shardKeys(product));
+            }
+            for (Product product : leased) {
+                connection.hashCommands().hVals(bytes(RedisKeys.stockLeases(product.getId())));
+            }
+            return null;
+        });
+        for (int i = 0; i < sharded.size(); i++) {
+            int total = 0;
+            for (Object value : (List<?>) replies.get(i)) {
+                if (value != null) {
+                    total += Integer.parseInt((String) value);
+                }
+            }
+            sharded.get(i).setStock(total);
+        }
+        for (int i = 0; i < leased.size(); i++) {
+            long units = leasedUnits((List<?>) replies.get(sharded.size() + i));
+            Product product = leased.get(i);
+            if (units > 0) {
+                product.setStock(Math.toIntExact((product.getStock() == null ? 0 : product.getStock()) + units));
+            }
+        }
+    }
+
+    private static byte[][] shardKeys(Product product) {
+        List<byte[]> keys = new ArrayList<>(product.getStockShards());
+        for (int i = 0; i < product.getStockShards(); i++) {
+            keys.add(bytes(RedisKeys.stockShard(product.getId(), i)));
+        }
+        return keys.toArray(byte[][]::new);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,208 @@
+package org.fsk.redisasdatabase.scripts;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.analytics.SalesAggregates;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.events.EventStreams;
+import org.fsk.redisasdatabase.indexes.OrderIndexes;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.repositories.StockShardLayout;
+import org.fsk.redisasdatabase.stock.StockLeases;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Checkout'un anahtarları cluster'da farklı slot'lara düştüğünde (ürünler, müşteri ve global indexler
+// farklı shard'larda) tek script yerine çalışan adımlı yol. Her adım kendi slot'unda atomiktir:
+//   1. ürün başına stok ayırma (reserve-stock.lua; birim node'un stok kirasından ayrıldıysa sadece fiyat okunur)
+//   2. sipariş hash'i
+//   3. müşteri geçmişi ve müşteri index'i (customer-history.lua, müşterinin hash tag'i ile tek slot)
+//   4. global index'ler (order set'i, tarih ve tutar sorted set'leri)
+// 1-3 arasında hata olursa yapılanlar geri alınır (ayrılan stok iade edilir, sipariş hash'i silinir).
+// 4. adım idempotent'tir; hata olursa sipariş geçerli kalır, index'ler rebuildIndexes ile tamamlanır.
+// Satış özetleri ve order.created olayı en sonda ayrıca yazılır; cluster'da siparişle atomik değildir,
+// yazılamazsa loglanır (özetler AggregateBackfill ile yeniden hesaplanabilir).
+// 4. adım ve sonrası (complete) cluster'da tek slot'luk checkout script'inden sonra da çalışır.
+@Component
+@Slf4j
+public class CheckoutSaga {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RESERVE =
+            RedisScript.of(new ClassPathResource("scripts/reserve-stock.lua"), List.class);
+
+    // Reservation.shard: birim Redis'ten değil node'un stok kirasından ayrıldı
+    private static final int LEASED = -2;
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CUSTOMER_HISTORY =
+            RedisScript.of(new ClassPathResource("scripts/customer-history.lua"), List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EventStreams eventStreams;
+    private final SalesAggregates salesAggregates;
+    private final StockLeases stockLeases;
+    private final StockScripts stockScripts;
+    private final StockShardLayout layout;
+    private final MeterRegistry meterRegistry;
+
+    public CheckoutSaga(StringRedisTemplate stringRedisTemplate, EventStreams eventStreams,
+                        SalesAggregates salesAggregates, StockLeases stockLeases, StockScripts stockScripts,
+                        StockShardLayout layout, MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.eventStreams = eventStreams;
+        this.salesAggregates = salesAggregates;
+        this.stockLeases = stockLeases;
+        this.stockScripts = stockScripts;
+        this.layout = layout;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public BigDecimal execute(Order order, Map<String, String> orderHash) {
+        String customerId = order.getCustomer().getId();
+        if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(RedisKeys.customer(customerId)))) {
+            throw CheckoutScript.error("CUSTOMER_NOT_FOUND", RedisKeys.customer(customerId));
+        }
+        List<Reservation> reservations = new ArrayList<>(order.getProducts().size());
+        boolean orderWritten = false;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        long dateScore = OrderIndexes.dateScore(order.getOrderDate());
+        try {
+            int seed = ThreadLocalRandom.current().nextInt(1 << 30);
+            for (Product product : order.getProducts()) {
+                String productKey = RedisKeys.product(product.getId());
+                boolean leased = stockLeases.take(product.getId());
+                if (leased) {
+                    reservations.add(new Reservation(product.getId(), LEASED));
+                }
+                String seedArg = String.valueOf(seed++);
+                List<?> result = layout.withShards(product.getId(), shardKeys -> {
+                    List<String> keys = new ArrayList<>(shardKeys.size() + 1);
+                    keys.add(productKey);
+                    keys.addAll(shardKeys);
+                    return stringRedisTemplate.execute(RESERVE, keys, seedArg, leased ? "1" : "0");
+                });
+                if (!"OK".equals(result.get(0))) {
+                    throw CheckoutScript.error((String) result.get(1), (String) result.get(2));
+                }
+                if (!leased) {
+                    reservations.add(new Reservation(product.getId(), ((Number) result.get(2)).intValue()));
+                }
+                totalAmount = totalAmount.add(price((String) result.get(1), productKey));
+            }
+
+            Map<String, String> hash = new LinkedHashMap<>(orderHash);
+            hash.put("totalAmount", totalAmount.toPlainString());
+            stringRedisTemplate.opsForHash().putAll(RedisKeys.order(order.getId()), hash);
+            orderWritten = true;
+
+            List<?> result = stringRedisTemplate.execute(CUSTOMER_HISTORY,
+                    List.of(RedisKeys.customer(customerId), RedisKeys.customerOrderLog(customerId),
+                            RedisKeys.customerOrdersByDate(customerId)),
+                    order.getId(), String.valueOf(dateScore));
+            if (!"OK".equals(result.get(0))) {
+                throw CheckoutScript.error((String) result.get(1), (String) result.get(2));
+            }
+        } catch (RuntimeException e) {
+            compensate(order.getId(), orderWritten, reservations);
+            throw e;
+        }
+        complete(order, totalAmount, true);
+        return totalAmount;
+    }
+
+    // Sipariş (saga ya da cluster'da tek slot'luk checkout script'i ile) yazıldıktan sonraki adımlar:
+    // global index'ler, satış özetleri ve order.created olayı. Hiçbiri siparişi geri almaz.
+    public void complete(Order order, BigDecimal totalAmount) {
+        complete(order, totalAmount, false);
+    }
+
+    // saga: sipariş saga ile yazıldı (checkout.saga committed sayacı sadece bu yolda artar)
+    private void complete(Order order, BigDecimal totalAmount, boolean saga) {
+        String customerId = order.getCustomer().getId();
+        long dateScore = OrderIndexes.dateScore(order.getOrderDate());
+        try {
+            stringRedisTemplate.opsForSet().add(RedisKeys.ORDER, order.getId());
+            stringRedisTemplate.opsForZSet().add(RedisKeys.ORDERS_BY_DATE, order.getId(), dateScore);
+            stringRedisTemplate.opsForZSet().add(RedisKeys.ORDERS_BY_AMOUNT, order.getId(),
+                    totalAmount.doubleValue());
+            if (saga) {
+                meterRegistry.counter("checkout.saga", "result", "committed").increment();
+            }
+        } catch (RuntimeException e) {
+            meterRegistry.counter("checkout.saga", "result", "index-failed").increment();
+            log.warn("Sipariş kaydedildi ama global index'lere yazılamadı, rebuildIndexes ile tamamlanabilir. "
+                    + "ID: {}, Hata: {}", order.getId(), e.getMessage());
+        }
+        aggregate(order, totalAmount);
+        publish(order, customerId, totalAmount, dateScore);
+    }
+
+    private void aggregate(Order order, BigDecimal totalAmount) {
+        try {
+            salesAggregates.record(order, totalAmount);
+        } catch (RuntimeException e) {
+            meterRegistry.counter("checkout.saga", "result", "aggregate-failed").increment();
+            log.warn("Sipariş kaydedildi ama satış özetlerine yazılamadı, backfill ile tamamlanabilir. "
+                    + "ID: {}, Hata: {}", order.getId(), e.getMessage());
+        }
+    }
+
+    private void publish(Order order, String customerId, BigDecimal totalAmount, long dateScore) {
+        try {
+            eventStreams.publish(EventStreams.ORDER, customerId, Map.of(
+                    "type", EventStreams.ORDER_CREATED,
+                    "order", order.getId(),
+                    "customer", customerId,
+                    "amount", totalAmount.toPlainString(),
+                    "products", String.join(",", order.getProducts().stream().map(Product::getId).toList()),
+                    "at", String.valueOf(dateScore)));
+        } catch (RuntimeException e) {
+            meterRegistry.counter("checkout.saga", "result", "event-failed").increment();
+            log.error("Sipariş kaydedildi ama order.created olayı yazılamadı. ID: {}, Hata: {}",
+                    order.getId(), e.getMessage());
+        }
+    }
+
+    private void compensate(String orderId, boolean orderWritten, List<Reservation> reservations) {
+        meterRegistry.counter("checkout.saga", "result", "compensated").increment();
+        try {
+            if (orderWritten) {
+                stringRedisTemplate.delete(RedisKeys.order(orderId));
+            }
+            for (Reservation reservation : reservations) {
+                if (reservation.shard() == LEASED) {
+                    stockLeases.giveBack(reservation.productId());
+                } else {
+                    stockScripts.release(reservation.productId(), reservation.shard());
+                }
+            }
+        } catch (RuntimeException e) {
+            // Telafi yarım kaldıysa stok eksik kalır; ayrılan ürünler loglanır
+            log.error("Checkout telafisi tamamlanamadı. Sipariş: {}, Ayrılan stoklar: {}, Hata: {}",
+                    orderId, reservations, e.getMessage(), e);
+        }
+    }
+
+    private static BigDecimal price(String value, String productKey) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw CheckoutScript.error("INVALID_PRICE", productKey);
+        }
+    }
+
+    // shard: düşülen stok sayacı, -1 ise hash'teki stock alanı, LEASED ise node'un stok kirası
+    private record Reservation(String productId, int shard) {
+    }
+}
@@ -0,0 +1,304 @@
+package org.fsk.redisasdatabase.scripts;
+
+import io.lettuce.core.cluster.SlotHash;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.analytics.SalesAggregates;
+import org.fsk.redisasdatabase.configurations.RedisTopology;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.events.EventStreams;
+import org.fsk.redisasdatabase.indexes.OrderIndexes;
+import org.fsk.redisasdatabase.journal.JournalSequence;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.repositories.StockShardLayout;
+import org.fsk.redisasdatabase.stock.StockLeases;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Slf4j
+public class CheckoutScript {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/checkout.lua"), List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CheckoutSaga checkoutSaga;
+    private final EventStreams eventStreams;
+    private final SalesAggregates salesAggregates;
+    private final StockLeases stockLeases;
+    private final StockShardLayout layout;
+    private final JournalSequence journalSequence;
+    private final RedisTopology topology;
+    private final Timer indexMaintenance;
+
+    public CheckoutScript(StringRedisTemplate stringRedisTemplate, CheckoutSaga checkoutSaga,
+                          EventStreams eventStreams, SalesAggregates salesAggregates,
+                          StockLeases stockLeases, StockShardLayout layout, JournalSequence journalSequence,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.redis.topology:standalone}") RedisTopology topology) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.checkoutSaga = checkoutSaga;
+        this.eventStreams = eventStreams;
+        this.salesAggregates = salesAggregates;
+        this.stockLeases = stockLeases;
+        this.layout = layout;
+        this.journalSequence = journalSequence;
+        this.topology = topology;
+        this.indexMaintenance = Timer.builder("orders.index.maintenance")
+                .description("Checkout içinde ikincil index yazımlarının Redis tarafındaki süresi")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    // Script'i uygulama açılışında yükle, böylece ilk istek de EVALSHA ile gider
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        try {
+            String sha = stringRedisTemplate.execute((RedisCallback<String>) connection -> load(connection));
+            log.info("Checkout scripti yüklendi. SHA: {}", sha);
+        } catch (Exception e) {
+            log.warn("Checkout scripti önceden yüklenemedi, ilk çağrıda yüklenecek: {}", e.getMessage());
+        }
+    }
+
+    public String load(RedisConnection connection) {
+        return connection.scriptingCommands()
+                .scriptLoad(SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getSha() {
+        return SCRIPT.getSha1();
+    }
+
+    @SuppressWarnings("rawtypes")
+    public RedisScript<List> getScript() {
+        return SCRIPT;
+    }
+
+    // Script'in anahtarları ve argümanları aynı shard düzeni okumasından üretilir
+    public record Invocation(List<String> keys, Object[] args) {
+    }
+
+    // Yazılan siparişin toplam tutarı ve journal sırası (sayaç script'te değilse 0)
+    public record Result(BigDecimal totalAmount, long sequence) {
+    }
+
+    // leased: leaseStock'un döndüğü, ürün başına kiradan ayrılıp ayrılmadığı.
+    // sequenceArg: JournalSequence'in script argümanı; boşsa journal sayacı yazılmaz.
+    // Cluster'da global anahtarlar script'e verilmez; sipariş yazıldıktan sonra CheckoutSaga.complete yazar
+    public Invocation invocation(Order order, Map<String, String> orderHash, String leased, String sequenceArg) {
+        List<String> keys = keys(order);
+        StringBuilder shardCounts = new StringBuilder();
+        for (Product product : order.getProducts()) {
+            List<String> shardKeys = layout.keys(product.getId());
+            keys.addAll(shardKeys);
+            shardCounts.append(shardCounts.isEmpty() ? "" : ",").append(shardKeys.size());
+        }
+        boolean global = !isClustered();
+        if (global) {
+            keys.addAll(globalKeys(order));
+        }
+        if (!sequenceArg.isEmpty()) {
+            keys.add(RedisKeys.JOURNAL_SEQUENCE);
+        }
+        return new Invocation(keys, args(order, orderHash, leased, shardCounts.toString(), sequenceArg, global));
+    }
+
+    // Shard sayaçları hariç: müşteri, sipariş ve müşteri index'i (müşterinin hash tag'i ile tek slot) ile ürünler
+    private List<String> keys(Order order) {
+        String customerId = order.getCustomer().getId();
+        List<String> keys = new ArrayList<>(order.getProducts().size() + 4);
+        keys.add(RedisKeys.customer(customerId));
+        keys.add(RedisKeys.order(order.getId()));
+        keys.add(RedisKeys.customerOrderLog(customerId));
+        keys.add(RedisKeys.customerOrdersByDate(customerId));
+        order.getProducts().forEach(product -> keys.add(RedisKeys.product(product.getId())));
+        return keys;
+    }
+
+    // Tüm siparişlerin index'leri, olay stream'i ve satış özetleri; cluster'da siparişin slot'unda değildir
+    private List<String> globalKeys(Order order) {
+        List<String> keys = new ArrayList<>(11);
+        keys.add(RedisKeys.ORDER);
+        keys.add(RedisKeys.ORDERS_BY_DATE);
+        keys.add(RedisKeys.ORDERS_BY_AMOUNT);
+        keys.add(eventStreams.streamKey(EventStreams.ORDER, order.getCustomer().getId()));
+        keys.addAll(salesAggregates.keys(order));
+        return keys;
+    }
+
+    private Object[] args(Order order, Map<String, String> orderHash, String leased, String shardCounts,
+                          String sequenceArg, boolean global) {
+        Object[] args = new Object[10 + orderHash.size() * 2];
+        args[0] = order.getId();
+        // Shard'lı ürünlerde hangi sayaçtan başlanacağı; eşzamanlı siparişler farklı shard'lara dağılır
+        args[1] = String.valueOf(ThreadLocalRandom.current().nextInt(1 << 30));
+        args[2] = String.valueOf(OrderIndexes.dateScore(order.getOrderDate()));
+        args[3] = String.valueOf(orderHash.size());
+        args[4] = eventStreams.maxLengthArg();
+        args[5] = salesAggregates.revenueScaleArg();
+        args[6] = leased;
+        args[7] = shardCounts;
+        args[8] = sequenceArg;
+        args[9] = global ? "1" : "";
+        int i = 10;
+        for (Map.Entry<String, String> entry : orderHash.entrySet()) {
+            args[i++] = entry.getKey();
+            args[i++] = entry.getValue();
+        }
+        return args;
+    }
+
+    // Tek round trip: stok kontrolü, stok düşme, sipariş, müşteri sipariş geçmişi, ikincil indexler, satış
+    // özetleri ve order.created olayı sunucuda atomik çalışır.
+    // Cluster'da sipariş ID'si müşterinin hash tag'ini taşıdığından müşteri ve sipariş anahtarları tek slot'tadır.
+    // Ürünler (ve shard sayaçları) da o slot'taysa stok ve sipariş yine tek script'te atomik yazılır; global
+    // index'ler, özetler ve olay ardından ayrıca yazılır. Değilse adımlı, telafili yol (CheckoutSaga) kullanılır.
+    public Result execute(Order order, Map<String, String> orderHash) {
+        return execute(order, orderHash, 0);
+    }
+
+    // journalSequence: replay edilen kaydın sırası, canlı siparişte 0
+    public Result execute(Order order, Map<String, String> orderHash, long journalSequence) {
+        if (isClustered() && !sameSlot(order)) {
+            return new Result(checkoutSaga.execute(order, orderHash), 0);
+        }
+        String sequenceArg = journalSequence > 0
+                ? this.journalSequence.replay(journalSequence) : this.journalSequence.next();
+        String leased = leaseStock(order);
+        List<?> result = execute(order, orderHash, leased, sequenceArg);
+        if (leasedMeanwhile(result)) {
+            // Kalan stok bu arada bu node'un kirasına geçti; birimler kiradan ayrılarak bir kez daha denenir
+            stockLeases.giveBack(order, leased);
+            leased = leaseStock(order);
+            result = execute(order, orderHash, leased, sequenceArg);
+        }
+        Result parsed = parseResult(result, order, leased);
+        if (isClustered()) {
+            checkoutSaga.complete(order, parsed.totalAmount());
+        }
+        return parsed;
+    }
+
+    // Ürünün shard sayısı değiştiyse yeni düzen öğrenilip tekrar denenir
+    private List<?> execute(Order order, Map<String, String> orderHash, String leased, String sequenceArg) {
+        return layout.retry(() -> {
+            Invocation invocation = invocation(order, orderHash, leased, sequenceArg);
+            return stringRedisTemplate.execute(SCRIPT, invocation.keys(), invocation.args());
+        });
+    }
+
+    // Script ürünün shard düzeni değiştiği için siparişi yazmadıysa yeni düzeni öğrenir ve kiradan ayrılan
+    // birimleri geri koyar; sipariş yeniden gönderilmelidir
+    public boolean layoutChanged(List<?> result, Order order, String leased) {
+        if (!layout.learn(result)) {
+            return false;
+        }
+        stockLeases.giveBack(order, leased);
+        return true;
+    }
+
+    private boolean leasedMeanwhile(List<?> result) {
+        if (result == null || result.size() < 3 || !"OUT_OF_STOCK".equals(result.get(1))) {
+            return false;
+        }
+        String key = (String) result.get(2);
+        return stockLeases.available(key.substring(key.indexOf(':') + 1)) > 0;
+    }
+
+    // Stok kiralama açıksa ürünlerin birimleri yerel kiradan ayrılır; script bu ürünlerin stokuna dokunmaz
+    public String leaseStock(Order order) {
+        return stockLeases.take(order);
+    }
+
+    // Pipelined EVALSHA sadece tüm anahtarlar aynı sunucudaysa kullanılabilir
+    public boolean isClustered() {
+        return topology == RedisTopology.CLUSTER;
+    }
+
+    // Script'in cluster'daki anahtarları (müşteri, sipariş, ürünler ve shard sayaçları) tek slot'ta mı
+    private boolean sameSlot(Order order) {
+        List<String> keys = keys(order);
+        order.getProducts().forEach(product -> keys.addAll(layout.keys(product.getId())));
+        int slot = SlotHash.getSlot(keys.get(0));
+        return keys.stream().allMatch(key -> SlotHash.getSlot(key) == slot);
+    }
+
+    // Pipeline içinde çağrılır; sonuç executePipelined listesinden, dönen leased ile parseResult'a verilir.
+    // Script'in önceden yüklenmiş olması gerekir (load).
+    public String evalSha(RedisConnection connection, Order order, Map<String, String> orderHash) {
+        String leased = leaseStock(order);
+        Invocation invocation = invocation(order, orderHash, leased, journalSequence.next());
+        List<String> keys = invocation.keys();
+        Object[] args = invocation.args();
+        byte[][] keysAndArgs = new byte[keys.size() + args.length][];
+        int i = 0;
+        for (String key : keys) {
+            keysAndArgs[i++] = key.getBytes(StandardCharsets.UTF_8);
+        }
+        for (Object arg : args) {
+            keysAndArgs[i++] = ((String) arg).getBytes(StandardCharsets.UTF_8);
+        }
+        connection.scriptingCommands().evalSha(getSha(), ReturnType.MULTI, keys.size(), keysAndArgs);
+        return leased;
+    }
+
+    // Script siparişi yazmadıysa kiradan ayrılan birimler geri konur. Script'e ulaşılamadıysa (bağlantı hatası)
+    // sipariş yazılmış olabilir; birimler satılmış sayılır, aşırı satış yerine eksik satış riski alınır.
+    public Result parseResult(List<?> result, Order order, String leased) {
+        try {
+            return parseResult(result);
+        } catch (RuntimeException e) {
+            stockLeases.giveBack(order, leased);
+            throw e;
+        }
+    }
+
+    // result: {'OK', toplamTutar, indexSüresiMikrosaniye, journalSırası}
+    private Result parseResult(List<?> result) {
+        if (result == null || result.isEmpty()) {
+            throw new IllegalStateException("Checkout scripti sonuç döndürmedi");
+        }
+        if ("OK".equals(result.get(0))) {
+            indexMaintenance.record(((Number) result.get(2)).longValue(), TimeUnit.MICROSECONDS);
+            if (!isClustered()) {
+                // Cluster'da olay script'ten sonra yazılır ve orada sayılır
+                eventStreams.published(EventStreams.ORDER);
+            }
+            return new Result(new BigDecimal((String) result.get(1)), ((Number) result.get(3)).longValue());
+        }
+        throw error((String) result.get(1), (String) result.get(2));
+    }
+
+    static RuntimeException error(String code, String key) {
+        String id = key.substring(key.indexOf(':') + 1);
+        return switch (code) {
+            case "CUSTOMER_NOT_FOUND" -> new RuntimeException("Müşteri bulunamadı");
+            case "PRODUCT_NOT_FOUND" -> new RuntimeException("Ürün bulunamadı: " + id);
+            case "OUT_OF_STOCK" -> new RuntimeException("Ürün stokta yok: " + id);
+            case StockShardLayout.SHARDS_CHANGED -> new IllegalStateException("Ürün stok düzeni değişti: " + id);
+            case "AMOUNT_TOO_LARGE" -> new RuntimeException("Sipariş tutarı tam olarak hesaplanamayacak kadar büyük");
+            default -> new RuntimeException("Ürün fiyatı geçersiz: " + id);
+        };
+    }
+}
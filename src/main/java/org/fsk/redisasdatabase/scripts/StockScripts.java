@@ -0,0 +1,188 @@
+package org.fsk.redisasdatabase.scripts;
+
+import org.fsk.redisasdatabase.concurrency.OptimisticLockException;
+import org.fsk.redisasdatabase.configurations.RedisTopology;
+import org.fsk.redisasdatabase.events.EventStreams;
+import org.fsk.redisasdatabase.journal.JournalSequence;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.repositories.StockShardLayout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Stok yazma scriptleri: shard'lı ve shard'sız ürünlerde stok sunucuda atomik güncellenir.
+// Her yazım ürün hash'indeki version alanını artırır; stok yazımları stock.updated olayını da ekler.
+// Cluster'da ürün ve olay stream'i farklı slot'larda olduğundan olay script'ten hemen sonra ayrıca yazılır.
+// Mutlak stok yazımları node'ların stok kiralarını iptal eder (StockLeases); delta ayarlamaları sadece Redis'teki
+// birimler yetmediğinde kiraları iptal eder.
+// Yazımın döndürdüğü stok kiralanan birimler dahil toplam stoktur (StockShardReader).
+// Shard sayaçları script'e KEYS olarak verilir; ürünün bilinen shard sayısı StockShardLayout'tan gelir.
+// journalSequence parametresi 0 ise canlı yazımdır, sayaç script'te artırılır; replay'de kaydın sırasıdır.
+@Component
+public class StockScripts {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SET_STOCK =
+            RedisScript.of(new ClassPathResource("scripts/set-stock.lua"), List.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RESHARD_STOCK =
+            RedisScript.of(new ClassPathResource("scripts/reshard-stock.lua"), List.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RELEASE_STOCK =
+            RedisScript.of(new ClassPathResource("scripts/release-stock.lua"), List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EventStreams eventStreams;
+    private final StockShardLayout layout;
+    private final JournalSequence journalSequence;
+    private final boolean clustered;
+
+    public StockScripts(StringRedisTemplate stringRedisTemplate, EventStreams eventStreams, StockShardLayout layout,
+                        JournalSequence journalSequence,
+                        @Value("${app.redis.topology:standalone}") RedisTopology topology) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.eventStreams = eventStreams;
+        this.layout = layout;
+        this.journalSequence = journalSequence;
+        this.clustered = topology == RedisTopology.CLUSTER;
+    }
+
+    // Başarılı stok yazımı: toplam stok (korunan kiralar dahil), yeni sürüm ve yazımın journal sırası (sayaç
+    // script'te değilse 0)
+    public record Write(int stock, long version, long sequence) {
+    }
+
+    public Write setStock(String productId, int stock) {
+        return setStock(productId, stock, 0);
+    }
+
+    public Write setStock(String productId, int stock, long journalSequence) {
+        String sequenceArg = sequenceArg(journalSequence);
+        List<?> result = layout.withShards(productId, shardKeys -> stringRedisTemplate.execute(SET_STOCK,
+                keys(productId, shardKeys, sequenceArg), String.valueOf(stock), "", "", maxLengthArg(), "1",
+                String.valueOf(shardKeys.size()), sequenceArg, ""));
+        Write write = parseWrite(result);
+        stockWritten(productId, result);
+        return write;
+    }
+
+    // Sadece sürüm beklenenle aynıysa yazar. Shard'lı üründe checkout sürümü artırmadığı için expectedStock (okunan
+    // shard toplamı) da kontrol edilir; null ise sadece sürüm kontrolü yapılır. expectedLeased verilirse kira
+    // kayıtlarındaki kalanların toplamı da aynı olmalıdır.
+    // revokeLeases: yazılan değer kiralanmış birimler dahil mutlak stoktur; false ise sadece Redis'teki birimlerdir
+    public Write compareAndSetStock(String productId, int stock, long expectedVersion, Integer expectedStock,
+                                    Long expectedLeased, boolean revokeLeases) {
+        String sequenceArg = journalSequence.next();
+        List<?> result = layout.withShards(productId, shardKeys -> stringRedisTemplate.execute(SET_STOCK,
+                keys(productId, shardKeys, sequenceArg), String.valueOf(stock), String.valueOf(expectedVersion),
+                expectedStock == null ? "" : String.valueOf(expectedStock), maxLengthArg(), revokeLeases ? "1" : "0",
+                String.valueOf(shardKeys.size()), sequenceArg,
+                expectedLeased == null ? "" : String.valueOf(expectedLeased)));
+        if (result != null && "CONFLICT".equals(result.get(0))) {
+            throw new OptimisticLockException(RedisKeys.PRODUCT, productId, expectedVersion,
+                    Long.parseLong((String) result.get(1)));
+        }
+        Write write = parseWrite(result);
+        stockWritten(productId, result);
+        return write;
+    }
+
+    // set-stock.lua: ürün, kiralar, shard sayaçları, (cluster dışında) olay stream'i ve journal sayacı
+    private List<String> keys(String productId, List<String> shardKeys, String sequenceArg) {
+        List<String> keys = new ArrayList<>(shardKeys.size() + 4);
+        keys.add(RedisKeys.product(productId));
+        keys.add(RedisKeys.stockLeases(productId));
+        keys.addAll(shardKeys);
+        if (!clustered) {
+            keys.add(eventStreams.streamKey(EventStreams.STOCK, productId));
+        }
+        if (!sequenceArg.isEmpty()) {
+            keys.add(RedisKeys.JOURNAL_SEQUENCE);
+        }
+        return keys;
+    }
+
+    private String sequenceArg(long journalSequence) {
+        return journalSequence > 0 ? this.journalSequence.replay(journalSequence) : this.journalSequence.next();
+    }
+
+    private String maxLengthArg() {
+        return clustered ? "" : eventStreams.maxLengthArg();
+    }
+
+    // result: {'OK', stok, yeniSürüm, journalSırası}
+    private void stockWritten(String productId, List<?> result) {
+        if (!clustered) {
+            eventStreams.published(EventStreams.STOCK);
+            return;
+        }
+        eventStreams.publish(EventStreams.STOCK, productId, Map.of(
+                "type", EventStreams.STOCK_UPDATED,
+                "product", productId,
+                "stock", (String) result.get(1),
+                "version", (String) result.get(2)));
+    }
+
+    // shards 0 ise ürün shard'sız düzene döner; dönen yazımın stoku taşınan toplam stoktur
+    public Write reshard(String productId, int shards) {
+        return reshard(productId, shards, 0);
+    }
+
+    public Write reshard(String productId, int shards, long journalSequence) {
+        String sequenceArg = sequenceArg(journalSequence);
+        List<String> newKeys = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            newKeys.add(RedisKeys.stockShard(productId, i));
+        }
+        Write write = parseWrite(layout.withShards(productId, shardKeys -> {
+            List<String> keys = new ArrayList<>(shardKeys.size() + shards + 2);
+            keys.add(RedisKeys.product(productId));
+            keys.addAll(shardKeys);
+            keys.addAll(newKeys);
+            if (!sequenceArg.isEmpty()) {
+                keys.add(RedisKeys.JOURNAL_SEQUENCE);
+            }
+            return stringRedisTemplate.execute(RESHARD_STOCK, keys, String.valueOf(shards),
+                    String.valueOf(shardKeys.size()), sequenceArg);
+        }));
+        layout.update(productId, shards);
+        return write;
+    }
+
+    // Ayrılan bir stok birimini geri verir (saga telafisi, kiraya dönemeyen birim). shard: ayırmada düşülen
+    // sayaç, -1 ise hash'teki stock alanı. Ürün silinmişse hiçbir şey yapılmaz.
+    public void release(String productId, int shard) {
+        List<?> result = layout.withShards(productId, shardKeys -> {
+            List<String> keys = new ArrayList<>(shardKeys.size() + 1);
+            keys.add(RedisKeys.product(productId));
+            keys.addAll(shardKeys);
+            return stringRedisTemplate.execute(RELEASE_STOCK, keys, String.valueOf(shard));
+        });
+        if (result == null || !"OK".equals(result.get(0))) {
+            throw new IllegalStateException("Stok iade edilemedi: " + productId);
+        }
+    }
+
+    // result: {'OK', stok, yeniSürüm, journalSırası}
+    private Write parseWrite(List<?> result) {
+        if (result == null || result.isEmpty()) {
+            throw new IllegalStateException("Stok scripti sonuç döndürmedi");
+        }
+        if ("OK".equals(result.get(0))) {
+            return new Write(Integer.parseInt((String) result.get(1)), Long.parseLong((String) result.get(2)),
+                    ((Number) result.get(3)).longValue());
+        }
+        if (layout.changed(result)) {
+            throw new IllegalStateException("Ürün stok düzeni değişti");
+        }
+        throw new RuntimeException("Ürün bulunamadı");
+    }
+}
@@ -0,0 +1,13 @@
+package org.fsk.redisasdatabase.serializers;
+
+// Tek bir tipin şemasını bilen kodlayıcı; tag değeri kalıcıdır, değiştirilmemelidir
+public interface CompactCodec<T> {
+
+    int tag();
+
+    Class<T> type();
+
+    void write(T value, CompactOutput output);
+
+    T read(CompactInput input);
+}
@@ -0,0 +1,137 @@
+package org.fsk.redisasdatabase.serializers;
+
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Format: [MAGIC][VERSION][TAG][payload]
+// JDK serialization ile yazılmış eski değerler (0xACED ile başlar) okunmaya devam eder.
+// Kapsam: sadece RedisTemplate<String, Object> değerleri (JDK formatındaki eski değerler ve transaction
+// örneği). Entity'ler @RedisHash repository'leri ile alan başına düz metin hash olarak yazılır
+// (MappingRedisConverter); endpoint'lerin okuduğu bu değerler bu formattan geçmez, script'ler de onları metin
+// olarak okur (stock, price). Boyut ve hız karşılaştırması: CompactRedisSerializerTests ve SerializerBenchmark.
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    public static final byte MAGIC = (byte) 0xC7;
+    public static final byte VERSION = 1;
+
+    private static final int HEADER_SIZE = 3;
+    private static final int TAG_STRING = 1;
+    private static final int TAG_INTEGER = 2;
+    private static final int TAG_LONG = 3;
+    private static final int TAG_BIG_DECIMAL = 4;
+    private static final int TAG_LOCAL_DATE_TIME = 5;
+    private static final int TAG_JDK = 127;
+
+    private final Map<Class<?>, CompactCodec<?>> codecsByType = new HashMap<>();
+    private final CompactCodec<?>[] codecsByTag = new CompactCodec<?>[TAG_JDK];
+    private final JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer();
+    private final AtomicLong legacyReads = new AtomicLong();
+
+    public CompactRedisSerializer() {
+        this(DomainCodecs.ALL);
+    }
+
+    public CompactRedisSerializer(Collection<CompactCodec<?>> codecs) {
+        for (CompactCodec<?> codec : codecs) {
+            if (codec.tag() <= TAG_LOCAL_DATE_TIME || codec.tag() >= TAG_JDK || codecsByTag[codec.tag()] != null) {
+                throw new IllegalArgumentException("Geçersiz ya da tekrar eden codec tag: " + codec.tag());
+            }
+            codecsByTag[codec.tag()] = codec;
+            codecsByType.put(codec.type(), codec);
+        }
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        CompactOutput output = new CompactOutput(64);
+        output.writeByte(MAGIC);
+        output.writeByte(VERSION);
+        writeValue(value, output);
+        return output.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (isLegacy(bytes)) {
+            legacyReads.incrementAndGet();
+            return jdkSerializer.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_SIZE || bytes[0] != MAGIC) {
+            throw new SerializationException("Tanınmayan değer formatı");
+        }
+        if (bytes[1] > VERSION) {
+            throw new SerializationException("Desteklenmeyen format versiyonu: " + bytes[1]);
+        }
+        return readValue(new CompactInput(bytes, 2));
+    }
+
+    // JDK serialization stream'i 0xACED ile başlar
+    public boolean isLegacy(byte[] bytes) {
+        return bytes != null && bytes.length > 1 && bytes[0] == (byte) 0xAC && bytes[1] == (byte) 0xED;
+    }
+
+    public long getLegacyReads() {
+        return legacyReads.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeValue(Object value, CompactOutput output) {
+        CompactCodec<Object> codec = (CompactCodec<Object>) codecsByType.get(value.getClass());
+        if (codec != null) {
+            output.writeByte(codec.tag());
+            codec.write(value, output);
+        } else if (value instanceof String string) {
+            output.writeByte(TAG_STRING);
+            output.writeString(string);
+        } else if (value instanceof Integer integer) {
+            output.writeByte(TAG_INTEGER);
+            output.writeSignedVarInt(integer);
+        } else if (value instanceof Long longValue) {
+            output.writeByte(TAG_LONG);
+            output.writeSignedVarLong(longValue);
+        } else if (value instanceof BigDecimal decimal) {
+            output.writeByte(TAG_BIG_DECIMAL);
+            output.writeBigDecimal(decimal);
+        } else if (value instanceof LocalDateTime dateTime) {
+            output.writeByte(TAG_LOCAL_DATE_TIME);
+            output.writeLocalDateTime(dateTime);
+        } else {
+            // Şeması olmayan tipler JDK serialization ile gömülür
+            output.writeByte(TAG_JDK);
+            output.writeBytes(jdkSerializer.serialize(value));
+        }
+    }
+
+    private Object readValue(CompactInput input) {
+        int tag = input.readByte();
+        return switch (tag) {
+            case TAG_STRING -> input.readString();
+            case TAG_INTEGER -> input.readSignedVarInt();
+            case TAG_LONG -> input.readSignedVarLong();
+            case TAG_BIG_DECIMAL -> input.readBigDecimal();
+            case TAG_LOCAL_DATE_TIME -> input.readLocalDateTime();
+            case TAG_JDK -> jdkSerializer.deserialize(input.readBytes());
+            default -> {
+                CompactCodec<?> codec = codecsByTag[tag];
+                if (codec == null) {
+                    throw new SerializationException("Bilinmeyen tip tag: " + tag);
+                }
+                yield codec.read(input);
+            }
+        };
+    }
+}
@@ -0,0 +1,202 @@
+package org.fsk.redisasdatabase.serializers;
+
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+// Customer, Order ve Product şemaları (versiyon 1).
+// Referanslar nesne grafiği yerine sadece ID listesi olarak yazılır, okurken sadece ID'si dolu nesneler döner.
+public final class DomainCodecs {
+
+    public static final CompactCodec<Customer> CUSTOMER = new CompactCodec<>() {
+        @Override
+        public int tag() {
+            return 10;
+        }
+
+        @Override
+        public Class<Customer> type() {
+            return Customer.class;
+        }
+
+        @Override
+        public void write(Customer value, CompactOutput output) {
+            output.writeByte(presence(value.getId(), value.getName(), value.getEmail(), value.getPhone()));
+            writeIfPresent(value.getId(), output);
+            writeIfPresent(value.getName(), output);
+            writeIfPresent(value.getEmail(), output);
+            writeIfPresent(value.getPhone(), output);
+        }
+
+        @Override
+        public Customer read(CompactInput input) {
+            int presence = input.readByte();
+            Customer customer = new Customer();
+            customer.setId(isPresent(presence, 0) ? input.readString() : null);
+            customer.setName(isPresent(presence, 1) ? input.readString() : null);
+            customer.setEmail(isPresent(presence, 2) ? input.readString() : null);
+            customer.setPhone(isPresent(presence, 3) ? input.readString() : null);
+            return customer;
+        }
+    };
+
+    public static final CompactCodec<Order> ORDER = new CompactCodec<>() {
+        @Override
+        public int tag() {
+            return 11;
+        }
+
+        @Override
+        public Class<Order> type() {
+            return Order.class;
+        }
+
+        @Override
+        public void write(Order value, CompactOutput output) {
+            String customerId = value.getCustomer() != null ? value.getCustomer().getId() : null;
+            output.writeByte(presence(value.getId(), value.getOrderDate(), value.getTotalAmount(), customerId,
+                    value.getProducts()));
+            writeIfPresent(value.getId(), output);
+            if (value.getOrderDate() != null) {
+                output.writeLocalDateTime(value.getOrderDate());
+            }
+            if (value.getTotalAmount() != null) {
+                output.writeBigDecimal(value.getTotalAmount());
+            }
+            writeIfPresent(customerId, output);
+            writeReferences(value.getProducts(), Product::getId, output);
+        }
+
+        @Override
+        public Order read(CompactInput input) {
+            int presence = input.readByte();
+            Order order = new Order();
+            order.setId(isPresent(presence, 0) ? input.readString() : null);
+            order.setOrderDate(isPresent(presence, 1) ? input.readLocalDateTime() : null);
+            order.setTotalAmount(isPresent(presence, 2) ? input.readBigDecimal() : null);
+            order.setCustomer(isPresent(presence, 3) ? customerStub(input.readString()) : null);
+            order.setProducts(isPresent(presence, 4) ? readReferences(input, DomainCodecs::productStub) : null);
+            return order;
+        }
+    };
+
+    public static final CompactCodec<Product> PRODUCT = new CompactCodec<>() {
+        @Override
+        public int tag() {
+            return 12;
+        }
+
+        @Override
+        public Class<Product> type() {
+            return Product.class;
+        }
+
+        @Override
+        public void write(Product value, CompactOutput output) {
+            output.writeByte(presence(value.getId(), value.getName(), value.getPrice(), value.getStock(),
+                    value.getOrders(), value.getStockShards(), value.getVersion()));
+            writeIfPresent(value.getId(), output);
+            writeIfPresent(value.getName(), output);
+            if (value.getPrice() != null) {
+                output.writeBigDecimal(value.getPrice());
+            }
+            if (value.getStock() != null) {
+                output.writeSignedVarInt(value.getStock());
+            }
+            writeReferences(value.getOrders(), Order::getId, output);
+            // Sonradan eklenen alan sona yazılır, eski kayıtlarda bit 5 hiç set edilmemiştir
+            if (value.getStockShards() != null) {
+                output.writeVarInt(value.getStockShards());
+            }
+            if (value.getVersion() != null) {
+                output.writeVarLong(value.getVersion());
+            }
+        }
+
+        @Override
+        public Product read(CompactInput input) {
+            int presence = input.readByte();
+            Product product = new Product();
+            product.setId(isPresent(presence, 0) ? input.readString() : null);
+            product.setName(isPresent(presence, 1) ? input.readString() : null);
+            product.setPrice(isPresent(presence, 2) ? input.readBigDecimal() : null);
+            product.setStock(isPresent(presence, 3) ? input.readSignedVarInt() : null);
+            product.setOrders(isPresent(presence, 4) ? readReferences(input, DomainCodecs::orderStub) : null);
+            product.setStockShards(isPresent(presence, 5) ? input.readVarInt() : null);
+            product.setVersion(isPresent(presence, 6) ? input.readVarLong() : null);
+            return product;
+        }
+    };
+
+    public static final List<CompactCodec<?>> ALL = List.of(CUSTOMER, ORDER, PRODUCT);
+
+    private DomainCodecs() {
+    }
+
+    private static int presence(Object... fields) {
+        int presence = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                presence |= 1 << i;
+            }
+        }
+        return presence;
+    }
+
+    private static boolean isPresent(int presence, int index) {
+        return (presence & (1 << index)) != 0;
+    }
+
+    private static void writeIfPresent(String value, CompactOutput output) {
+        if (value != null) {
+            output.writeString(value);
+        }
+    }
+
+    private static <T> void writeReferences(Set<T> references, Function<T, String> idGetter,
+                                            CompactOutput output) {
+        if (references == null) {
+            return;
+        }
+        output.writeVarInt((int) references.stream().map(idGetter).filter(Objects::nonNull).count());
+        for (T reference : references) {
+            String id = idGetter.apply(reference);
+            if (id != null) {
+                output.writeString(id);
+            }
+        }
+    }
+
+    private static <T> Set<T> readReferences(CompactInput input, Function<String, T> stubFactory) {
+        int count = input.readVarInt();
+        Set<T> references = new HashSet<>(Math.max(4, count * 2));
+        for (int i = 0; i < count; i++) {
+            references.add(stubFactory.apply(input.readString()));
+        }
+        return references;
+    }
+
+    private static Customer customerStub(String id) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        return customer;
+    }
+
+    private static Order orderStub(String id) {
+        Order order = new Order();
+        order.setId(id);
+        return order;
+    }
+
+    private static Product productStub(String id) {
+        Product product = new Product();
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,141 @@
+package org.fsk.redisasdatabase.serializers;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// JDK serialization ile yazılmış değerleri arka planda, küçük gruplar halinde yeni formata çevirir.
+// Okumalar bu sırada CompactRedisSerializer'ın geriye dönük desteği sayesinde çalışmaya devam eder.
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LegacyValueMigrator {
+
+    // Değer okunduktan sonra değişmişse yazma (compare-and-set)
+    private static final byte[] VALUE_CAS = ("if redis.call('GET', KEYS[1]) == ARGV[1] then "
+            + "redis.call('SET', KEYS[1], ARGV[2], 'KEEPTTL') return 1 end return 0")
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HASH_CAS = ("if redis.call('HGET', KEYS[1], ARGV[1]) == ARGV[2] then "
+            + "redis.call('HSET', KEYS[1], ARGV[1], ARGV[3]) return 1 end return 0")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final CompactRedisSerializer compactRedisSerializer;
+
+    @Value("${app.serializer.legacy-migration.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.serializer.legacy-migration.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.serializer.legacy-migration.pause-ms:50}")
+    private long pauseMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::migrate, "legacy-value-migrator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public long migrate() {
+        log.info("Eski (JDK) formatlı değerlerin dönüşümü başlatıldı");
+        long migrated = 0;
+        try {
+            List<byte[]> batch = new ArrayList<>(batchSize);
+            try (Cursor<String> cursor = redisTemplate.scan(ScanOptions.scanOptions().count(batchSize).build())) {
+                while (cursor.hasNext()) {
+                    batch.add(cursor.next().getBytes(StandardCharsets.UTF_8));
+                    if (batch.size() == batchSize) {
+                        migrated += migrateBatch(batch);
+                        batch.clear();
+                        Thread.sleep(pauseMs);
+                    }
+                }
+            }
+            migrated += migrateBatch(batch);
+            log.info("Eski formatlı değer dönüşümü tamamlandı. Dönüştürülen: {}, Okunan eski değer: {}",
+                    migrated, compactRedisSerializer.getLegacyReads());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Eski formatlı değerler dönüştürülürken hata: {}", e.getMessage(), e);
+        }
+        return migrated;
+    }
+
+    private long migrateBatch(List<byte[]> keys) {
+        Long migrated = redisTemplate.execute((RedisCallback<Long>) connection -> {
+            long count = 0;
+            for (byte[] key : keys) {
+                DataType type = connection.keyCommands().type(key);
+                if (type == DataType.STRING) {
+                    count += migrateValue(connection, key);
+                } else if (type == DataType.HASH) {
+                    count += migrateHash(connection, key);
+                }
+            }
+            return count;
+        });
+        return migrated == null ? 0 : migrated;
+    }
+
+    private long migrateValue(RedisConnection connection, byte[] key) {
+        byte[] raw = connection.stringCommands().get(key);
+        if (!compactRedisSerializer.isLegacy(raw)) {
+            return 0;
+        }
+        byte[] rewritten = compactRedisSerializer.serialize(compactRedisSerializer.deserialize(raw));
+        Long result = connection.scriptingCommands().eval(VALUE_CAS, ReturnType.INTEGER, 1, key, raw, rewritten);
+        return result == null ? 0 : result;
+    }
+
+    private long migrateHash(RedisConnection connection, byte[] key) {
+        Map<byte[], byte[]> fields = connection.hashCommands().hGetAll(key);
+        if (fields == null) {
+            return 0;
+        }
+        boolean repositoryHash = isRepositoryKey(new String(key, StandardCharsets.UTF_8));
+        long count = 0;
+        for (Map.Entry<byte[], byte[]> field : fields.entrySet()) {
+            byte[] raw = field.getValue();
+            if (!compactRedisSerializer.isLegacy(raw)) {
+                continue;
+            }
+            Object value = compactRedisSerializer.deserialize(raw);
+            // Repository hash'lerinde alanlar düz metin tutulur
+            byte[] rewritten = repositoryHash
+                    ? String.valueOf(value).getBytes(StandardCharsets.UTF_8)
+                    : compactRedisSerializer.serialize(value);
+            Long result = connection.scriptingCommands().eval(HASH_CAS, ReturnType.INTEGER, 1,
+                    key, field.getKey(), raw, rewritten);
+            count += result == null ? 0 : result;
+        }
+        return count;
+    }
+
+    private boolean isRepositoryKey(String key) {
+        return key.startsWith(RedisKeys.CUSTOMER + ":")
+                || key.startsWith(RedisKeys.ORDER + ":")
+                || key.startsWith(RedisKeys.PRODUCT + ":");
+    }
+}
@@ -2,13 +2,26 @@ package org.fsk.redisasdatabase.services;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.concurrency.SingleFlight;
 import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.dtos.CursorPage;
+import org.fsk.redisasdatabase.journal.Journal;
+import org.fsk.redisasdatabase.journal.JournalOperation;
+import org.fsk.redisasdatabase.mappers.EntityHashMapper;
+import org.fsk.redisasdatabase.metrics.RedisCommandMetrics;
+import org.fsk.redisasdatabase.repositories.CustomerOrderLog;
 import org.fsk.redisasdatabase.repositories.CustomerRepository;
+import org.fsk.redisasdatabase.repositories.EntityScanner;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
@@ -16,12 +29,28 @@ import java.util.UUID;
 public class CustomerService {
     
     private final CustomerRepository customerRepository;
+    private final EntityScanner entityScanner;
+    private final CustomerOrderLog customerOrderLog;
+    private final Journal journal;
+    private final EntityHashMapper entityHashMapper;
+    private final SingleFlight singleFlight;
+    private final RedisCommandMetrics redisCommandMetrics;
+
+    @Value("${app.listing.batch-size:500}")
+    private int streamBatchSize;
+
+    @Value("${app.customers.order-history.max-page-size:500}")
+    private int maxOrderHistoryPageSize;
     
     public Customer saveCustomer(Customer customer) {
         log.debug("Müşteri kaydetme işlemi başlatıldı: {}", customer);
         try {
             customer.setId(UUID.randomUUID().toString());
             Customer savedCustomer = customerRepository.save(customer);
+            if (journal.isEnabled()) {
+                journal.append(JournalOperation.CUSTOMER_SAVED, savedCustomer.getId(),
+                        entityHashMapper.toHash(savedCustomer));
+            }
             log.info("Müşteri başarıyla kaydedildi. ID: {}", savedCustomer.getId());
             return savedCustomer;
         } catch (Exception e) {
@@ -34,11 +63,12 @@ public class CustomerService {
     public Customer getCustomerById(String id) {
         log.debug("Müşteri arama işlemi başlatıldı. ID: {}", id);
         try {
-            return customerRepository.findById(id)
-                    .orElseThrow(() -> {
-                        log.warn("Müşteri bulunamadı. ID: {}", id);
-                        return new RuntimeException("Müşteri bulunamadı");
-                    });
+            return redisCommandMetrics.operation("getCustomerById", () -> singleFlight.execute(RedisKeys.CUSTOMER, id,
+                    () -> customerRepository.findById(id)
+                            .orElseThrow(() -> {
+                                log.warn("Müşteri bulunamadı. ID: {}", id);
+                                return new RuntimeException("Müşteri bulunamadı");
+                            })));
         } catch (Exception e) {
             log.error("Müşteri getirilirken hata oluştu. ID: {}, Hata: {}", 
                      id, e.getMessage(), e);
@@ -58,11 +88,39 @@ public class CustomerService {
             throw new RuntimeException("Müşteriler getirilemedi", e);
         }
     }
+
+    public CursorPage<Customer> getCustomersPage(String cursor, int size) {
+        log.debug("Müşteriler sayfa sayfa getiriliyor. Cursor: {}, Boyut: {}", cursor, size);
+        try {
+            return entityScanner.page(RedisKeys.CUSTOMER, Customer.class, cursor, size);
+        } catch (Exception e) {
+            log.error("Müşteriler sayfası getirilirken hata oluştu: {}", e.getMessage(), e);
+            throw new RuntimeException("Müşteriler getirilemedi", e);
+        }
+    }
+
+    // Tüm müşteriler sabit bellekle, batch'ler halinde tüketiciye aktarılır
+    public void streamCustomers(Consumer<Customer> consumer) {
+        log.debug("Müşteriler stream ediliyor");
+        entityScanner.forEach(RedisKeys.CUSTOMER, Customer.class, streamBatchSize, consumer);
+    }
     
+    // Sipariş geçmişi müşteri nesnesinden bağımsız, sadece istenen sayfa kadar sipariş okunur
+    public CursorPage<Order> getCustomerOrders(String id, String cursor, int size, boolean newestFirst) {
+        log.debug("Müşteri sipariş geçmişi getiriliyor. ID: {}, Cursor: {}, Boyut: {}", id, cursor, size);
+        if (size < 1 || size > maxOrderHistoryPageSize) {
+            throw new IllegalArgumentException("Sayfa boyutu 1 ile " + maxOrderHistoryPageSize + " arasında olmalı");
+        }
+        return customerOrderLog.page(id, cursor, size, newestFirst);
+    }
+
     public void deleteCustomer(String id) {
         log.debug("Müşteri silme işlemi başlatıldı. ID: {}", id);
         try {
             customerRepository.deleteById(id);
+            customerOrderLog.delete(id);
+            singleFlight.forget(RedisKeys.CUSTOMER, id);
+            journal.append(JournalOperation.CUSTOMER_DELETED, id, Map.of());
             log.info("Müşteri başarıyla silindi. ID: {}", id);
         } catch (Exception e) {
             log.error("Müşteri silinirken hata oluştu. ID: {}, Hata: {}", 
@@ -2,25 +2,40 @@ package org.fsk.redisasdatabase.services;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.archive.OrderArchive;
+import org.fsk.redisasdatabase.concurrency.SingleFlight;
 import org.fsk.redisasdatabase.domains.Customer;
 import org.fsk.redisasdatabase.domains.Order;
 import org.fsk.redisasdatabase.domains.Product;
-import org.fsk.redisasdatabase.repositories.CustomerRepository;
+import org.fsk.redisasdatabase.dtos.BatchOrderResult;
+import org.fsk.redisasdatabase.dtos.CursorPage;
+import org.fsk.redisasdatabase.dtos.IndexReport;
+import org.fsk.redisasdatabase.dtos.OrderRequest;
+import org.fsk.redisasdatabase.indexes.OrderIndexMaintenance;
+import org.fsk.redisasdatabase.indexes.OrderIndexes;
+import org.fsk.redisasdatabase.journal.Journal;
+import org.fsk.redisasdatabase.journal.JournalOperation;
+import org.fsk.redisasdatabase.mappers.EntityHashMapper;
+import org.fsk.redisasdatabase.metrics.RedisCommandMetrics;
+import org.fsk.redisasdatabase.repositories.EntityScanner;
+import org.fsk.redisasdatabase.repositories.FetchPlan;
 import org.fsk.redisasdatabase.repositories.OrderRepository;
-import org.fsk.redisasdatabase.repositories.ProductRepository;
-import org.springframework.dao.DataAccessException;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.repositories.StockShardReader;
+import org.fsk.redisasdatabase.scripts.CheckoutScript;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.beans.BeanInfo;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -31,141 +46,333 @@ import java.util.concurrent.Executors;
 public class OrderService {
 
     private final OrderRepository orderRepository;
-    private final CustomerRepository customerRepository;
-    private final ProductRepository productRepository;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final CheckoutScript checkoutScript;
+    private final EntityHashMapper entityHashMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EntityScanner entityScanner;
+    private final OrderIndexes orderIndexes;
+    private final OrderIndexMaintenance orderIndexMaintenance;
+    private final Journal journal;
+    private final SingleFlight singleFlight;
+    private final RedisCommandMetrics redisCommandMetrics;
+    private final OrderArchive orderArchive;
+    private final StockShardReader stockShardReader;
+
+    private static final byte[] STOCK_FIELD = "stock".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] STOCK_SHARDS_FIELD = "stockShards".getBytes(StandardCharsets.UTF_8);
+
+    @Value("${app.orders.batch.chunk-size:500}")
+    private int batchChunkSize;
+
+    @Value("${app.listing.batch-size:500}")
+    private int streamBatchSize;
 
-    @Transactional
     public Order createOrder(String customerId, Set<String> productIds) {
         log.debug("Sipariş oluşturma işlemi başlatıldı. Müşteri ID: {}, Ürün IDs: {}",
                 customerId, productIds);
+        try {
+            Order order = newOrder(customerId, productIds);
 
-        return redisTemplate.execute(new SessionCallback<Order>() {
-            @Override
-            public Order execute(RedisOperations operations) throws DataAccessException {
-                try {
-                    // Transaction başlat
-                    operations.multi();
+            // Stok kontrolü, stok düşme ve kayıt tek bir atomik script çağrısında
+            Map<String, String> orderHash = entityHashMapper.toHash(order);
+            CheckoutScript.Result result = redisCommandMetrics.operation("createOrder",
+                    () -> checkoutScript.execute(order, orderHash));
+            order.setTotalAmount(result.totalAmount());
+            journalOrder(order.getId(), orderHash, result);
 
-                    // Müşteriyi kontrol et
-                    Customer customer = customerRepository.findById(customerId)
-                            .orElseThrow(() -> new RuntimeException("Müşteri bulunamadı"));
+            log.info("Sipariş başarıyla oluşturuldu. ID: {}", order.getId());
+            return order;
+        } catch (Exception e) {
+            log.error("Sipariş oluşturulurken hata: {}", e.getMessage());
+            throw new RuntimeException("Sipariş oluşturulamadı", e);
+        }
+    }
 
-                    Set<Product> products = new HashSet<>();
-                    BigDecimal totalAmount = BigDecimal.ZERO;
+    // Kayıt, sipariş script'te journal sırası aldıysa o sırayla yazılır
+    private void journalOrder(String orderId, Map<String, String> orderHash, CheckoutScript.Result result) {
+        if (journal.isEnabled()) {
+            orderHash.put("totalAmount", result.totalAmount().toPlainString());
+            journal.append(JournalOperation.ORDER_CREATED, orderId, orderHash, result.sequence());
+        }
+    }
 
-                    // Ürünleri kontrol et ve stok düş
-                    for (String productId : productIds) {
-                        Product product = productRepository.findById(productId)
-                                .orElseThrow(() -> new RuntimeException("Ürün bulunamadı: " + productId));
+    // Müşteri ve ürünler sadece ID'leri ile referans verilir
+    private Order newOrder(String customerId, Set<String> productIds) {
+        Customer customer = new Customer();
+        customer.setId(customerId);
 
-                        // Stok kontrolü
-                        if (product.getStock() <= 0) {
-                            operations.discard(); // Transaction'ı iptal et
-                            throw new RuntimeException("Ürün stokta yok: " + productId);
-                        }
+        Set<Product> products = new HashSet<>();
+        for (String productId : productIds) {
+            Product product = new Product();
+            product.setId(productId);
+            products.add(product);
+        }
 
-                        // Stok güncelle
-                        product.setStock(product.getStock() - 1);
-                        operations.opsForHash().putAll(
-                            "product:" + product.getId(),
-                            objectToHash(product)
-                        );
-
-                        products.add(product);
-                        totalAmount = totalAmount.add(product.getPrice());
-                    }
-
-                    // Sipariş oluştur
-                    Order order = new Order();
-                    order.setId(UUID.randomUUID().toString());
-                    order.setOrderDate(LocalDateTime.now());
-                    order.setTotalAmount(totalAmount);
-                    order.setCustomer(customer);
-                    order.setProducts(products);
-
-                    // Siparişi kaydet
-                    operations.opsForHash().putAll(
-                        "order:" + order.getId(),
-                        objectToHash(order)
-                    );
-
-                    // Müşterinin siparişlerini güncelle
-                    Set<Order> customerOrders = customer.getOrders();
-                    if (customerOrders == null) {
-                        customerOrders = new HashSet<>();
-                    }
-                    customerOrders.add(order);
-                    customer.setOrders(customerOrders);
-
-                    operations.opsForHash().putAll(
-                        "customer:" + customer.getId(),
-                        objectToHash(customer)
-                    );
-
-                    // Transaction'ı commit et
-                    operations.exec();
-
-                    log.info("Sipariş başarıyla oluşturuldu. ID: {}", order.getId());
-                    return order;
-
-                } catch (Exception e) {
-                    // Hata durumunda transaction'ı geri al
-                    operations.discard();
-                    log.error("Sipariş oluşturulurken hata: {}", e.getMessage());
-                    throw new RuntimeException("Sipariş oluşturulamadı", e);
+        Order order = new Order();
+        order.setId(RedisKeys.newOrderId(customerId));
+        order.setOrderDate(LocalDateTime.now());
+        order.setCustomer(customer);
+        order.setProducts(products);
+        return order;
+    }
+
+    // Toplu sipariş: referanslar tek pipeline ile okunur, siparişler chunk'lar halinde pipelined EVALSHA ile yazılır.
+    // Her sipariş kendi içinde atomiktir; bir siparişin hatası diğerlerini etkilemez.
+    public List<BatchOrderResult> createOrders(List<OrderRequest> requests) {
+        return redisCommandMetrics.operation("createOrders", () -> writeOrders(requests));
+    }
+
+    private List<BatchOrderResult> writeOrders(List<OrderRequest> requests) {
+        log.debug("Toplu sipariş oluşturma işlemi başlatıldı. Sipariş sayısı: {}", requests.size());
+        BatchOrderResult[] results = new BatchOrderResult[requests.size()];
+        try {
+            Map<String, Long> remainingStock = new HashMap<>();
+            Set<String> existingCustomers = prefetch(requests, remainingStock);
+
+            // Açıkça geçersiz siparişleri script'e göndermeden ele
+            List<Integer> accepted = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                String error = validate(requests.get(i), existingCustomers, remainingStock);
+                if (error != null) {
+                    results[i] = BatchOrderResult.failure(i, error);
+                } else {
+                    accepted.add(i);
                 }
             }
+
+            if (checkoutScript.isClustered()) {
+                // Siparişlerin anahtarları farklı node'lara dağılır, tek pipeline'da gönderilemez
+                accepted.forEach(index -> writeOne(requests.get(index), index, results));
+            } else {
+                if (!accepted.isEmpty()) {
+                    // Pipeline içinde NOSCRIPT'e düşmemek için script'in yüklü olduğundan emin ol
+                    stringRedisTemplate.execute((RedisCallback<String>) checkoutScript::load);
+                }
+                for (int from = 0; from < accepted.size(); from += batchChunkSize) {
+                    List<Integer> chunk = accepted.subList(from, Math.min(from + batchChunkSize, accepted.size()));
+                    writeChunk(requests, chunk, results);
+                }
+            }
+
+            log.info("Toplu sipariş tamamlandı. Toplam: {}, Başarılı: {}", requests.size(),
+                    Arrays.stream(results).filter(BatchOrderResult::success).count());
+            return Arrays.asList(results);
+        } catch (Exception e) {
+            log.error("Toplu sipariş oluşturulurken hata: {}", e.getMessage(), e);
+            throw new RuntimeException("Toplu sipariş oluşturulamadı", e);
+        }
+    }
+
+    private Set<String> prefetch(List<OrderRequest> requests, Map<String, Long> remainingStock) {
+        List<String> customerIds = requests.stream().map(OrderRequest::customerId)
+                .filter(Objects::nonNull).distinct().toList();
+        List<String> productIds = requests.stream().filter(request -> request.productIds() != null)
+                .flatMap(request -> request.productIds().stream()).distinct().toList();
+
+        boolean readsLeases = stockShardReader.readsLeases();
+        List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            customerIds.forEach(id -> connection.keyCommands()
+                    .exists(RedisKeys.customer(id).getBytes(StandardCharsets.UTF_8)));
+            productIds.forEach(id -> connection.hashCommands()
+                    .hMGet(RedisKeys.product(id).getBytes(StandardCharsets.UTF_8), STOCK_FIELD, STOCK_SHARDS_FIELD));
+            if (readsLeases) {
+                productIds.forEach(id -> connection.hashCommands()
+                        .hVals(RedisKeys.stockLeases(id).getBytes(StandardCharsets.UTF_8)));
+            }
+            return null;
         });
+
+        Set<String> existingCustomers = new HashSet<>();
+        for (int i = 0; i < customerIds.size(); i++) {
+            if (Boolean.TRUE.equals(replies.get(i))) {
+                existingCustomers.add(customerIds.get(i));
+            }
+        }
+        for (int i = 0; i < productIds.size(); i++) {
+            List<?> fields = (List<?>) replies.get(customerIds.size() + i);
+            if (fields.get(1) != null) {
+                // Shard'lı ürünün stoku script içinde kontrol edilir
+                remainingStock.put(productIds.get(i), Long.MAX_VALUE);
+            } else if (fields.get(0) != null) {
+                // Ürün okumalarıyla aynı kural: node'lara kiralanmış birimler dahil. Ön kontroldür; başka node'un
+                // kirasındaki birim bu node'dan satılamazsa sipariş script'te stokta yok hatası alır.
+                long leased = readsLeases ? StockShardReader.leasedUnits(
+                        (List<?>) replies.get(customerIds.size() + productIds.size() + i)) : 0;
+                remainingStock.put(productIds.get(i), Long.parseLong((String) fields.get(0)) + leased);
+            }
+        }
+        return existingCustomers;
+    }
+
+    private String validate(OrderRequest request, Set<String> existingCustomers, Map<String, Long> remainingStock) {
+        if (request.productIds() == null || request.productIds().isEmpty()) {
+            return "Ürün listesi boş";
+        }
+        if (!existingCustomers.contains(request.customerId())) {
+            return "Müşteri bulunamadı";
+        }
+        for (String productId : request.productIds()) {
+            Long stock = remainingStock.get(productId);
+            if (stock == null) {
+                return "Ürün bulunamadı: " + productId;
+            }
+            if (stock <= 0) {
+                return "Ürün stokta yok: " + productId;
+            }
+        }
+        request.productIds().forEach(productId -> remainingStock.merge(productId, -1L, Long::sum));
+        return null;
     }
 
-    // Nesneyi Hash'e çeviren yardımcı metod
-    private Map<String, String> objectToHash(Object obj) {
-        Map<String, String> hash = new HashMap<>();
+    private void writeOne(OrderRequest request, int index, BatchOrderResult[] results) {
+        Order order = newOrder(request.customerId(), request.productIds());
+        Map<String, String> orderHash = entityHashMapper.toHash(order);
         try {
-            BeanInfo beanInfo = Introspector.getBeanInfo(obj.getClass());
-            for (PropertyDescriptor pd : beanInfo.getPropertyDescriptors()) {
-                if (pd.getReadMethod() != null && !"class".equals(pd.getName())) {
-                    Object value = pd.getReadMethod().invoke(obj);
-                    if (value != null) {
-                        hash.put(pd.getName(), value.toString());
-                    }
-                }
+            CheckoutScript.Result result = checkoutScript.execute(order, orderHash);
+            results[index] = BatchOrderResult.success(index, order.getId(), result.totalAmount());
+            journalOrder(order.getId(), orderHash, result);
+        } catch (RuntimeException e) {
+            results[index] = BatchOrderResult.failure(index, e.getMessage());
+        }
+    }
+
+    private void writeChunk(List<OrderRequest> requests, List<Integer> chunk, BatchOrderResult[] results) {
+        Order[] orders = new Order[chunk.size()];
+        String[] leased = new String[chunk.size()];
+        List<Map<String, String>> orderHashes = new ArrayList<>(chunk.size());
+        List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < chunk.size(); i++) {
+                OrderRequest request = requests.get(chunk.get(i));
+                Order order = newOrder(request.customerId(), request.productIds());
+                orders[i] = order;
+                Map<String, String> orderHash = entityHashMapper.toHash(order);
+                orderHashes.add(orderHash);
+                leased[i] = checkoutScript.evalSha(connection, order, orderHash);
+            }
+            return null;
+        });
+        for (int i = 0; i < chunk.size(); i++) {
+            int index = chunk.get(i);
+            List<?> reply = (List<?>) replies.get(i);
+            if (checkoutScript.layoutChanged(reply, orders[i], leased[i])) {
+                // Ürünün shard sayısı değişti, sipariş yazılmadı; yeni düzenle tek başına yazılır
+                writeOne(requests.get(index), index, results);
+                continue;
+            }
+            try {
+                CheckoutScript.Result result = checkoutScript.parseResult(reply, orders[i], leased[i]);
+                results[index] = BatchOrderResult.success(index, orders[i].getId(), result.totalAmount());
+                journalOrder(orders[i].getId(), orderHashes.get(i), result);
+            } catch (RuntimeException e) {
+                results[index] = BatchOrderResult.failure(index, e.getMessage());
             }
-            hash.put("_class", obj.getClass().getName());
-        } catch (Exception e) {
-            log.error("Nesne Hash'e çevrilirken hata: {}", e.getMessage());
         }
-        return hash;
     }
 
-    public Order getOrderById(String id) {
-        log.debug("Sipariş arama işlemi başlatıldı. ID: {}", id);
+    // Referanslar sadece plandakiler için, tek pipeline ile yüklenir; round trip sayısı sipariş boyutundan bağımsızdır
+    public Order getOrderById(String id, FetchPlan fetchPlan) {
+        log.debug("Sipariş arama işlemi başlatıldı. ID: {}, Plan: {}", id, fetchPlan);
         try {
-            return orderRepository.findById(id)
-                    .orElseThrow(() -> {
-                        log.warn("Sipariş bulunamadı. ID: {}", id);
-                        return new RuntimeException("Sipariş bulunamadı");
-                    });
+            // Farklı planlar farklı veri döndürdüğü için plan anahtarın parçasıdır
+            String key = fetchPlan.isEmpty() ? id
+                    : id + "?" + String.join(",", new TreeSet<>(fetchPlan.references()));
+            return redisCommandMetrics.operation("getOrderById", () -> singleFlight.execute(RedisKeys.ORDER, key,
+                    () -> orderRepository.findById(id, fetchPlan)
+                            .orElseThrow(() -> {
+                                log.warn("Sipariş bulunamadı. ID: {}", id);
+                                return new RuntimeException("Sipariş bulunamadı");
+                            })));
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Sipariş getirilirken hata oluştu: {}", e.getMessage(), e);
             throw new RuntimeException("Sipariş getirilemedi", e);
         }
     }
 
-    public List<Order> getAllOrders() {
-        log.debug("Tüm siparişleri getirme işlemi başlatıldı");
+    // Redis'teki siparişlerden sonra arşivdekiler; tarama sırasında arşive taşıma yapılmaz
+    public List<Order> getAllOrders(FetchPlan fetchPlan) {
+        log.debug("Tüm siparişleri getirme işlemi başlatıldı. Plan: {}", fetchPlan);
         try {
             List<Order> orders = new ArrayList<>();
-            orderRepository.findAll().forEach(orders::add);
+            forEachBatch(batch -> {
+                orderRepository.resolve(batch, fetchPlan);
+                orders.addAll(batch);
+            });
             log.info("Toplam {} sipariş getirildi", orders.size());
             return orders;
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Siparişler getirilirken hata oluştu: {}", e.getMessage(), e);
             throw new RuntimeException("Siparişler getirilemedi", e);
         }
     }
 
+    // Redis'teki sayfalar bitince cursor arşivin ilk bloğuna geçer
+    public CursorPage<Order> getOrdersPage(String cursor, int size) {
+        log.debug("Siparişler sayfa sayfa getiriliyor. Cursor: {}, Boyut: {}", cursor, size);
+        try {
+            if (OrderArchive.isCursor(cursor)) {
+                return orderArchive.page(cursor, size);
+            }
+            CursorPage<Order> page = entityScanner.page(RedisKeys.ORDER, Order.class, cursor, size);
+            if (page.nextCursor() == null && !orderArchive.isEmpty()) {
+                return new CursorPage<>(page.items(), orderArchive.firstCursor());
+            }
+            return page;
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Siparişler sayfası getirilirken hata oluştu: {}", e.getMessage(), e);
+            throw new RuntimeException("Siparişler getirilemedi", e);
+        }
+    }
+
+    public List<Order> getOrdersByDate(LocalDateTime from, LocalDateTime to, boolean newestFirst, int offset,
+                                       int limit) {
+        log.debug("Siparişler tarih aralığında getiriliyor. Başlangıç: {}, Bitiş: {}", from, to);
+        return orderIndexes.findByDate(from, to, newestFirst, offset, limit);
+    }
+
+    public List<Order> getOrdersByAmount(BigDecimal min, BigDecimal max, boolean highestFirst, int offset,
+                                         int limit) {
+        log.debug("Siparişler tutar aralığında getiriliyor. Min: {}, Max: {}", min, max);
+        return orderIndexes.findByAmount(min, max, highestFirst, offset, limit);
+    }
+
+    public List<Order> getCustomerOrders(String customerId, LocalDateTime from, LocalDateTime to,
+                                         boolean newestFirst, int offset, int limit) {
+        log.debug("Müşterinin siparişleri getiriliyor. Müşteri ID: {}, Başlangıç: {}, Bitiş: {}",
+                customerId, from, to);
+        return orderIndexes.findByCustomer(customerId, from, to, newestFirst, offset, limit);
+    }
+
+    public IndexReport verifyIndexes() {
+        log.debug("Sipariş indexleri doğrulanıyor");
+        return orderIndexMaintenance.verify();
+    }
+
+    public IndexReport rebuildIndexes() {
+        log.debug("Sipariş indexleri yeniden oluşturuluyor");
+        return orderIndexMaintenance.rebuild();
+    }
+
+    // Tüm siparişler sabit bellekle, batch'ler halinde tüketiciye aktarılır
+    public void streamOrders(Consumer<Order> consumer) {
+        log.debug("Siparişler stream ediliyor");
+        forEachBatch(batch -> batch.forEach(consumer));
+    }
+
+    private void forEachBatch(Consumer<List<Order>> consumer) {
+        orderArchive.withoutMoves(() -> {
+            entityScanner.forEachBatch(RedisKeys.ORDER, Order.class, streamBatchSize, consumer);
+            orderArchive.forEachBatch(consumer);
+            return null;
+        });
+    }
+
     public void demonstrateTransactionIssues() {
         String productKey = "product:test";
         
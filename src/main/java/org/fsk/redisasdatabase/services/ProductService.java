@@ -2,13 +2,29 @@ package org.fsk.redisasdatabase.services;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.caches.ProductNearCache;
+import org.fsk.redisasdatabase.concurrency.OptimisticRetry;
+import org.fsk.redisasdatabase.concurrency.SingleFlight;
 import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.dtos.CursorPage;
+import org.fsk.redisasdatabase.journal.Journal;
+import org.fsk.redisasdatabase.journal.JournalOperation;
+import org.fsk.redisasdatabase.mappers.EntityHashMapper;
+import org.fsk.redisasdatabase.metrics.RedisCommandMetrics;
+import org.fsk.redisasdatabase.repositories.EntityScanner;
 import org.fsk.redisasdatabase.repositories.ProductRepository;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.repositories.StockShardReader;
+import org.fsk.redisasdatabase.scripts.StockScripts;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
@@ -16,12 +32,40 @@ import java.util.UUID;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductNearCache productNearCache;
+    private final EntityScanner entityScanner;
+    private final StockScripts stockScripts;
+    private final StockShardReader stockShardReader;
+    private final Journal journal;
+    private final EntityHashMapper entityHashMapper;
+    private final OptimisticRetry optimisticRetry;
+    private final SingleFlight singleFlight;
+    private final RedisCommandMetrics redisCommandMetrics;
+
+    @Value("${app.stock.max-shards:64}")
+    private int maxStockShards;
+
+    @Value("${app.listing.batch-size:500}")
+    private int streamBatchSize;
 
     public Product saveProduct(Product product) {
         log.debug("Ürün kaydetme işlemi başlatıldı: {}", product);
         try {
             product.setId(UUID.randomUUID().toString());
+            product.setVersion(0L);
+            // Shard sayaçları script ile oluşturulur, hash'e doğrudan shard sayısı yazılmaz
+            Integer stockShards = product.getStockShards();
+            product.setStockShards(null);
             Product savedProduct = productRepository.save(product);
+            // Shard'lama journal'a ayrı kayıt olarak düşer, replay aynı sırayı izler
+            if (journal.isEnabled()) {
+                journal.append(JournalOperation.PRODUCT_SAVED, savedProduct.getId(),
+                        entityHashMapper.toHash(savedProduct));
+            }
+            if (stockShards != null && stockShards > 0) {
+                shardStock(savedProduct.getId(), stockShards);
+                savedProduct.setStockShards(stockShards);
+            }
             log.info("Ürün başarıyla kaydedildi. ID: {}", savedProduct.getId());
             return savedProduct;
         } catch (Exception e) {
@@ -33,11 +77,19 @@ public class ProductService {
     public Product getProductById(String id) {
         log.debug("Ürün arama işlemi başlatıldı. ID: {}", id);
         try {
-            return productRepository.findById(id)
-                    .orElseThrow(() -> {
-                        log.warn("Ürün bulunamadı. ID: {}", id);
-                        return new RuntimeException("Ürün bulunamadı");
-                    });
+            // Aynı ürün için eşzamanlı istekler tek okumayı (cache/Redis ve shard toplamı) paylaşır
+            return redisCommandMetrics.operation("getProductById", () -> singleFlight.execute(RedisKeys.PRODUCT, id,
+                    () -> {
+                        Product product = Optional.ofNullable(
+                                        productNearCache.get(id, () -> productRepository.findById(id).orElse(null)))
+                                .orElseThrow(() -> {
+                                    log.warn("Ürün bulunamadı. ID: {}", id);
+                                    return new RuntimeException("Ürün bulunamadı");
+                                });
+                        // Shard sayaçları cache'te tutulmaz, toplam stok her okumada Redis'ten gelir
+                        stockShardReader.aggregate(List.of(product));
+                        return product;
+                    }));
         } catch (Exception e) {
             log.error("Ürün getirilirken hata oluştu: {}", e.getMessage(), e);
             throw new RuntimeException("Ürün getirilemedi", e);
@@ -45,24 +97,95 @@ public class ProductService {
     }
 
     public Product updateStock(String productId, Integer newStock) {
-        log.debug("Ürün stok güncelleme işlemi başlatıldı. ID: {}, Yeni Stok: {}", productId, newStock);
+        return updateStock(productId, newStock, null);
+    }
+
+    // expectedVersion verilirse güncelleme koşulludur: ürün okunduktan sonra başka bir yazım (checkout dahil)
+    // olduysa hiçbir şey yazılmaz ve OptimisticLockException fırlatılır, istemci yeniden okuyup karar verir
+    public Product updateStock(String productId, Integer newStock, Long expectedVersion) {
+        return redisCommandMetrics.operation("updateStock", () -> writeStock(productId, newStock, expectedVersion));
+    }
+
+    private Product writeStock(String productId, Integer newStock, Long expectedVersion) {
+        log.debug("Ürün stok güncelleme işlemi başlatıldı. ID: {}, Yeni Stok: {}, Beklenen Sürüm: {}",
+                productId, newStock, expectedVersion);
+        if (newStock == null || newStock < 0) {
+            throw new IllegalArgumentException("Stok negatif olamaz");
+        }
         try {
-            Product product = getProductById(productId);
-            product.setStock(newStock);
-            Product updatedProduct = productRepository.save(product);
+            // Sadece stok yazılır; hash'in tamamını yeniden yazmak eşzamanlı checkout düşümlerini ezerdi
+            StockScripts.Write write = expectedVersion == null
+                    ? stockScripts.setStock(productId, newStock)
+                    : optimisticRetry.once(RedisKeys.PRODUCT,
+                            () -> stockScripts.compareAndSetStock(productId, newStock, expectedVersion, null, null,
+                                    true));
+            stockWritten(productId, write);
             log.info("Ürün stoğu güncellendi. ID: {}, Yeni Stok: {}", productId, newStock);
-            return updatedProduct;
+            return getProductById(productId);
+        } catch (IllegalStateException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Ürün stoğu güncellenirken hata oluştu: {}", e.getMessage(), e);
             throw new RuntimeException("Ürün stoğu güncellenemedi", e);
         }
     }
 
+    // Stoku delta kadar değiştirir (oku-hesapla-koşullu yaz). Çakışmada yeni okuma ile tekrar denenir,
+    // böylece eşzamanlı ayarlamaların hiçbiri kaybolmaz. Stok, okumalardaki gibi kiralanan birimler dahildir;
+    // toplam sıfırın altına inecekse reddedilir. Değişim Redis'teki birimlere uygulanır, kiralar korunur. Düşüm
+    // Redis'teki birimleri aşıyorsa kiralar iptal edilir ve kalan toplam mutlak olarak yazılır; bu durumda kira
+    // kayıtları da koşula dahildir.
+    public Product adjustStock(String productId, int delta) {
+        return redisCommandMetrics.operation("adjustStock", () -> writeStockDelta(productId, delta));
+    }
+
+    private Product writeStockDelta(String productId, int delta) {
+        log.debug("Ürün stok ayarlama işlemi başlatıldı. ID: {}, Değişim: {}", productId, delta);
+        try {
+            StockScripts.Write write = optimisticRetry.execute(RedisKeys.PRODUCT, () -> {
+                Product current = productRepository.findById(productId)
+                        .orElseThrow(() -> new RuntimeException("Ürün bulunamadı"));
+                stockShardReader.aggregateStored(List.of(current));
+                int stored = current.getStock() == null ? 0 : current.getStock();
+                long leased = stockShardReader.leased(productId);
+                long total = stored + leased;
+                if (total + delta < 0) {
+                    throw new IllegalArgumentException("Yetersiz stok. Mevcut: " + total + ", Değişim: " + delta);
+                }
+                long version = current.getVersion() == null ? 0 : current.getVersion();
+                Integer expectedStock = StockShardReader.isSharded(current) ? stored : null;
+                if (stored + delta >= 0) {
+                    return stockScripts.compareAndSetStock(productId, stored + delta, version, expectedStock, null,
+                            false);
+                }
+                return stockScripts.compareAndSetStock(productId, Math.toIntExact(total + delta), version,
+                        expectedStock, leased, true);
+            });
+            stockWritten(productId, write);
+            log.info("Ürün stoğu ayarlandı. ID: {}, Değişim: {}, Yeni Stok: {}", productId, delta, write.stock());
+            return getProductById(productId);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Ürün stoğu ayarlanırken hata oluştu: {}", e.getMessage(), e);
+            throw new RuntimeException("Ürün stoğu ayarlanamadı", e);
+        }
+    }
+
+    // Kayıt, stok script'te journal sırası aldıysa o sırayla yazılır
+    private void stockWritten(String productId, StockScripts.Write write) {
+        productNearCache.invalidate(productId);
+        singleFlight.forget(RedisKeys.PRODUCT, productId);
+        journal.append(JournalOperation.STOCK_UPDATED, productId, Map.of("stock", String.valueOf(write.stock())),
+                write.sequence());
+    }
+
     public List<Product> getAllProducts() {
         log.debug("Tüm ürünleri getirme işlemi başlatıldı");
         try {
             List<Product> products = new ArrayList<>();
             productRepository.findAll().forEach(products::add);
+            stockShardReader.aggregate(products);
             log.info("Toplam {} ürün getirildi", products.size());
             return products;
         } catch (Exception e) {
@@ -70,4 +193,46 @@ public class ProductService {
             throw new RuntimeException("Ürünler getirilemedi", e);
         }
     }
+
+    public CursorPage<Product> getProductsPage(String cursor, int size) {
+        log.debug("Ürünler sayfa sayfa getiriliyor. Cursor: {}, Boyut: {}", cursor, size);
+        try {
+            CursorPage<Product> page = entityScanner.page(RedisKeys.PRODUCT, Product.class, cursor, size);
+            stockShardReader.aggregate(page.items());
+            return page;
+        } catch (Exception e) {
+            log.error("Ürünler sayfası getirilirken hata oluştu: {}", e.getMessage(), e);
+            throw new RuntimeException("Ürünler getirilemedi", e);
+        }
+    }
+
+    // Tüm ürünler sabit bellekle, batch'ler halinde tüketiciye aktarılır
+    public void streamProducts(Consumer<Product> consumer) {
+        log.debug("Ürünler stream ediliyor");
+        entityScanner.forEachBatch(RedisKeys.PRODUCT, Product.class, streamBatchSize, products -> {
+            stockShardReader.aggregate(products);
+            products.forEach(consumer);
+        });
+    }
+
+    // Yoğun satılan ürünlerde stoku ayrı sayaçlara böler (0: shard'sız düzene döner).
+    // Aynı sayı ile çağrılırsa mevcut stok shard'lara yeniden eşit dağıtılır.
+    public Product shardStock(String productId, int shards) {
+        log.debug("Ürün stok shard işlemi başlatıldı. ID: {}, Shard: {}", productId, shards);
+        if (shards < 0 || shards > maxStockShards) {
+            throw new IllegalArgumentException("Shard sayısı 0 ile " + maxStockShards + " arasında olmalı");
+        }
+        try {
+            StockScripts.Write write = stockScripts.reshard(productId, shards);
+            productNearCache.invalidate(productId);
+            singleFlight.forget(RedisKeys.PRODUCT, productId);
+            journal.append(JournalOperation.STOCK_RESHARDED, productId, Map.of("stockShards", String.valueOf(shards)),
+                    write.sequence());
+            log.info("Ürün stoğu {} shard'a dağıtıldı. ID: {}, Toplam Stok: {}", shards, productId, write.stock());
+            return getProductById(productId);
+        } catch (Exception e) {
+            log.error("Ürün stoğu shard'lanırken hata oluştu: {}", e.getMessage(), e);
+            throw new RuntimeException("Ürün stoğu shard'lanamadı", e);
+        }
+    }
 }
@@ -0,0 +1,142 @@
+package org.fsk.redisasdatabase.stock;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bir ürünün bu node'a kiralanmış stoku. Birimler şeritlere (stripe) bölünmüş primitive long sayaçlarda tutulur;
+// checkout thread'i kendi şeridinden CAS ile düşer, şerit boşsa diğerlerine bakar. Kilit yoktur, sıcak üründe
+// eşzamanlı checkout'lar farklı cache line'lara yazar.
+// Kira kapalıyken şeritler CLOSED'dır: hiçbir birim verilmez, geri konulan birim kabul edilmez. Açma, ekleme ve
+// boşaltma sadece StockLeases'in zamanlayıcı thread'inden çağrılır.
+final class LeasedStock {
+
+    // 64 byte'lık cache line başına bir sayaç
+    private static final int PADDING = 8;
+    private static final long CLOSED = -1;
+
+    private final String productId;
+    private final AtomicLongArray counters;
+    private final int mask;
+    final AtomicBoolean refillRequested = new AtomicBoolean();
+    // Sadece zamanlayıcı thread'i yazar
+    private volatile boolean open;
+    private volatile long deadline;
+    private volatile long retryAfter;
+    private volatile boolean used;
+    private long idleSince;
+
+    LeasedStock(String productId, int stripes, long now) {
+        this.productId = productId;
+        this.counters = new AtomicLongArray(stripes * PADDING);
+        this.mask = stripes - 1;
+        this.idleSince = now;
+        for (int i = 0; i < stripes; i++) {
+            counters.set(i * PADDING, CLOSED);
+        }
+    }
+
+    String productId() {
+        return productId;
+    }
+
+    // Bir birim ayırır; dönen değer ayrılan şeritte kalan birimdir, ayrılamadıysa -1
+    long take(long now) {
+        if (!open || now - deadline >= 0) {
+            return -1;
+        }
+        int start = stripe();
+        for (int i = 0; i <= mask; i++) {
+            int index = ((start + i) & mask) * PADDING;
+            long units;
+            while ((units = counters.get(index)) > 0) {
+                if (counters.compareAndSet(index, units, units - 1)) {
+                    if (!used) {
+                        used = true;
+                    }
+                    return units - 1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // Sipariş yazılamadıysa birimi geri koyar; kira bu arada kapandıysa false döner
+    boolean giveBack() {
+        int index = stripe() * PADDING;
+        long units;
+        while ((units = counters.get(index)) != CLOSED) {
+            if (counters.compareAndSet(index, units, units + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    long remaining() {
+        long total = 0;
+        for (int i = 0; i <= mask; i++) {
+            total += Math.max(0, counters.get(i * PADDING));
+        }
+        return total;
+    }
+
+    boolean isOpen() {
+        return open;
+    }
+
+    void open(long units, long deadline) {
+        for (int i = 0; i <= mask; i++) {
+            counters.set(i * PADDING, share(units, i));
+        }
+        this.deadline = deadline;
+        this.open = true;
+    }
+
+    void add(long units, long deadline) {
+        for (int i = 0; i <= mask; i++) {
+            counters.getAndAdd(i * PADDING, share(units, i));
+        }
+        this.deadline = deadline;
+    }
+
+    // Kirayı kapatır ve şeritlerde kalan birimleri döner; bundan sonra hiçbir birim verilmez
+    long close() {
+        open = false;
+        long total = 0;
+        for (int i = 0; i <= mask; i++) {
+            total += Math.max(0, counters.getAndSet(i * PADDING, CLOSED));
+        }
+        return total;
+    }
+
+    // Yerel süre dolduysa (yenilenemedi) kira Redis'te de dolmuş sayılır
+    boolean isExpired(long now) {
+        return open && now - deadline >= 0;
+    }
+
+    boolean canRetry(long now) {
+        return now - retryAfter >= 0;
+    }
+
+    void retryAfter(long time) {
+        this.retryAfter = time;
+    }
+
+    // Son çağrıdan beri birim verilmediyse boşta geçen süre, verildiyse 0
+    long idle(long now) {
+        if (used) {
+            used = false;
+            idleSince = now;
+        }
+        return now - idleSince;
+    }
+
+    private int stripe() {
+        return (int) Thread.currentThread().threadId() & mask;
+    }
+
+    private long share(long units, int stripe) {
+        int stripes = mask + 1;
+        return units / stripes + (stripe < units % stripes ? 1 : 0);
+    }
+}
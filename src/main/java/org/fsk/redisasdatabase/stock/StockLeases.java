@@ -0,0 +1,349 @@
+package org.fsk.redisasdatabase.stock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.repositories.StockShardLayout;
+import org.fsk.redisasdatabase.scripts.StockScripts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Stok kiralama: node, sıcak ürünün Redis'teki stokundan block-size'lık bir blok kiralar (lease-stock.lua) ve
+// checkout'ta birimi yerel sayaçtan (LeasedStock) düşer; checkout script'i kiralanan ürünün stokuna dokunmaz.
+// Ürün ilk satışta kiralanır, o sipariş stoku Redis'ten düşer. Yerelde refill-below'un altına inildiğinde
+// blok arka planda tamamlanır. Kiralar renew-interval'da bir yenilenir; yenileme node'da kalan birimi de bildirir.
+// ttl boyunca satılmayan ürünün kalanı iade edilir (return-lease.lua); kapanışta tüm kiralar iade edilir.
+// Aşırı satış riski sınırlıdır:
+//   - Node çöker ya da Redis'e ulaşamazsa kira yenilenmez. Node ttl dolunca yerelden satmayı bırakır; Redis'te
+//     süresi dolan kiranın son bildirilen kalanı bir sonraki kiralamada stoka eklenir. Fark, son yenilemeden
+//     sonra satılan birimlerdir (en fazla bir blok).
+//   - Mutlak stok yazımı (set-stock.lua) kiraları iptal eder; node'lar bir sonraki yenilemeye kadar (en fazla
+//     renew-interval) ellerindeki birimleri satmaya devam edebilir.
+// Ürün okumaları kira kayıtlarındaki kalanları stoka ekler (StockShardReader); node'da satılan birimler okumalara
+// bir sonraki yenilemede yansır.
+@Component
+@Slf4j
+public class StockLeases {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> LEASE =
+            RedisScript.of(new ClassPathResource("scripts/lease-stock.lua"), List.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RETURN =
+            RedisScript.of(new ClassPathResource("scripts/return-lease.lua"), List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final StockScripts stockScripts;
+    private final StockShardLayout layout;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long blockSize;
+    private final long refillBelow;
+    private final Duration ttl;
+    private final Duration renewInterval;
+    private final int stripes;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, LeasedStock> leases = new ConcurrentHashMap<>();
+    private final Counter served;
+    private final Counter misses;
+    private volatile ScheduledExecutorService scheduler;
+
+    public StockLeases(StringRedisTemplate stringRedisTemplate, StockScripts stockScripts, StockShardLayout layout,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.stock.lease.enabled:false}") boolean enabled,
+                       @Value("${app.stock.lease.block-size:200}") long blockSize,
+                       @Value("${app.stock.lease.refill-below:50}") long refillBelow,
+                       @Value("${app.stock.lease.ttl:30s}") Duration ttl,
+                       @Value("${app.stock.lease.renew-interval:5s}") Duration renewInterval,
+                       @Value("${app.stock.lease.stripes:8}") int stripes) {
+        if (blockSize < 1 || refillBelow < 0 || refillBelow >= blockSize) {
+            throw new IllegalArgumentException("app.stock.lease.refill-below 0 ile block-size arasında olmalı");
+        }
+        if (renewInterval.isZero() || renewInterval.isNegative() || renewInterval.compareTo(ttl) >= 0) {
+            throw new IllegalArgumentException("app.stock.lease.renew-interval sıfırdan büyük ve ttl'den kısa olmalı");
+        }
+        if (stripes < 1 || stripes > 64 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("app.stock.lease.stripes 1 ile 64 arasında 2'nin kuvveti olmalı");
+        }
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.stockScripts = stockScripts;
+        this.layout = layout;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.blockSize = blockSize;
+        this.refillBelow = refillBelow;
+        this.ttl = ttl;
+        this.renewInterval = renewInterval;
+        this.stripes = stripes;
+        this.served = meterRegistry.counter("stock.lease.checkouts", "result", "served");
+        this.misses = meterRegistry.counter("stock.lease.checkouts", "result", "redis");
+        Gauge.builder("stock.lease.units.held", leases,
+                        map -> map.values().stream().mapToLong(LeasedStock::remaining).sum())
+                .description("Bu node'da kiralanmış, henüz satılmamış stok birimleri")
+                .register(meterRegistry);
+        Gauge.builder("stock.lease.products", leases,
+                        map -> map.values().stream().filter(LeasedStock::isOpen).count())
+                .description("Bu node'da açık stok kirası olan ürün sayısı")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-leases");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::renewAll, renewInterval.toMillis(), renewInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        log.info("Stok kiralama başlatıldı. Node: {}, Blok: {}, Süre: {}, Yenileme: {}",
+                nodeId, blockSize, ttl, renewInterval);
+    }
+
+    // Kalan birimler Redis'e iade edilir; iade edilemezse kiranın süresi dolunca son bildirilen kalan geri alınır.
+    // @PreDestroy'da Redis bağlantı fabrikası (lifecycle bean'i) çoktan durmuş olur, bu yüzden kapanış olayında.
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (LeasedStock lease : leases.values()) {
+            try {
+                returnLease(lease);
+            } catch (RuntimeException e) {
+                log.warn("Stok kirası iade edilemedi, süresi dolunca geri alınacak. Ürün: {}, Hata: {}",
+                        lease.productId(), e.getMessage());
+            }
+        }
+        leases.clear();
+        log.info("Stok kiraları iade edildi. Node: {}", nodeId);
+    }
+
+    // Ürün başına bir karakter, siparişin ürün sırasıyla (checkout.lua ARGV[7]): '1' birim kiradan ayrıldı
+    public String take(Order order) {
+        if (!enabled) {
+            return "";
+        }
+        StringBuilder leased = new StringBuilder(order.getProducts().size());
+        for (Product product : order.getProducts()) {
+            leased.append(take(product.getId()) ? '1' : '0');
+        }
+        return leased.toString();
+    }
+
+    // Birim yerel kiradan ayrılabildiyse true; ayrılamadıysa stok Redis'ten düşülmeli
+    public boolean take(String productId) {
+        if (!enabled || scheduler == null) {
+            return false;
+        }
+        long now = System.nanoTime();
+        LeasedStock lease = leases.computeIfAbsent(productId, id -> new LeasedStock(id, stripes, now));
+        long left = lease.take(now);
+        if (left < 0) {
+            misses.increment();
+            requestRefill(lease, now);
+            return false;
+        }
+        served.increment();
+        if (left * stripes < refillBelow) {
+            requestRefill(lease, now);
+        }
+        return true;
+    }
+
+    // Sipariş yazılamadığında take ile ayrılan birimleri geri koyar
+    public void giveBack(Order order, String leased) {
+        int i = 0;
+        for (Product product : order.getProducts()) {
+            if (i < leased.length() && leased.charAt(i) == '1') {
+                giveBack(product.getId());
+            }
+            i++;
+        }
+    }
+
+    // Kira bu arada kapandıysa birim doğrudan Redis'teki stoka eklenir
+    public void giveBack(String productId) {
+        LeasedStock lease = leases.get(productId);
+        if (lease != null && lease.giveBack()) {
+            return;
+        }
+        stockScripts.release(productId, -1);
+        meterRegistry.counter("stock.lease.units", "result", "released").increment();
+    }
+
+    // Bu node'da ürün için kiralanmış, satılmamış birimler
+    public long available(String productId) {
+        LeasedStock lease = leases.get(productId);
+        return lease == null ? 0 : lease.remaining();
+    }
+
+    private void requestRefill(LeasedStock lease, long now) {
+        if (!lease.canRetry(now) || !lease.refillRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.execute(() -> {
+                try {
+                    renew(lease, true);
+                } catch (RuntimeException e) {
+                    failed(lease, e);
+                } finally {
+                    lease.refillRequested.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            lease.refillRequested.set(false);
+        }
+    }
+
+    private void renewAll() {
+        long now = System.nanoTime();
+        for (LeasedStock lease : leases.values()) {
+            try {
+                if (lease.idle(now) >= ttl.toNanos()) {
+                    // Satılmayan ürünün kalanı iade edilir; sonraki satışta yeniden kiralanır
+                    leases.remove(lease.productId(), lease);
+                    returnLease(lease);
+                } else if (lease.isOpen()) {
+                    renew(lease, lease.remaining() < refillBelow);
+                }
+            } catch (RuntimeException e) {
+                failed(lease, e);
+            }
+        }
+    }
+
+    // Sadece zamanlayıcı thread'inde çalışır
+    private void renew(LeasedStock lease, boolean refill) {
+        if (leases.get(lease.productId()) != lease) {
+            // Boşta kaldığı için iade edildi; Redis'teki kayıt node başına tek olduğundan eski nesne açılmaz
+            return;
+        }
+        long started = System.nanoTime();
+        if (lease.isExpired(started)) {
+            // Yenilenemeden süresi doldu; Redis'te geri alınmadıysa güncel kalan iade edilir
+            returnLease(lease);
+        }
+        long held = lease.remaining();
+        long requested = refill ? blockSize - held : 0;
+        String renewal = lease.isOpen() ? "1" : "0";
+        List<?> result = layout.withShards(lease.productId(), shardKeys -> stringRedisTemplate.execute(LEASE,
+                keys(lease.productId(), shardKeys), nodeId, String.valueOf(requested), String.valueOf(held),
+                String.valueOf(ttl.toMillis()), renewal));
+        if (result == null || result.isEmpty()) {
+            throw new IllegalStateException("Stok kiralama scripti sonuç döndürmedi");
+        }
+        if (layout.changed(result)) {
+            throw new IllegalStateException("Ürün stok düzeni değişti");
+        }
+        long deadline = started + ttl.toNanos();
+        switch ((String) result.get(0)) {
+            case "OK" -> {
+                long granted = ((Number) result.get(1)).longValue();
+                if (lease.isOpen()) {
+                    lease.add(granted, deadline);
+                } else {
+                    lease.open(granted, deadline);
+                }
+                reclaimed(((Number) result.get(2)).longValue());
+                meterRegistry.counter("stock.lease.units", "result", "leased").increment(granted);
+                meterRegistry.counter("stock.lease.requests", "result", granted > 0 ? "granted" : "empty")
+                        .increment();
+                if (refill && granted == 0) {
+                    // Stok bitti; her checkout'ta yeniden kiralamaya çalışılmaz
+                    lease.retryAfter(started + renewInterval.toNanos());
+                }
+            }
+            case "REVOKED" -> {
+                reclaimed(((Number) result.get(1)).longValue());
+                revoked(lease);
+            }
+            default -> {
+                // Ürün yok; kayıt boşta kalınca silinir
+                lease.close();
+                lease.retryAfter(started + renewInterval.toNanos());
+            }
+        }
+    }
+
+    private void returnLease(LeasedStock lease) {
+        if (!lease.isOpen()) {
+            return;
+        }
+        long units = lease.close();
+        List<?> result = layout.withShards(lease.productId(), shardKeys -> stringRedisTemplate.execute(RETURN,
+                keys(lease.productId(), shardKeys), nodeId, String.valueOf(units)));
+        if (layout.changed(result)) {
+            // Kayıt silinmedi; süresi dolunca bildirilen son kalan geri alınır
+            throw new IllegalStateException("Ürün stok düzeni değişti");
+        }
+        if (result != null && "OK".equals(result.get(0))) {
+            meterRegistry.counter("stock.lease.units", "result", "returned").increment(units);
+        } else {
+            meterRegistry.counter("stock.lease.units", "result", "revoked").increment(units);
+        }
+    }
+
+    // lease-stock.lua ve return-lease.lua: ürün, kiralar ve shard sayaçları
+    private static List<String> keys(String productId, List<String> shardKeys) {
+        List<String> keys = new ArrayList<>(shardKeys.size() + 2);
+        keys.add(RedisKeys.product(productId));
+        keys.add(RedisKeys.stockLeases(productId));
+        keys.addAll(shardKeys);
+        return keys;
+    }
+
+    // Kira Redis'te yok: elde kalan birimler stoka eklenmeden bırakılır
+    private void revoked(LeasedStock lease) {
+        long units = lease.close();
+        meterRegistry.counter("stock.lease.requests", "result", "revoked").increment();
+        meterRegistry.counter("stock.lease.units", "result", "revoked").increment(units);
+        log.info("Stok kirası iptal edildi. Ürün: {}, Bırakılan birim: {}", lease.productId(), units);
+    }
+
+    private void reclaimed(long units) {
+        if (units > 0) {
+            meterRegistry.counter("stock.lease.units", "result", "reclaimed").increment(units);
+            log.info("Süresi dolmuş stok kiraları geri alındı. Birim: {}", units);
+        }
+    }
+
+    private void failed(LeasedStock lease, RuntimeException e) {
+        meterRegistry.counter("stock.lease.requests", "result", "failed").increment();
+        lease.retryAfter(System.nanoTime() + renewInterval.toNanos());
+        log.warn("Stok kirası yenilenemedi, yerel süre dolunca kiradan satış durur. Ürün: {}, Hata: {}",
+                lease.productId(), e.getMessage());
+    }
+}
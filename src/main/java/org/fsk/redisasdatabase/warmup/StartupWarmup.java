@@ -0,0 +1,207 @@
+package org.fsk.redisasdatabase.warmup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.fsk.redisasdatabase.caches.ProductNearCache;
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.mappers.EntityHashMapper;
+import org.fsk.redisasdatabase.repositories.CustomerRepository;
+import org.fsk.redisasdatabase.repositories.EntityScanner;
+import org.fsk.redisasdatabase.repositories.OrderRepository;
+import org.fsk.redisasdatabase.repositories.ProductRepository;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.serializers.CompactRedisSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Açılış ısınması: ilk isteklerin ödeyeceği maliyetleri (mapper/serializer sınıf analizi ve JIT, repository
+// metadata'sı, bağlantı havuzu, sıcak ürünlerin cache'e yüklenmesi) trafik gelmeden önce öder.
+// ApplicationReadyEvent dinleyicileri bitmeden readiness ACCEPTING_TRAFFIC olmaz, bu yüzden senkron çalışır.
+@Component
+@Slf4j
+public class StartupWarmup {
+
+    private static final String MISSING_ID = "__warmup__";
+
+    private final EntityHashMapper entityHashMapper;
+    private final CompactRedisSerializer compactRedisSerializer;
+    private final CustomerRepository customerRepository;
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EntityScanner entityScanner;
+    private final ProductNearCache productNearCache;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int iterations;
+    private final int connections;
+    private final int hotProducts;
+    private final int recentOrders;
+
+    public StartupWarmup(EntityHashMapper entityHashMapper, CompactRedisSerializer compactRedisSerializer,
+                         CustomerRepository customerRepository, OrderRepository orderRepository,
+                         ProductRepository productRepository, RedisConnectionFactory redisConnectionFactory,
+                         StringRedisTemplate stringRedisTemplate, EntityScanner entityScanner,
+                         ProductNearCache productNearCache, MeterRegistry meterRegistry,
+                         @Value("${app.warmup.enabled:true}") boolean enabled,
+                         @Value("${app.warmup.iterations:2000}") int iterations,
+                         @Value("${app.warmup.connections:4}") int connections,
+                         @Value("${app.warmup.hot-products:0}") int hotProducts,
+                         @Value("${app.warmup.recent-orders:5000}") int recentOrders) {
+        this.entityHashMapper = entityHashMapper;
+        this.compactRedisSerializer = compactRedisSerializer;
+        this.customerRepository = customerRepository;
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.redisConnectionFactory = redisConnectionFactory;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.entityScanner = entityScanner;
+        this.productNearCache = productNearCache;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.connections = connections;
+        this.hotProducts = hotProducts;
+        this.recentOrders = recentOrders;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmup() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            long mappers = step("mappers", this::warmMappers);
+            long repositories = step("repositories", this::warmRepositories);
+            long pool = step("connections", this::warmConnections);
+            long cache = step("hot-products", this::warmHotProducts);
+            log.info("Açılış ısınması tamamlandı. Süre: {} ms (mapper: {} ms, repository: {} ms, "
+                            + "bağlantı: {} ms, ürün cache: {} ms)",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), mappers, repositories, pool, cache);
+        } catch (Exception e) {
+            // Isınma hatası uygulamayı durdurmaz, sadece ilk istekler yavaş kalır
+            log.warn("Açılış ısınması tamamlanamadı: {}", e.getMessage());
+        }
+    }
+
+    private long step(String name, Supplier<Object> step) {
+        long started = System.nanoTime();
+        Object result = step.get();
+        long elapsed = System.nanoTime() - started;
+        meterRegistry.timer("app.warmup", "step", name).record(elapsed, TimeUnit.NANOSECONDS);
+        log.debug("Isınma adımı {} tamamlandı: {}", name, result);
+        return TimeUnit.NANOSECONDS.toMillis(elapsed);
+    }
+
+    // Hash planları oluşturulur ve dönüşüm yolları JIT derlenecek kadar çalıştırılır
+    private Object warmMappers() {
+        entityHashMapper.prepare(Customer.class, Order.class, Product.class);
+        Order order = sampleOrder();
+        int bytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            Map<String, String> hash = entityHashMapper.toHash(order);
+            entityHashMapper.fromHash(hash, Order.class);
+            entityHashMapper.fromHash(entityHashMapper.toHash(order.getCustomer()), Customer.class);
+            byte[] serialized = compactRedisSerializer.serialize(order);
+            compactRedisSerializer.deserialize(serialized);
+            bytes += serialized.length;
+        }
+        return bytes;
+    }
+
+    // Repository proxy'leri, mapping context ve converter ilk okumada hazırlanır
+    private Object warmRepositories() {
+        customerRepository.findById(MISSING_ID);
+        orderRepository.findById(MISSING_ID);
+        productRepository.findById(MISSING_ID);
+        return stringRedisTemplate.opsForSet().size(RedisKeys.PRODUCT);
+    }
+
+    // Paylaşılan bağlantı ilk komutta açılır; transaction'lar için havuzdan alınan bağlantılar aynı anda
+    // ödünç alınıp geri verilerek havuz önceden doldurulur
+    private Object warmConnections() {
+        List<RedisConnection> borrowed = new ArrayList<>(connections);
+        try {
+            for (int i = 0; i < connections; i++) {
+                RedisConnection connection = redisConnectionFactory.getConnection();
+                borrowed.add(connection);
+                // Cluster bağlantısında transaction yoktur, havuzdan bağlantı da alınmaz
+                if (connection instanceof RedisClusterConnection) {
+                    break;
+                }
+                connection.multi();
+                connection.discard();
+            }
+        } finally {
+            borrowed.forEach(RedisConnection::close);
+        }
+        return stringRedisTemplate.execute(RedisConnection::ping);
+    }
+
+    // Son siparişlerde en çok geçen ürünler ürün cache'ine yüklenir
+    private Object warmHotProducts() {
+        if (hotProducts <= 0) {
+            return 0;
+        }
+        try {
+            if (!productNearCache.awaitCoherent(Duration.ofSeconds(5))) {
+                log.info("Ürün cache'i aktif değil, sıcak ürünler yüklenmedi");
+                return 0;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+        Set<String> orderIds = stringRedisTemplate.opsForZSet()
+                .reverseRange(RedisKeys.ORDERS_BY_DATE, 0, recentOrders - 1);
+        Map<String, Integer> counts = new HashMap<>();
+        if (orderIds != null) {
+            for (Order order : entityScanner.read(RedisKeys.ORDER, Order.class, List.copyOf(orderIds))) {
+                if (order.getProducts() != null) {
+                    order.getProducts().forEach(product -> counts.merge(product.getId(), 1, Integer::sum));
+                }
+            }
+        }
+        List<String> hot = counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .limit(hotProducts)
+                .map(Map.Entry::getKey)
+                .toList();
+        int loaded = productNearCache.preload(entityScanner.read(RedisKeys.PRODUCT, Product.class, hot));
+        log.info("{} sıcak ürün cache'e yüklendi ({} son sipariş incelendi)", loaded,
+                orderIds == null ? 0 : orderIds.size());
+        return loaded;
+    }
+
+    private static Order sampleOrder() {
+        Customer customer = new Customer(UUID.randomUUID().toString(), "Isınma", "warmup@example.com", null);
+        Set<Product> products = Set.of(
+                new Product(UUID.randomUUID().toString(), "Isınma 1", new BigDecimal("10.50"), 1, null, null, null),
+                new Product(UUID.randomUUID().toString(), "Isınma 2", new BigDecimal("2.25"), 1, 4, null, 1L));
+        return new Order(UUID.randomUUID().toString(), LocalDateTime.now(), new BigDecimal("12.75"), customer,
+                products);
+    }
+}
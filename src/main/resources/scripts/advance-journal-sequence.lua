@@ -0,0 +1,17 @@
+-- Journal sırası sayacını ilerletme scripti (replay)
+--
+-- KEYS[1]      journal:sequence
+-- ARGV[1]      uygulanan journal kaydının Redis sırası
+--
+-- Sayaç sadece ileri gider; replay sürerken yeni yazımların artırdığı değer geri alınmaz. Sayacı yazımla aynı
+-- scriptte ilerletemeyen replay adımları (repository kayıtları, cluster) kayıt uygulandıktan sonra çağırır.
+--
+-- Dönüş: sayacın değeri
+
+local sequence = tonumber(ARGV[1])
+local current = tonumber(redis.call('GET', KEYS[1])) or 0
+if current >= sequence then
+    return current
+end
+redis.call('SET', KEYS[1], sequence)
+return sequence
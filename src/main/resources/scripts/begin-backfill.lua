@@ -0,0 +1,21 @@
+-- Satış özetlerinin yeniden hesaplanmasını başlatır (AggregateBackfill)
+--
+-- KEYS[1]      agg:backfill:cutoff
+-- KEYS[2]      agg:backfill:products:sold
+-- KEYS[3..n]   önceki (yarım kalmış) hesaplamadan kalan agg:backfill:sales:<gün> anahtarları
+--
+-- ARGV[1]      kesim zamanı (epoch ms)
+-- ARGV[2]      kesim anahtarının ömrü (ms); hesaplama bu sürede bitmezse kesimden sonraki sayım durur
+--
+-- Kesim anahtarı yokken checkout bu sayaçlara yazmaz; eskileri silinip anahtar aynı adımda yazılır.
+--
+-- Dönüş: 1 başladı, 0 başka bir hesaplama sürüyor
+
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    return 0
+end
+for i = 2, #KEYS do
+    redis.call('DEL', KEYS[i])
+end
+redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+return 1
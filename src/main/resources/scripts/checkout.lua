@@ -0,0 +1,320 @@
+-- Sipariş oluşturma (checkout) scripti
+--
+-- KEYS[1]      customer:<id>
+-- KEYS[2]      order:<id> (sipariş ID'si müşterinin hash tag'ini taşır, müşteriyle aynı slot)
+-- KEYS[3]      {customer:<id>}:order-log (müşterinin sipariş geçmişi, liste)
+-- KEYS[4]      idx:{customer:<id>}:orders (skor: sipariş tarihi, epoch ms)
+-- KEYS[5..]    product:<id> (ARGV[8]'deki sayı kadar)
+-- KEYS[..]     ürünlerin stock:{product:<id>}:<i> shard sayaçları, ürün sırasıyla (ARGV[8]'deki sayılar kadar)
+-- Sadece ARGV[10] '1' ise, shard sayaçlarından sonra global anahtarlar:
+--   order (repository index set'i)
+--   idx:order:date (skor: sipariş tarihi, epoch ms)
+--   idx:order:amount (skor: toplam tutar)
+--   events:order:<p> (olay stream'i, bölüm müşteriden seçilir)
+--   agg:sales:<gün> (günlük satış özeti)
+--   agg:products:sold (ürün başına satılan adet)
+--   agg:{buyers}:<gün> (günün tekil alıcıları, HLL)
+--   agg:{buyers}:all (tüm zamanların tekil alıcıları, HLL)
+--   agg:backfill:cutoff (özetler yeniden hesaplanıyorsa kesim zamanı, epoch ms)
+--   agg:backfill:sales:<gün>
+--   agg:backfill:products:sold
+-- KEYS[n]      journal:sequence (sadece ARGV[9] boş değilse)
+--
+-- ARGV[1]      sipariş ID
+-- ARGV[2]      shard seçimi için rastgele sayı (script içinde math.random her çağrıda aynı diziyi verir)
+-- ARGV[3]      sipariş tarihi (epoch ms)
+-- ARGV[4]      sipariş hash alan sayısı (k)
+-- ARGV[5]      olay stream'i MAXLEN (~); boş ise olay yazılmaz, 0 ise kırpılmaz
+-- ARGV[6]      ciro ölçeği (ondalık basamak); boş ise satış özetleri güncellenmez
+-- ARGV[7]      ürün başına bir karakter, ürün sırasıyla; '1' olan ürünün birimi node'un stok kirasından
+--              ayrıldı, stok kontrolü ve düşümü atlanır (boş olabilir)
+-- ARGV[8]      ürün başına bilinen shard sayısı, virgülle ayrılmış ve ürün sırasıyla (ör. '0,4')
+-- ARGV[9]      journal sırası: 'next' (yeni sipariş), replay edilen kaydın sırası ya da boş
+-- ARGV[10]     '1' ise global index'ler, satış özetleri ve order.created olayı da script'te yazılır; boş ise
+--              (cluster) bunlar script'ten sonra ayrıca yazılır ve KEYS'te global anahtar yoktur
+-- ARGV[11..]   k adet alan/değer çifti
+--
+-- Shard'lı ürünlerde (stockShards > 0) stok shard sayaçlarından düşülür. Stoku kontrol edilen bir ürünün
+-- bilinen shard sayısı hash'teki stockShards'tan farklıysa hiçbir şey yazılmaz, SHARDS_CHANGED döner.
+-- Shard'sız ürünlerde stok düşümü hash'teki version alanını da artırır.
+-- Global anahtarlar script'teyse order.created olayı, satış özetleri ve journal sırası siparişle aynı atomik
+-- adımda yazılır. Cluster'da global anahtarlar başka slot'larda olduğundan script sadece müşteri, sipariş ve ürün
+-- anahtarlarına dokunur; hepsi tek slot'taysa sipariş yine atomik yazılır (CheckoutScript).
+-- Tutarlar ölçekli tam sayı (en küçük birim) olarak toplanır; Lua sayıları double olduğundan 2^53'ü aşabilecek
+-- fiyat ya da toplam kabul edilmez (INVALID_PRICE, AMOUNT_TOO_LARGE), hiçbir şey yazılmaz.
+--
+-- Dönüş: {'OK', toplamTutar, indexSüresiMikrosaniye, journalSırası}, {'ERR', 'SHARDS_CHANGED', anahtar, shardSayısı}
+--        veya {'ERR', hataKodu, anahtar}
+
+local FIRST_PRODUCT = 5
+local FIRST_FIELD = 11
+
+-- Double'ın tam temsil ettiği en büyük tam sayı; fiyatta en fazla 15 anlamlı basamak ve ölçek kabul edilir
+local MAX_EXACT = 2 ^ 53 - 1
+local MAX_DIGITS = 15
+
+-- Ürün başına shard sayaçlarının KEYS'teki ilk indexi ve sayısı
+local layout = {}
+local LAST_PRODUCT = FIRST_PRODUCT - 1
+for count in string.gmatch(ARGV[8], '%d+') do
+    LAST_PRODUCT = LAST_PRODUCT + 1
+    layout[LAST_PRODUCT] = {0, tonumber(count)}
+end
+local nextShard = LAST_PRODUCT + 1
+for i = FIRST_PRODUCT, LAST_PRODUCT do
+    layout[i][1] = nextShard
+    nextShard = nextShard + layout[i][2]
+end
+
+-- Global anahtarların KEYS'teki indexleri; script'te değillerse nil
+local global = nil
+if ARGV[10] == '1' then
+    local g = nextShard
+    global = {orders = g, byDate = g + 1, byAmount = g + 2, stream = g + 3, sales = g + 4, productsSold = g + 5,
+              buyersByDay = g + 6, buyers = g + 7, cutoff = g + 8, backfillSales = g + 9,
+              backfillProductsSold = g + 10}
+end
+
+-- Ondalık metni ölçekli tam sayıya çevirir: unscaled * 10^-scale. Tam temsil edilemeyecekse nil döner.
+local function parse_decimal(value)
+    local sign, int, frac, exp = string.match(value, '^([+-]?)(%d*)%.?(%d*)[eE]?([+-]?%d*)$')
+    if not sign or (int == '' and frac == '') then
+        return nil
+    end
+    local digits = int .. frac
+    local scale = #frac - (tonumber(exp) or 0)
+    if scale < 0 then
+        digits = digits .. string.rep('0', -scale)
+        scale = 0
+    end
+    digits = string.match(digits, '^0*(%d-)$')
+    if #digits > MAX_DIGITS or scale > MAX_DIGITS then
+        return nil
+    end
+    local unscaled = tonumber(digits) or 0
+    if sign == '-' then
+        unscaled = -unscaled
+    end
+    return unscaled, scale
+end
+
+local function format_decimal(unscaled, scale)
+    local digits = string.format('%.0f', math.abs(unscaled))
+    if scale > 0 then
+        if #digits <= scale then
+            digits = string.rep('0', scale - #digits + 1) .. digits
+        end
+        digits = string.sub(digits, 1, #digits - scale) .. '.' .. string.sub(digits, -scale)
+    end
+    if unscaled < 0 then
+        digits = '-' .. digits
+    end
+    return digits
+end
+
+-- Ölçeği scale olan tutarı targetScale basamaklı tam sayıya çevirir; fazla basamaklar BigDecimal HALF_UP gibi
+-- yuvarlanır. Bölme kalanı fmod ile alındığından sonuç tam sayı aritmetiğidir. Tam temsil edilemeyecekse nil.
+local function to_scaled(unscaled, scale, targetScale)
+    if scale <= targetScale then
+        local scaled = unscaled * 10 ^ (targetScale - scale)
+        if math.abs(scaled) > MAX_EXACT then
+            return nil
+        end
+        return scaled
+    end
+    local divisor = 10 ^ (scale - targetScale)
+    local remainder = math.fmod(unscaled, divisor)
+    local quotient = (unscaled - remainder) / divisor
+    if math.abs(remainder) * 2 >= divisor then
+        quotient = quotient + (unscaled < 0 and -1 or 1)
+    end
+    return quotient
+end
+
+-- Journal sırası: 'next' ise sayaç artırılır (yeni yazım), sayı ise sayaç o değere ilerletilir (replay),
+-- boş ise sayaca dokunulmaz ve 0 döner
+local function journal_sequence(key, arg)
+    if not arg or arg == '' then
+        return 0
+    end
+    if arg == 'next' then
+        return redis.call('INCR', key)
+    end
+    local sequence = tonumber(arg)
+    if (tonumber(redis.call('GET', key)) or 0) < sequence then
+        redis.call('SET', key, sequence)
+    end
+    return sequence
+end
+
+-- Ürünün shard sayacı (0 tabanlı index)
+local function shard_key(product, index)
+    return KEYS[layout[product][1] + index]
+end
+
+-- Shard'lardaki toplam stoku eşit dağıtır; kalan ilk shard'lara birer birer eklenir.
+-- Toplam değişmez, bu yüzden sonraki bir kontrol hata verse de geri alınması gerekmez.
+local function rebalance(product, shards)
+    local total = 0
+    for s = 0, shards - 1 do
+        total = total + (tonumber(redis.call('GET', shard_key(product, s))) or 0)
+    end
+    if total > 0 then
+        local base = math.floor(total / shards)
+        local remainder = total % shards
+        for s = 0, shards - 1 do
+            redis.call('SET', shard_key(product, s), base + (s < remainder and 1 or 0))
+        end
+    end
+    return total
+end
+
+-- Shard'lı ürün için stoku olan bir shard seçer, seçilen shard boşsa önce yeniden dağıtır
+local function pick_shard(product, shards, seed)
+    local key = shard_key(product, seed % shards)
+    if (tonumber(redis.call('GET', key)) or 0) > 0 then
+        return key
+    end
+    if rebalance(product, shards) <= 0 then
+        return nil
+    end
+    -- Dağıtımdan sonra toplam > 0 ise ilk shard her zaman en az 1 içerir
+    return shard_key(product, 0)
+end
+
+-- Müşteriyi kontrol et
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return {'ERR', 'CUSTOMER_NOT_FOUND', KEYS[1]}
+end
+
+-- Ürünleri ve stokları kontrol et (henüz hiçbir şey yazılmadı)
+local prices = {}
+local shardKeys = {}
+local leased = {}
+local scale = 0
+local seed = tonumber(ARGV[2])
+for i = FIRST_PRODUCT, LAST_PRODUCT do
+    local fields = redis.call('HMGET', KEYS[i], 'stock', 'price', 'stockShards')
+    if not fields[1] and not fields[2] and not fields[3] then
+        return {'ERR', 'PRODUCT_NOT_FOUND', KEYS[i]}
+    end
+    local shards = tonumber(fields[3]) or 0
+    -- Kiralanan birim, blok kiralanırken Redis'teki stoktan zaten düşülmüştü
+    leased[i] = string.sub(ARGV[7], i - FIRST_PRODUCT + 1, i - FIRST_PRODUCT + 1) == '1'
+    if leased[i] then
+        -- Stok kontrolü gerekmez
+    elseif shards ~= layout[i][2] then
+        return {'ERR', 'SHARDS_CHANGED', KEYS[i], tostring(shards)}
+    elseif shards > 0 then
+        shardKeys[i] = pick_shard(i, shards, seed + i)
+        if not shardKeys[i] then
+            return {'ERR', 'OUT_OF_STOCK', KEYS[i]}
+        end
+    elseif (tonumber(fields[1]) or 0) <= 0 then
+        return {'ERR', 'OUT_OF_STOCK', KEYS[i]}
+    end
+    local unscaled, priceScale = parse_decimal(fields[2] or '0')
+    if not unscaled then
+        return {'ERR', 'INVALID_PRICE', KEYS[i]}
+    end
+    prices[#prices + 1] = {unscaled, priceScale}
+    if priceScale > scale then
+        scale = priceScale
+    end
+end
+
+-- Toplam tutar, en büyük fiyat ölçeğinde tam sayı olarak (henüz hiçbir şey yazılmadı)
+local total = 0
+for _, price in ipairs(prices) do
+    local amount = to_scaled(price[1], price[2], scale)
+    if not amount or math.abs(total + amount) > MAX_EXACT then
+        return {'ERR', 'AMOUNT_TOO_LARGE', KEYS[2]}
+    end
+    total = total + amount
+end
+local totalAmount = format_decimal(total, scale)
+local revenue = nil
+if global and ARGV[6] ~= '' then
+    revenue = to_scaled(total, scale, tonumber(ARGV[6]))
+    if not revenue then
+        return {'ERR', 'AMOUNT_TOO_LARGE', KEYS[2]}
+    end
+end
+
+-- Stok düş
+for i = FIRST_PRODUCT, LAST_PRODUCT do
+    if shardKeys[i] then
+        redis.call('DECR', shardKeys[i])
+    elseif not leased[i] then
+        redis.call('HINCRBY', KEYS[i], 'stock', -1)
+        -- Hash'teki stok değişti; iyimser güncelleme yapan okuyucular çakışmayı sürümden anlar
+        redis.call('HINCRBY', KEYS[i], 'version', 1)
+    end
+end
+
+-- Siparişi kaydet
+local fieldCount = tonumber(ARGV[4])
+local orderFields = {}
+for i = FIRST_FIELD, FIRST_FIELD - 1 + 2 * fieldCount do
+    orderFields[#orderFields + 1] = ARGV[i]
+end
+orderFields[#orderFields + 1] = 'totalAmount'
+orderFields[#orderFields + 1] = totalAmount
+redis.call('HSET', KEYS[2], unpack(orderFields))
+
+-- Müşterinin sipariş geçmişine ekle; müşteri hash'i yeniden yazılmaz, maliyet sipariş sayısından bağımsızdır
+redis.call('RPUSH', KEYS[3], ARGV[1])
+
+-- İkincil indexler; maliyetleri sunucu saatiyle ölçülüp metriğe yazılmak üzere döner
+local started = redis.call('TIME')
+redis.call('ZADD', KEYS[4], ARGV[3], ARGV[1])
+if global then
+    redis.call('SADD', KEYS[global.orders], ARGV[1])
+    redis.call('ZADD', KEYS[global.byDate], ARGV[3], ARGV[1])
+    redis.call('ZADD', KEYS[global.byAmount], totalAmount, ARGV[1])
+end
+local finished = redis.call('TIME')
+local indexMicros = (finished[1] - started[1]) * 1000000 + (finished[2] - started[2])
+
+-- Satış özetleri: tutarlar ölçekli tam sayı olarak toplanır, her ürün siparişte bir adettir.
+-- Özetler yeniden hesaplanıyorsa kesimden sonraki siparişler ayrıca sayılır; hesaplama bunları atlar ve
+-- sonunda bu sayaçları kendi toplamına ekler (replace-aggregates.lua).
+local customerId = string.sub(KEYS[1], string.len('customer:') + 1)
+if revenue then
+    local targets = {{KEYS[global.sales], KEYS[global.productsSold]}}
+    local cutoff = redis.call('GET', KEYS[global.cutoff])
+    if cutoff and tonumber(ARGV[3]) >= tonumber(cutoff) then
+        targets[2] = {KEYS[global.backfillSales], KEYS[global.backfillProductsSold]}
+    end
+    for _, target in ipairs(targets) do
+        redis.call('HINCRBY', target[1], 'revenue', string.format('%.0f', revenue))
+        redis.call('HINCRBY', target[1], 'orders', 1)
+        redis.call('HINCRBY', target[1], 'units', LAST_PRODUCT - FIRST_PRODUCT + 1)
+        for i = FIRST_PRODUCT, LAST_PRODUCT do
+            redis.call('ZINCRBY', target[2], 1, string.sub(KEYS[i], string.len('product:') + 1))
+        end
+    end
+    redis.call('PFADD', KEYS[global.buyersByDay], customerId)
+    redis.call('PFADD', KEYS[global.buyers], customerId)
+end
+
+-- Olay: alıcıların sipariş hash'ini okumadan işleyebileceği kadar özet
+if global and ARGV[5] ~= '' then
+    local productIds = {}
+    for i = FIRST_PRODUCT, LAST_PRODUCT do
+        productIds[#productIds + 1] = string.sub(KEYS[i], string.len('product:') + 1)
+    end
+    local event = {'XADD', KEYS[global.stream]}
+    if tonumber(ARGV[5]) > 0 then
+        event = {'XADD', KEYS[global.stream], 'MAXLEN', '~', ARGV[5]}
+    end
+    local fields = {'*', 'type', 'order.created', 'order', ARGV[1],
+                    'customer', customerId,
+                    'amount', totalAmount, 'products', table.concat(productIds, ','), 'at', ARGV[3]}
+    for _, value in ipairs(fields) do
+        event[#event + 1] = value
+    end
+    redis.call(unpack(event))
+end
+
+return {'OK', totalAmount, indexMicros, journal_sequence(KEYS[#KEYS], ARGV[9])}
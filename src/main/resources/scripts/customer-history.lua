@@ -0,0 +1,18 @@
+-- Cluster checkout (saga) adımı: siparişi müşterinin geçmişine ve müşteri index'ine ekler
+--
+-- KEYS[1]      customer:<id>
+-- KEYS[2]      {customer:<id>}:order-log
+-- KEYS[3]      idx:{customer:<id>}:orders
+-- ARGV[1]      sipariş ID
+-- ARGV[2]      sipariş tarihi (epoch ms)
+--
+-- Üç anahtar aynı hash tag'i taşıdığı için cluster'da tek slot'tadır; müşteri arada silindiyse yazılmaz.
+--
+-- Dönüş: {'OK'} veya {'ERR', 'CUSTOMER_NOT_FOUND', anahtar}
+
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return {'ERR', 'CUSTOMER_NOT_FOUND', KEYS[1]}
+end
+redis.call('RPUSH', KEYS[2], ARGV[1])
+redis.call('ZADD', KEYS[3], ARGV[2], ARGV[1])
+return {'OK'}
@@ -0,0 +1,94 @@
+-- Stok kiralama scripti: node'un yerel sayacı için stoktan blok ayırır ve kirasını yeniler
+--
+-- KEYS[1]      product:<id>
+-- KEYS[2]      stock:{product:<id>}:leases
+-- KEYS[3..]    stock:{product:<id>}:<i> (bilinen shard sayısı kadar; shard'sız üründe yok)
+-- ARGV[1]      node ID
+-- ARGV[2]      istenen ek birim (0 ise sadece yenileme)
+-- ARGV[3]      node'da kalan birim (bildirim)
+-- ARGV[4]      kira süresi (ms)
+-- ARGV[5]      '1' ise node bu ürün için geçerli bir kirası olduğunu varsayar (yenileme), '0' ise yeni kira
+--
+-- Kiralar KEYS[2] hash'inde node başına '<kalan>:<bitişMs>' olarak tutulur. Verilen shard anahtarı sayısı hash'teki
+-- stockShards'tan farklıysa hiçbir şey yazılmaz, SHARDS_CHANGED döner.
+-- Önce süresi dolmuş kiralar (yenilenmeyen, ör. çöken node) geri alınır: son bildirilen kalan stoka eklenir.
+-- Yenilemede node'un kaydı yoksa (süresi dolup geri alındı ya da stok mutlak olarak yeniden yazıldı) REVOKED
+-- döner; node elindeki birimleri bırakır, stoka eklemez.
+-- Ayrılan birimler stoktan düşülür (shard'lı üründe shard'lardan), shard'sız üründe version artar.
+--
+-- Dönüş: {'OK', ayrılan, geriAlınan}, {'REVOKED', geriAlınan}, {'ERR', 'SHARDS_CHANGED', anahtar, shardSayısı}
+--        veya {'ERR', hataKodu, anahtar}
+
+local FIRST_SHARD = 3
+
+local function add_stock(productKey, shards, units)
+    if units <= 0 then
+        return
+    end
+    if shards > 0 then
+        -- Checkout boş shard'a denk gelirse yeniden dağıtır
+        redis.call('INCRBY', KEYS[FIRST_SHARD], units)
+    else
+        redis.call('HINCRBY', productKey, 'stock', units)
+        redis.call('HINCRBY', productKey, 'version', 1)
+    end
+end
+
+local function take_stock(productKey, shards, requested)
+    if requested <= 0 then
+        return 0
+    end
+    local taken = 0
+    if shards > 0 then
+        for s = 0, shards - 1 do
+            local available = tonumber(redis.call('GET', KEYS[FIRST_SHARD + s])) or 0
+            local units = math.min(available, requested - taken)
+            if units > 0 then
+                redis.call('DECRBY', KEYS[FIRST_SHARD + s], units)
+                taken = taken + units
+            end
+            if taken >= requested then
+                break
+            end
+        end
+        return taken
+    end
+    local available = tonumber(redis.call('HGET', productKey, 'stock')) or 0
+    taken = math.max(0, math.min(available, requested))
+    if taken > 0 then
+        redis.call('HINCRBY', productKey, 'stock', -taken)
+        redis.call('HINCRBY', productKey, 'version', 1)
+    end
+    return taken
+end
+
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return {'ERR', 'PRODUCT_NOT_FOUND', KEYS[1]}
+end
+
+local leasesKey = KEYS[2]
+local shards = tonumber(redis.call('HGET', KEYS[1], 'stockShards')) or 0
+if shards ~= #KEYS - FIRST_SHARD + 1 then
+    return {'ERR', 'SHARDS_CHANGED', KEYS[1], tostring(shards)}
+end
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local reclaimed = 0
+local leases = redis.call('HGETALL', leasesKey)
+for i = 1, #leases, 2 do
+    local remaining, expires = string.match(leases[i + 1], '^(%d+):(%d+)$')
+    if not expires or tonumber(expires) <= now then
+        reclaimed = reclaimed + (tonumber(remaining) or 0)
+        redis.call('HDEL', leasesKey, leases[i])
+    end
+end
+add_stock(KEYS[1], shards, reclaimed)
+
+if ARGV[5] == '1' and redis.call('HEXISTS', leasesKey, ARGV[1]) == 0 then
+    return {'REVOKED', reclaimed}
+end
+
+local granted = take_stock(KEYS[1], shards, tonumber(ARGV[2]))
+redis.call('HSET', leasesKey, ARGV[1], (tonumber(ARGV[3]) + granted) .. ':' .. (now + tonumber(ARGV[4])))
+return {'OK', granted, reclaimed}
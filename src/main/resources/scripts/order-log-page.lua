@@ -0,0 +1,17 @@
+-- Müşteri sipariş geçmişi sayfası
+--
+-- KEYS[1]      customer:<id>
+-- KEYS[2]      {customer:<id>}:order-log
+-- ARGV[1]      başlangıç pozisyonu (LRANGE)
+-- ARGV[2]      bitiş pozisyonu (LRANGE)
+--
+-- Uzunluk ve aralık aynı anda okunur, böylece cursor hesabı eşzamanlı eklemelerden etkilenmez.
+-- İki anahtar aynı hash tag'i taşıdığı için cluster'da da çalışır (MULTI cluster'da desteklenmez).
+--
+-- Dönüş: {müşteriVarMı, uzunluk, sipariş ID'leri}
+
+return {
+    redis.call('EXISTS', KEYS[1]),
+    redis.call('LLEN', KEYS[2]),
+    redis.call('LRANGE', KEYS[2], ARGV[1], ARGV[2])
+}
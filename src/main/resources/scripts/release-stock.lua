@@ -0,0 +1,30 @@
+-- Ayrılan stok birimini geri verir: saga telafisi (reserve-stock.lua) ve kapanmış stok kirasına dönemeyen birim
+--
+-- KEYS[1]      product:<id>
+-- KEYS[2..]    stock:{product:<id>}:<i> (bilinen shard sayısı kadar; shard'sız üründe yok)
+-- ARGV[1]      ayırmada düşülen shard (-1: hash'teki stock alanı)
+--
+-- Arada shard sayısı değiştiyse stok mevcut düzene eklenir (shard'lıysa ilk shard'a, değilse hash'e); verilen
+-- shard anahtarı sayısı mevcut düzene uymuyorsa hiçbir şey yazılmaz, SHARDS_CHANGED döner.
+-- Ürün silinmişse hiçbir şey yapılmaz.
+--
+-- Dönüş: {'OK', 1} (geri verildi), {'OK', 0} (ürün yok) veya {'ERR', 'SHARDS_CHANGED', anahtar, shardSayısı}
+
+local FIRST_SHARD = 2
+
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return {'OK', 0}
+end
+
+local shards = tonumber(redis.call('HGET', KEYS[1], 'stockShards')) or 0
+if shards ~= #KEYS - FIRST_SHARD + 1 then
+    return {'ERR', 'SHARDS_CHANGED', KEYS[1], tostring(shards)}
+end
+local index = tonumber(ARGV[1])
+if shards > 0 then
+    redis.call('INCR', KEYS[FIRST_SHARD + ((index >= 0 and index < shards) and index or 0)])
+else
+    redis.call('HINCRBY', KEYS[1], 'stock', 1)
+    redis.call('HINCRBY', KEYS[1], 'version', 1)
+end
+return {'OK', 1}
@@ -0,0 +1,62 @@
+-- Satış özetlerini yeniden hesaplanan değerlerle değiştirir (AggregateBackfill)
+--
+-- KEYS[1]      agg:backfill:cutoff
+-- KEYS[2]      agg:products:sold
+-- KEYS[3]      agg:backfill:products:sold
+-- KEYS[4..n]   gün başına çift: agg:sales:<gün>, agg:backfill:sales:<gün>
+--
+-- ARGV[1]      kesim zamanı (epoch ms), begin-backfill.lua'ya verilen
+-- ARGV[2]      ürün sayısı (p)
+-- ARGV[3..]    p adet ürün ID/adet çifti, ardından gün çiftleri sırasıyla revenue, orders, units
+--
+-- Hesaplanan değerler kesimden önceki siparişlerin toplamıdır; kesimden sonraki siparişleri checkout ayrı
+-- sayaçlara yazmıştır. Sonuç ikisinin toplamıdır, aradaki siparişler kaybolmaz ya da iki kez sayılmaz.
+--
+-- Dönüş: 1 yazıldı, 0 kesim anahtarının süresi dolmuş (kesimden sonraki sayım eksik olabilir, hiçbir şey yazılmaz)
+
+if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+    return 0
+end
+
+-- ZADD argümanları parça parça verilir (unpack Lua yığınıyla sınırlı)
+local CHUNK = 1000
+local FIELDS = {'revenue', 'orders', 'units'}
+
+redis.call('DEL', KEYS[2])
+local products = tonumber(ARGV[2])
+local members = {}
+for i = 0, products - 1 do
+    members[#members + 1] = ARGV[4 + 2 * i]
+    members[#members + 1] = ARGV[3 + 2 * i]
+    if #members >= 2 * CHUNK then
+        redis.call('ZADD', KEYS[2], unpack(members))
+        members = {}
+    end
+end
+if #members > 0 then
+    redis.call('ZADD', KEYS[2], unpack(members))
+end
+redis.call('ZUNIONSTORE', KEYS[2], 2, KEYS[2], KEYS[3])
+redis.call('DEL', KEYS[3])
+
+-- Kesimden sonraki sayaçlar HINCRBY ile eklenir (tam sayı toplamı Redis'te, Lua sayılarına çevrilmeden)
+local offset = 3 + 2 * products
+for k = 4, #KEYS, 2 do
+    local base = offset + (k - 4) / 2 * 3
+    local after = redis.call('HMGET', KEYS[k + 1], unpack(FIELDS))
+    if ARGV[base + 1] == '0' and not after[2] then
+        -- Siparişi kalmamış gün
+        redis.call('DEL', KEYS[k])
+    else
+        redis.call('HSET', KEYS[k], FIELDS[1], ARGV[base], FIELDS[2], ARGV[base + 1], FIELDS[3], ARGV[base + 2])
+        for f = 1, #FIELDS do
+            if after[f] then
+                redis.call('HINCRBY', KEYS[k], FIELDS[f], after[f])
+            end
+        end
+    end
+    redis.call('DEL', KEYS[k + 1])
+end
+
+redis.call('DEL', KEYS[1])
+return 1
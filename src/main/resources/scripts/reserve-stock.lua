@@ -0,0 +1,67 @@
+-- Cluster checkout (saga) adımı: tek ürün için stok ayırma
+--
+-- KEYS[1]      product:<id>
+-- KEYS[2..]    stock:{product:<id>}:<i> (bilinen shard sayısı kadar; shard'sız üründe yok)
+-- ARGV[1]      shard seçimi için rastgele sayı
+-- ARGV[2]      '1' ise birim node'un stok kirasından ayrıldı; sadece ürün ve fiyat kontrol edilir
+--
+-- checkout.lua'daki ürün kontrolü ve stok düşümünün tek ürünlük hali. Shard sayaçları ürün anahtarını
+-- hash tag olarak taşıdığı için script tek slot'ta çalışır. Verilen shard anahtarı sayısı hash'teki
+-- stockShards'tan farklıysa hiçbir şey yazılmaz, SHARDS_CHANGED ve gerçek sayı döner.
+--
+-- Dönüş: {'OK', fiyat, shardIndex} (shard'sız üründe shardIndex -1, kiradan ayrıldıysa -2),
+--        {'ERR', 'SHARDS_CHANGED', anahtar, shardSayısı} veya {'ERR', hataKodu, anahtar}
+
+local FIRST_SHARD = 2
+
+local function rebalance(shards)
+    local total = 0
+    for s = 0, shards - 1 do
+        total = total + (tonumber(redis.call('GET', KEYS[FIRST_SHARD + s])) or 0)
+    end
+    if total > 0 then
+        local base = math.floor(total / shards)
+        local remainder = total % shards
+        for s = 0, shards - 1 do
+            redis.call('SET', KEYS[FIRST_SHARD + s], base + (s < remainder and 1 or 0))
+        end
+    end
+    return total
+end
+
+local fields = redis.call('HMGET', KEYS[1], 'stock', 'price', 'stockShards')
+if not fields[1] and not fields[2] and not fields[3] then
+    return {'ERR', 'PRODUCT_NOT_FOUND', KEYS[1]}
+end
+-- Fiyatın sayı olup olmadığı çağıran tarafta BigDecimal ile kontrol edilir
+if not fields[2] then
+    return {'ERR', 'INVALID_PRICE', KEYS[1]}
+end
+
+if ARGV[2] == '1' then
+    return {'OK', fields[2], -2}
+end
+
+local shards = tonumber(fields[3]) or 0
+if shards ~= #KEYS - FIRST_SHARD + 1 then
+    return {'ERR', 'SHARDS_CHANGED', KEYS[1], tostring(shards)}
+end
+if shards > 0 then
+    local index = tonumber(ARGV[1]) % shards
+    if (tonumber(redis.call('GET', KEYS[FIRST_SHARD + index])) or 0) <= 0 then
+        if rebalance(shards) <= 0 then
+            return {'ERR', 'OUT_OF_STOCK', KEYS[1]}
+        end
+        -- Dağıtımdan sonra toplam > 0 ise ilk shard her zaman en az 1 içerir
+        index = 0
+    end
+    redis.call('DECR', KEYS[FIRST_SHARD + index])
+    return {'OK', fields[2], index}
+end
+
+if (tonumber(fields[1]) or 0) <= 0 then
+    return {'ERR', 'OUT_OF_STOCK', KEYS[1]}
+end
+redis.call('HINCRBY', KEYS[1], 'stock', -1)
+redis.call('HINCRBY', KEYS[1], 'version', 1)
+return {'OK', fields[2], -1}
@@ -0,0 +1,69 @@
+-- Stok shard sayısını değiştirme scripti
+--
+-- KEYS[1]      product:<id>
+-- KEYS[2..]    mevcut shard sayaçları (ARGV[2] kadar), ardından yeni shard sayaçları (ARGV[1] kadar):
+--              stock:{product:<id>}:<i>, son olarak journal:sequence (sadece ARGV[3] boş değilse)
+-- ARGV[1]      yeni shard sayısı (0: shard'sız, stok hash'teki stock alanına döner)
+-- ARGV[2]      bilinen mevcut shard sayısı
+-- ARGV[3]      journal sırası: 'next' (yeni yazım), replay edilen kaydın sırası ya da boş
+--
+-- Mevcut toplam stok (hash'teki alan ya da eski shard'ların toplamı) okunur, eski sayaçlar silinir
+-- ve toplam yeni düzene eşit dağıtılır. Aynı shard sayısı ile çağrılması shard'ları yeniden dengeler.
+-- Stok düzeni değiştiği için hash'teki version alanı 1 artırılır. Bilinen mevcut shard sayısı hash'teki
+-- stockShards'tan farklıysa hiçbir şey yazılmaz, SHARDS_CHANGED döner.
+--
+-- Dönüş: {'OK', toplamStok, yeniSürüm, journalSırası}, {'ERR', 'SHARDS_CHANGED', anahtar, shardSayısı}
+--        veya {'ERR', hataKodu, anahtar}
+
+local FIRST_SHARD = 2
+
+-- Journal sırası: 'next' ise sayaç artırılır (yeni yazım), sayı ise sayaç o değere ilerletilir (replay),
+-- boş ise sayaca dokunulmaz ve 0 döner
+local function journal_sequence(key, arg)
+    if not arg or arg == '' then
+        return 0
+    end
+    if arg == 'next' then
+        return redis.call('INCR', key)
+    end
+    local sequence = tonumber(arg)
+    if (tonumber(redis.call('GET', key)) or 0) < sequence then
+        redis.call('SET', key, sequence)
+    end
+    return sequence
+end
+
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return {'ERR', 'PRODUCT_NOT_FOUND', KEYS[1]}
+end
+
+local current = tonumber(redis.call('HGET', KEYS[1], 'stockShards')) or 0
+if current ~= tonumber(ARGV[2]) then
+    return {'ERR', 'SHARDS_CHANGED', KEYS[1], tostring(current)}
+end
+local total = 0
+if current > 0 then
+    for s = 0, current - 1 do
+        total = total + (tonumber(redis.call('GET', KEYS[FIRST_SHARD + s])) or 0)
+        redis.call('DEL', KEYS[FIRST_SHARD + s])
+    end
+else
+    total = tonumber(redis.call('HGET', KEYS[1], 'stock')) or 0
+end
+
+local shards = tonumber(ARGV[1])
+if shards > 0 then
+    local base = math.floor(total / shards)
+    local remainder = total % shards
+    for s = 0, shards - 1 do
+        redis.call('SET', KEYS[FIRST_SHARD + current + s], base + (s < remainder and 1 or 0))
+    end
+    redis.call('HSET', KEYS[1], 'stockShards', shards)
+    redis.call('HDEL', KEYS[1], 'stock')
+else
+    redis.call('HDEL', KEYS[1], 'stockShards')
+    redis.call('HSET', KEYS[1], 'stock', total)
+end
+local newVersion = redis.call('HINCRBY', KEYS[1], 'version', 1)
+
+return {'OK', tostring(total), tostring(newVersion), journal_sequence(KEYS[#KEYS], ARGV[3])}
@@ -0,0 +1,39 @@
+-- Stok kirasını iade eder: node'da kalan birimler stoka eklenir, kira kaydı silinir
+--
+-- KEYS[1]      product:<id>
+-- KEYS[2]      stock:{product:<id>}:leases
+-- KEYS[3..]    stock:{product:<id>}:<i> (bilinen shard sayısı kadar; shard'sız üründe yok)
+-- ARGV[1]      node ID
+-- ARGV[2]      node'da kalan birim
+--
+-- Kayıt yoksa birimler zaten geri alınmıştır (kira süresi doldu) ya da stok mutlak olarak yeniden yazılmıştır;
+-- hiçbir şey eklenmez. Süresi dolmuş ama henüz geri alınmamış kayıtta node'un bildirdiği güncel kalan eklenir.
+-- Ürün silinmişse kira kayıtları da silinir. Verilen shard anahtarı sayısı hash'teki stockShards'tan farklıysa
+-- hiçbir şey yazılmaz, SHARDS_CHANGED döner.
+--
+-- Dönüş: {'OK', eklenen}, {'REVOKED', 0} veya {'ERR', 'SHARDS_CHANGED', anahtar, shardSayısı}
+
+local FIRST_SHARD = 3
+
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    redis.call('DEL', KEYS[2])
+    return {'REVOKED', 0}
+end
+local shards = tonumber(redis.call('HGET', KEYS[1], 'stockShards')) or 0
+if shards ~= #KEYS - FIRST_SHARD + 1 then
+    return {'ERR', 'SHARDS_CHANGED', KEYS[1], tostring(shards)}
+end
+if redis.call('HDEL', KEYS[2], ARGV[1]) == 0 then
+    return {'REVOKED', 0}
+end
+
+local units = tonumber(ARGV[2])
+if units > 0 then
+    if shards > 0 then
+        redis.call('INCRBY', KEYS[FIRST_SHARD], units)
+    else
+        redis.call('HINCRBY', KEYS[1], 'stock', units)
+        redis.call('HINCRBY', KEYS[1], 'version', 1)
+    end
+end
+return {'OK', units}
@@ -0,0 +1,121 @@
+-- Stok güncelleme scripti
+--
+-- KEYS[1]      product:<id>
+-- KEYS[2]      stock:{product:<id>}:leases
+-- KEYS[3..]    stock:{product:<id>}:<i> (bilinen shard sayısı kadar, ARGV[6])
+-- KEYS[..]     events:stock:<p> (olay stream'i, bölüm üründen seçilir; sadece olay yazılıyorsa)
+-- KEYS[..]     journal:sequence (olay stream'inden sonra; sadece ARGV[7] boş değilse)
+-- ARGV[1]      yeni stok
+-- ARGV[2]      beklenen sürüm (boş olabilir; verilirse koşullu güncelleme)
+-- ARGV[3]      beklenen toplam stok (boş olabilir; sadece shard'lı ürünlerde kontrol edilir)
+-- ARGV[4]      olay stream'i MAXLEN (~); boş ise olay yazılmaz, 0 ise kırpılmaz
+-- ARGV[5]      '1' ise node'ların stok kiraları iptal edilir (mutlak stok yazımı)
+-- ARGV[6]      KEYS'teki shard anahtarı sayısı
+-- ARGV[7]      journal sırası: 'next' (yeni yazım), replay edilen kaydın sırası ya da boş
+-- ARGV[8]      beklenen kiralanmış birim toplamı (boş olabilir; verilirse kira kayıtlarındaki kalanların
+--              toplamı da kontrol edilir)
+--
+-- Shard'lı üründe yeni stok shard'lara eşit dağıtılır, değilse hash'teki stock alanı yazılır.
+-- Hash'in tamamı yeniden yazılmadığı için eşzamanlı checkout'ların stok düşümleri kaybolmaz.
+-- Her başarılı yazım hash'teki version alanını 1 artırır. Koşullu güncellemede sürüm (ve shard'lı üründe
+-- toplam stok) beklenenle aynı değilse hiçbir şey yazılmaz. Shard'lı üründe checkout sadece shard
+-- sayaçlarını düştüğü için sürüm değişmez; okunan toplam stokun hâlâ geçerli olduğu ayrıca kontrol edilir.
+-- Başarılı yazım stock.updated olayını ve journal sırasını aynı atomik adımda yazar.
+-- Verilen shard anahtarı sayısı hash'teki stockShards'tan farklıysa hiçbir şey yazılmaz, SHARDS_CHANGED döner.
+-- Mutlak yazımda kira kayıtları (KEYS[2]) silinir: yeni stok kiralanmış birimleri de kapsar,
+-- node'lar bir sonraki yenilemede kiralarını bırakır (lease-stock.lua REVOKED). Kiralar korunuyorsa (delta
+-- ayarlaması) yeni stok sadece Redis'teki birimlerdir.
+-- Dönen, olaya ve journal'a yazılan stok ürünün toplam stokudur: Redis'teki birimler artı korunan kiralardaki
+-- kalanlar (StockShardReader ile aynı kural).
+--
+-- Dönüş: {'OK', toplamStok, yeniSürüm, journalSırası}, {'CONFLICT', mevcutSürüm, mevcutStok},
+--        {'ERR', 'SHARDS_CHANGED', anahtar, shardSayısı} veya {'ERR', hataKodu, anahtar}
+
+local FIRST_SHARD = 3
+local shardKeys = tonumber(ARGV[6]) or 0
+local streamKey = KEYS[FIRST_SHARD + shardKeys]
+local sequenceKey = KEYS[FIRST_SHARD + shardKeys + 1]
+
+-- Journal sırası: 'next' ise sayaç artırılır (yeni yazım), sayı ise sayaç o değere ilerletilir (replay),
+-- boş ise sayaca dokunulmaz ve 0 döner
+local function journal_sequence(key, arg)
+    if not arg or arg == '' then
+        return 0
+    end
+    if arg == 'next' then
+        return redis.call('INCR', key)
+    end
+    local sequence = tonumber(arg)
+    if (tonumber(redis.call('GET', key)) or 0) < sequence then
+        redis.call('SET', key, sequence)
+    end
+    return sequence
+end
+
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return {'ERR', 'PRODUCT_NOT_FOUND', KEYS[1]}
+end
+
+local fields = redis.call('HMGET', KEYS[1], 'stockShards', 'version', 'stock')
+local shards = tonumber(fields[1]) or 0
+local version = tonumber(fields[2]) or 0
+if shards ~= shardKeys then
+    return {'ERR', 'SHARDS_CHANGED', KEYS[1], tostring(shards)}
+end
+
+-- Kira değerleri '<kalan>:<bitişMs>'; süresi dolmuş kiranın kalanı da stoka döneceği için sayılır
+local leased = 0
+local leases = redis.call('HVALS', KEYS[2])
+for _, lease in ipairs(leases) do
+    leased = leased + (tonumber(string.match(lease, '^(%d+)')) or 0)
+end
+
+if ARGV[2] and ARGV[2] ~= '' then
+    local current = tonumber(fields[3]) or 0
+    if shards > 0 then
+        current = 0
+        for s = 0, shards - 1 do
+            current = current + (tonumber(redis.call('GET', KEYS[FIRST_SHARD + s])) or 0)
+        end
+    end
+    local expectedStock = ARGV[3] and ARGV[3] ~= '' and tonumber(ARGV[3])
+    local expectedLeased = ARGV[8] and ARGV[8] ~= '' and tonumber(ARGV[8])
+    if version ~= tonumber(ARGV[2]) or (shards > 0 and expectedStock and current ~= expectedStock)
+            or (expectedLeased and leased ~= expectedLeased) then
+        return {'CONFLICT', tostring(version), tostring(current)}
+    end
+end
+
+local stock = tonumber(ARGV[1])
+if shards > 0 then
+    local base = math.floor(stock / shards)
+    local remainder = stock % shards
+    for s = 0, shards - 1 do
+        redis.call('SET', KEYS[FIRST_SHARD + s], base + (s < remainder and 1 or 0))
+    end
+else
+    redis.call('HSET', KEYS[1], 'stock', stock)
+end
+
+local total = stock + leased
+if ARGV[5] == '1' then
+    redis.call('DEL', KEYS[2])
+    total = stock
+end
+
+local newVersion = redis.call('HINCRBY', KEYS[1], 'version', 1)
+
+if streamKey and ARGV[4] and ARGV[4] ~= '' then
+    local event = {'XADD', streamKey}
+    if tonumber(ARGV[4]) > 0 then
+        event = {'XADD', streamKey, 'MAXLEN', '~', ARGV[4]}
+    end
+    local fields = {'*', 'type', 'stock.updated', 'product', string.sub(KEYS[1], string.len('product:') + 1),
+                    'stock', tostring(total), 'version', tostring(newVersion)}
+    for _, value in ipairs(fields) do
+        event[#event + 1] = value
+    end
+    redis.call(unpack(event))
+end
+
+return {'OK', tostring(total), tostring(newVersion), journal_sequence(sequenceKey, ARGV[7])}
@@ -0,0 +1,39 @@
+package org.fsk.redisasdatabase;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+// Redis'e yazan testlerin ortak kurulumu: uygulama localhost Redis'in sadece testlere ayrılmış veritabanına
+// bağlanır, veritabanı her testten önce ve sonra boşaltılır (FLUSHDB). Testler paylaşılan anahtarlara
+// (journal:sequence, events:*, agg:* ...) dokunmaz, yazdıkları her şey silinir.
+// Alt sınıfın @SpringBootTest özellikleri bu özellikle birleşir.
+@TestPropertySource(properties = "spring.data.redis.database=" + IsolatedRedisTest.DATABASE)
+public abstract class IsolatedRedisTest {
+
+    public static final int DATABASE = 15;
+
+    @Autowired
+    protected StringRedisTemplate stringRedisTemplate;
+
+    @BeforeEach
+    void flushBefore() {
+        flush();
+    }
+
+    @AfterEach
+    void flushAfter() {
+        flush();
+    }
+
+    // Test ortasında boş store gerektiğinde de çağrılır
+    protected void flush() {
+        stringRedisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushDb();
+            return null;
+        });
+    }
+}
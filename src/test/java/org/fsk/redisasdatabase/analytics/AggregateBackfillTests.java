@@ -0,0 +1,107 @@
+package org.fsk.redisasdatabase.analytics;
+
+import org.fsk.redisasdatabase.IsolatedRedisTest;
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.dtos.AggregateBackfillReport;
+import org.fsk.redisasdatabase.dtos.SalesSummary;
+import org.fsk.redisasdatabase.mappers.EntityHashMapper;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.services.CustomerService;
+import org.fsk.redisasdatabase.services.OrderService;
+import org.fsk.redisasdatabase.services.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+// Satış özetleri siparişlerden yeniden hesaplanır: bozuk sayaçlar düzelir, özellikten önceki siparişler sayılır,
+// hesaplama sırasında (kesimden sonra) gelen sipariş kaybolmaz. Küçük batch ile iş ForkJoin'de bölünür.
+@SpringBootTest(properties = {"app.analytics.backfill.batch-size=2", "app.analytics.backfill.settle=2s"})
+class AggregateBackfillTests extends IsolatedRedisTest {
+
+    @Autowired
+    private AggregateBackfill aggregateBackfill;
+    @Autowired
+    private SalesAggregates salesAggregates;
+    @Autowired
+    private EntityHashMapper entityHashMapper;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void backfillRebuildsAggregatesWithoutLosingConcurrentOrders() throws Exception {
+        String customerId = customerService.saveCustomer(new Customer(null, "Ali", "ali@example.com", null)).getId();
+        String pen = productService.saveProduct(new Product(null, "Kalem", new BigDecimal("12.50"), 10, null, null,
+                null)).getId();
+        String book = productService.saveProduct(new Product(null, "Kitap", new BigDecimal("40.00"), 10, null, null,
+                null)).getId();
+        LocalDate today = orderService.createOrder(customerId, Set.of(pen, book)).getOrderDate().toLocalDate();
+        orderService.createOrder(customerId, Set.of(pen));
+        orderService.createOrder(customerId, Set.of(book));
+        LocalDate yesterday = today.minusDays(1);
+        legacyOrder(customerId, book, yesterday.atTime(12, 0));
+
+        // Bozuk sayaçlar
+        stringRedisTemplate.opsForHash().put(RedisKeys.salesByDay(today), "orders", "99");
+        stringRedisTemplate.opsForZSet().add(RedisKeys.PRODUCTS_SOLD, pen, 99);
+
+        CompletableFuture<AggregateBackfillReport> running = CompletableFuture.supplyAsync(aggregateBackfill::backfill);
+        await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> stringRedisTemplate.hasKey(RedisKeys.BACKFILL_CUTOFF));
+        long cutoff = Long.parseLong(stringRedisTemplate.opsForValue().get(RedisKeys.BACKFILL_CUTOFF));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> System.currentTimeMillis() > cutoff);
+        // Kesimden sonra, hesaplama settle süresince beklerken gelen sipariş
+        orderService.createOrder(customerId, Set.of(pen));
+        AggregateBackfillReport report = running.get(30, TimeUnit.SECONDS);
+
+        assertThat(report.guarded()).isTrue();
+        assertThat(report.scannedOrders()).isEqualTo(5);
+        assertThat(report.aggregatedOrders()).isEqualTo(4);
+        assertThat(report.days()).isEqualTo(2);
+        assertThat(stringRedisTemplate.hasKey(RedisKeys.BACKFILL_CUTOFF)).isFalse();
+
+        SalesSummary todaySales = salesAggregates.summary(today, today);
+        assertThat(todaySales.orders()).isEqualTo(4);
+        assertThat(todaySales.units()).isEqualTo(5);
+        assertThat(todaySales.revenue()).isEqualByComparingTo("117.50");
+        SalesSummary yesterdaySales = salesAggregates.summary(yesterday, yesterday);
+        assertThat(yesterdaySales.orders()).isEqualTo(1);
+        assertThat(yesterdaySales.revenue()).isEqualByComparingTo("40.00");
+        assertThat(salesAggregates.productSales(pen).units()).isEqualTo(3);
+        assertThat(salesAggregates.productSales(book).units()).isEqualTo(3);
+        assertThat(salesAggregates.uniqueBuyers()).isEqualTo(1);
+    }
+
+    // Özetlerden önce yazılmış sipariş: sadece hash'i ve order set'i üyeliği vardır
+    private void legacyOrder(String customerId, String productId, LocalDateTime orderDate) {
+        Customer customer = new Customer();
+        customer.setId(customerId);
+        Product product = new Product();
+        product.setId(productId);
+        Order order = new Order();
+        order.setId(RedisKeys.newOrderId(customerId));
+        order.setOrderDate(orderDate);
+        order.setCustomer(customer);
+        order.setProducts(Set.of(product));
+        order.setTotalAmount(new BigDecimal("40.00"));
+        Map<String, String> hash = entityHashMapper.toHash(order);
+        stringRedisTemplate.opsForHash().putAll(RedisKeys.order(order.getId()), hash);
+        stringRedisTemplate.opsForSet().add(RedisKeys.ORDER, order.getId());
+    }
+}
@@ -0,0 +1,111 @@
+package org.fsk.redisasdatabase.archive;
+
+import org.fsk.redisasdatabase.IsolatedRedisTest;
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.dtos.ArchiveReport;
+import org.fsk.redisasdatabase.dtos.CursorPage;
+import org.fsk.redisasdatabase.repositories.FetchPlan;
+import org.fsk.redisasdatabase.repositories.OrderRepositoryCustom;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.services.CustomerService;
+import org.fsk.redisasdatabase.services.OrderService;
+import org.fsk.redisasdatabase.services.ProductService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Arşivlenen siparişler Redis'ten silinir; ID ile okuma, tüm siparişler, cursor sayfaları ve index sorguları
+// Redis'te olmayanları arşivden okur. Küçük blok boyutu ile sayfalar birden fazla bloğa yayılır.
+@SpringBootTest(properties = {"app.archive.enabled=true", "app.archive.max-age=1ms", "app.archive.interval=0",
+        "app.archive.block-size=2"})
+class OrderArchiveTests extends IsolatedRedisTest {
+
+    @TempDir
+    static Path directory;
+
+    @DynamicPropertySource
+    static void archiveDirectory(DynamicPropertyRegistry registry) {
+        registry.add("app.archive.directory", directory::toString);
+    }
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void readsFallThroughToArchive() throws Exception {
+        String customerId = customerService.saveCustomer(new Customer(null, "Ali", "ali@example.com", null)).getId();
+        String pen = product("Kalem", "12.50");
+        String book = product("Kitap", "40.00");
+        String first = order(customerId, pen);
+        String second = order(customerId, book);
+        String third = order(customerId, pen, book);
+
+        Thread.sleep(5);
+        ArchiveReport report = orderArchiver.archive();
+        String hot = order(customerId, pen);
+
+        assertThat(report.archived()).isEqualTo(3);
+        assertThat(stringRedisTemplate.hasKey(RedisKeys.order(first))).isFalse();
+        assertThat(stringRedisTemplate.opsForSet().members(RedisKeys.ORDER)).containsExactly(hot);
+
+        Order archived = orderService.getOrderById(third, FetchPlan.of(OrderRepositoryCustom.CUSTOMER));
+        assertThat(archived.getTotalAmount()).isEqualByComparingTo("52.50");
+        assertThat(archived.getCustomer().getName()).isEqualTo("Ali");
+        assertThatThrownBy(() -> orderService.getOrderById(RedisKeys.newOrderId(customerId), FetchPlan.NONE))
+                .hasRootCauseMessage("Sipariş bulunamadı");
+
+        assertThat(ids(orderService.getAllOrders(FetchPlan.NONE)))
+                .containsExactlyInAnyOrder(first, second, third, hot);
+        assertThat(ids(orderService.getOrdersByDate(null, null, false, 0, 10)))
+                .containsExactly(first, second, third, hot);
+        assertThat(ids(orderService.getOrdersByDate(null, null, true, 1, 2))).containsExactly(third, second);
+        assertThat(ids(orderService.getOrdersByAmount(new BigDecimal("40"), null, true, 0, 10)))
+                .containsExactly(third, second);
+        assertThat(ids(orderService.getCustomerOrders(customerId, null, null, true, 0, 2)))
+                .containsExactly(hot, third);
+
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<Order> page = orderService.getOrdersPage(cursor, 1);
+            paged.addAll(ids(page.items()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertThat(paged).containsExactlyInAnyOrder(first, second, third, hot);
+    }
+
+    // Tarih index'inde sıra belli olsun diye siparişler farklı milisaniyelerde oluşturulur
+    private String order(String customerId, String... productIds) throws InterruptedException {
+        Thread.sleep(2);
+        return orderService.createOrder(customerId, Set.of(productIds)).getId();
+    }
+
+    private String product(String name, String price) {
+        return productService.saveProduct(new Product(null, name, new BigDecimal(price), 10, null, null, null))
+                .getId();
+    }
+
+    private static List<String> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).toList();
+    }
+}
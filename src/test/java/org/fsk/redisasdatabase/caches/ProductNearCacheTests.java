@@ -0,0 +1,88 @@
+package org.fsk.redisasdatabase.caches;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.fsk.redisasdatabase.IsolatedRedisTest;
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.services.CustomerService;
+import org.fsk.redisasdatabase.services.OrderService;
+import org.fsk.redisasdatabase.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+// Checkout shard'sız ürünün hash'ine yazdığı için girdiyi siler; shard'lı üründe stok sayaçlardan okunur, girdi kalır
+@SpringBootTest
+class ProductNearCacheTests extends IsolatedRedisTest {
+
+    @Autowired
+    private ProductNearCache productNearCache;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private String customerId;
+
+    @BeforeEach
+    void awaitTracking() throws InterruptedException {
+        // Önceki testin FLUSHDB'si cache'i boşaltır; tracking bağlantısı açık kalır
+        assertThat(productNearCache.awaitCoherent(Duration.ofSeconds(5))).isTrue();
+        customerId = customerService.saveCustomer(new Customer(null, "Ali", "ali@example.com", null)).getId();
+    }
+
+    @Test
+    void checkoutOfUnshardedProductInvalidatesEntry() {
+        String productId = product(null);
+        cache(productId);
+
+        orderService.createOrder(customerId, Set.of(productId));
+
+        // Girdi kalsaydı stok 10 okunurdu
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> productService.getProductById(productId).getStock() == 9);
+    }
+
+    @Test
+    void checkoutOfShardedProductKeepsEntry() {
+        String productId = product(4);
+        cache(productId);
+
+        orderService.createOrder(customerId, Set.of(productId));
+
+        double hits = hits();
+        assertThat(productService.getProductById(productId).getStock()).isEqualTo(9);
+        assertThat(hits()).isEqualTo(hits + 1);
+    }
+
+    private String product(Integer stockShards) {
+        return productService.saveProduct(new Product(null, "Kalem", new BigDecimal("12.50"), 10, stockShards, null,
+                null)).getId();
+    }
+
+    // Ürün kaydının invalidate mesajları geldikten sonra girdi cache'te kalır
+    private void cache(String productId) {
+        await().atMost(Duration.ofSeconds(5)).until(() -> {
+            double hits = hits();
+            productService.getProductById(productId);
+            return hits() > hits;
+        });
+    }
+
+    private double hits() {
+        return meterRegistry.get("cache.gets").tag("cache", "product.near-cache").tag("result", "hit")
+                .functionCounter().count();
+    }
+}
@@ -0,0 +1,108 @@
+package org.fsk.redisasdatabase.concurrency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.fsk.redisasdatabase.IsolatedRedisTest;
+import org.fsk.redisasdatabase.controllers.ProductController;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// İyimser eşzamanlılık: eski sürümle koşullu güncelleme yazılmaz ve 409 döner, eşzamanlı ayarlamalar tekrar
+// denenerek kaybolmaz, tüm denemeleri çakışan işlem son çakışmayı fırlatır
+@SpringBootTest(properties = "app.concurrency.retry.max-attempts=50")
+class OptimisticRetryTests extends IsolatedRedisTest {
+
+    private static final int WRITERS = 8;
+    private static final int ADJUSTMENTS = 10;
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductController productController;
+
+    private String productId;
+
+    @BeforeEach
+    void createProduct() {
+        productId = productService.saveProduct(new Product(null, "Kalem", new BigDecimal("12.50"), 5, null, null,
+                null)).getId();
+    }
+
+    @Test
+    void staleVersionIsRejectedWithConflict() {
+        long version = version();
+        productService.updateStock(productId, 7, version);
+
+        assertThatThrownBy(() -> productService.updateStock(productId, 9, version))
+                .isInstanceOf(OptimisticLockException.class);
+        assertThat(productController.updateStock(productId, 9, version).getStatusCode())
+                .isEqualTo(HttpStatus.CONFLICT);
+        assertThat(stock()).isEqualTo(7);
+        assertThat(version()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void concurrentAdjustmentsAreNotLost() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < ADJUSTMENTS; j++) {
+                        productService.adjustStock(productId, 1);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(stock()).isEqualTo(5 + WRITERS * ADJUSTMENTS);
+    }
+
+    @Test
+    void exhaustedRetriesRethrowLastConflict() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OptimisticRetry retry = new OptimisticRetry(meterRegistry, 3, Duration.ZERO, Duration.ZERO);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> retry.execute(RedisKeys.PRODUCT, () -> {
+            throw new OptimisticLockException(RedisKeys.PRODUCT, productId, 1, attempts.incrementAndGet() + 1);
+        })).isInstanceOfSatisfying(OptimisticLockException.class,
+                e -> assertThat(e.getCurrentVersion()).isEqualTo(4));
+
+        assertThat(attempts).hasValue(3);
+        assertThat(meterRegistry.counter("optimistic.conflicts", "entity", RedisKeys.PRODUCT).count()).isEqualTo(3);
+        assertThat(meterRegistry.counter("optimistic.retries", "entity", RedisKeys.PRODUCT).count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("optimistic.retries.exhausted", "entity", RedisKeys.PRODUCT).count())
+                .isEqualTo(1);
+    }
+
+    private long version() {
+        return Long.parseLong((String) stringRedisTemplate.opsForHash().get(RedisKeys.product(productId), "version"));
+    }
+
+    private int stock() {
+        return Integer.parseInt((String) stringRedisTemplate.opsForHash().get(RedisKeys.product(productId), "stock"));
+    }
+}
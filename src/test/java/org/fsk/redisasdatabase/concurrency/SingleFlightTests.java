@@ -0,0 +1,153 @@
+package org.fsk.redisasdatabase.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.fsk.redisasdatabase.IsolatedRedisTest;
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.services.CustomerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+// Single-flight: devam eden okumaya gelen istekler liderin sonucunu ya da hatasını paylaşır, forget() sonrası
+// gelenler yeni okuma yapar, tablo doluyken okumalar birleştirilmez
+@SpringBootTest
+class SingleFlightTests extends IsolatedRedisTest {
+
+    private static final int FOLLOWERS = 4;
+
+    @Autowired
+    private SingleFlight singleFlight;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private String customerId;
+
+    @BeforeEach
+    void createCustomer() {
+        customerId = customerService.saveCustomer(new Customer(null, "Ali", "ali@example.com", null)).getId();
+    }
+
+    @AfterEach
+    void stopExecutor() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentReadsShareTheLeadersResult() throws Exception {
+        Customer leaderResult = new Customer(customerId, "Lider", null, null);
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<Customer> leader = lead(customerId, () -> {
+            loads.incrementAndGet();
+            return leaderResult;
+        });
+
+        double coalesced = coalesced().count();
+        CompletableFuture<?>[] followers = new CompletableFuture<?>[FOLLOWERS];
+        for (int i = 0; i < FOLLOWERS; i++) {
+            followers[i] = CompletableFuture.supplyAsync(() -> customerService.getCustomerById(customerId), executor);
+        }
+        await().atMost(5, TimeUnit.SECONDS).until(() -> coalesced().count() == coalesced + FOLLOWERS);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isSameAs(leaderResult);
+        for (CompletableFuture<?> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isSameAs(leaderResult);
+        }
+        assertThat(loads).hasValue(1);
+
+        // Sonuç saklanmaz; biten çağrıdan sonra okuma Redis'e gider
+        assertThat(customerService.getCustomerById(customerId).getName()).isEqualTo("Ali");
+    }
+
+    @Test
+    void followersReceiveTheLeadersFailure() throws Exception {
+        IllegalStateException failure = new IllegalStateException("okuma başarısız");
+        CompletableFuture<Customer> leader = lead(customerId, () -> {
+            throw failure;
+        });
+
+        double coalesced = coalesced().count();
+        CompletableFuture<Customer> follower = CompletableFuture.supplyAsync(() -> singleFlight.execute(
+                RedisKeys.CUSTOMER, customerId, () -> new Customer()), executor);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> coalesced().count() == coalesced + 1);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCause(failure);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCause(failure);
+    }
+
+    @Test
+    void readAfterForgetDoesNotJoinEarlierCall() throws Exception {
+        CompletableFuture<Customer> leader = lead(customerId, () -> new Customer(customerId, "Eski", null, null));
+
+        singleFlight.forget(RedisKeys.CUSTOMER, customerId);
+
+        assertThat(customerService.getCustomerById(customerId).getName()).isEqualTo("Ali");
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS).getName()).isEqualTo("Eski");
+    }
+
+    @Test
+    void fullTableRunsReadsWithoutCoalescing() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SingleFlight bounded = new SingleFlight(registry, true, 1);
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> bounded.execute(RedisKeys.CUSTOMER,
+                "a", () -> block("a")), executor);
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(bounded.execute(RedisKeys.CUSTOMER, "b", () -> "b")).isEqualTo("b");
+        assertThat(registry.counter("singleflight.calls", "entity", RedisKeys.CUSTOMER, "result", "bypassed")
+                .count()).isEqualTo(1);
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+    }
+
+    // Lider çağrıyı başlatır ve loader içinde release'e kadar bekletir
+    private CompletableFuture<Customer> lead(String id, Supplier<Customer> loader) throws InterruptedException {
+        CompletableFuture<Customer> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute(
+                RedisKeys.CUSTOMER, id, () -> {
+                    block(id);
+                    return loader.get();
+                }), executor);
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        return leader;
+    }
+
+    private <T> T block(T value) {
+        entered.countDown();
+        try {
+            assertThat(release.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        return value;
+    }
+
+    private Counter coalesced() {
+        return meterRegistry.counter("singleflight.calls", "entity", RedisKeys.CUSTOMER, "result", "coalesced");
+    }
+}
@@ -0,0 +1,196 @@
+package org.fsk.redisasdatabase.events;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessagesSummary;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+// Tek bölümlü, kısa reclaim süreli bir stream üzerinde onaylama, tekrar alma ve dead-letter akışı
+@SpringBootTest
+class EventConsumersTests {
+
+    private static final String GROUP = "test";
+    private static final int MAX_DELIVERIES = 3;
+    private static final Duration STALE_IDLE = Duration.ofSeconds(1);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TestHandler handler = new TestHandler("consumer-test-" + UUID.randomUUID());
+    private EventStreams eventStreams;
+    private EventConsumers consumers;
+    private String key;
+
+    @BeforeEach
+    void createStream() {
+        eventStreams = new EventStreams(stringRedisTemplate, meterRegistry, true, 1, 0);
+        key = eventStreams.streamKeys(handler.stream()).get(0);
+    }
+
+    @AfterEach
+    void stopConsumers() {
+        if (consumers != null) {
+            consumers.stop();
+        }
+        stringRedisTemplate.delete(List.of(key, RedisKeys.deadLetterStream(handler.stream())));
+    }
+
+    @Test
+    void acknowledgesHandledEvents() {
+        start(10, Duration.ofMillis(100));
+        String id = add(0);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> handler.handled.contains(id));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> pending() == 0);
+        assertThat(count("acked")).isEqualTo(1);
+        assertThat(handler.deliveries.get(id)).isEqualTo(1);
+    }
+
+    @Test
+    void reclaimsFailedEvents() {
+        start(10, Duration.ofMillis(100));
+        String id = add(1);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> handler.handled.contains(id));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> pending() == 0);
+        assertThat(handler.deliveries.get(id)).isEqualTo(2);
+        assertThat(count("failed")).isEqualTo(1);
+        assertThat(count("reclaimed")).isEqualTo(1);
+        assertThat(count("acked")).isEqualTo(1);
+    }
+
+    @Test
+    void deadLettersEventsThatKeepFailing() {
+        start(10, Duration.ofMillis(100));
+        String id = add(Integer.MAX_VALUE);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> count("dead-lettered") == 1);
+
+        assertThat(pending()).isZero();
+        assertThat(handler.handled).doesNotContain(id);
+        assertThat(handler.deliveries.get(id)).isEqualTo(MAX_DELIVERIES);
+        List<MapRecord<String, Object, Object>> dead = stringRedisTemplate.opsForStream()
+                .range(RedisKeys.deadLetterStream(handler.stream()), Range.unbounded());
+        assertThat(dead).hasSize(1);
+        assertThat(dead.get(0).getValue())
+                .containsEntry("sourceStream", key)
+                .containsEntry("sourceId", id)
+                .containsEntry("group", GROUP)
+                .containsEntry("failures", String.valueOf(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void reclaimsStaleEventsBehindRecentlyDeliveredOnes() throws InterruptedException {
+        // Çöken bir örneğin aldığı beş olay; ilk ikisi az önce tekrar teslim edilmiş gibi beklemede
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(add(0));
+        }
+        stringRedisTemplate.opsForStream().createGroup(key, ReadOffset.from("0-0"), GROUP);
+        stringRedisTemplate.opsForStream().read(Consumer.from(GROUP, "crashed"), StreamReadOptions.empty().count(5),
+                StreamOffset.create(key, ReadOffset.lastConsumed()));
+        Thread.sleep(STALE_IDLE.toMillis() + 200);
+        stringRedisTemplate.opsForStream().claim(key, GROUP, "crashed", Duration.ZERO,
+                RecordId.of(ids.get(0)), RecordId.of(ids.get(1)));
+
+        // Tek reclaim turu (sonraki tur bir dakika sonra), sayfa başına iki bekleyen. Yeni teslim edilenler
+        // tur yavaş başlasa da STALE_IDLE boyunca bayatlamaz
+        start(2, Duration.ofMinutes(1), STALE_IDLE);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> handler.handled.containsAll(ids.subList(2, 5)));
+        assertThat(handler.handled).doesNotContain(ids.get(0), ids.get(1));
+        assertThat(count("reclaimed")).isEqualTo(3);
+    }
+
+    private void start(int batchSize, Duration reclaimInterval) {
+        start(batchSize, reclaimInterval, Duration.ofMillis(100));
+    }
+
+    private void start(int batchSize, Duration reclaimInterval, Duration reclaimMinIdle) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("handler", handler));
+        consumers = new EventConsumers(stringRedisTemplate, eventStreams, beans.getBeanProvider(EventHandler.class),
+                meterRegistry, "test-consumer", batchSize, Duration.ofMillis(20), reclaimInterval,
+                reclaimMinIdle, MAX_DELIVERIES, "earliest");
+        consumers.start();
+    }
+
+    // failures: olayın kaç teslimatta hata vereceği
+    private String add(int failures) {
+        return stringRedisTemplate.opsForStream()
+                .add(StreamRecords.newRecord().in(key).ofMap(Map.of("failures", String.valueOf(failures))))
+                .getValue();
+    }
+
+    private long pending() {
+        PendingMessagesSummary summary = stringRedisTemplate.opsForStream().pending(key, GROUP);
+        return summary == null ? 0 : summary.getTotalPendingMessages();
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("events.consumed", "stream", handler.stream(), "group", GROUP,
+                "result", result).count();
+    }
+
+    // Olay, failures alanındaki teslimat sayısı kadar hata verir
+    private static final class TestHandler implements EventHandler {
+
+        private final String stream;
+        private final Map<String, Integer> deliveries = new ConcurrentHashMap<>();
+        private final List<String> handled = new CopyOnWriteArrayList<>();
+
+        private TestHandler(String stream) {
+            this.stream = stream;
+        }
+
+        @Override
+        public String stream() {
+            return stream;
+        }
+
+        @Override
+        public String group() {
+            return GROUP;
+        }
+
+        @Override
+        public void handle(List<StreamEvent> events) {
+            List<String> ids = new ArrayList<>(events.size());
+            for (StreamEvent event : events) {
+                int delivery = deliveries.merge(event.id(), 1, Integer::sum);
+                if (delivery <= Integer.parseInt(event.get("failures"))) {
+                    throw new IllegalStateException("Test hatası: " + event.id());
+                }
+                ids.add(event.id());
+            }
+            handled.addAll(ids);
+        }
+    }
+}
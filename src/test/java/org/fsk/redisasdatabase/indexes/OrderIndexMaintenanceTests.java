@@ -0,0 +1,75 @@
+package org.fsk.redisasdatabase.indexes;
+
+import org.fsk.redisasdatabase.IsolatedRedisTest;
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.dtos.IndexReport;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.services.CustomerService;
+import org.fsk.redisasdatabase.services.OrderService;
+import org.fsk.redisasdatabase.services.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Index doğrulama sadece sayar; yeniden oluşturma eksik ve yanlış girdileri yazar, sahipsiz girdileri siler
+@SpringBootTest
+class OrderIndexMaintenanceTests extends IsolatedRedisTest {
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void verifyCountsDriftAndRebuildRepairsIt() {
+        String customerId = customerService.saveCustomer(new Customer(null, "Ali", "ali@example.com", null)).getId();
+        String productId = productService.saveProduct(new Product(null, "Kalem", new BigDecimal("12.50"), 5, null,
+                null, null)).getId();
+        Order first = orderService.createOrder(customerId, Set.of(productId));
+        Order second = orderService.createOrder(customerId, Set.of(productId));
+        String customerIndex = RedisKeys.customerOrdersByDate(customerId);
+
+        assertCounts(orderService.verifyIndexes(), 0, 0, 0);
+
+        // Eksik tutar girdisi, yanlış tarih skoru ve silinmiş siparişlere ait iki girdi
+        stringRedisTemplate.opsForZSet().remove(RedisKeys.ORDERS_BY_AMOUNT, first.getId());
+        stringRedisTemplate.opsForZSet().add(RedisKeys.ORDERS_BY_DATE, second.getId(), 1);
+        stringRedisTemplate.opsForZSet().add(RedisKeys.ORDERS_BY_DATE, "yok", 1);
+        stringRedisTemplate.opsForZSet().add(customerIndex, "yok", 1);
+
+        IndexReport verified = orderService.verifyIndexes();
+        assertCounts(verified, 1, 1, 2);
+        assertThat(verified.repaired()).isFalse();
+        assertThat(stringRedisTemplate.opsForZSet().score(RedisKeys.ORDERS_BY_AMOUNT, first.getId())).isNull();
+
+        IndexReport rebuilt = orderService.rebuildIndexes();
+        assertCounts(rebuilt, 1, 1, 2);
+        assertThat(rebuilt.repaired()).isTrue();
+
+        assertCounts(orderService.verifyIndexes(), 0, 0, 0);
+        assertThat(stringRedisTemplate.opsForZSet().score(RedisKeys.ORDERS_BY_AMOUNT, first.getId()))
+                .isEqualTo(12.5);
+        assertThat(stringRedisTemplate.opsForZSet().score(RedisKeys.ORDERS_BY_DATE, second.getId()))
+                .isEqualTo((double) OrderIndexes.dateScore(second.getOrderDate()));
+        assertThat(stringRedisTemplate.opsForZSet().range(RedisKeys.ORDERS_BY_DATE, 0, -1))
+                .containsExactlyInAnyOrder(first.getId(), second.getId());
+        assertThat(stringRedisTemplate.opsForZSet().range(customerIndex, 0, -1))
+                .containsExactlyInAnyOrder(first.getId(), second.getId());
+    }
+
+    private static void assertCounts(IndexReport report, long missing, long mismatched, long orphaned) {
+        assertThat(report.scannedOrders()).isEqualTo(2);
+        assertThat(report.missing()).isEqualTo(missing);
+        assertThat(report.mismatched()).isEqualTo(mismatched);
+        assertThat(report.orphaned()).isEqualTo(orphaned);
+    }
+}
@@ -0,0 +1,137 @@
+package org.fsk.redisasdatabase.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.fsk.redisasdatabase.IsolatedRedisTest;
+import org.fsk.redisasdatabase.archive.OrderArchive;
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.dtos.ReplayReport;
+import org.fsk.redisasdatabase.mappers.EntityHashMapper;
+import org.fsk.redisasdatabase.repositories.CustomerOrderLog;
+import org.fsk.redisasdatabase.repositories.CustomerRepository;
+import org.fsk.redisasdatabase.repositories.ProductRepository;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.scripts.CheckoutScript;
+import org.fsk.redisasdatabase.scripts.StockScripts;
+import org.fsk.redisasdatabase.services.CustomerService;
+import org.fsk.redisasdatabase.services.OrderService;
+import org.fsk.redisasdatabase.services.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Journal'ın ilk kayıtlarını içeren bir snapshot'ın (kısmen kurtarılmış Redis) üstüne tüm journal replay edilir
+@SpringBootTest(properties = {"app.journal.enabled=true", "app.journal.fsync=always"})
+class JournalReplayerTests extends IsolatedRedisTest {
+
+    private static final int ORDERS = 3;
+
+    @Autowired
+    private Journal journal;
+    @Autowired
+    private JournalSequence journalSequence;
+    @Autowired
+    private JournalReplayer journalReplayer;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private EntityHashMapper entityHashMapper;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CustomerOrderLog customerOrderLog;
+    @Autowired
+    private CheckoutScript checkoutScript;
+    @Autowired
+    private StockScripts stockScripts;
+    @Autowired
+    private OrderArchive orderArchive;
+
+    private final List<String> orderIds = new ArrayList<>();
+    private String productId;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        registry.add("app.journal.directory", directory::toString);
+    }
+
+    @Test
+    void replaySkipsEntriesAlreadyInRedis() throws IOException {
+        long before = journal.getLastSequence();
+        String customerId = customerService.saveCustomer(new Customer(null, "Ali", "ali@example.com", null)).getId();
+        productId = productService.saveProduct(new Product(null, "Kalem", new BigDecimal("12.50"), 0, null, null,
+                null)).getId();
+        productService.updateStock(productId, 20);
+        for (int i = 0; i < ORDERS; i++) {
+            orderIds.add(orderService.createOrder(customerId, Set.of(productId)).getId());
+        }
+        assertThat(stock()).isEqualTo(20 - ORDERS);
+
+        // Snapshot'ın içerdiği kısım: son sipariş hariç tüm kayıtlar
+        List<JournalEntry> entries = new ArrayList<>();
+        journal.read(before + 1, entries::add);
+        assertThat(entries).hasSize(3 + ORDERS).allMatch(entry -> entry.redisSequence() > 0);
+        Journal prefix = prefix(entries.subList(0, entries.size() - 1));
+
+        // Boş store'dan snapshot'ı kur
+        flush();
+        stringRedisTemplate.opsForValue().set(RedisKeys.JOURNAL_SEQUENCE,
+                String.valueOf(entries.get(0).redisSequence() - 1));
+        try {
+            replayer(prefix).replay(1);
+        } finally {
+            prefix.close();
+        }
+        assertThat(stock()).isEqualTo(20 - ORDERS + 1);
+
+        // Stok 20 ve ilk siparişler tekrar uygulanmaz, sadece son sipariş eklenir
+        ReplayReport report = journalReplayer.replay(before + 1);
+
+        assertThat(stock()).isEqualTo(20 - ORDERS);
+        assertThat(orderIds).allMatch(id -> Boolean.TRUE.equals(stringRedisTemplate.hasKey(RedisKeys.order(id))));
+        assertThat(report.applied()).isEqualTo(1);
+        assertThat(journalSequence.current()).isEqualTo(entries.get(entries.size() - 1).redisSequence());
+    }
+
+    // Kayıtlar Redis sıralarıyla ayrı bir journal'a kopyalanır
+    private Journal prefix(List<JournalEntry> entries) throws IOException {
+        Journal prefix = new Journal(new SimpleMeterRegistry(), journalSequence, true,
+                Files.createTempDirectory("journal-prefix"), DataSize.ofMegabytes(1), FsyncPolicy.ALWAYS,
+                Duration.ofMillis(100), Duration.ofSeconds(2), 1024, 1024);
+        prefix.open();
+        entries.forEach(entry -> prefix.append(entry.operation(), entry.id(), entry.fields(), entry.redisSequence()));
+        return prefix;
+    }
+
+    private JournalReplayer replayer(Journal source) {
+        return new JournalReplayer(source, journalSequence, stringRedisTemplate, entityHashMapper,
+                customerRepository, productRepository, customerOrderLog, checkoutScript, stockScripts, orderArchive,
+                false, 1);
+    }
+
+    private int stock() {
+        Object stock = stringRedisTemplate.opsForHash().get(RedisKeys.product(productId), "stock");
+        return stock == null ? 0 : Integer.parseInt((String) stock);
+    }
+}
@@ -0,0 +1,64 @@
+package org.fsk.redisasdatabase.mappers;
+
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.convert.MappingRedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityHashMapperTests {
+
+    private final EntityHashMapper mapper = new EntityHashMapper();
+
+    @Test
+    void writesSameHashAsRepositoryConverter() {
+        Order order = order();
+
+        MappingRedisConverter converter = new MappingRedisConverter(new RedisMappingContext(), null, null);
+        converter.afterPropertiesSet();
+        RedisData data = new RedisData();
+        converter.write(order, data);
+        Map<String, String> expected = new HashMap<>();
+        data.getBucket().asMap().forEach((field, value) -> expected.put(field, new String(value, StandardCharsets.UTF_8)));
+
+        Map<String, String> hash = mapper.toHash(order);
+
+        // Set sırası garanti olmadığı için referans alanlarını değer olarak karşılaştır
+        assertThat(hash).hasSameSizeAs(expected);
+        assertThat(hash.values()).containsExactlyInAnyOrderElementsOf(expected.values());
+        assertThat(hash).containsEntry("customer", "customer:c1").containsEntry("totalAmount", "20.00");
+    }
+
+    @Test
+    void readsHashBackWithReferenceStubs() {
+        Order order = order();
+
+        Order read = mapper.fromHash(mapper.toHash(order), Order.class);
+
+        assertThat(read.getId()).isEqualTo(order.getId());
+        assertThat(read.getOrderDate()).isEqualTo(order.getOrderDate());
+        assertThat(read.getTotalAmount()).isEqualTo(order.getTotalAmount());
+        assertThat(read.getCustomer().getId()).isEqualTo("c1");
+        assertThat(read.getProducts()).extracting(Product::getId).containsExactlyInAnyOrder("p1", "p2");
+        assertThat(mapper.fromHash(Map.of(), Order.class)).isNull();
+    }
+
+    private Order order() {
+        Customer customer = new Customer("c1", "Ali", "ali@example.com", null);
+        Product first = new Product("p1", "Kalem", new BigDecimal("12.50"), 3, null, null, null);
+        Product second = new Product("p2", "Defter", new BigDecimal("7.50"), 1, null, null, null);
+        return new Order("o1", LocalDateTime.of(2024, 5, 1, 10, 30), new BigDecimal("20.00"), customer,
+                Set.of(first, second));
+    }
+}
@@ -0,0 +1,84 @@
+package org.fsk.redisasdatabase.repositories;
+
+import org.fsk.redisasdatabase.IsolatedRedisTest;
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.services.CustomerService;
+import org.fsk.redisasdatabase.services.OrderService;
+import org.fsk.redisasdatabase.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Fetch planı: bilinmeyen referans reddedilir, sadece plandaki referanslar yüklenir, diğerleri ID ile döner
+@SpringBootTest
+class FetchPlanTests extends IsolatedRedisTest {
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private ProductService productService;
+
+    private String customerId;
+    private String productId;
+    private String orderId;
+
+    @BeforeEach
+    void createOrder() {
+        customerId = customerService.saveCustomer(new Customer(null, "Ali", "ali@example.com", null)).getId();
+        productId = productService.saveProduct(new Product(null, "Kalem", new BigDecimal("12.50"), 3, null, null,
+                null)).getId();
+        orderId = orderService.createOrder(customerId, Set.of(productId)).getId();
+    }
+
+    @Test
+    void unknownReferenceIsRejected() {
+        assertThatThrownBy(() -> orderService.getOrderById(orderId,
+                FetchPlan.of(OrderRepositoryCustom.CUSTOMER, "payments")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Bilinmeyen referans: payments");
+        assertThatThrownBy(() -> orderService.getAllOrders(FetchPlan.of("payments")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void emptyPlanReturnsReferencesById() {
+        Order order = orderService.getOrderById(orderId, FetchPlan.of(List.of()));
+
+        assertThat(order.getCustomer().getId()).isEqualTo(customerId);
+        assertThat(order.getCustomer().getName()).isNull();
+        assertThat(order.getProducts()).singleElement().satisfies(product -> {
+            assertThat(product.getId()).isEqualTo(productId);
+            assertThat(product.getName()).isNull();
+        });
+    }
+
+    @Test
+    void planLoadsOnlyListedReferences() {
+        Order withCustomer = orderService.getOrderById(orderId, FetchPlan.of(OrderRepositoryCustom.CUSTOMER));
+
+        assertThat(withCustomer.getCustomer().getName()).isEqualTo("Ali");
+        assertThat(withCustomer.getProducts()).singleElement().extracting(Product::getName).isNull();
+
+        List<Order> withProducts = orderService.getAllOrders(FetchPlan.of(OrderRepositoryCustom.PRODUCTS));
+
+        assertThat(withProducts).singleElement().satisfies(order -> {
+            assertThat(order.getCustomer().getName()).isNull();
+            assertThat(order.getProducts()).singleElement().satisfies(product -> {
+                assertThat(product.getName()).isEqualTo("Kalem");
+                assertThat(product.getStock()).isEqualTo(2);
+            });
+        });
+    }
+}
@@ -0,0 +1,110 @@
+package org.fsk.redisasdatabase.repositories;
+
+import org.fsk.redisasdatabase.IsolatedRedisTest;
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.dtos.BatchOrderResult;
+import org.fsk.redisasdatabase.dtos.OrderRequest;
+import org.fsk.redisasdatabase.services.CustomerService;
+import org.fsk.redisasdatabase.services.OrderService;
+import org.fsk.redisasdatabase.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Shard'lı stok: boş shard'a denk gelen checkout stoku yeniden dağıtır; başka bir node'un değiştirdiği shard
+// sayısı SHARDS_CHANGED ile öğrenilip sipariş yeni düzenle tekrar gönderilir
+@SpringBootTest
+class StockShardLayoutTests extends IsolatedRedisTest {
+
+    private static final int SHARDS = 4;
+
+    @Autowired
+    private StockShardLayout layout;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private OrderService orderService;
+
+    private String customerId;
+    private String productId;
+
+    @BeforeEach
+    void createCustomerAndProduct() {
+        customerId = customerService.saveCustomer(new Customer(null, "Ali", "ali@example.com", null)).getId();
+        productId = productService.saveProduct(new Product(null, "Kalem", new BigDecimal("12.50"), SHARDS, SHARDS,
+                null, null)).getId();
+    }
+
+    @Test
+    void emptyShardIsRebalancedAtCheckout() {
+        // Tüm stok ilk shard'da; diğerlerine denk gelen siparişler dağıtımı tetikler
+        stringRedisTemplate.opsForValue().set(RedisKeys.stockShard(productId, 0), String.valueOf(SHARDS));
+        for (int i = 1; i < SHARDS; i++) {
+            stringRedisTemplate.opsForValue().set(RedisKeys.stockShard(productId, i), "0");
+        }
+
+        for (int i = 0; i < SHARDS; i++) {
+            orderService.createOrder(customerId, Set.of(productId));
+        }
+
+        assertThatThrownBy(() -> orderService.createOrder(customerId, Set.of(productId)))
+                .hasRootCauseMessage("Ürün stokta yok: " + productId);
+        assertThat(shardTotal()).isZero();
+    }
+
+    @Test
+    void checkoutLearnsShardsAddedElsewhere() {
+        // Bu node ürünü shard'sız biliyor
+        layout.update(productId, 0);
+
+        orderService.createOrder(customerId, Set.of(productId));
+
+        assertThat(layout.shards(productId)).isEqualTo(SHARDS);
+        assertThat(shardTotal()).isEqualTo(SHARDS - 1);
+    }
+
+    @Test
+    void checkoutLearnsShardsRemovedElsewhere() {
+        productService.shardStock(productId, 0);
+        layout.update(productId, SHARDS);
+
+        orderService.createOrder(customerId, Set.of(productId));
+
+        assertThat(layout.shards(productId)).isZero();
+        assertThat(stringRedisTemplate.opsForHash().get(RedisKeys.product(productId), "stock"))
+                .isEqualTo(String.valueOf(SHARDS - 1));
+        assertThat(shardTotal()).isZero();
+    }
+
+    @Test
+    void batchOrderIsRewrittenWithLearnedShards() {
+        layout.update(productId, 2);
+
+        List<BatchOrderResult> results = orderService.createOrders(List.of(
+                new OrderRequest(customerId, Set.of(productId)), new OrderRequest(customerId, Set.of(productId))));
+
+        assertThat(results).allMatch(BatchOrderResult::success);
+        assertThat(layout.shards(productId)).isEqualTo(SHARDS);
+        assertThat(shardTotal()).isEqualTo(SHARDS - 2);
+    }
+
+    private int shardTotal() {
+        int total = 0;
+        for (int i = 0; i < SHARDS; i++) {
+            String units = stringRedisTemplate.opsForValue().get(RedisKeys.stockShard(productId, i));
+            total += units == null ? 0 : Integer.parseInt(units);
+        }
+        return total;
+    }
+}
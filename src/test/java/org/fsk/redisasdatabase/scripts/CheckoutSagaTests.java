@@ -0,0 +1,151 @@
+package org.fsk.redisasdatabase.scripts;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.fsk.redisasdatabase.IsolatedRedisTest;
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.indexes.OrderIndexes;
+import org.fsk.redisasdatabase.mappers.EntityHashMapper;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.services.CustomerService;
+import org.fsk.redisasdatabase.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Cluster checkout'unun adımlı yolu: tüm adımlar yazılır ya da hata sonrası ayrılan stok iade edilip sipariş
+// hash'i silinir. Saga slot'lardan bağımsız olduğu için tek node'lu Redis'te doğrudan çalıştırılır.
+@SpringBootTest
+class CheckoutSagaTests extends IsolatedRedisTest {
+
+    private static final int SHARDS = 2;
+
+    @Autowired
+    private CheckoutSaga checkoutSaga;
+    @Autowired
+    private EntityHashMapper entityHashMapper;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private String customerId;
+    private String pen;
+
+    @BeforeEach
+    void createCustomerAndProduct() {
+        customerId = customerService.saveCustomer(new Customer(null, "Ali", "ali@example.com", null)).getId();
+        pen = productService.saveProduct(new Product(null, "Kalem", new BigDecimal("12.50"), SHARDS, SHARDS, null,
+                null)).getId();
+    }
+
+    @Test
+    void allStepsAreWritten() {
+        String book = product(1);
+        Order order = order(pen, book);
+        double committed = counter("committed");
+
+        BigDecimal total = checkoutSaga.execute(order, entityHashMapper.toHash(order));
+
+        assertThat(total).isEqualByComparingTo("52.50");
+        assertThat(shardTotal(pen)).isEqualTo(SHARDS - 1);
+        assertThat(stock(book)).isZero();
+        assertThat(stringRedisTemplate.opsForHash().get(RedisKeys.order(order.getId()), "totalAmount"))
+                .isEqualTo("52.50");
+        assertThat(stringRedisTemplate.opsForList().range(RedisKeys.customerOrderLog(customerId), 0, -1))
+                .containsExactly(order.getId());
+        assertThat(stringRedisTemplate.opsForZSet().score(RedisKeys.customerOrdersByDate(customerId), order.getId()))
+                .isEqualTo((double) OrderIndexes.dateScore(order.getOrderDate()));
+        assertThat(stringRedisTemplate.opsForSet().isMember(RedisKeys.ORDER, order.getId())).isTrue();
+        assertThat(stringRedisTemplate.opsForZSet().score(RedisKeys.ORDERS_BY_AMOUNT, order.getId())).isEqualTo(52.5);
+        assertThat(counter("committed")).isEqualTo(committed + 1);
+    }
+
+    @Test
+    void failedReservationReleasesEarlierReservations() {
+        String book = product(0);
+        Order order = order(pen, book);
+        double compensated = counter("compensated");
+
+        assertThatThrownBy(() -> checkoutSaga.execute(order, entityHashMapper.toHash(order)))
+                .hasMessage("Ürün stokta yok: " + book);
+
+        assertThat(shardTotal(pen)).isEqualTo(SHARDS);
+        assertNothingWritten(order);
+        assertThat(counter("compensated")).isEqualTo(compensated + 1);
+    }
+
+    @Test
+    void failedCustomerHistoryDeletesOrderAndReleasesStock() {
+        String book = product(1);
+        Order order = order(pen, book);
+        // Müşteri geçmişi yanlış tipte; RPUSH hata verir
+        stringRedisTemplate.opsForValue().set(RedisKeys.customerOrderLog(customerId), "bozuk");
+
+        assertThatThrownBy(() -> checkoutSaga.execute(order, entityHashMapper.toHash(order)))
+                .isInstanceOf(RuntimeException.class);
+
+        assertThat(shardTotal(pen)).isEqualTo(SHARDS);
+        assertThat(stock(book)).isEqualTo(1);
+        assertNothingWritten(order);
+        assertThat(stringRedisTemplate.opsForValue().get(RedisKeys.customerOrderLog(customerId))).isEqualTo("bozuk");
+    }
+
+    private void assertNothingWritten(Order order) {
+        assertThat(stringRedisTemplate.hasKey(RedisKeys.order(order.getId()))).isFalse();
+        assertThat(stringRedisTemplate.hasKey(RedisKeys.customerOrdersByDate(customerId))).isFalse();
+        assertThat(stringRedisTemplate.hasKey(RedisKeys.ORDER)).isFalse();
+        assertThat(stringRedisTemplate.hasKey(RedisKeys.ORDERS_BY_DATE)).isFalse();
+    }
+
+    // Ürünler verilen sırayla ayrılır
+    private Order order(String... productIds) {
+        Customer customer = new Customer();
+        customer.setId(customerId);
+        Set<Product> products = new LinkedHashSet<>();
+        for (String productId : productIds) {
+            Product product = new Product();
+            product.setId(productId);
+            products.add(product);
+        }
+        Order order = new Order();
+        order.setId(RedisKeys.newOrderId(customerId));
+        order.setOrderDate(LocalDateTime.now());
+        order.setCustomer(customer);
+        order.setProducts(products);
+        return order;
+    }
+
+    private String product(int stock) {
+        return productService.saveProduct(new Product(null, "Kitap", new BigDecimal("40.00"), stock, null, null,
+                null)).getId();
+    }
+
+    private int stock(String productId) {
+        return Integer.parseInt((String) stringRedisTemplate.opsForHash().get(RedisKeys.product(productId), "stock"));
+    }
+
+    private int shardTotal(String productId) {
+        int total = 0;
+        for (int i = 0; i < SHARDS; i++) {
+            total += Integer.parseInt(stringRedisTemplate.opsForValue().get(RedisKeys.stockShard(productId, i)));
+        }
+        return total;
+    }
+
+    private double counter(String result) {
+        return meterRegistry.counter("checkout.saga", "result", result).count();
+    }
+}
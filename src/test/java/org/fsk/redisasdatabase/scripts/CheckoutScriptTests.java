@@ -0,0 +1,94 @@
+package org.fsk.redisasdatabase.scripts;
+
+import org.fsk.redisasdatabase.IsolatedRedisTest;
+import org.fsk.redisasdatabase.analytics.SalesAggregates;
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.services.CustomerService;
+import org.fsk.redisasdatabase.services.OrderService;
+import org.fsk.redisasdatabase.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Checkout tutarları script'te ölçekli tam sayı olarak hesaplanır; double'ın tam temsil edemeyeceği fiyatlar reddedilir
+@SpringBootTest
+class CheckoutScriptTests extends IsolatedRedisTest {
+
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private SalesAggregates salesAggregates;
+
+    private String customerId;
+
+    @BeforeEach
+    void createCustomer() {
+        customerId = customerService.saveCustomer(new Customer(null, "Ali", "ali@example.com", null)).getId();
+    }
+
+    @Test
+    void totalIsExactAcrossScales() {
+        String pen = product("0.1");
+        String book = product("1234567890.015");
+        String stamp = product("0.00005");
+
+        Order order = orderService.createOrder(customerId, Set.of(pen, book, stamp));
+
+        assertThat(order.getTotalAmount()).isEqualTo(new BigDecimal("1234567890.11505"));
+        assertThat(stringRedisTemplate.opsForHash().get(RedisKeys.order(order.getId()), "totalAmount"))
+                .isEqualTo("1234567890.11505");
+        // Özet 4 basamaklıdır; fazla basamak HALF_UP yuvarlanır
+        assertThat(salesAggregates.summary(LocalDate.now(), LocalDate.now()).revenue())
+                .isEqualTo(new BigDecimal("1234567890.1151"));
+    }
+
+    @Test
+    void priceBeyondExactRangeIsRejected() {
+        String pen = product("0.1");
+        String yacht = product("1234567890123.4567");
+
+        assertThatThrownBy(() -> orderService.createOrder(customerId, Set.of(pen, yacht)))
+                .hasRootCauseMessage("Ürün fiyatı geçersiz: " + yacht);
+
+        assertThat(stock(pen)).isEqualTo(1);
+        assertThat(stock(yacht)).isEqualTo(1);
+        assertThat(stringRedisTemplate.opsForList().size(RedisKeys.customerOrderLog(customerId))).isZero();
+    }
+
+    @Test
+    void totalBeyondExactRangeIsRejected() {
+        // Her fiyat tek başına tam temsil edilir, ama 13 basamaklı ölçekte toplam 2^53'ü aşar
+        String first = product("0.0000000000001");
+        String second = product("1000");
+
+        assertThatThrownBy(() -> orderService.createOrder(customerId, Set.of(first, second)))
+                .hasRootCauseMessage("Sipariş tutarı tam olarak hesaplanamayacak kadar büyük");
+
+        assertThat(stock(first)).isEqualTo(1);
+        assertThat(stock(second)).isEqualTo(1);
+    }
+
+    private String product(String price) {
+        return productService.saveProduct(new Product(null, "Ürün " + price, new BigDecimal(price), 1, null, null,
+                null)).getId();
+    }
+
+    private int stock(String productId) {
+        return Integer.parseInt((String) stringRedisTemplate.opsForHash().get(RedisKeys.product(productId), "stock"));
+    }
+}
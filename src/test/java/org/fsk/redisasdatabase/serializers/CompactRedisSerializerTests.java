@@ -0,0 +1,95 @@
+package org.fsk.redisasdatabase.serializers;
+
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Order;
+import org.fsk.redisasdatabase.domains.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactRedisSerializerTests {
+
+    private final CompactRedisSerializer compact = new CompactRedisSerializer();
+    private final JdkSerializationRedisSerializer jdk = new JdkSerializationRedisSerializer();
+
+    @Test
+    void roundTripsScalars() {
+        for (Object value : List.of("stok", 42, -7L, new BigDecimal("19.99"),
+                new BigDecimal("123456789012345678901234567890.5"), LocalDateTime.of(2024, 2, 29, 23, 59, 1, 999))) {
+            assertThat(compact.deserialize(compact.serialize(value))).isEqualTo(value);
+        }
+        assertThat(compact.deserialize(compact.serialize(null))).isNull();
+    }
+
+    @Test
+    void roundTripsDomainsWithReferencesAsIds() {
+        Product product = product();
+        Order order = order(product);
+
+        Order decoded = (Order) compact.deserialize(compact.serialize(order));
+
+        assertThat(decoded.getId()).isEqualTo(order.getId());
+        assertThat(decoded.getOrderDate()).isEqualTo(order.getOrderDate());
+        assertThat(decoded.getTotalAmount()).isEqualTo(order.getTotalAmount());
+        assertThat(decoded.getCustomer().getId()).isEqualTo(order.getCustomer().getId());
+        assertThat(decoded.getCustomer().getName()).isNull();
+        assertThat(decoded.getProducts()).extracting(Product::getId).containsExactly(product.getId());
+
+        Product decodedProduct = (Product) compact.deserialize(compact.serialize(product));
+        assertThat(decodedProduct).isEqualTo(product);
+    }
+
+    @Test
+    void readsLegacyJdkValues() {
+        Product product = product();
+        byte[] legacy = jdk.serialize(product);
+
+        assertThat(compact.isLegacy(legacy)).isTrue();
+        assertThat(compact.deserialize(legacy)).isEqualTo(product);
+        assertThat(compact.deserialize(jdk.serialize(100))).isEqualTo(100);
+        assertThat(compact.getLegacyReads()).isEqualTo(2);
+    }
+
+    // Sadece boyut; hız karşılaştırması SerializerBenchmark'ta (JMH)
+    @Test
+    void isSmallerThanJdkSerialization() {
+        Product product = product();
+        List<Object> samples = List.of(new BigDecimal("19.99"), 100, LocalDateTime.now(), product, customer(),
+                order(product));
+
+        for (Object sample : samples) {
+            assertThat(compact.serialize(sample).length)
+                    .as(sample.getClass().getSimpleName())
+                    .isLessThan(jdk.serialize(sample).length);
+        }
+        // Entity'lerde JDK formatı sınıf tanımlarını da yazar; compact en fazla yarısı kadardır
+        for (Object entity : List.of(product, customer(), order(product))) {
+            assertThat(compact.serialize(entity).length * 2)
+                    .as(entity.getClass().getSimpleName())
+                    .isLessThanOrEqualTo(jdk.serialize(entity).length);
+        }
+    }
+
+    private Product product() {
+        return new Product(UUID.randomUUID().toString(), "Kalem", new BigDecimal("12.50"), 40, null, null, 3L);
+    }
+
+    private Customer customer() {
+        return new Customer(UUID.randomUUID().toString(), "Ali", "ali@example.com", "5551234567");
+    }
+
+    private Order order(Product product) {
+        Set<Product> products = new HashSet<>();
+        products.add(product);
+        return new Order(UUID.randomUUID().toString(), LocalDateTime.now(), new BigDecimal("12.50"), customer(),
+                products);
+    }
+}
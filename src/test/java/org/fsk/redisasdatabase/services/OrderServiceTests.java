@@ -0,0 +1,72 @@
+package org.fsk.redisasdatabase.services;
+
+import org.fsk.redisasdatabase.IsolatedRedisTest;
+import org.fsk.redisasdatabase.domains.Customer;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.dtos.BatchOrderResult;
+import org.fsk.redisasdatabase.dtos.OrderRequest;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Toplu sipariş: geçersiz siparişler script'e gitmeden elenir, kalanlar chunk'lar halinde pipeline ile yazılır
+@SpringBootTest(properties = "app.orders.batch.chunk-size=2")
+class OrderServiceTests extends IsolatedRedisTest {
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void batchWritesValidOrdersAndReportsEachFailure() {
+        String customerId = customerService.saveCustomer(new Customer(null, "Ali", "ali@example.com", null)).getId();
+        String pen = product("12.50", 3);
+        String book = product("40.00", 1);
+
+        List<BatchOrderResult> results = orderService.createOrders(List.of(
+                new OrderRequest(customerId, Set.of(pen, book)),
+                new OrderRequest("yok", Set.of(pen)),
+                new OrderRequest(customerId, Set.of(pen)),
+                new OrderRequest(customerId, Set.of(book)),
+                new OrderRequest(customerId, Set.of("yok")),
+                new OrderRequest(customerId, Set.of()),
+                new OrderRequest(customerId, Set.of(pen))));
+
+        assertThat(results).extracting(BatchOrderResult::index).containsExactly(0, 1, 2, 3, 4, 5, 6);
+        assertThat(results).extracting(BatchOrderResult::success)
+                .containsExactly(true, false, true, false, false, false, true);
+        assertThat(results).extracting(BatchOrderResult::error).containsExactly(null, "Müşteri bulunamadı", null,
+                "Ürün stokta yok: " + book, "Ürün bulunamadı: yok", "Ürün listesi boş", null);
+        assertThat(results.get(0).totalAmount()).isEqualByComparingTo("52.50");
+        assertThat(results.get(2).totalAmount()).isEqualByComparingTo("12.50");
+
+        // Üç başarılı sipariş iki chunk'ta yazıldı
+        List<String> orderIds = results.stream().filter(BatchOrderResult::success)
+                .map(BatchOrderResult::orderId).toList();
+        assertThat(orderIds).allMatch(id -> Boolean.TRUE.equals(stringRedisTemplate.hasKey(RedisKeys.order(id))));
+        assertThat(stringRedisTemplate.opsForList().range(RedisKeys.customerOrderLog(customerId), 0, -1))
+                .containsExactlyElementsOf(orderIds);
+        assertThat(stringRedisTemplate.opsForSet().size(RedisKeys.ORDER)).isEqualTo(3);
+        assertThat(stock(pen)).isZero();
+        assertThat(stock(book)).isZero();
+    }
+
+    private String product(String price, int stock) {
+        return productService.saveProduct(new Product(null, "Ürün", new BigDecimal(price), stock, null, null, null))
+                .getId();
+    }
+
+    private int stock(String productId) {
+        return Integer.parseInt((String) stringRedisTemplate.opsForHash().get(RedisKeys.product(productId), "stock"));
+    }
+}
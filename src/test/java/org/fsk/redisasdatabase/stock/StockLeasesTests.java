@@ -0,0 +1,136 @@
+package org.fsk.redisasdatabase.stock;
+
+import org.fsk.redisasdatabase.IsolatedRedisTest;
+import org.fsk.redisasdatabase.domains.Product;
+import org.fsk.redisasdatabase.repositories.ProductRepository;
+import org.fsk.redisasdatabase.repositories.RedisKeys;
+import org.fsk.redisasdatabase.repositories.StockShardReader;
+import org.fsk.redisasdatabase.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+// Ürün stoku kiralanan birimler dahil okunur; kiranın iadesi, süresinin dolması ve iptali toplamı değiştirmez
+@SpringBootTest(properties = {"app.stock.lease.enabled=true", "app.stock.lease.block-size=10",
+        "app.stock.lease.refill-below=2", "app.stock.lease.ttl=2s", "app.stock.lease.renew-interval=200ms"})
+class StockLeasesTests extends IsolatedRedisTest {
+
+    private static final int BLOCK = 10;
+
+    @Autowired
+    private StockLeases stockLeases;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private StockShardReader stockShardReader;
+
+    private String productId;
+
+    @BeforeEach
+    void createProduct() {
+        productId = productService.saveProduct(new Product(null, "Kalem", new BigDecimal("12.50"), 30, null, null,
+                null)).getId();
+    }
+
+    @Test
+    void readsIncludeLeasedUnits() {
+        lease();
+
+        assertThat(stored()).isEqualTo(30 - BLOCK);
+        assertThat(productService.getProductById(productId).getStock()).isEqualTo(30);
+        assertThat(total()).isEqualTo(30);
+    }
+
+    @Test
+    void idleLeaseIsReturned() {
+        lease();
+        assertThat(stockLeases.take(productId)).isTrue();
+
+        // ttl boyunca satış olmadığı için kalan Redis'e iade edilir
+        await().atMost(Duration.ofSeconds(5)).until(() -> stockLeases.available(productId) == 0
+                && stringRedisTemplate.opsForHash().size(RedisKeys.stockLeases(productId)) == 0);
+
+        assertThat(stored()).isEqualTo(30 - 1);
+        assertThat(total()).isEqualTo(30 - 1);
+    }
+
+    @Test
+    void expiredLeaseIsReclaimed() {
+        // Çöken bir node'un süresi dolmuş kirası: 5 birim stoktan düşülmüş, kira kaydında duruyor
+        productService.adjustStock(productId, -5);
+        stringRedisTemplate.opsForHash().put(RedisKeys.stockLeases(productId), "crashed-node", "5:1");
+        assertThat(total()).isEqualTo(30);
+
+        lease();
+
+        assertThat(stringRedisTemplate.opsForHash().hasKey(RedisKeys.stockLeases(productId), "crashed-node"))
+                .isFalse();
+        assertThat(stored()).isEqualTo(30 - BLOCK);
+        assertThat(total()).isEqualTo(30);
+    }
+
+    @Test
+    void absoluteWriteRevokesLeases() {
+        lease();
+
+        productService.updateStock(productId, 50);
+
+        assertThat(stringRedisTemplate.hasKey(RedisKeys.stockLeases(productId))).isFalse();
+        await().atMost(Duration.ofSeconds(5)).until(() -> stockLeases.available(productId) == 0);
+        assertThat(stored()).isEqualTo(50);
+        assertThat(total()).isEqualTo(50);
+    }
+
+    @Test
+    void negativeDeltaMayExceedUnitsInRedis() {
+        lease();
+
+        Product adjusted = productService.adjustStock(productId, -25);
+
+        assertThat(adjusted.getStock()).isEqualTo(5);
+        assertThat(total()).isEqualTo(5);
+        await().atMost(Duration.ofSeconds(5)).until(() -> stockLeases.available(productId) == 0);
+        assertThat(stored()).isEqualTo(5);
+    }
+
+    @Test
+    void deltaBeyondTotalIsRejected() {
+        lease();
+
+        assertThatThrownBy(() -> productService.adjustStock(productId, -31))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Mevcut: 30");
+
+        assertThat(total()).isEqualTo(30);
+        assertThat(stockLeases.available(productId)).isEqualTo(BLOCK);
+    }
+
+    // Kirası olmayan üründe ilk take birim ayırmaz, bloğu arka planda kiralatır
+    private void lease() {
+        assertThat(stockLeases.take(productId)).isFalse();
+        await().atMost(Duration.ofSeconds(5)).until(() -> stockLeases.available(productId) == BLOCK);
+    }
+
+    private int stored() {
+        Object stock = stringRedisTemplate.opsForHash().get(RedisKeys.product(productId), "stock");
+        return stock == null ? 0 : Integer.parseInt((String) stock);
+    }
+
+    // Ürün cache'i atlanarak okunur
+    private int total() {
+        Product product = productRepository.findById(productId).orElseThrow();
+        stockShardReader.aggregate(List.of(product));
+        return product.getStock();
+    }
+}